@@ -195,6 +195,10 @@ public OpenApiPlugin getOpenApi() {
    * Starts the RESTful / WebSocket API.
    */
   public void start() {
+    /* Initialize retrievers ahead of the first query. */
+    if (Config.sharedConfig().getRetriever().getWarmUpRetrievers()) {
+      retrievalLogic.warmUp();
+    }
     /* Start insecure HTTP connection. */
     if (Config.sharedConfig().getApi().getEnableRest() || Config.sharedConfig().getApi()
         .getEnableWebsocket()) {
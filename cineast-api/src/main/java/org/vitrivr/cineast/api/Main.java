@@ -41,5 +41,6 @@ public static void main(String[] args) {
     APIEndpoint.stop();
     GRPCEndpoint.stop();
     PrometheusServer.stopServer();
+    Config.sharedConfig().getDatabase().closeCottontailChannelPool();
   }
 }
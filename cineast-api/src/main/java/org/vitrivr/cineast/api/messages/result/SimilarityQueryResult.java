@@ -23,6 +23,11 @@ public class SimilarityQueryResult extends AbstractQueryResultMessage<StringDoub
    */
   private final int containerId;
 
+  /**
+   * True if this result is a provisional snapshot of a query that is still running and will be superseded by later results for the same category and container.
+   */
+  private final boolean provisional;
+
   /**
    * Constructor for the SimilarityQueryResult object.
    *
@@ -33,9 +38,23 @@ public class SimilarityQueryResult extends AbstractQueryResultMessage<StringDoub
    */
   @JsonCreator
   public SimilarityQueryResult(String queryId, String category, int containerId, List<StringDoublePair> content) {
+    this(queryId, category, containerId, content, false);
+  }
+
+  /**
+   * Constructor for the SimilarityQueryResult object.
+   *
+   * @param queryId     String representing the ID of the query to which this part of the result message.
+   * @param category    String category to which this result belongs.
+   * @param containerId int id of the temporal container to which this result belongs.
+   * @param content     List of {@link StringDoublePair} of the segments belonging to this result with their respective score.
+   * @param provisional True if this result will be superseded once the query completes.
+   */
+  public SimilarityQueryResult(String queryId, String category, int containerId, List<StringDoublePair> content, boolean provisional) {
     super(queryId, StringDoublePair.class, content);
     this.category = category;
     this.containerId = containerId;
+    this.provisional = provisional;
   }
 
   public int getContainerId() {
@@ -46,6 +65,10 @@ public String getCategory() {
     return category;
   }
 
+  public boolean isProvisional() {
+    return provisional;
+  }
+
   /**
    * {@inheritDoc}
    */
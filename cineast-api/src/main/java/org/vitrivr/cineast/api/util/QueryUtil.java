@@ -5,7 +5,6 @@
 
 import gnu.trove.map.hash.TObjectDoubleHashMap;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +20,7 @@
 import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
 import org.vitrivr.cineast.core.data.providers.primitive.StringTypeProvider;
 import org.vitrivr.cineast.core.data.query.containers.AbstractQueryTermContainer;
+import org.vitrivr.cineast.core.data.score.ScoreAccumulator;
 import org.vitrivr.cineast.core.data.score.SegmentScoreElement;
 import org.vitrivr.cineast.core.data.tag.Tag;
 import org.vitrivr.cineast.core.db.DBSelector;
@@ -74,7 +74,7 @@ public static HashMap<String, ArrayList<Pair<AbstractQueryTermContainer, Readabl
   public static List<StringDoublePair> retrieveCategory(
       ContinuousRetrievalLogic continuousRetrievalLogic,
       List<Pair<AbstractQueryTermContainer, ReadableQueryConfig>> queryContainers, String category) {
-    TObjectDoubleHashMap<String> scoreBySegmentId = new TObjectDoubleHashMap<>();
+    ScoreAccumulator scoreBySegmentId = new ScoreAccumulator();
     for (Pair<AbstractQueryTermContainer, ReadableQueryConfig> pair : queryContainers) {
 
       if (pair == null) {
@@ -94,33 +94,18 @@ public static List<StringDoublePair> retrieveCategory(
       }
 
       for (SegmentScoreElement element : scoreResults) {
-        String segmentId = element.getSegmentId();
         double score = element.getScore();
         if (Double.isInfinite(score) || Double.isNaN(score)) {
           continue;
         }
-        double weightedScore = score * weight;
-        scoreBySegmentId.adjustOrPutValue(segmentId, weightedScore, weightedScore);
+        scoreBySegmentId.add(element.getSegmentId(), score * weight);
       }
 
     }
-    final List<StringDoublePair> list = new ArrayList<>(scoreBySegmentId.size());
-    scoreBySegmentId.forEachEntry((segmentId, score) -> {
-      if (score > 0) {
-        list.add(new StringDoublePair(segmentId, score));
-      }
-      return true;
-    });
-
-    Collections.sort(list, StringDoublePair.COMPARATOR);
 
     final int MAX_RESULTS = queryContainers.get(0).second.getMaxResults()
         .orElse(Config.sharedConfig().getRetriever().getMaxResults());
-    List<StringDoublePair> resultList = list;
-    if (list.size() > MAX_RESULTS) {
-      resultList = resultList.subList(0, MAX_RESULTS);
-    }
-    return resultList;
+    return scoreBySegmentId.topK(MAX_RESULTS, 0d, StringDoublePair::new);
   }
 
   public static List<StringDoublePair> retrieve(ContinuousRetrievalLogic continuousRetrievalLogic,
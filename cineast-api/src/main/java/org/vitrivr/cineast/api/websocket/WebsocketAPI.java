@@ -81,6 +81,8 @@ public void shutdown() {
       e.printStackTrace();
     }
     EXECUTORS.shutdownNow();
+    TemporalQueryMessageHandler.shutdown();
+    WebsocketExecutor.shared().shutdown();
   }
 
   /**
@@ -104,6 +106,7 @@ public void connected(Session session) {
   @OnWebSocketClose
   public void closed(Session session, int statusCode, String reason) {
     SESSIONS.remove(session);
+    WebsocketExecutor.shared().closed(session);
     LOGGER.debug("Connection of session closed (Code: {}, Reason: {}).", statusCode, reason);
   }
 
@@ -0,0 +1,239 @@
+package org.vitrivr.cineast.api.websocket;
+
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.eclipse.jetty.websocket.api.Session;
+import org.eclipse.jetty.websocket.api.StatusCode;
+import org.vitrivr.cineast.core.util.LogHelper;
+import org.vitrivr.cineast.standalone.config.APIConfig;
+import org.vitrivr.cineast.standalone.config.Config;
+import org.vitrivr.cineast.standalone.monitoring.WebsocketTaskMonitor;
+
+/**
+ * A bounded executor shared by all WebSocket sessions, used to load metadata and to stream results back to the client.
+ * <p>
+ * Every session may only occupy a limited number of workers at a time; further tasks of that session wait until one of its tasks completes, so that a single session cannot starve the others. In addition, the number of messages a session may have in flight is limited, which blocks writers of slow clients instead of buffering an unbounded number of messages.
+ */
+public final class WebsocketExecutor {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /**
+   * Maximum time a writer waits for its session to accept further writes before the session is considered unresponsive and closed.
+   */
+  private static final long WRITE_TIMEOUT_MS = 60_000;
+
+  private static final WebsocketExecutor SHARED;
+
+  static {
+    final APIConfig config = Config.sharedConfig().getApi();
+    SHARED = new WebsocketExecutor(config.getWebsocketWorkerThreads(), config.getWebsocketTasksPerSession(), config.getWebsocketPendingWritesPerSession());
+  }
+
+  /**
+   * @return The {@link WebsocketExecutor} shared by all WebSocket handlers.
+   */
+  public static WebsocketExecutor shared() {
+    return SHARED;
+  }
+
+  private final ThreadPoolExecutor executor;
+
+  private final int tasksPerSession;
+
+  private final int pendingWritesPerSession;
+
+  private final Map<Session, SessionState> sessions = new ConcurrentHashMap<>();
+
+  private final AtomicInteger running = new AtomicInteger();
+
+  private final AtomicInteger queued = new AtomicInteger();
+
+  private WebsocketExecutor(int threads, int tasksPerSession, int pendingWritesPerSession) {
+    final AtomicInteger counter = new AtomicInteger();
+    this.executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+      final Thread thread = new Thread(r, "websocket-worker-" + counter.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.allowCoreThreadTimeOut(true);
+    this.tasksPerSession = Math.max(1, tasksPerSession);
+    this.pendingWritesPerSession = Math.max(1, pendingWritesPerSession);
+  }
+
+  /**
+   * Submits a task on behalf of the given session. The task is started as soon as a worker is available and the session does not exceed its share of workers.
+   * <p>
+   * Failures of the task are logged; the returned future completes normally either way, so that a failed metadata lookup does not abort the query it belongs to.
+   *
+   * @param session The {@link Session} the task works for.
+   * @param name    Name of the task, used as thread name while it runs.
+   * @param task    The task.
+   * @return Future that completes once the task has completed.
+   */
+  public CompletableFuture<Void> submit(Session session, String name, Runnable task) {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    final SessionState state = this.sessions.computeIfAbsent(session, s -> new SessionState(this.pendingWritesPerSession));
+    final Runnable wrapped = () -> {
+      this.queued.decrementAndGet();
+      this.running.incrementAndGet();
+      this.report();
+      final Thread thread = Thread.currentThread();
+      final String threadName = thread.getName();
+      thread.setName(name);
+      final long start = System.currentTimeMillis();
+      try {
+        task.run();
+      } catch (Throwable t) {
+        LOGGER.error("WebSocket task {} failed: {}", name, LogHelper.getStackTrace(t));
+      } finally {
+        thread.setName(threadName);
+        WebsocketTaskMonitor.reportTaskTime(System.currentTimeMillis() - start);
+        this.running.decrementAndGet();
+        this.report();
+        future.complete(null);
+        this.completed(session, state);
+      }
+    };
+    this.queued.incrementAndGet();
+    final boolean dispatch;
+    synchronized (state) {
+      dispatch = state.running < this.tasksPerSession;
+      if (dispatch) {
+        state.running += 1;
+      } else {
+        state.waiting.add(wrapped);
+      }
+    }
+    if (dispatch) {
+      this.dispatch(wrapped);
+    }
+    this.report();
+    return future;
+  }
+
+  /**
+   * Blocks until the given session accepts another message, i.e. until fewer than the configured number of messages of that session are in flight.
+   * <p>
+   * No write is granted for sessions that have been closed. If the session does not accept another message within {@link #WRITE_TIMEOUT_MS}, it is considered unresponsive and closed.
+   *
+   * @return Action that must be run exactly once, after the message has been written or failed. Empty if the message must not be written.
+   */
+  public Optional<Runnable> acquireWrite(Session session) {
+    SessionState state = this.sessions.get(session);
+    if (state == null) {
+      if (!session.isOpen()) {
+        return Optional.empty();
+      }
+      /* Sessions that write without having submitted a task yet; removed again by closed(Session). */
+      state = this.sessions.computeIfAbsent(session, s -> new SessionState(this.pendingWritesPerSession));
+    }
+    final Semaphore writes = state.writes;
+    if (writes.tryAcquire()) {
+      return Optional.of(writes::release);
+    }
+    final long start = System.currentTimeMillis();
+    try {
+      if (writes.tryAcquire(WRITE_TIMEOUT_MS, TimeUnit.MILLISECONDS)) {
+        WebsocketTaskMonitor.reportWriteWait(System.currentTimeMillis() - start);
+        return Optional.of(writes::release);
+      }
+      if (session.isOpen()) {
+        LOGGER.warn("Session did not accept further messages within {} ms; closing it.", WRITE_TIMEOUT_MS);
+        session.close(StatusCode.POLICY_VIOLATION, "Client did not accept messages within " + WRITE_TIMEOUT_MS + " ms.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Forgets about a closed session. Tasks of that session that are still waiting will run nevertheless.
+   */
+  public void closed(Session session) {
+    final SessionState state = this.sessions.get(session);
+    if (state == null) {
+      return;
+    }
+    synchronized (state) {
+      if (state.running == 0) {
+        this.sessions.remove(session, state);
+      }
+    }
+  }
+
+  /**
+   * Shuts down this {@link WebsocketExecutor}; tasks submitted afterwards run on the calling thread.
+   */
+  public void shutdown() {
+    this.executor.shutdown();
+    try {
+      this.executor.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    this.executor.shutdownNow();
+  }
+
+  private void completed(Session session, SessionState state) {
+    final Runnable next;
+    synchronized (state) {
+      next = state.waiting.poll();
+      if (next == null) {
+        state.running -= 1;
+        if (state.running == 0 && !session.isOpen()) {
+          this.sessions.remove(session, state);
+        }
+      }
+    }
+    if (next != null) {
+      this.dispatch(next);
+    }
+  }
+
+  private void dispatch(Runnable task) {
+    try {
+      this.executor.execute(task);
+    } catch (RejectedExecutionException e) {
+      task.run();
+    }
+  }
+
+  private void report() {
+    WebsocketTaskMonitor.reportTasks(this.running.get(), this.queued.get());
+  }
+
+  private static final class SessionState {
+
+    /**
+     * Tasks of this session that wait for one of its running tasks to complete.
+     */
+    private final ArrayDeque<Runnable> waiting = new ArrayDeque<>();
+
+    /**
+     * Limits the number of messages in flight.
+     */
+    private final Semaphore writes;
+
+    /**
+     * Number of tasks of this session that have been handed to a worker.
+     */
+    private int running = 0;
+
+    private SessionState(int pendingWrites) {
+      this.writes = new Semaphore(pendingWrites);
+    }
+  }
+}
@@ -1,6 +1,7 @@
 package org.vitrivr.cineast.api.websocket.handlers.abstracts;
 
 
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.time.StopWatch;
@@ -10,6 +11,7 @@
 import org.eclipse.jetty.websocket.api.WriteCallback;
 import org.vitrivr.cineast.api.messages.interfaces.Message;
 import org.vitrivr.cineast.api.messages.interfaces.MessageType;
+import org.vitrivr.cineast.api.websocket.WebsocketExecutor;
 import org.vitrivr.cineast.api.websocket.handlers.interfaces.WebsocketMessageHandler;
 import org.vitrivr.cineast.core.util.json.JacksonJsonProvider;
 import org.vitrivr.cineast.core.util.json.JsonWriter;
@@ -38,15 +40,25 @@ protected final CompletableFuture<Void> write(Session session, Message message)
     }
     String callbackName = Thread.currentThread().getName();
     CompletableFuture<Void> future = new CompletableFuture<>();
+    /* Blocks while too many messages of this session are in flight. */
+    Optional<Runnable> acquired = WebsocketExecutor.shared().acquireWrite(session);
+    if (!acquired.isPresent()) {
+      LOGGER.debug("Dropped {} message for a closed or unresponsive WebSocket session.", message.getMessageType());
+      future.complete(null);
+      return future;
+    }
+    Runnable release = acquired.get();
     session.getRemote().sendString(json, new WriteCallback() {
       @Override
       public void writeFailed(Throwable x) {
+        release.run();
         future.completeExceptionally(x);
         LOGGER.fatal("Failed to write {} message to WebSocket stream!", message.getMessageType());
       }
 
       @Override
       public void writeSuccess() {
+        release.run();
         future.complete(null);
         if (message.getMessageType() == MessageType.PING) {
           return;
@@ -3,14 +3,15 @@
 import com.google.common.collect.Lists;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.time.StopWatch;
 import org.apache.logging.log4j.Level;
@@ -27,6 +28,7 @@
 import org.vitrivr.cineast.api.messages.result.QueryStart;
 import org.vitrivr.cineast.api.messages.result.SimilarityQueryResult;
 import org.vitrivr.cineast.api.messages.result.TemporalQueryResult;
+import org.vitrivr.cineast.api.websocket.WebsocketExecutor;
 import org.vitrivr.cineast.api.websocket.handlers.abstracts.StatelessWebsocketMessageHandler;
 import org.vitrivr.cineast.core.config.QueryConfig;
 import org.vitrivr.cineast.core.data.StringDoublePair;
@@ -35,6 +37,7 @@
 import org.vitrivr.cineast.core.data.entities.MediaObjectMetadataDescriptor;
 import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
 import org.vitrivr.cineast.core.data.entities.MediaSegmentMetadataDescriptor;
+import org.vitrivr.cineast.core.data.score.SegmentScoreElement;
 import org.vitrivr.cineast.core.db.dao.reader.MediaObjectMetadataReader;
 import org.vitrivr.cineast.core.db.dao.reader.MediaObjectReader;
 import org.vitrivr.cineast.core.db.dao.reader.MediaSegmentMetadataReader;
@@ -175,7 +178,7 @@ protected List<MediaObjectDescriptor> loadObjects(List<String> objectIds, String
    * @param queryId   The current query id used for transmitting data back.
    * @param objectIds List of object IDs for which to lookup metadata.
    */
-  protected synchronized List<Thread> loadAndWriteObjectMetadata(Session session, String queryId, List<String> objectIds, Collection<String> objectIdsForWhichMetadataIsFetched) {
+  protected synchronized List<CompletableFuture<Void>> loadAndWriteObjectMetadata(Session session, String queryId, List<String> objectIds, Collection<String> objectIdsForWhichMetadataIsFetched) {
     if (objectIds.isEmpty()) {
       return new ArrayList<>();
     }
@@ -184,7 +187,7 @@ protected synchronized List<Thread> loadAndWriteObjectMetadata(Session session,
     if (objectIds.size() > 100_000) {
       return Lists.partition(objectIds, 100_000).stream().map(list -> loadAndWriteObjectMetadata(session, queryId, list, objectIdsForWhichMetadataIsFetched)).flatMap(Collection::stream).collect(Collectors.toList());
     }
-    Thread thread = new Thread(() -> {
+    return Lists.newArrayList(WebsocketExecutor.shared().submit(session, "metadata-retrieval-objects", () -> {
       final List<MediaObjectMetadataDescriptor> objectMetadata = this.objectMetadataReader.lookupMultimediaMetadata(objectIds);
       if (objectMetadata.isEmpty()) {
         return;
@@ -195,10 +198,7 @@ protected synchronized List<Thread> loadAndWriteObjectMetadata(Session session,
       List<CompletableFuture<Void>> futures = new ArrayList<>();
       Lists.partition(objectMetadata, 100_000).forEach(list -> futures.add(this.write(session, new MediaObjectMetadataQueryResult(queryId, list))));
       futures.forEach(CompletableFuture::join);
-    });
-    thread.setName("metadata-retrieval-objects");
-    thread.start();
-    return Collections.singletonList(thread);
+    }));
   }
 
   /**
@@ -209,7 +209,7 @@ protected synchronized List<Thread> loadAndWriteObjectMetadata(Session session,
    * @param segmentIds                          List of segment IDs for which to lookup metadata.
    * @param segmentIdsForWhichMetadataIsFetched segmentids for which metadata is already fetched
    */
-  protected synchronized List<Thread> loadAndWriteSegmentMetadata(Session session, String queryId, List<String> segmentIds, Collection<String> segmentIdsForWhichMetadataIsFetched) {
+  protected synchronized List<CompletableFuture<Void>> loadAndWriteSegmentMetadata(Session session, String queryId, List<String> segmentIds, Collection<String> segmentIdsForWhichMetadataIsFetched) {
     if (segmentIds.isEmpty()) {
       return new ArrayList<>();
     }
@@ -219,32 +219,16 @@ protected synchronized List<Thread> loadAndWriteSegmentMetadata(Session session,
     if (segmentIds.size() > 100_000) {
       return Lists.partition(segmentIds, 100_000).stream().map(list -> loadAndWriteSegmentMetadata(session, queryId, list, segmentIdsForWhichMetadataIsFetched)).flatMap(Collection::stream).collect(Collectors.toList());
     }
-    Thread fetching = new Thread(() -> {
+    return Lists.newArrayList(WebsocketExecutor.shared().submit(session, "metadata-load-write-" + queryId, () -> {
       final List<MediaSegmentMetadataDescriptor> segmentMetadata = this.segmentMetadataReader.lookupMultimediaMetadata(segmentIds);
       if (segmentMetadata.isEmpty()) {
         return;
       }
-      List<Thread> threads = new ArrayList<>();
-      AtomicInteger i = new AtomicInteger(0);
-      Lists.partition(segmentMetadata, 100_000).forEach(list -> {
-        Thread writing = new Thread(() -> {
-          this.write(session, new MediaSegmentMetadataQueryResult(queryId, list)).join();
-        });
-        writing.setName("metadata-ws-write-queryId" + i.getAndIncrement());
-        writing.start();
-        threads.add(writing);
-      });
-      for (Thread thread : threads) {
-        try {
-          thread.join();
-        } catch (InterruptedException e) {
-          LOGGER.error(e);
-        }
-      }
-    });
-    fetching.setName("metadata-load-write-" + queryId);
-    fetching.start();
-    return Lists.newArrayList(fetching);
+      /* Writes are asynchronous; the session limits how many of them are in flight. */
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      Lists.partition(segmentMetadata, 100_000).forEach(list -> futures.add(this.write(session, new MediaSegmentMetadataQueryResult(queryId, list))));
+      futures.forEach(CompletableFuture::join);
+    }));
   }
 
   /**
@@ -299,12 +283,124 @@ void submitSegmentAndObjectInformationFromIds(Session session, String queryId, L
    * @param objectIds                           Object IDs of the metadata result.
    * @param segmentIdsForWhichMetadataIsFetched Segment IDs for which the metadata was fetched and transferred.
    */
-  protected List<Thread> submitMetadata(Session session, String queryId, List<String> segmentIds, List<String> objectIds, Collection<String> segmentIdsForWhichMetadataIsFetched, Collection<String> objectIdsForWhichMetadataIsFetched) {
+  protected List<CompletableFuture<Void>> submitMetadata(Session session, String queryId, List<String> segmentIds, List<String> objectIds, Collection<String> segmentIdsForWhichMetadataIsFetched, Collection<String> objectIdsForWhichMetadataIsFetched) {
     /* Load and transmit segment & object metadata. */
-    List<Thread> segmentThreads = this.loadAndWriteSegmentMetadata(session, queryId, segmentIds, segmentIdsForWhichMetadataIsFetched);
-    List<Thread> objectThreads = this.loadAndWriteObjectMetadata(session, queryId, objectIds, objectIdsForWhichMetadataIsFetched);
-    segmentThreads.addAll(objectThreads);
-    return segmentThreads;
+    List<CompletableFuture<Void>> segmentFutures = this.loadAndWriteSegmentMetadata(session, queryId, segmentIds, segmentIdsForWhichMetadataIsFetched);
+    List<CompletableFuture<Void>> objectFutures = this.loadAndWriteObjectMetadata(session, queryId, objectIds, objectIdsForWhichMetadataIsFetched);
+    segmentFutures.addAll(objectFutures);
+    return segmentFutures;
+  }
+
+  /**
+   * Creates a listener that writes provisional results of a query that is still running to the WebSocket stream, preceded by the segment and object information they refer to. Provisional results are marked as such and superseded by the final results for the same category and container.
+   * <p>
+   * The listener never blocks the caller: snapshots are written by the {@link WebsocketExecutor}, and a snapshot that has not been written yet is replaced by a newer one.
+   *
+   * @param session     The {@link Session} object used to transmit the results.
+   * @param queryId     ID of the running query.
+   * @param category    Name of the query category.
+   * @param containerId ID of the container the results belong to.
+   * @param max         Maximum number of results per message.
+   */
+  protected ProvisionalResultWriter provisionalResultWriter(Session session, String queryId, String category, int containerId, int max) {
+    return new ProvisionalResultWriter(session, queryId, category, containerId, max);
+  }
+
+  /**
+   * Writes provisional results of a running query asynchronously. At most one snapshot waits to be written at a time and at most one worker writes snapshots of this listener at a time, so that the order of the snapshots is preserved.
+   */
+  protected final class ProvisionalResultWriter implements Consumer<List<SegmentScoreElement>> {
+
+    private final Session session;
+    private final String queryId;
+    private final String category;
+    private final int containerId;
+    private final int max;
+
+    /**
+     * Segment IDs whose segment and object information has already been written. Only accessed by the draining worker.
+     */
+    private final Set<String> announced = new HashSet<>();
+
+    /**
+     * Latest snapshot that has not been written yet, null if there is none.
+     */
+    private final AtomicReference<List<SegmentScoreElement>> latest = new AtomicReference<>();
+
+    /**
+     * True while a drain task is scheduled or running.
+     */
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+
+    /**
+     * Serializes the writing of snapshots with {@link #close()}. Guards the check of {@link #closed} and the write of a snapshot, so that no snapshot is written once the listener has been closed.
+     */
+    private final Object writeLock = new Object();
+
+    private volatile boolean closed = false;
+
+    private ProvisionalResultWriter(Session session, String queryId, String category, int containerId, int max) {
+      this.session = session;
+      this.queryId = queryId;
+      this.category = category;
+      this.containerId = containerId;
+      this.max = max;
+    }
+
+    @Override
+    public void accept(List<SegmentScoreElement> scores) {
+      if (this.closed) {
+        return;
+      }
+      if (this.latest.getAndSet(scores) != null) {
+        LOGGER.trace("Replaced stale provisional results for category {}, qid {}", this.category, this.queryId);
+      }
+      if (this.scheduled.compareAndSet(false, true)) {
+        WebsocketExecutor.shared().submit(this.session, "provisional-results-" + this.queryId, this::drain);
+      }
+    }
+
+    /**
+     * Discards snapshots that have not been written yet and ignores further snapshots. If a snapshot is being written, waits until it has been handed to the WebSocket. Must be called before the final results are written, so that no provisional results follow them.
+     */
+    public void close() {
+      synchronized (this.writeLock) {
+        this.closed = true;
+        this.latest.set(null);
+      }
+    }
+
+    private void drain() {
+      do {
+        List<SegmentScoreElement> scores;
+        while (!this.closed && (scores = this.latest.getAndSet(null)) != null) {
+          this.writeSnapshot(scores);
+        }
+        this.scheduled.set(false);
+      } while (!this.closed && this.latest.get() != null && this.scheduled.compareAndSet(false, true));
+    }
+
+    private void writeSnapshot(List<SegmentScoreElement> scores) {
+      final List<StringDoublePair> results = scores.stream()
+          .map(elem -> new StringDoublePair(elem.getSegmentId(), elem.getScore()))
+          .filter(p -> p.value > 0d)
+          .limit(this.max)
+          .collect(Collectors.toList());
+      if (results.isEmpty()) {
+        return;
+      }
+      synchronized (this.writeLock) {
+        if (this.closed || !this.session.isOpen()) {
+          return;
+        }
+        final List<String> unannounced = results.stream().map(p -> p.key).filter(this.announced::add).collect(Collectors.toList());
+        if (!unannounced.isEmpty()) {
+          AbstractQueryMessageHandler.this.submitSegmentAndObjectInformation(this.session, this.queryId, unannounced);
+        }
+        LOGGER.trace("Submitting {} provisional results for category {}, qid {}", results.size(), this.category, this.queryId);
+        AbstractQueryMessageHandler.this.write(this.session, new SimilarityQueryResult(this.queryId, this.category, this.containerId, results, true));
+      }
+    }
   }
 
   /**
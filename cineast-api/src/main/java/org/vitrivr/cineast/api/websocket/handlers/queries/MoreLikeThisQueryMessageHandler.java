@@ -37,7 +37,7 @@ public void execute(Session session, QueryConfig qconf, MoreLikeThisQuery messag
     final String queryId = qconf.getQueryId().toString();
     final HashSet<String> categoryMap = new HashSet<>(message.getCategories());
 
-    List<Thread> threads = new ArrayList<>();
+    List<CompletableFuture<Void>> metadataFutures = new ArrayList<>();
     List<CompletableFuture<Void>> futures = new ArrayList<>();
     /* Retrieve per-category results and return them. */
     for (String category : categoryMap) {
@@ -52,12 +52,10 @@ public void execute(Session session, QueryConfig qconf, MoreLikeThisQuery messag
       /* Finalize and submit per-category results. */
       futures.addAll(this.finalizeAndSubmitResults(session, queryId, category, -1, results));
 
-      List<Thread> _threads = this.submitMetadata(session, queryId, segmentIds, objectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
-      threads.addAll(_threads);
+      List<CompletableFuture<Void>> _futures = this.submitMetadata(session, queryId, segmentIds, objectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
+      metadataFutures.addAll(_futures);
     }
     futures.forEach(CompletableFuture::join);
-    for (Thread thread : threads) {
-      thread.join();
-    }
+    metadataFutures.forEach(CompletableFuture::join);
   }
 }
@@ -51,10 +51,8 @@ public void execute(Session session, QueryConfig qconf, NeighboringSegmentQuery
     CompletableFuture<Void> future = this.write(session, new MediaSegmentQueryResult(uuid, segments));
 
     /* Load and transmit segment metadata. */
-    List<Thread> threads = this.loadAndWriteSegmentMetadata(session, uuid, segments.stream().map(MediaSegmentDescriptor::getSegmentId).collect(Collectors.toList()), segmentIdsForWhichMetadataIsFetched);
-    for (Thread thread : threads) {
-      thread.join();
-    }
+    List<CompletableFuture<Void>> metadataFutures = this.loadAndWriteSegmentMetadata(session, uuid, segments.stream().map(MediaSegmentDescriptor::getSegmentId).collect(Collectors.toList()), segmentIdsForWhichMetadataIsFetched);
+    metadataFutures.forEach(CompletableFuture::join);
     future.join();
   }
 }
@@ -48,18 +48,16 @@ public void execute(Session session, QueryConfig qconf, SegmentQuery message, Se
     }
 
     List<CompletableFuture<Void>> futures = new ArrayList<>();
-    List<Thread> threads = new ArrayList<>();
+    List<CompletableFuture<Void>> metadataFutures = new ArrayList<>();
 
     /* Write segments and objects to results stream. */
     futures.add(this.write(session, new MediaSegmentQueryResult(uuid, segment)));
     futures.add(this.write(session, new MediaObjectQueryResult(uuid, object)));
 
     /* Load and transmit segment & object metadata. */
-    threads.addAll(this.loadAndWriteSegmentMetadata(session, uuid, segmentId, segmentIdsForWhichMetadataIsFetched));
-    threads.addAll(this.loadAndWriteObjectMetadata(session, uuid, objectId, objectIdsForWhichMetadataIsFetched));
-    for (Thread thread : threads) {
-      thread.join();
-    }
+    metadataFutures.addAll(this.loadAndWriteSegmentMetadata(session, uuid, segmentId, segmentIdsForWhichMetadataIsFetched));
+    metadataFutures.addAll(this.loadAndWriteObjectMetadata(session, uuid, objectId, objectIdsForWhichMetadataIsFetched));
+    metadataFutures.forEach(CompletableFuture::join);
     futures.forEach(CompletableFuture::join);
   }
 }
@@ -1,13 +1,18 @@
 package org.vitrivr.cineast.api.websocket.handlers.queries;
 
-import io.netty.util.collection.IntObjectHashMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 import org.apache.logging.log4j.LogManager;
@@ -24,6 +29,7 @@
 import org.vitrivr.cineast.core.data.query.containers.AbstractQueryTermContainer;
 import org.vitrivr.cineast.core.data.score.SegmentScoreElement;
 import org.vitrivr.cineast.core.temporal.TemporalScoring;
+import org.vitrivr.cineast.core.util.LogHelper;
 import org.vitrivr.cineast.standalone.config.Config;
 import org.vitrivr.cineast.standalone.util.ContinuousRetrievalLogic;
 
@@ -31,6 +37,35 @@ public class TemporalQueryMessageHandler extends AbstractQueryMessageHandler<Tem
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  /**
+   * Bounded pool shared by all sessions on which the containers of temporal queries wait for their retrieval results. Kept apart from the WebSocket executor, so that long-running containers cannot hold back the metadata and result messages of other sessions.
+   */
+  private static final ThreadPoolExecutor CONTAINER_EXECUTOR;
+
+  static {
+    final int threads = Math.max(1, Config.sharedConfig().getApi().getTemporalQueryThreads());
+    final AtomicInteger counter = new AtomicInteger();
+    CONTAINER_EXECUTOR = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), r -> {
+      final Thread thread = new Thread(r, "temporal-container-" + counter.getAndIncrement());
+      thread.setDaemon(true);
+      return thread;
+    });
+    CONTAINER_EXECUTOR.allowCoreThreadTimeOut(true);
+  }
+
+  /**
+   * Shuts down the pool on which the containers of temporal queries are evaluated.
+   */
+  public static void shutdown() {
+    CONTAINER_EXECUTOR.shutdown();
+    try {
+      CONTAINER_EXECUTOR.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    CONTAINER_EXECUTOR.shutdownNow();
+  }
+
   private final ContinuousRetrievalLogic continuousRetrievalLogic;
 
   public TemporalQueryMessageHandler(ContinuousRetrievalLogic retrievalLogic) {
@@ -48,19 +83,19 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
     final int resultsPerModule = Math.min(qconf.getRawResultsPerModule() == -1 ? Config.sharedConfig().getRetriever().getMaxResultsPerModule() : qconf.getResultsPerModule(), Config.sharedConfig().getRetriever().getMaxResultsPerModule());
     qconf.setResultsPerModule(resultsPerModule);
 
-    List<Thread> metadataRetrievalThreads = new ArrayList<>();
-    List<CompletableFuture<Void>> futures = new ArrayList<>();
-    List<Thread> cleanupThreads = new ArrayList<>();
+    /* Containers are evaluated concurrently, hence everything they share must be thread-safe. */
+    List<CompletableFuture<Void>> metadataRetrievalFutures = Collections.synchronizedList(new ArrayList<>());
+    List<CompletableFuture<Void>> futures = Collections.synchronizedList(new ArrayList<>());
 
     /* We need a set of segments and objects to be used for temporal scoring as well as a storage of all container results where are the index of the outer list is where container i was scored */
-    Map<Integer, List<StringDoublePair>> containerResults = new IntObjectHashMap<>();
-    Set<MediaSegmentDescriptor> segments = new HashSet<>();
+    Map<Integer, List<StringDoublePair>> containerResults = new ConcurrentHashMap<>();
+    Set<MediaSegmentDescriptor> segments = Collections.synchronizedSet(new HashSet<>());
 
-    Set<String> sentSegmentIds = new HashSet<>();
-    Set<String> sentObjectIds = new HashSet<>();
+    Set<String> sentSegmentIds = Collections.synchronizedSet(new HashSet<>());
+    Set<String> sentObjectIds = Collections.synchronizedSet(new HashSet<>());
 
     /* Each container can be evaluated in parallel, provided resouces are available */
-    List<Thread> ssqThreads = new ArrayList<>();
+    List<CompletableFuture<Void>> ssqFutures = new ArrayList<>();
 
     /* Iterate over all temporal query containers independently */
     for (int containerIdx = 0; containerIdx < message.getQueries().size(); containerIdx++) {
@@ -85,10 +120,10 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
       int lambdaFinalContainerIdx = containerIdx;
 
       /*
-       * The lightweight, but blocking logic of waiting for retrieval results is launched as a thread.
-       * The results of this thread will be awaited after all containers have started their retrieval process
+       * The lightweight, but blocking logic of waiting for retrieval results runs on the container pool; only the resulting messages and metadata lookups go through the WebSocket executor.
+       * The results of this task will be awaited after all containers have started their retrieval process
        */
-      Thread ssqThread = new Thread(() -> {
+      CompletableFuture<Void> ssqFuture = evaluateContainer("ssq-" + containerIdx, () -> {
         /* Iterate over all stages in their respective order as each term of one stage will be used as a filter for its successors */
         for (int stageIndex = 0; stageIndex < stagedSimilarityQuery.getStages().size(); stageIndex++) {
           /* Create hashmap for this stage as cache */
@@ -118,7 +153,19 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
 
             /* We retrieve the results for each category of a QueryTerm independently. The relevant ids will not yet be changed after this call as we are still in the same stage. */
             for (String category : qt.getCategories()) {
-              List<SegmentScoreElement> scores = continuousRetrievalLogic.retrieve(qc, category, stageQConf);
+              /* Interactive clients may ask for provisional results of the last stage while slower retrievers are still running. */
+              ProvisionalResultWriter progress = null;
+              if (qconf.isProgressive() && stageIndex == stagedSimilarityQuery.getStages().size() - 1) {
+                progress = this.provisionalResultWriter(session, uuid, category, lambdaFinalContainerIdx, max);
+              }
+              final List<SegmentScoreElement> scores;
+              try {
+                scores = continuousRetrievalLogic.retrieve(qc, category, stageQConf, progress);
+              } finally {
+                if (progress != null) {
+                  progress.close();
+                }
+              }
 
               final List<StringDoublePair> results = scores.stream()
                   .map(elem -> new StringDoublePair(elem.getSegmentId(), elem.getScore()))
@@ -162,8 +209,8 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
                 sentObjectIds.addAll(limitedObjectIds);
                 LOGGER.trace("Queueing finalization and result submission for last stage, container {}", lambdaFinalContainerIdx);
                 futures.addAll(this.finalizeAndSubmitResults(session, uuid, category, lambdaFinalContainerIdx, limitedResults));
-                List<Thread> _threads = this.submitMetadata(session, uuid, limitedSegmentIds, limitedObjectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
-                metadataRetrievalThreads.addAll(_threads);
+                List<CompletableFuture<Void>> _futures = this.submitMetadata(session, uuid, limitedSegmentIds, limitedObjectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
+                metadataRetrievalFutures.addAll(_futures);
               }
             }
           }
@@ -191,26 +238,17 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
           /* Return the limited results from all stages that are within the filter */
           cache.get(stageIndex).forEach((category, results) -> {
             results.removeIf(pair -> !limitedStageQConf.getRelevantSegmentIds().contains(pair.key));
-            Thread thread = new Thread(() -> {
-              LOGGER.trace("Queuing finalization & result submission for stage {} and container {}", finalStageIndex, lambdaFinalContainerIdx);
-              futures.addAll(this.finalizeAndSubmitResults(session, uuid, category, lambdaFinalContainerIdx, results));
-            });
-            thread.setName("finalization-stage" + finalStageIndex + "-" + category);
-            thread.start();
-            cleanupThreads.add(thread);
+            LOGGER.trace("Queuing finalization & result submission for stage {} and container {}", finalStageIndex, lambdaFinalContainerIdx);
+            futures.addAll(this.finalizeAndSubmitResults(session, uuid, category, lambdaFinalContainerIdx, results));
           });
         }
 
         /* There should be no carry-over from this block since temporal queries are executed independently */
         containerResults.put(lambdaFinalContainerIdx, stageResults);
       });
-      ssqThread.setName("ssq-" + containerIdx);
-      ssqThreads.add(ssqThread);
-      ssqThread.start();
-    }
-    for (Thread ssqThread : ssqThreads) {
-      ssqThread.join();
+      ssqFutures.add(ssqFuture);
     }
+    ssqFutures.forEach(CompletableFuture::join);
 
     LOGGER.debug("Starting fusion for temporal context");
     long start = System.currentTimeMillis();
@@ -248,23 +286,34 @@ public void execute(Session session, QueryConfig qconf, TemporalQuery message, S
       this.submitSegmentAndObjectInformationFromIds(session, uuid, segmentIds, objectIds);
 
       /* Retrieve and send metadata for items not already sent */
-      List<Thread> _threads = this.submitMetadata(session, uuid, segmentIds, objectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
-      metadataRetrievalThreads.addAll(_threads);
+      List<CompletableFuture<Void>> _futures = this.submitMetadata(session, uuid, segmentIds, objectIds, segmentIdsForWhichMetadataIsFetched, objectIdsForWhichMetadataIsFetched);
+      metadataRetrievalFutures.addAll(_futures);
     }
 
     /* Send scoring results to the frontend */
     if (finalResults.size() > 0) {
       futures.addAll(this.finalizeAndSubmitTemporalResults(session, uuid, finalResults));
-      futures.forEach(CompletableFuture::join);
-    }
-
-    for (Thread cleanupThread : cleanupThreads) {
-      cleanupThread.join();
     }
+    new ArrayList<>(futures).forEach(CompletableFuture::join);
+    new ArrayList<>(metadataRetrievalFutures).forEach(CompletableFuture::join);
+  }
 
-    for (Thread thread : metadataRetrievalThreads) {
-      thread.join();
-    }
+  /**
+   * Evaluates a container on the container pool. Failures are logged; the returned future completes normally either way, so that the remaining containers can still be scored.
+   */
+  private static CompletableFuture<Void> evaluateContainer(String name, Runnable task) {
+    return CompletableFuture.runAsync(() -> {
+      final Thread thread = Thread.currentThread();
+      final String threadName = thread.getName();
+      thread.setName(name);
+      try {
+        task.run();
+      } catch (Throwable t) {
+        LOGGER.error("Evaluation of temporal query container {} failed: {}", name, LogHelper.getStackTrace(t));
+      } finally {
+        thread.setName(threadName);
+      }
+    }, CONTAINER_EXECUTOR);
   }
 
 }
@@ -0,0 +1,73 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vitrivr.cineast.core.config.ReadableQueryConfig.Distance;
+import org.vitrivr.cineast.core.util.distance.FloatArrayDistance;
+
+/**
+ * Measures the {@link FloatArrayDistance} implementations by computing the distances between a query vector and a set of vectors, as done by in-memory kNN lookups: {@link #oneToMany(Blackhole)} compares pairwise, {@link #oneToManyBlock()} uses the batched API on a contiguous block.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DistanceBenchmark {
+
+  @Param({"euclidean", "squaredeuclidean", "manhattan", "cosine", "chisquared", "chebyshev"})
+  public String distance;
+
+  @Param({"64", "512", "2048"})
+  public int dimensions;
+
+  @Param({"1000"})
+  public int vectors;
+
+  private FloatArrayDistance function;
+
+  private float[] query;
+
+  private float[][] candidates;
+
+  private float[] block;
+
+  private double[] result;
+
+  @Setup
+  public void setup() {
+    this.function = FloatArrayDistance.fromDistance(Distance.valueOf(this.distance));
+    this.query = SyntheticData.vectors(1, 1, this.dimensions)[0];
+    this.candidates = SyntheticData.vectors(2, this.vectors, this.dimensions);
+    this.block = new float[this.vectors * this.dimensions];
+    for (int i = 0; i < this.vectors; i++) {
+      System.arraycopy(this.candidates[i], 0, this.block, i * this.dimensions, this.dimensions);
+    }
+    this.result = new double[this.vectors];
+  }
+
+  @Benchmark
+  public void oneToMany(Blackhole blackhole) {
+    for (float[] candidate : this.candidates) {
+      blackhole.consume(this.function.applyAsDouble(this.query, candidate));
+    }
+  }
+
+  @Benchmark
+  public double[] oneToManyBlock() {
+    this.function.applyAsDouble(this.query, this.block, 0, this.dimensions, this.vectors, this.result);
+    return this.result;
+  }
+}
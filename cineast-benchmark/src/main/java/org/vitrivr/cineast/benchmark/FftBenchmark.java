@@ -0,0 +1,68 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vitrivr.cineast.core.util.dsp.fft.FFT;
+import org.vitrivr.cineast.core.util.dsp.fft.STFT;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.HanningWindow;
+
+/**
+ * Measures {@link FFT} and {@link STFT} on synthetic audio, as used by the audio features.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FftBenchmark {
+
+  private static final float SAMPLINGRATE = 22050.0f;
+
+  @Param({"1024", "4096"})
+  public int windowsize;
+
+  /**
+   * Length of the audio processed by the STFT, in seconds.
+   */
+  @Param({"5"})
+  public int seconds;
+
+  private double[] samples;
+
+  private double[] window;
+
+  private final FFT fft = new FFT();
+
+  private final HanningWindow function = new HanningWindow();
+
+  @Setup
+  public void setup() {
+    this.samples = SyntheticData.audioSamples(1, (int) (this.seconds * SAMPLINGRATE), SAMPLINGRATE);
+    this.window = Arrays.copyOf(this.samples, this.windowsize);
+  }
+
+  @Benchmark
+  public FFT fft() {
+    this.fft.forward(this.window, SAMPLINGRATE, this.function);
+    return this.fft;
+  }
+
+  @Benchmark
+  public STFT stft() {
+    final STFT stft = new STFT(this.windowsize, this.windowsize / 2, 0, this.function, SAMPLINGRATE);
+    stft.forward(this.samples);
+    return stft;
+  }
+}
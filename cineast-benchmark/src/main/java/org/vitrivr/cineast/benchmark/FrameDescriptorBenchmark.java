@@ -0,0 +1,75 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vitrivr.cineast.core.data.frames.VideoFrame;
+import org.vitrivr.cineast.core.data.raw.images.MultiImage;
+import org.vitrivr.cineast.core.data.segments.VideoSegment;
+import org.vitrivr.cineast.core.descriptor.AvgImg;
+import org.vitrivr.cineast.core.descriptor.MedianImg;
+import org.vitrivr.cineast.core.descriptor.MostRepresentative;
+import org.vitrivr.cineast.core.extraction.segmenter.FuzzyColorHistogram;
+import org.vitrivr.cineast.core.extraction.segmenter.FuzzyColorHistogramCalculator;
+
+/**
+ * Measures the descriptors that are computed for every segment or frame during extraction.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FrameDescriptorBenchmark {
+
+  @Param({"320x240", "1280x720"})
+  public String resolution;
+
+  @Param({"25"})
+  public int frames;
+
+  private List<VideoFrame> videoFrames;
+
+  private VideoSegment segment;
+
+  @Setup
+  public void setup() {
+    final String[] size = this.resolution.split("x");
+    this.videoFrames = SyntheticData.videoFrames(1, this.frames, Integer.parseInt(size[0]), Integer.parseInt(size[1]));
+    this.segment = new VideoSegment();
+    this.videoFrames.forEach(this.segment::addVideoFrame);
+    /* The average image is cached by the segment; compute it upfront so that mostRepresentative only measures the frame selection. */
+    this.segment.getAvgImg();
+  }
+
+  @Benchmark
+  public MultiImage avgImg() {
+    return AvgImg.getAvg(this.videoFrames);
+  }
+
+  @Benchmark
+  public MultiImage medianImg() {
+    return MedianImg.getMedian(this.videoFrames);
+  }
+
+  @Benchmark
+  public VideoFrame mostRepresentative() {
+    return MostRepresentative.getMostRepresentative(this.segment);
+  }
+
+  @Benchmark
+  public FuzzyColorHistogram fuzzyColorHistogram() {
+    return FuzzyColorHistogramCalculator.getHistogramNormalized(this.videoFrames.get(0));
+  }
+}
@@ -0,0 +1,72 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
+
+/**
+ * Measures the conversion of database rows into {@link PrimitiveTypeProvider}s, as done by the selectors for every row of a result, and the subsequent extraction of the values.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrimitiveTypeProviderBenchmark {
+
+  @Param({"1000"})
+  public int rows;
+
+  @Param({"512"})
+  public int dimensions;
+
+  private List<Map<String, Object>> data;
+
+  private List<Map<String, PrimitiveTypeProvider>> converted;
+
+  @Setup
+  public void setup() {
+    this.data = SyntheticData.rows(1, this.rows, this.dimensions);
+    this.converted = this.toProviders();
+  }
+
+  @Benchmark
+  public List<Map<String, PrimitiveTypeProvider>> toProviders() {
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>(this.data.size());
+    for (Map<String, Object> row : this.data) {
+      final Map<String, PrimitiveTypeProvider> map = new HashMap<>(row.size());
+      for (Map.Entry<String, Object> column : row.entrySet()) {
+        map.put(column.getKey(), PrimitiveTypeProvider.fromObject(column.getValue()));
+      }
+      _return.add(map);
+    }
+    return _return;
+  }
+
+  @Benchmark
+  public void fromProviders(Blackhole blackhole) {
+    for (Map<String, PrimitiveTypeProvider> row : this.converted) {
+      blackhole.consume(row.get("id").getString());
+      blackhole.consume(PrimitiveTypeProvider.getSafeFloatArray(row.get("feature")));
+      blackhole.consume(row.get("distance").getDouble());
+      blackhole.consume(row.get("number").getInt());
+      blackhole.consume(row.get("exists").getBoolean());
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package org.vitrivr.cineast.benchmark;
+
+import gnu.trove.map.hash.TObjectDoubleHashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+import org.vitrivr.cineast.core.data.score.ScoreAccumulator;
+import org.vitrivr.cineast.core.data.score.SegmentScoreElement;
+import org.vitrivr.cineast.core.util.MathHelper;
+
+/**
+ * Measures the fusion of the results of several retrievers into a single, normalized top-k list of segments, as done by the ContinuousQueryDispatcher of cineast-runtime.
+ * <p>
+ * {@link #accumulator()} mirrors the current implementation, {@link #hashMapAndSort()} the previous one that sorted all candidates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScoreFusionBenchmark {
+
+  @Param({"5"})
+  public int retrievers;
+
+  @Param({"1000", "10000"})
+  public int resultsPerRetriever;
+
+  @Param({"1000"})
+  public int maxResults;
+
+  private List<List<StringDoublePair>> results;
+
+  private double[] weights;
+
+  private double weightSum;
+
+  @Setup
+  public void setup() {
+    this.results = SyntheticData.retrieverResults(1, this.retrievers, this.resultsPerRetriever, this.resultsPerRetriever * 2);
+    this.weights = new double[this.retrievers];
+    this.weightSum = 0d;
+    for (int r = 0; r < this.retrievers; r++) {
+      this.weights[r] = 1d + r * 0.5d;
+      this.weightSum += this.weights[r];
+    }
+  }
+
+  @Benchmark
+  public List<SegmentScoreElement> accumulator() {
+    final ScoreAccumulator scoreBySegmentId = new ScoreAccumulator();
+    for (int r = 0; r < this.retrievers; r++) {
+      for (StringDoublePair result : this.results.get(r)) {
+        scoreBySegmentId.add(result.key, result.value * this.weights[r]);
+      }
+    }
+    return scoreBySegmentId.topK(this.maxResults, Double.NEGATIVE_INFINITY, (segmentId, score) -> new SegmentScoreElement(segmentId, MathHelper.limit(score / this.weightSum, 0d, 1d)));
+  }
+
+  @Benchmark
+  public List<SegmentScoreElement> hashMapAndSort() {
+    final TObjectDoubleHashMap<String> scoreBySegmentId = new TObjectDoubleHashMap<>();
+    for (int r = 0; r < this.retrievers; r++) {
+      for (StringDoublePair result : this.results.get(r)) {
+        final double weightedScore = result.value * this.weights[r];
+        scoreBySegmentId.adjustOrPutValue(result.key, weightedScore, weightedScore);
+      }
+    }
+    final List<SegmentScoreElement> _return = new ArrayList<>(scoreBySegmentId.size());
+    scoreBySegmentId.forEachEntry((segmentId, score) -> {
+      _return.add(new SegmentScoreElement(segmentId, MathHelper.limit(score / this.weightSum, 0d, 1d)));
+      return true;
+    });
+    _return.sort(Comparator.comparingDouble(SegmentScoreElement::getScore).reversed());
+    return _return.subList(0, Math.min(this.maxResults, _return.size()));
+  }
+}
@@ -0,0 +1,155 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.data.frames.VideoDescriptor;
+import org.vitrivr.cineast.core.data.frames.VideoFrame;
+import org.vitrivr.cineast.core.data.raw.CachedDataFactory;
+import org.vitrivr.cineast.core.data.raw.images.MultiImage;
+
+/**
+ * Generators for the synthetic data the benchmarks operate on. All generators are deterministic for a given seed, so that results of different runs and versions are comparable.
+ */
+public final class SyntheticData {
+
+  private SyntheticData() {
+  }
+
+  /**
+   * @return Vectors of the given dimensionality with components uniformly distributed in [0, 1).
+   */
+  public static float[][] vectors(long seed, int count, int dimensions) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final float[][] _return = new float[count][dimensions];
+    for (float[] vector : _return) {
+      for (int i = 0; i < dimensions; i++) {
+        vector[i] = (float) random.nextDouble();
+      }
+    }
+    return _return;
+  }
+
+  /**
+   * Generates a sequence of video frames that show a few colored blocks slowly moving over a noisy background, which resembles the statistics of real footage more closely than uniform noise.
+   */
+  public static List<VideoFrame> videoFrames(long seed, int count, int width, int height) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final VideoDescriptor descriptor = new VideoDescriptor(25, count * 40L, width, height);
+    final int[] blockColors = new int[4];
+    for (int b = 0; b < blockColors.length; b++) {
+      blockColors[b] = random.nextInt(0x1000000);
+    }
+    final List<VideoFrame> _return = new ArrayList<>(count);
+    for (int f = 0; f < count; f++) {
+      final int[] colors = new int[width * height];
+      for (int y = 0; y < height; y++) {
+        for (int x = 0; x < width; x++) {
+          final int block = (((x + f) * 2 / width) + (y * 2 / height) * 2) % blockColors.length;
+          final int noise = random.nextInt(16);
+          colors[y * width + x] = 0xFF000000 | (blockColors[block] + (noise << 16) + (noise << 8) + noise) & 0xFFFFFF;
+        }
+      }
+      final MultiImage image = CachedDataFactory.getDefault().newInMemoryMultiImage(width, height, colors);
+      _return.add(new VideoFrame(f, f * 40L, image, descriptor));
+    }
+    return _return;
+  }
+
+  /**
+   * @return Mono audio samples in [-1, 1] that consist of a few sine tones plus noise.
+   */
+  public static double[] audioSamples(long seed, int count, float samplingrate) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final double[] frequencies = {110.0, 440.0, 1250.0, 3300.0};
+    final double[] _return = new double[count];
+    for (int i = 0; i < count; i++) {
+      double sample = 0.0;
+      for (double frequency : frequencies) {
+        sample += Math.sin(2.0 * Math.PI * frequency * i / samplingrate) / frequencies.length;
+      }
+      _return[i] = 0.9 * sample + 0.1 * (2.0 * random.nextDouble() - 1.0);
+    }
+    return _return;
+  }
+
+  /**
+   * Generates the per-retriever results of a query: every retriever returns the given number of segments, drawn from a pool of segment ids, with scores in [0, 1).
+   */
+  public static List<List<StringDoublePair>> retrieverResults(long seed, int retrievers, int resultsPerRetriever, int segmentPool) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final List<List<StringDoublePair>> _return = new ArrayList<>(retrievers);
+    for (int r = 0; r < retrievers; r++) {
+      final List<StringDoublePair> results = new ArrayList<>(resultsPerRetriever);
+      for (int i = 0; i < resultsPerRetriever; i++) {
+        results.add(new StringDoublePair(segmentId(random.nextInt(segmentPool / 100 + 1), random.nextInt(100) + 1), random.nextDouble()));
+      }
+      _return.add(results);
+    }
+    return _return;
+  }
+
+  /**
+   * Generates the segments of the given number of objects. Segments are consecutive, 40 frames and 1.6 seconds long.
+   */
+  public static Map<String, MediaSegmentDescriptor> segments(int objects, int segmentsPerObject) {
+    final Map<String, MediaSegmentDescriptor> _return = new HashMap<>(objects * segmentsPerObject * 2);
+    for (int o = 0; o < objects; o++) {
+      final String objectId = objectId(o);
+      for (int s = 1; s <= segmentsPerObject; s++) {
+        final String segmentId = segmentId(o, s);
+        _return.put(segmentId, new MediaSegmentDescriptor(objectId, segmentId, s, (s - 1) * 40, s * 40, (s - 1) * 1.6f, s * 1.6f, true));
+      }
+    }
+    return _return;
+  }
+
+  /**
+   * Generates the results of the stages of a temporal query: every stage scores a random fraction of the given segments.
+   */
+  public static List<List<StringDoublePair>> temporalResults(long seed, Map<String, MediaSegmentDescriptor> segments, int stages, double hitRate) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final List<List<StringDoublePair>> _return = new ArrayList<>(stages);
+    for (int c = 0; c < stages; c++) {
+      final List<StringDoublePair> results = new ArrayList<>();
+      for (String segmentId : segments.keySet()) {
+        if (random.nextDouble() < hitRate) {
+          results.add(new StringDoublePair(segmentId, random.nextDouble()));
+        }
+      }
+      _return.add(results);
+    }
+    return _return;
+  }
+
+  /**
+   * Generates rows as returned by a database: an id, a feature vector and a few scalar columns.
+   */
+  public static List<Map<String, Object>> rows(long seed, int count, int dimensions) {
+    final SplittableRandom random = new SplittableRandom(seed);
+    final float[][] vectors = vectors(seed, count, dimensions);
+    final List<Map<String, Object>> _return = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      final Map<String, Object> row = new HashMap<>();
+      row.put("id", segmentId(i / 100, i % 100 + 1));
+      row.put("feature", vectors[i]);
+      row.put("distance", random.nextDouble());
+      row.put("number", random.nextInt());
+      row.put("exists", random.nextBoolean());
+      _return.add(row);
+    }
+    return _return;
+  }
+
+  public static String objectId(int object) {
+    return "v_" + object;
+  }
+
+  public static String segmentId(int object, int segment) {
+    return objectId(object) + "_" + segment;
+  }
+}
@@ -0,0 +1,90 @@
+package org.vitrivr.cineast.benchmark;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+import org.vitrivr.cineast.core.data.TemporalObject;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.temporal.sequential.DynamicSequentialTemporalScoringAlgorithm;
+import org.vitrivr.cineast.core.temporal.sequential.SequentialTemporalScoringAlgorithm;
+import org.vitrivr.cineast.core.temporal.timedistance.TimeDistanceTemporalScoringAlgorithm;
+
+/**
+ * Measures the temporal scoring algorithms on the results of a temporal query with several stages.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TemporalScoringBenchmark {
+
+  @Param({"3"})
+  public int stages;
+
+  @Param({"100"})
+  public int objects;
+
+  @Param({"40"})
+  public int segmentsPerObject;
+
+  /**
+   * Fraction of the segments every stage scores.
+   */
+  @Param({"0.2", "0.6"})
+  public double hitRate;
+
+  /**
+   * Maximum length of a sequence in seconds; negative values mean unlimited.
+   */
+  @Param({"-1", "30"})
+  public float maxLength;
+
+  private Map<String, MediaSegmentDescriptor> segments;
+
+  private List<List<StringDoublePair>> results;
+
+  private List<Float> timeDistances;
+
+  @Setup
+  public void setup() {
+    this.segments = SyntheticData.segments(this.objects, this.segmentsPerObject);
+    this.results = SyntheticData.temporalResults(1, this.segments, this.stages, this.hitRate);
+    this.timeDistances = new ArrayList<>(Collections.nCopies(this.stages - 1, 5f));
+  }
+
+  @Benchmark
+  public List<TemporalObject> sequential() {
+    return new SequentialTemporalScoringAlgorithm(this.segments, this.results, this.effectiveMaxLength()).score();
+  }
+
+  @Benchmark
+  public List<TemporalObject> dynamicSequential() {
+    return new DynamicSequentialTemporalScoringAlgorithm(this.segments, this.results, this.effectiveMaxLength()).score();
+  }
+
+  @Benchmark
+  public List<TemporalObject> timeDistance() {
+    return new TimeDistanceTemporalScoringAlgorithm(this.segments, this.results, this.effectiveMaxLength(), this.timeDistances).score();
+  }
+
+  /* Same as TemporalScoring. */
+  private float effectiveMaxLength() {
+    return this.maxLength < 0 ? Float.MAX_VALUE : this.maxLength;
+  }
+}
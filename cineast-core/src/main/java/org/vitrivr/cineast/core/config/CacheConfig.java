@@ -24,6 +24,7 @@ public final class CacheConfig {
 
 	private Policy cachingPolicy =  Policy.AUTOMATIC;
 	private Path cacheLocation = Paths.get(".");
+	private boolean offHeapFrames = false;
 	private final UUID uuid = UUID.randomUUID();
 	private CachedDataFactory factory;
 
@@ -95,6 +96,17 @@ public void setCacheLocation(Path cacheLocation) {
 		this.cacheLocation = cacheLocation;
 	}
 
+	/**
+	 * @return true if images that are not kept in memory should be held in direct buffers outside the Java heap instead of being cached to disk
+	 */
+	@JsonProperty
+	public final boolean isOffHeapFrames() {
+		return this.offHeapFrames;
+	}
+	public void setOffHeapFrames(boolean offHeapFrames) {
+		this.offHeapFrames = offHeapFrames;
+	}
+
 	/**
 	 * Returns the UUID of this {@link CacheConfig}.
 	 *
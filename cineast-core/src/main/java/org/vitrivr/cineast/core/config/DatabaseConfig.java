@@ -5,20 +5,32 @@
 import org.vitrivr.cineast.core.db.DBSelectorSupplier;
 import org.vitrivr.cineast.core.db.NoDBSelector;
 import org.vitrivr.cineast.core.db.NoDBWriter;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
 import org.vitrivr.cineast.core.db.PersistencyWriterSupplier;
 import org.vitrivr.cineast.core.db.adampro.*;
+import org.vitrivr.cineast.core.db.cache.CacheInvalidatingWriter;
+import org.vitrivr.cineast.core.db.cache.CachingDBSelector;
+import org.vitrivr.cineast.core.db.cache.QueryResultCache;
+import org.vitrivr.cineast.core.db.cottontaildb.CottontailChannelPool;
 import org.vitrivr.cineast.core.db.cottontaildb.CottontailEntityCreator;
 import org.vitrivr.cineast.core.db.cottontaildb.CottontailSelector;
 import org.vitrivr.cineast.core.db.cottontaildb.CottontailWrapper;
 import org.vitrivr.cineast.core.db.cottontaildb.CottontailWriter;
+import org.vitrivr.cineast.core.db.dao.writer.BulkExistenceCheckingWriter;
+import org.vitrivr.cineast.core.db.dao.writer.WriteBehindWriter;
 import org.vitrivr.cineast.core.db.json.JsonFileWriter;
 import org.vitrivr.cineast.core.db.json.JsonSelector;
 import org.vitrivr.cineast.core.db.memory.InMemoryEntityCreator;
+import org.vitrivr.cineast.core.db.memory.InMemorySelector;
 import org.vitrivr.cineast.core.db.memory.InMemoryWriter;
 import org.vitrivr.cineast.core.db.setup.EntityCreator;
 import org.vitrivr.cineast.core.db.setup.NoEntityCreator;
 
 import java.io.File;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 
 public final class DatabaseConfig {
@@ -32,6 +44,9 @@ public final class DatabaseConfig {
   public static final int DEFAULT_PORT = 5890;
   public static final boolean DEFAULT_PLAINTEXT = true;
   public static final boolean SINGLE_CONNECTION = true;
+  public static final int DEFAULT_WRITE_BEHIND_QUEUE_SIZE = 10_000;
+  public static final int DEFAULT_CHANNEL_POOL_SIZE = 4;
+  public static final long DEFAULT_KEEP_ALIVE_TIME = 300_000;
 
   private String host = DEFAULT_HOST;
   private int port = DEFAULT_PORT;
@@ -41,6 +56,41 @@ public final class DatabaseConfig {
 
   private Integer batchsize = DEFAULT_BATCH_SIZE;
 
+  /**
+   * Maximum number of query results held by the {@link QueryResultCache}; 0 disables the cache.
+   */
+  private int queryCacheSize = 0;
+
+  /**
+   * Number of threads that persist tuples in the background; 0 disables write-behind and persists synchronously.
+   */
+  private int writeBehindThreads = 0;
+
+  /**
+   * Maximum number of tuples each writer queues for write-behind before persisting blocks.
+   */
+  private int writeBehindQueueSize = DEFAULT_WRITE_BEHIND_QUEUE_SIZE;
+
+  /**
+   * Number of gRPC channels shared by all Cottontail DB selectors, writers and entity creators.
+   */
+  private int channelPoolSize = DEFAULT_CHANNEL_POOL_SIZE;
+
+  /**
+   * Time in milliseconds without activity after which a gRPC keep-alive ping is sent; 0 disables keep-alive. Servers typically reject pings more frequent than every five minutes.
+   */
+  private long keepAliveTime = DEFAULT_KEEP_ALIVE_TIME;
+
+  /**
+   * Deadline in milliseconds for every gRPC call that does not specify one; 0 disables the deadline.
+   */
+  private long callDeadline = 0;
+
+  /**
+   * Whether writers load all ids of their entity at once to answer existence checks locally.
+   */
+  private boolean bulkExistenceCheck = false;
+
   private static final PersistencyWriterSupplier NO_WRITER_SUPPLY = NoDBWriter::new;
 
   private static final DBSelectorSupplier NO_SELECTOR_SUPPLY = NoDBSelector::new;
@@ -73,12 +123,17 @@ private synchronized void ensureAdamProWrapper(){
       }
   }
 
-  private CottontailWrapper cottontailWrapper = null;
+  private CottontailChannelPool cottontailChannelPool = null;
+
+  private QueryResultCache queryResultCache = null;
 
-  private synchronized void ensureCottontailWrapper(){
-      if (this.cottontailWrapper == null){
-          this.cottontailWrapper = new CottontailWrapper(this, true);
+  private ExecutorService writeBehindExecutor = null;
+
+  private synchronized CottontailChannelPool ensureCottontailChannelPool(){
+      if (this.cottontailChannelPool == null){
+          this.cottontailChannelPool = new CottontailChannelPool(this);
       }
+      return this.cottontailChannelPool;
   }
 
   @JsonCreator
@@ -146,7 +201,167 @@ public void setSelector(Selector selector) {
     this.selector = selector;
   }
 
+  @JsonProperty
+  public int getQueryCacheSize() {
+    return this.queryCacheSize;
+  }
+
+  public void setQueryCacheSize(int queryCacheSize) {
+    if (queryCacheSize < 0) {
+      throw new IllegalArgumentException("Query cache size cannot be negative");
+    }
+    this.queryCacheSize = queryCacheSize;
+  }
+
+  /**
+   * Returns the {@link QueryResultCache} shared by all selectors and writers of this {@link DatabaseConfig}, if it is enabled.
+   *
+   * @return Optional {@link QueryResultCache}
+   */
+  public synchronized Optional<QueryResultCache> getQueryResultCache() {
+    if (this.queryCacheSize <= 0) {
+      return Optional.empty();
+    }
+    if (this.queryResultCache == null) {
+      this.queryResultCache = new QueryResultCache(this.queryCacheSize);
+    }
+    return Optional.of(this.queryResultCache);
+  }
+
+  @JsonProperty
+  public int getWriteBehindThreads() {
+    return this.writeBehindThreads;
+  }
+
+  public void setWriteBehindThreads(int writeBehindThreads) {
+    if (writeBehindThreads < 0) {
+      throw new IllegalArgumentException("Number of write-behind threads cannot be negative");
+    }
+    this.writeBehindThreads = writeBehindThreads;
+  }
+
+  @JsonProperty
+  public int getWriteBehindQueueSize() {
+    return this.writeBehindQueueSize;
+  }
+
+  public void setWriteBehindQueueSize(int writeBehindQueueSize) {
+    if (writeBehindQueueSize < 1) {
+      throw new IllegalArgumentException("Write-behind queue size must be positive");
+    }
+    this.writeBehindQueueSize = writeBehindQueueSize;
+  }
+
+  @JsonProperty
+  public int getChannelPoolSize() {
+    return this.channelPoolSize;
+  }
+
+  public void setChannelPoolSize(int channelPoolSize) {
+    if (channelPoolSize < 1) {
+      throw new IllegalArgumentException("Channel pool size must be positive");
+    }
+    this.channelPoolSize = channelPoolSize;
+  }
+
+  @JsonProperty
+  public long getKeepAliveTime() {
+    return this.keepAliveTime;
+  }
+
+  public void setKeepAliveTime(long keepAliveTime) {
+    this.keepAliveTime = keepAliveTime;
+  }
+
+  @JsonProperty
+  public long getCallDeadline() {
+    return this.callDeadline;
+  }
+
+  public void setCallDeadline(long callDeadline) {
+    this.callDeadline = callDeadline;
+  }
+
+  /**
+   * Returns the {@link CottontailChannelPool} shared by the Cottontail DB selectors, writers and entity creators of this {@link DatabaseConfig}, if one has been opened.
+   *
+   * @return Optional {@link CottontailChannelPool}
+   */
+  public synchronized Optional<CottontailChannelPool> getCottontailChannelPool() {
+    return Optional.ofNullable(this.cottontailChannelPool);
+  }
+
+  /**
+   * Closes the {@link CottontailChannelPool} of this {@link DatabaseConfig}, if one has been opened. Selectors, writers and entity creators created afterwards open a new one.
+   */
+  public synchronized void closeCottontailChannelPool() {
+    if (this.cottontailChannelPool != null) {
+      this.cottontailChannelPool.close();
+      this.cottontailChannelPool = null;
+    }
+  }
+
+  @JsonProperty
+  public boolean getBulkExistenceCheck() {
+    return this.bulkExistenceCheck;
+  }
+
+  public void setBulkExistenceCheck(boolean bulkExistenceCheck) {
+    this.bulkExistenceCheck = bulkExistenceCheck;
+  }
+
+  /**
+   * Returns the {@link ExecutorService} shared by all {@link WriteBehindWriter}s of this {@link DatabaseConfig}, if write-behind is enabled.
+   *
+   * @return Optional {@link ExecutorService}
+   */
+  private synchronized Optional<ExecutorService> getWriteBehindExecutor() {
+    if (this.writeBehindThreads <= 0) {
+      return Optional.empty();
+    }
+    if (this.writeBehindExecutor == null) {
+      final AtomicInteger count = new AtomicInteger();
+      this.writeBehindExecutor = Executors.newFixedThreadPool(this.writeBehindThreads, r -> {
+        final Thread thread = new Thread(r, "write-behind-thread-" + count.getAndIncrement());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    return Optional.of(this.writeBehindExecutor);
+  }
+
   public synchronized PersistencyWriterSupplier getWriterSupplier() {
+    final PersistencyWriterSupplier supplier = this.getUncachedWriterSupplier();
+    final Optional<QueryResultCache> cache = this.getQueryResultCache();
+    final PersistencyWriterSupplier invalidatingSupplier = cache.isPresent() ? () -> invalidating(supplier.get(), cache.get()) : supplier;
+    final Optional<ExecutorService> executor = this.getWriteBehindExecutor();
+    final PersistencyWriterSupplier writeBehindSupplier;
+    if (executor.isPresent()) {
+      final int queueSize = this.writeBehindQueueSize;
+      writeBehindSupplier = () -> writeBehind(invalidatingSupplier.get(), executor.get(), queueSize);
+    } else {
+      writeBehindSupplier = invalidatingSupplier;
+    }
+    if (this.bulkExistenceCheck) {
+      final DBSelectorSupplier selectorSupplier = this.getUncachedSelectorSupplier();
+      return () -> bulkExistenceChecking(writeBehindSupplier.get(), selectorSupplier);
+    }
+    return writeBehindSupplier;
+  }
+
+  private static <R> PersistencyWriter<R> invalidating(PersistencyWriter<R> writer, QueryResultCache cache) {
+    return new CacheInvalidatingWriter<>(writer, cache);
+  }
+
+  private static <R> PersistencyWriter<R> bulkExistenceChecking(PersistencyWriter<R> writer, DBSelectorSupplier selectorSupplier) {
+    return new BulkExistenceCheckingWriter<>(writer, selectorSupplier);
+  }
+
+  private static <R> PersistencyWriter<R> writeBehind(PersistencyWriter<R> writer, ExecutorService executor, int queueSize) {
+    return new WriteBehindWriter<>(writer, executor, queueSize);
+  }
+
+  private PersistencyWriterSupplier getUncachedWriterSupplier() {
     switch (this.writer) {
       case NONE:
         return NO_WRITER_SUPPLY;
@@ -162,8 +377,8 @@ public synchronized PersistencyWriterSupplier getWriterSupplier() {
       }
       case COTTONTAIL: {
           if (SINGLE_CONNECTION){
-              ensureCottontailWrapper();
-              return () -> new CottontailWriter(this.cottontailWrapper);
+              ensureCottontailChannelPool();
+              return () -> new CottontailWriter(new CottontailWrapper(this.ensureCottontailChannelPool()));
           }
           return () -> new CottontailWriter(new CottontailWrapper(this, false));
       }
@@ -177,6 +392,15 @@ public synchronized PersistencyWriterSupplier getWriterSupplier() {
   }
 
   public synchronized DBSelectorSupplier getSelectorSupplier() {
+    final DBSelectorSupplier supplier = this.getUncachedSelectorSupplier();
+    final Optional<QueryResultCache> cache = this.getQueryResultCache();
+    if (cache.isPresent()) {
+      return () -> new CachingDBSelector(supplier.get(), cache.get());
+    }
+    return supplier;
+  }
+
+  private DBSelectorSupplier getUncachedSelectorSupplier() {
     switch (this.selector) {
       case ADAMPRO:{
           if (SINGLE_CONNECTION){
@@ -199,11 +423,14 @@ public synchronized DBSelectorSupplier getSelectorSupplier() {
         return NO_SELECTOR_SUPPLY;
       case COTTONTAIL:{
           if (SINGLE_CONNECTION){
-              ensureCottontailWrapper();
-              return () -> new CottontailSelector(this.cottontailWrapper);
+              ensureCottontailChannelPool();
+              return () -> new CottontailSelector(new CottontailWrapper(this.ensureCottontailChannelPool()));
           }
           return () -> new CottontailSelector(new CottontailWrapper(this, false));
       }
+      case INMEMORY: {
+        return InMemorySelector::new;
+      }
       default:
         throw new IllegalStateException("No supplier for selector " + this.selector);
 
@@ -224,8 +451,8 @@ public synchronized Supplier<EntityCreator> getEntityCreatorSupplier() {
         return NO_CREATOR_SUPPLY;
       case COTTONTAIL:{
           if (SINGLE_CONNECTION){
-              ensureCottontailWrapper();
-              return () -> new CottontailEntityCreator(this.cottontailWrapper);
+              ensureCottontailChannelPool();
+              return () -> new CottontailEntityCreator(new CottontailWrapper(this.ensureCottontailChannelPool()));
           }
           return () -> new CottontailEntityCreator(new CottontailWrapper(this, false));
       }
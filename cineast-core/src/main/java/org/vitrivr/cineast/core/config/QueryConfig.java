@@ -67,6 +67,11 @@ public QueryConfig setMaxResults(int max) {
     return this;
   }
 
+  public QueryConfig setProgressive(boolean progressive) {
+    this.progressive = progressive;
+    return this;
+  }
+
   public QueryConfig setNormIfEmpty(float norm) {
     if (Float.isNaN(this.norm)) {
       return setNorm(norm);
@@ -180,6 +185,7 @@ public String toString() {
         ", correspondence=" + correspondence +
         ", resultsPerModule=" + resultsPerModule +
         ", maxResults=" + maxResults +
+        ", progressive=" + progressive +
         ", hints=" + hints +
         ", relevantSegmentIds (Excerpt)=" + Arrays.toString(relevantSegmentIds.stream().limit(5).toArray()) +
         '}';
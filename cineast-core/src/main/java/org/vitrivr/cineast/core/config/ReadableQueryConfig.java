@@ -33,6 +33,7 @@ public enum Hints {
     protected CorrespondenceFunction correspondence = null;
     protected int resultsPerModule = -1;
     protected Optional<Integer> maxResults = Optional.empty();
+    protected boolean progressive = false;
     protected final Set<Hints> hints;
     protected final Set<String> relevantSegmentIds = new HashSet<>();
 
@@ -88,6 +89,7 @@ protected ReadableQueryConfig(ReadableQueryConfig qc, UUID uuid) {
         this.correspondence = qc.correspondence;
         this.resultsPerModule = qc.resultsPerModule;
         this.maxResults = qc.maxResults;
+        this.progressive = qc.progressive;
         this.hints.addAll(qc.hints);
         this.relevantSegmentIds.addAll(qc.relevantSegmentIds);
     }
@@ -135,6 +137,13 @@ public Set<Hints> getHints() {
         return this.hints;
     }
 
+    /**
+     * Whether provisional results should be reported while a query is still running, e.g. as soon as the fastest retrievers of a category have completed.
+     */
+    public boolean isProgressive() {
+        return this.progressive;
+    }
+
     /**
      * Specifies the segments to which a query result should be limited before any other evaluation.
      * An empty set indicates no additional filtering
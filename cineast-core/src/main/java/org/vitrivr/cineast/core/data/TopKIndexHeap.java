@@ -0,0 +1,198 @@
+package org.vitrivr.cineast.core.data;
+
+/**
+ * A bounded binary heap over primitive (int index, double value) pairs that retains the k best entries it has been offered. Depending on how it was created, 'best' either means smallest (e.g. distances) or largest (e.g. scores) value.
+ * <p>
+ * Unlike {@link FixedSizePriorityQueue}, this class does not allocate per element and is therefore suited for hot loops such as brute-force kNN scans or score fusion. It is not thread-safe; use one heap per thread and {@link #merge(TopKIndexHeap)} the partial results.
+ */
+public final class TopKIndexHeap {
+
+  /**
+   * Maximum number of entries retained by this {@link TopKIndexHeap}.
+   */
+  private final int k;
+
+  /**
+   * True if this {@link TopKIndexHeap} retains the smallest values, false if it retains the largest.
+   */
+  private final boolean smallest;
+
+  /**
+   * Indices held by this heap; the worst retained entry is at position 0.
+   */
+  private final int[] indices;
+
+  /**
+   * Values held by this heap; the worst retained value is at position 0.
+   */
+  private final double[] values;
+
+  /**
+   * Number of entries currently held.
+   */
+  private int size = 0;
+
+  /**
+   * Creates a new {@link TopKIndexHeap} that retains the k entries with the smallest value.
+   *
+   * @param k Maximum number of entries to retain.
+   * @return {@link TopKIndexHeap}
+   */
+  public static TopKIndexHeap smallest(int k) {
+    return new TopKIndexHeap(k, true);
+  }
+
+  /**
+   * Creates a new {@link TopKIndexHeap} that retains the k entries with the largest value.
+   *
+   * @param k Maximum number of entries to retain.
+   * @return {@link TopKIndexHeap}
+   */
+  public static TopKIndexHeap largest(int k) {
+    return new TopKIndexHeap(k, false);
+  }
+
+  private TopKIndexHeap(int k, boolean smallest) {
+    if (k < 0) {
+      throw new IllegalArgumentException("k must be positive");
+    }
+    this.k = k;
+    this.smallest = smallest;
+    this.indices = new int[k];
+    this.values = new double[k];
+  }
+
+  /**
+   * Offers an entry to this {@link TopKIndexHeap}. The entry is retained if the heap is not yet full or if it is better than the current worst entry, which is then evicted.
+   *
+   * @param index The index to offer.
+   * @param value The value associated with the index.
+   * @return True if the entry was retained, false otherwise.
+   */
+  public boolean offer(int index, double value) {
+    if (Double.isNaN(value)) {
+      return false;
+    }
+    if (this.size < this.k) {
+      this.indices[this.size] = index;
+      this.values[this.size] = value;
+      this.siftUp(this.size++);
+      return true;
+    }
+    if (this.k == 0 || !this.isBetter(value, this.values[0])) {
+      return false;
+    }
+    this.indices[0] = index;
+    this.values[0] = value;
+    this.siftDown(0);
+    return true;
+  }
+
+  /**
+   * Returns true if an entry with the given value would currently be retained by {@link #offer(int, double)}. Can be used to skip expensive work for entries that cannot make it into the result.
+   *
+   * @param value The value to check.
+   * @return True if value would be retained.
+   */
+  public boolean accepts(double value) {
+    return this.size < this.k || (this.k > 0 && this.isBetter(value, this.values[0]));
+  }
+
+  /**
+   * Offers all entries held by another {@link TopKIndexHeap} to this {@link TopKIndexHeap}.
+   *
+   * @param other The {@link TopKIndexHeap} to merge.
+   */
+  public void merge(TopKIndexHeap other) {
+    for (int i = 0; i < other.size; i++) {
+      this.offer(other.indices[i], other.values[i]);
+    }
+  }
+
+  /**
+   * @return Number of entries currently held.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  /**
+   * @return Maximum number of entries held.
+   */
+  public int capacity() {
+    return this.k;
+  }
+
+  /**
+   * Removes all entries from this {@link TopKIndexHeap}.
+   */
+  public void clear() {
+    this.size = 0;
+  }
+
+  /**
+   * Drains this {@link TopKIndexHeap} and writes its entries, best first, into the provided arrays. Both arrays must be at least {@link #size()} elements long.
+   *
+   * @param indices Array the indices are written to.
+   * @param values  Array the values are written to.
+   * @return Number of entries written.
+   */
+  public int drainSorted(int[] indices, double[] values) {
+    final int n = this.size;
+    for (int i = n - 1; i >= 0; i--) {
+      indices[i] = this.indices[0];
+      values[i] = this.values[0];
+      this.size--;
+      if (this.size > 0) {
+        this.indices[0] = this.indices[this.size];
+        this.values[0] = this.values[this.size];
+        this.siftDown(0);
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Returns true if value a is strictly better than value b.
+   */
+  private boolean isBetter(double a, double b) {
+    return this.smallest ? a < b : a > b;
+  }
+
+  private void siftUp(int i) {
+    final int index = this.indices[i];
+    final double value = this.values[i];
+    while (i > 0) {
+      final int parent = (i - 1) >>> 1;
+      if (!this.isBetter(this.values[parent], value)) {
+        break;
+      }
+      this.indices[i] = this.indices[parent];
+      this.values[i] = this.values[parent];
+      i = parent;
+    }
+    this.indices[i] = index;
+    this.values[i] = value;
+  }
+
+  private void siftDown(int i) {
+    final int index = this.indices[i];
+    final double value = this.values[i];
+    final int half = this.size >>> 1;
+    while (i < half) {
+      int child = 2 * i + 1;
+      final int right = child + 1;
+      if (right < this.size && this.isBetter(this.values[child], this.values[right])) {
+        child = right;
+      }
+      if (!this.isBetter(value, this.values[child])) {
+        break;
+      }
+      this.indices[i] = this.indices[child];
+      this.values[i] = this.values[child];
+      i = child;
+    }
+    this.indices[i] = index;
+    this.values[i] = value;
+  }
+}
@@ -38,4 +38,11 @@ default STFT getSTFT(int windowsize, int overlap, int padding, WindowFunction fu
         stft.forward(data);
         return stft;
     }
+
+    /**
+     * Releases the STFTs cached by this provider, if any. Invoked once all extractors have processed the segment.
+     * The default implementation does not cache and therefore does nothing.
+     */
+    default void releaseSTFT() {
+    }
 }
@@ -12,4 +12,12 @@ default List<VideoFrame> getVideoFrames() {
         list.add(VideoFrame.EMPTY_VIDEO_FRAME);
         return list;
     }
+
+    /**
+     * Releases the images of the frames provided by this provider, so that their pixel buffers can be re-used for new
+     * frames. Invoked once all extractors have processed the segment; the frames must not be accessed afterwards. The
+     * default implementation does nothing.
+     */
+    default void releaseFrames() {
+    }
 }
@@ -3,6 +3,7 @@
 import org.vitrivr.cineast.core.data.frames.AudioDescriptor;
 import org.vitrivr.cineast.core.data.frames.AudioFrame;
 import org.vitrivr.cineast.core.util.dsp.fft.STFT;
+import org.vitrivr.cineast.core.util.dsp.fft.STFTCache;
 import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
 import org.vitrivr.cineast.core.util.web.AudioParser;
 
@@ -23,6 +24,9 @@ public class AudioQueryTermContainer extends AbstractQueryTermContainer {
     /** {@link AudioDescriptor} describing the properties of the underlying audio stream. */
     private AudioDescriptor descriptor;
 
+    /** STFTs of the query audio, which are shared by all retrievers that request them. */
+    private final STFTCache stftCache = new STFTCache();
+
     /**
      * Constructs an {@link AudioQueryTermContainer} from base 64 encoded wave audio data. The constructor assumes
      * the following audio settings: 22050Hz, 1 Channel, 16bit PCM
@@ -98,8 +102,14 @@ public STFT getSTFT(int windowsize, int overlap, int padding, WindowFunction fun
         if (2*padding >= windowsize) {
           throw new IllegalArgumentException("The combined padding must be smaller than the sample window.");
         }
-        STFT stft = new STFT(windowsize, overlap, padding, function, this.descriptor.getSamplingrate());
-        stft.forward(this.getMeanSamplesAsDouble());
-        return stft;
+        return this.stftCache.get(windowsize, overlap, padding, function, this.descriptor.getSamplingrate(), this::getMeanSamplesAsDouble);
+    }
+
+    /**
+     * Releases the STFTs cached for this container.
+     */
+    @Override
+    public void releaseSTFT() {
+        this.stftCache.clear();
     }
 }
@@ -15,6 +15,8 @@
 import org.vitrivr.cineast.core.data.raw.bytes.CachedByteData;
 import org.vitrivr.cineast.core.data.raw.bytes.InMemoryByteData;
 import org.vitrivr.cineast.core.data.raw.images.CachedMultiImage;
+import org.vitrivr.cineast.core.data.raw.images.DirectMultiImage;
+import org.vitrivr.cineast.core.data.raw.images.FrameBufferPool;
 import org.vitrivr.cineast.core.data.raw.images.InMemoryMultiImage;
 import org.vitrivr.cineast.core.data.raw.images.MultiImage;
 
@@ -38,6 +40,7 @@
  * @see CachedByteData
  * @see InMemoryMultiImage
  * @see CachedMultiImage
+ * @see DirectMultiImage
  */
 public class CachedDataFactory {
     private static CachedDataFactory defaultInstance = new CachedDataFactory(new CacheConfig());
@@ -105,6 +108,9 @@ public static void configureDefault(CacheConfig cacheConfig) {
     /** Keeps track of whether the cache directory has been created yet */
     private boolean cacheDirectoryCreated = false;
 
+    /** Pool of the pixel buffers of the {@link MultiImage}s created from raw color data. Retains at most a tenth of the maximum heap size per kind of buffer. */
+    private final FrameBufferPool framePool = new FrameBufferPool(Runtime.getRuntime().maxMemory() / 10);
+
     /**
      * Inner {@link PhantomReference} implementations that keeps track of the cache path for every {@link CachedByteData}.
      */
@@ -245,18 +251,23 @@ public MultiImage newMultiImage(BufferedImage bimg, BufferedImage thumb) {
      *
      * @param width Width of the image.
      * @param height Height of the image.
-     * @param colors Array of color values.
-     * @return {@link CachedMultiImage} or {@link InMemoryMultiImage}, depending on cache settings and memory utilisation.
+     * @param colors Array of color values. The values are copied, so the array may be re-used by the caller.
+     * @return {@link InMemoryMultiImage} backed by a pooled buffer, or {@link DirectMultiImage} or {@link CachedMultiImage}, depending on cache settings and memory utilisation.
      */
     public MultiImage newMultiImage(int width, int height, int[] colors) {
         height = MultiImage.checkHeight(width, height, colors);
-        final BufferedImage bimg = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        bimg.setRGB(0, 0, width, height, colors, 0, width);
         if (this.config.keepInMemory(colors.length * 8)) {
-            return newInMemoryMultiImage(bimg);
-        } else {
-            return newCachedMultiImage(bimg, "img");
+            return newInMemoryMultiImage(width, height, colors);
+        } else if (this.config.isOffHeapFrames()) {
+            try {
+                return new DirectMultiImage(width, height, colors, this);
+            } catch (OutOfMemoryError e) {
+                LOGGER.warn("Failed to allocate direct memory for an object of type DirectMultiImage. Fallback to CachedMultiImage instead.");
+            }
         }
+        final BufferedImage bimg = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        bimg.setRGB(0, 0, width, height, colors, 0, width);
+        return newCachedMultiImage(bimg, "img");
     }
 
 
@@ -270,9 +281,19 @@ public MultiImage newMultiImage(int width, int height, int[] colors) {
      */
     public MultiImage newInMemoryMultiImage(int width, int height, int[] colors) {
         height = MultiImage.checkHeight(width, height, colors);
-        final BufferedImage bimg = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
-        bimg.setRGB(0, 0, width, height, colors, 0, width);
-        return newInMemoryMultiImage(bimg);
+        final int[] copy = this.framePool.acquire(width * height);
+        System.arraycopy(colors, 0, copy, 0, copy.length);
+        return new InMemoryMultiImage(width, height, copy, this);
+    }
+
+    /**
+     * Returns the {@link FrameBufferPool} that holds the pixel buffers of released {@link MultiImage}s created by this
+     * {@link CachedDataFactory}.
+     *
+     * @return {@link FrameBufferPool}
+     */
+    public FrameBufferPool framePool() {
+        return this.framePool;
     }
 
     /**
@@ -0,0 +1,164 @@
+package org.vitrivr.cineast.core.data.raw.images;
+
+import org.vitrivr.cineast.core.data.raw.CacheableData;
+import org.vitrivr.cineast.core.data.raw.CachedDataFactory;
+
+import java.awt.image.BufferedImage;
+import java.lang.ref.SoftReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * The {@link DirectMultiImage} object is an immutable representation of a {@link BufferedImage} that holds its pixels in a
+ * direct {@link ByteBuffer}, i.e. outside the Java heap. The pixel data therefore does not add to the work of the garbage
+ * collector, at the cost of copying the colors whenever they are accessed.
+ *
+ * The buffer is taken from and, once the image is released, returned to the {@link FrameBufferPool} of the factory.
+ *
+ * @version 1.0
+ *
+ * @see MultiImage
+ * @see CacheableData
+ * @see CachedDataFactory
+ */
+public class DirectMultiImage implements MultiImage {
+
+    /** Direct buffer holding the colors of the image. Null once the image has been released. */
+    private volatile ByteBuffer pixels;
+
+    /** Soft reference to the thumbnail image. May be garbage collected under memory pressure. */
+    private SoftReference<BufferedImage> thumb = new SoftReference<>(null);
+
+    /** The width of the {@link MultiImage}. */
+    private final int width;
+
+    /** The height of the {@link MultiImage}. */
+    private final int height;
+
+    /** Reference to the {@link CachedDataFactory} that created this {@link DirectMultiImage}. */
+    private final CachedDataFactory factory;
+
+    /**
+     * Constructor for {@link DirectMultiImage}. The colors are copied into a direct buffer.
+     *
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param colors Array of ARGB color values.
+     */
+    public DirectMultiImage(int width, int height, int[] colors, CachedDataFactory factory) {
+        this.width = width;
+        this.height = height;
+        this.factory = factory;
+        this.pixels = factory.framePool().acquireDirect(width * height);
+        this.pixels.asIntBuffer().put(colors, 0, width * height);
+    }
+
+    /**
+     * Getter for the {@link BufferedImage} held by this {@link DirectMultiImage}. The image is reconstructed from the the
+     * color array. See {@link DirectMultiImage#getColors()}
+     *
+     * @return The image held by this {@link DirectMultiImage}
+     */
+    @Override
+    public BufferedImage getBufferedImage() {
+        final BufferedImage image = new BufferedImage(this.width, this.height, BufferedImage.TYPE_INT_ARGB);
+        image.setRGB(0, 0, this.width, this.height, this.getColors(), 0, this.width);
+        return image;
+    }
+
+    /**
+     * Getter for the thumbnail image of this {@link DirectMultiImage}. If the thumbnail image reference does not
+     * exist anymore, a new thumbnail image will be created from the original image.
+     *
+     * @return The thumbnail image for this {@link DirectMultiImage}
+     */
+    @Override
+    public BufferedImage getThumbnailImage() {
+        BufferedImage thumbnail = this.thumb.get();
+        if (thumbnail == null) {
+            thumbnail = MultiImage.generateThumb(this.getBufferedImage());
+        }
+        this.thumb = new SoftReference<>(thumbnail);
+        return thumbnail;
+    }
+
+    /**
+     * Getter for the colors array representing this {@link DirectMultiImage}. The colors are copied from the direct buffer
+     * into a new array for every invocation.
+     *
+     * @return Color array of the image.
+     */
+    @Override
+    public int[] getColors() {
+        final ByteBuffer pixels = this.pixels;
+        if (pixels == null) {
+            throw new IllegalStateException("The image has already been released.");
+        }
+        final int[] colors = new int[this.width * this.height];
+        pixels.duplicate().order(ByteOrder.nativeOrder()).asIntBuffer().get(colors);
+        return colors;
+    }
+
+    /**
+     * Getter for the colors array representing the thumbnail of this {@link DirectMultiImage}.
+     *
+     * @return Color array of the thumbnail image.
+     */
+    @Override
+    public int[] getThumbnailColors() {
+        final BufferedImage thumb = this.getThumbnailImage();
+        return thumb.getRGB(0, 0, thumb.getWidth(), thumb.getHeight(), null, 0, thumb.getWidth());
+    }
+
+    /**
+     * Getter for width value.
+     *
+     * @return Width of the {@link MultiImage}
+     */
+    @Override
+    public int getWidth() {
+        return this.width;
+    }
+
+    /**
+     * Getter for height value.
+     *
+     * @return Height of the {@link MultiImage}
+     */
+    @Override
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Getter for this {@link CachedDataFactory}.
+     *
+     * @return Factory that created this {@link DirectMultiImage}
+     */
+    @Override
+    public CachedDataFactory factory() {
+        return this.factory;
+    }
+
+    /**
+     * Force clears the thumbnail of this {@link DirectMultiImage}.
+     */
+    @Override
+    public void clear() {
+        this.thumb.clear();
+    }
+
+    /**
+     * Returns the direct buffer to the {@link FrameBufferPool} of the factory. The image cannot be used afterwards.
+     */
+    @Override
+    public synchronized void release() {
+        final ByteBuffer pixels = this.pixels;
+        if (pixels == null) {
+            return;
+        }
+        this.pixels = null;
+        this.thumb.clear();
+        this.factory.framePool().releaseDirect(pixels);
+    }
+}
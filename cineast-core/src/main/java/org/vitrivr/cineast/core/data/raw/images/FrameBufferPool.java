@@ -0,0 +1,125 @@
+package org.vitrivr.cineast.core.data.raw.images;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Pool of pixel buffers for {@link MultiImage}s, keyed by the number of pixels of the image. Decoding a video creates one
+ * image per frame, all of the same resolution; handing the buffers of released images to the next frames avoids
+ * allocating (and collecting) a large array per frame.
+ *
+ * The pool keeps heap arrays ({@code int[]}) and direct {@link ByteBuffer}s (outside the Java heap) separately. Each kind
+ * only retains buffers up to the configured number of bytes; buffers released beyond that limit are left to the garbage
+ * collector.
+ *
+ * @see InMemoryMultiImage
+ * @see DirectMultiImage
+ */
+public final class FrameBufferPool {
+
+    /** Idle heap buffers by number of pixels. */
+    private final ConcurrentHashMap<Integer, Queue<int[]>> arrays = new ConcurrentHashMap<>();
+
+    /** Idle direct buffers by number of pixels. */
+    private final ConcurrentHashMap<Integer, Queue<ByteBuffer>> directBuffers = new ConcurrentHashMap<>();
+
+    /** Number of bytes currently retained in idle heap buffers. */
+    private final AtomicLong retainedArrayBytes = new AtomicLong();
+
+    /** Number of bytes currently retained in idle direct buffers. */
+    private final AtomicLong retainedDirectBytes = new AtomicLong();
+
+    /** Maximum number of bytes retained per kind of buffer. */
+    private final long maxRetainedBytes;
+
+    /**
+     * Constructor for {@link FrameBufferPool}.
+     *
+     * @param maxRetainedBytes Maximum number of bytes retained in idle heap buffers and in idle direct buffers, respectively.
+     */
+    public FrameBufferPool(long maxRetainedBytes) {
+        this.maxRetainedBytes = maxRetainedBytes;
+    }
+
+    /**
+     * Returns an array for the given number of pixels. The content of the array is undefined.
+     *
+     * @param pixels Number of pixels.
+     * @return Array of length pixels.
+     */
+    public int[] acquire(int pixels) {
+        final Queue<int[]> queue = this.arrays.get(pixels);
+        final int[] array = queue == null ? null : queue.poll();
+        if (array == null) {
+            return new int[pixels];
+        }
+        this.retainedArrayBytes.addAndGet(-4L * pixels);
+        return array;
+    }
+
+    /**
+     * Returns an array to the pool. The array must not be used by the caller afterwards.
+     *
+     * @param array The array to return.
+     */
+    public void release(int[] array) {
+        if (array == null || array.length == 0 || this.retainedArrayBytes.addAndGet(4L * array.length) > this.maxRetainedBytes) {
+            if (array != null) {
+                this.retainedArrayBytes.addAndGet(-4L * array.length);
+            }
+            return;
+        }
+        this.arrays.computeIfAbsent(array.length, k -> new ConcurrentLinkedQueue<>()).add(array);
+    }
+
+    /**
+     * Returns a direct {@link ByteBuffer} in native byte order for the given number of pixels (four bytes per pixel). The
+     * content of the buffer is undefined.
+     *
+     * @param pixels Number of pixels.
+     * @return Direct {@link ByteBuffer} with a capacity of four bytes per pixel, positioned at zero.
+     */
+    public ByteBuffer acquireDirect(int pixels) {
+        final Queue<ByteBuffer> queue = this.directBuffers.get(pixels);
+        final ByteBuffer buffer = queue == null ? null : queue.poll();
+        if (buffer == null) {
+            return ByteBuffer.allocateDirect(4 * pixels).order(ByteOrder.nativeOrder());
+        }
+        this.retainedDirectBytes.addAndGet(-buffer.capacity());
+        buffer.clear();
+        return buffer;
+    }
+
+    /**
+     * Returns a direct {@link ByteBuffer} to the pool. The buffer must not be used by the caller afterwards.
+     *
+     * @param buffer The buffer to return.
+     */
+    public void releaseDirect(ByteBuffer buffer) {
+        if (buffer == null || !buffer.isDirect() || this.retainedDirectBytes.addAndGet(buffer.capacity()) > this.maxRetainedBytes) {
+            if (buffer != null && buffer.isDirect()) {
+                this.retainedDirectBytes.addAndGet(-buffer.capacity());
+            }
+            return;
+        }
+        this.directBuffers.computeIfAbsent(buffer.capacity() / 4, k -> new ConcurrentLinkedQueue<>()).add(buffer);
+    }
+
+    /**
+     * @return Number of bytes currently retained in idle heap buffers.
+     */
+    public long retainedArrayBytes() {
+        return this.retainedArrayBytes.get();
+    }
+
+    /**
+     * @return Number of bytes currently retained in idle direct buffers.
+     */
+    public long retainedDirectBytes() {
+        return this.retainedDirectBytes.get();
+    }
+}
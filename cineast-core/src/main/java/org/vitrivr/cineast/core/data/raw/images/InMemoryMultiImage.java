@@ -21,8 +21,8 @@ public class InMemoryMultiImage implements MultiImage {
     /** Thumbnail image. This reference will remain in memory as long as {@link InMemoryMultiImage} does. */
     private SoftReference<BufferedImage> thumb;
 
-    /** Reference to the colors array of the image. */
-    private int[] colors;
+    /** Reference to the colors array of the image. Null once the image has been released. */
+    private volatile int[] colors;
 
     /** The width of the cached {@link MultiImage}. */
     private final int width;
@@ -64,6 +64,23 @@ public InMemoryMultiImage(BufferedImage img, BufferedImage thumb, CachedDataFact
         }
     }
 
+    /**
+     * Constructor for {@link InMemoryMultiImage}. The image takes ownership of the colors array, which is returned to the
+     * {@link FrameBufferPool} of the factory once the image is released. The thumbnail is only generated on demand.
+     *
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param colors Array of ARGB color values; must hold width * height values and must not be used by the caller afterwards.
+     */
+    public InMemoryMultiImage(int width, int height, int[] colors, CachedDataFactory factory) {
+        this.colors = colors;
+        this.width = width;
+        this.height = height;
+        this.type = BufferedImage.TYPE_INT_ARGB;
+        this.factory = factory;
+        this.thumb = new SoftReference<>(null);
+    }
+
     /**
      * Getter for the {@link BufferedImage} held by this {@link InMemoryMultiImage}. The image is reconstructed from the the
      * color array. See {@link InMemoryMultiImage#getColors()}
@@ -73,7 +90,7 @@ public InMemoryMultiImage(BufferedImage img, BufferedImage thumb, CachedDataFact
     @Override
     public BufferedImage getBufferedImage() {
         final BufferedImage image = new BufferedImage(this.width, this.height, this.type);
-        image.setRGB(0, 0, this.width, this.height, this.colors, 0, this.width);
+        image.setRGB(0, 0, this.width, this.height, this.getColors(), 0, this.width);
         return image;
     }
 
@@ -100,7 +117,11 @@ public BufferedImage getThumbnailImage() {
      */
     @Override
     public int[] getColors() {
-        return this.colors;
+        final int[] colors = this.colors;
+        if (colors == null) {
+            throw new IllegalStateException("The image has already been released.");
+        }
+        return colors;
     }
 
     /**
@@ -146,4 +167,20 @@ public CachedDataFactory factory() {
 
     @Override
     public void clear() {}
+
+    /**
+     * Returns the colors array to the {@link FrameBufferPool} of the factory. The image cannot be used afterwards.
+     */
+    @Override
+    public synchronized void release() {
+        final int[] colors = this.colors;
+        if (colors == null) {
+            return;
+        }
+        this.colors = null;
+        this.thumb.clear();
+        if (this.factory != null && colors.length == this.width * this.height) {
+            this.factory.framePool().release(colors);
+        }
+    }
 }
@@ -70,6 +70,12 @@ public void clear() {}
 
     void clear();
 
+  /**
+   * Releases the pixel data of this {@link MultiImage}, e.g. by returning its buffers to a {@link FrameBufferPool}, once
+   * it is not needed anymore. The image must not be used after it has been released.
+   */
+  default void release() {}
+
   /**
    *
    * @param width
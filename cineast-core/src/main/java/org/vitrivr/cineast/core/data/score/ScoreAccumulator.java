@@ -0,0 +1,156 @@
+package org.vitrivr.cineast.core.data.score;
+
+import gnu.trove.map.hash.TObjectIntHashMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.vitrivr.cineast.core.data.TopKIndexHeap;
+
+/**
+ * Accumulates scores by id for the duration of a single query. Ids are interned to consecutive ints and scores are kept in a primitive array, so that adding a score does not allocate and the best k ids can be selected by means of a {@link TopKIndexHeap} instead of materializing and sorting all of them.
+ * <p>
+ * This class is not thread-safe.
+ */
+public final class ScoreAccumulator {
+
+  /**
+   * Creates a result element from an id and its score.
+   */
+  @FunctionalInterface
+  public interface ResultFactory<T> {
+
+    T create(String id, double score);
+  }
+
+  private static final int NO_ENTRY = -1;
+
+  /**
+   * Interned index of every id.
+   */
+  private final TObjectIntHashMap<String> indexById;
+
+  /**
+   * Ids by interned index.
+   */
+  private String[] ids;
+
+  /**
+   * Accumulated scores by interned index.
+   */
+  private double[] scores;
+
+  private int size = 0;
+
+  public ScoreAccumulator() {
+    this(1024);
+  }
+
+  /**
+   * @param expectedSize Expected number of distinct ids.
+   */
+  public ScoreAccumulator(int expectedSize) {
+    final int capacity = Math.max(16, expectedSize);
+    this.indexById = new TObjectIntHashMap<>(capacity, 0.5f, NO_ENTRY);
+    this.ids = new String[capacity];
+    this.scores = new double[capacity];
+  }
+
+  /**
+   * Adds the given score to the score of the given id. Ids that have not been seen before start with a score of zero.
+   */
+  public void add(String id, double score) {
+    int index = this.indexById.get(id);
+    if (index == NO_ENTRY) {
+      index = this.intern(id);
+    }
+    this.scores[index] += score;
+  }
+
+  /**
+   * Adds the given score to the score of the given id, if that id has been seen before.
+   *
+   * @return True if the id has been seen before, false otherwise.
+   */
+  public boolean adjust(String id, double score) {
+    final int index = this.indexById.get(id);
+    if (index == NO_ENTRY) {
+      return false;
+    }
+    this.scores[index] += score;
+    return true;
+  }
+
+  /**
+   * Sets the score of the given id, replacing any score accumulated so far.
+   */
+  public void put(String id, double score) {
+    int index = this.indexById.get(id);
+    if (index == NO_ENTRY) {
+      index = this.intern(id);
+    }
+    this.scores[index] = score;
+  }
+
+  /**
+   * @return The accumulated score of the given id or zero, if the id has not been seen.
+   */
+  public double get(String id) {
+    final int index = this.indexById.get(id);
+    return index == NO_ENTRY ? 0d : this.scores[index];
+  }
+
+  /**
+   * @return Number of distinct ids.
+   */
+  public int size() {
+    return this.size;
+  }
+
+  public boolean isEmpty() {
+    return this.size == 0;
+  }
+
+  /**
+   * @return All distinct ids in the order they were first seen.
+   */
+  public List<String> ids() {
+    return Arrays.asList(Arrays.copyOf(this.ids, this.size));
+  }
+
+  /**
+   * Selects the k ids with the highest score, ignoring ids whose score is not strictly greater than the given threshold.
+   *
+   * @param k         Maximum number of results.
+   * @param threshold Scores must be greater than this value; use {@link Double#NEGATIVE_INFINITY} to keep all finite scores.
+   * @param factory   Creates the result elements. Invoked for the selected ids only.
+   * @return List of at most k results, best first.
+   */
+  public <T> List<T> topK(int k, double threshold, ResultFactory<T> factory) {
+    final TopKIndexHeap heap = TopKIndexHeap.largest(Math.max(0, Math.min(k, this.size)));
+    for (int i = 0; i < this.size; i++) {
+      final double score = this.scores[i];
+      if (score > threshold && !Double.isInfinite(score) && heap.accepts(score)) {
+        heap.offer(i, score);
+      }
+    }
+    final int[] indices = new int[heap.size()];
+    final double[] values = new double[heap.size()];
+    final int n = heap.drainSorted(indices, values);
+    final List<T> _return = new ArrayList<>(n);
+    for (int i = 0; i < n; i++) {
+      _return.add(factory.create(this.ids[indices[i]], values[i]));
+    }
+    return _return;
+  }
+
+  private int intern(String id) {
+    if (this.size == this.ids.length) {
+      this.ids = Arrays.copyOf(this.ids, this.size * 2);
+      this.scores = Arrays.copyOf(this.scores, this.size * 2);
+    }
+    final int index = this.size++;
+    this.ids[index] = id;
+    this.indexById.put(id, index);
+    return index;
+  }
+}
@@ -3,6 +3,7 @@
 import org.vitrivr.cineast.core.data.frames.AudioDescriptor;
 import org.vitrivr.cineast.core.data.frames.AudioFrame;
 import org.vitrivr.cineast.core.util.dsp.fft.STFT;
+import org.vitrivr.cineast.core.util.dsp.fft.STFTCache;
 import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
 
 import java.util.ArrayList;
@@ -42,6 +43,9 @@ public class AudioSegment implements SegmentContainer {
      */
     private AudioDescriptor descriptor;
 
+    /** STFTs of this segment, which are shared by all extractors that request them. */
+    private final STFTCache stftCache = new STFTCache();
+
     /**
      * @return a unique id of this
      */
@@ -108,6 +112,9 @@ public boolean addFrame(AudioFrame frame) {
         this.totalDuration += frame.getDuration();
         this.frames.add(frame);
 
+        /* Cached STFTs no longer cover all the samples. */
+        this.stftCache.clear();
+
         return true;
     }
 
@@ -221,8 +228,14 @@ public STFT getSTFT(int windowsize, int overlap, int padding, WindowFunction fun
         if (2*padding >= windowsize) {
           throw new IllegalArgumentException("The combined padding must be smaller than the sample window.");
         }
-        STFT stft = new STFT(windowsize, overlap, padding, function, this.descriptor.getSamplingrate());
-        stft.forward(this.getMeanSamplesAsDouble());
-        return stft;
+        return this.stftCache.get(windowsize, overlap, padding, function, this.descriptor.getSamplingrate(), this::getMeanSamplesAsDouble);
+    }
+
+    /**
+     * Releases the STFTs cached for this segment.
+     */
+    @Override
+    public void releaseSTFT() {
+        this.stftCache.clear();
     }
 }
@@ -17,6 +17,7 @@
 import org.vitrivr.cineast.core.descriptor.PathList;
 import org.vitrivr.cineast.core.extraction.decode.subtitle.SubtitleItem;
 import org.vitrivr.cineast.core.util.dsp.fft.STFT;
+import org.vitrivr.cineast.core.util.dsp.fft.STFTCache;
 import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
 
 import java.util.ArrayList;
@@ -49,6 +50,9 @@ public class VideoSegment implements SegmentContainer {
     /** {@link AudioDescriptor} for the audio stream in this {@link VideoSegment}. Can be null! */
     private AudioDescriptor audioDescriptor = null;
 
+    /** STFTs of the audio in this segment, which are shared by all extractors that request them. */
+    private final STFTCache stftCache = new STFTCache();
+
     /** {@link VideoDescriptor} for the video stream in this {@link VideoSegment}. Can be null! */
     private VideoDescriptor videoDescriptor = null;
 
@@ -192,9 +196,37 @@ public STFT getSTFT(int windowsize, int overlap, int padding, WindowFunction fun
         if (2 * padding >= windowsize) {
             throw new IllegalArgumentException("The combined padding must be smaller than the sample window.");
         }
-        STFT stft = new STFT(windowsize, overlap, padding, function, this.audioDescriptor.getSamplingrate());
-        stft.forward(this.getMeanSamplesAsDouble());
-        return stft;
+        return this.stftCache.get(windowsize, overlap, padding, function, this.audioDescriptor.getSamplingrate(), this::getMeanSamplesAsDouble);
+    }
+
+    /**
+     * Releases the STFTs cached for this segment.
+     */
+    @Override
+    public void releaseSTFT() {
+        this.stftCache.clear();
+    }
+
+    /**
+     * Releases the images of all frames of this segment, as well as its average and median image.
+     */
+    @Override
+    public void releaseFrames() {
+        for (VideoFrame f : this.videoFrames) {
+            if (f.getImage() != null) {
+                f.getImage().release();
+            }
+        }
+        synchronized (getAvgLock) {
+            if (this.avgImg != null) {
+                this.avgImg.release();
+            }
+        }
+        synchronized (getMedianLock) {
+            if (this.medianImg != null) {
+                this.medianImg.release();
+            }
+        }
     }
 
     private Object getAvgLock = new Object();
@@ -425,5 +457,8 @@ private void addAudioFrame(AudioFrame frame) {
         this.totalSamples += frame.numberOfSamples();
         this.totalAudioDuration += frame.getDuration();
         this.audioFrames.add(frame);
+
+        /* Cached STFTs no longer cover all the samples. */
+        this.stftCache.clear();
     }
 }
@@ -9,6 +9,7 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.tuple.Triple;
 import org.apache.logging.log4j.LogManager;
@@ -195,6 +196,17 @@ default Map<String, Integer> countDistinctValues(String column) {
    */
   List<PrimitiveTypeProvider> getAll(String column);
 
+  /**
+   * SELECT column from the table and passes the values to the consumer one by one. Unlike {@link #getAll(String)}, a failed
+   * query is reported by an exception rather than by an empty result, so callers can tell an empty entity from an
+   * unavailable one. The default implementation delegates to {@link #getAll(String)}.
+   *
+   * @throws IllegalStateException If the values could not be retrieved.
+   */
+  default void forEachValue(String column, Consumer<PrimitiveTypeProvider> consumer) {
+    this.getAll(column).forEach(consumer);
+  }
+
   /**
    * SELECT columns from the table. Be careful with large entities
    *
@@ -27,4 +27,17 @@ public interface PersistencyWriter <R> {
 	boolean persist(List<PersistentTuple> tuples);
   
 	R getPersistentRepresentation(PersistentTuple tuple);
+
+	/**
+	 * Blocks until all tuples handed to this writer have been persisted. Writers that persist synchronously return immediately.
+	 */
+	default void awaitPending() {
+	}
+
+	/**
+	 * Runs the given action once all tuples handed to this writer so far have been persisted (or failed to). Writers that persist synchronously run it immediately on the calling thread.
+	 */
+	default void whenPersisted(Runnable action) {
+		action.run();
+	}
 }
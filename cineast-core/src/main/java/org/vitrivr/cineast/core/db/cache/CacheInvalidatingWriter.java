@@ -0,0 +1,95 @@
+package org.vitrivr.cineast.core.db.cache;
+
+import java.util.List;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+
+/**
+ * A {@link PersistencyWriter} that delegates to the wrapped {@link PersistencyWriter} and invalidates the cached results of the opened entity in a {@link QueryResultCache} after every write.
+ */
+public final class CacheInvalidatingWriter<R> implements PersistencyWriter<R> {
+
+  private final PersistencyWriter<R> writer;
+
+  private final QueryResultCache cache;
+
+  /**
+   * Name of the entity opened by this {@link CacheInvalidatingWriter}.
+   */
+  private String entity;
+
+  public CacheInvalidatingWriter(PersistencyWriter<R> writer, QueryResultCache cache) {
+    this.writer = writer;
+    this.cache = cache;
+  }
+
+  @Override
+  public boolean open(String name) {
+    this.entity = name;
+    return this.writer.open(name);
+  }
+
+  @Override
+  public boolean close() {
+    return this.writer.close();
+  }
+
+  @Override
+  public boolean idExists(String id) {
+    return this.writer.idExists(id);
+  }
+
+  @Override
+  public boolean exists(String key, String value) {
+    return this.writer.exists(key, value);
+  }
+
+  @Override
+  public PersistentTuple generateTuple(Object... objects) {
+    return this.writer.generateTuple(objects);
+  }
+
+  @Override
+  public boolean persist(PersistentTuple tuple) {
+    try {
+      return this.writer.persist(tuple);
+    } finally {
+      this.invalidate();
+    }
+  }
+
+  @Override
+  public void setFieldNames(String... names) {
+    this.writer.setFieldNames(names);
+  }
+
+  @Override
+  public boolean persist(List<PersistentTuple> tuples) {
+    try {
+      return this.writer.persist(tuples);
+    } finally {
+      this.invalidate();
+    }
+  }
+
+  @Override
+  public R getPersistentRepresentation(PersistentTuple tuple) {
+    return this.writer.getPersistentRepresentation(tuple);
+  }
+
+  @Override
+  public void awaitPending() {
+    this.writer.awaitPending();
+  }
+
+  @Override
+  public void whenPersisted(Runnable action) {
+    this.writer.whenPersisted(action);
+  }
+
+  private void invalidate() {
+    if (this.entity != null) {
+      this.cache.invalidate(this.entity);
+    }
+  }
+}
@@ -0,0 +1,179 @@
+package org.vitrivr.cineast.core.db.cache;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.tuple.Triple;
+import org.vitrivr.cineast.core.config.ReadableQueryConfig;
+import org.vitrivr.cineast.core.data.distance.DistanceElement;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
+import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.RelationalOperator;
+
+/**
+ * A {@link DBSelector} that serves kNN lookups and feature vector lookups from a {@link QueryResultCache} and delegates everything else to the wrapped {@link DBSelector}.
+ * <p>
+ * kNN results are keyed by the column, k, the query vector and all parts of the {@link ReadableQueryConfig} that influence the result, i.e., distance, weights, norm, hints and relevant segments.
+ */
+public final class CachingDBSelector implements DBSelector {
+
+  private static final Object[] NO_PARAMETERS = new Object[0];
+
+  private final DBSelector selector;
+
+  private final QueryResultCache cache;
+
+  /**
+   * Name of the entity opened by this {@link CachingDBSelector}.
+   */
+  private String entity;
+
+  public CachingDBSelector(DBSelector selector, QueryResultCache cache) {
+    this.selector = selector;
+    this.cache = cache;
+  }
+
+  @Override
+  public boolean open(String name) {
+    this.entity = name;
+    return this.selector.open(name);
+  }
+
+  @Override
+  public boolean close() {
+    return this.selector.close();
+  }
+
+  @Override
+  public <E extends DistanceElement> List<E> getNearestNeighboursGeneric(int k, float[] query, String column, Class<E> distanceElementClass, ReadableQueryConfig config) {
+    return this.cache.get(this.entity, () -> this.selector.getNearestNeighboursGeneric(k, query, column, distanceElementClass, config), "knn", column, k, distanceElementClass, query.clone(), toParameters(config));
+  }
+
+  @Override
+  public <E extends DistanceElement> List<E> getNearestNeighboursGeneric(int k, PrimitiveTypeProvider queryProvider, String column, Class<E> distanceElementClass, ReadableQueryConfig config) {
+    return this.cache.get(this.entity, () -> this.selector.getNearestNeighboursGeneric(k, queryProvider, column, distanceElementClass, config), "knn", column, k, distanceElementClass, copy(queryProvider.toObject()), toParameters(config));
+  }
+
+  @Override
+  public <T extends DistanceElement> List<T> getBatchedNearestNeighbours(int k, List<float[]> vectors, String column, Class<T> distanceElementClass, List<ReadableQueryConfig> configs) {
+    final Object[] queries = vectors.stream().map(float[]::clone).toArray();
+    final Object[] parameters = configs.stream().map(CachingDBSelector::toParameters).toArray();
+    return this.cache.get(this.entity, () -> this.selector.getBatchedNearestNeighbours(k, vectors, column, distanceElementClass, configs), "batched", column, k, distanceElementClass, queries, parameters);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getNearestNeighbourRows(int k, float[] vector, String column, ReadableQueryConfig config) {
+    return this.selector.getNearestNeighbourRows(k, vector, column, config);
+  }
+
+  @Override
+  public List<float[]> getFeatureVectors(String fieldName, PrimitiveTypeProvider value, String vectorName) {
+    final List<float[]> vectors = this.cache.get(this.entity, () -> this.selector.getFeatureVectors(fieldName, value, vectorName), "vectors", fieldName, copy(value.toObject()), vectorName);
+    return vectors.stream().map(float[]::clone).collect(Collectors.toList());
+  }
+
+  @Override
+  public List<PrimitiveTypeProvider> getFeatureVectorsGeneric(String fieldName, PrimitiveTypeProvider value, String vectorName) {
+    return this.cache.get(this.entity, () -> this.selector.getFeatureVectorsGeneric(fieldName, value, vectorName), "vectorsGeneric", fieldName, copy(value.toObject()), vectorName);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, Iterable<PrimitiveTypeProvider> values) {
+    return this.selector.getRows(fieldName, values);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, List<String> values) {
+    return this.selector.getRows(fieldName, values);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getFulltextRows(int rows, String fieldname, ReadableQueryConfig queryConfig, String... terms) {
+    return this.selector.getFulltextRows(rows, fieldname, queryConfig, terms);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, RelationalOperator operator, Iterable<PrimitiveTypeProvider> values) {
+    return this.selector.getRows(fieldName, operator, values);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRowsAND(List<Triple<String, RelationalOperator, List<PrimitiveTypeProvider>>> conditions, String identifier, List<String> projection, ReadableQueryConfig qc) {
+    return this.selector.getRowsAND(conditions, identifier, projection, qc);
+  }
+
+  @Override
+  public List<PrimitiveTypeProvider> getUniqueValues(String column) {
+    return this.selector.getUniqueValues(column);
+  }
+
+  @Override
+  public Map<String, Integer> countDistinctValues(String column) {
+    return this.selector.countDistinctValues(column);
+  }
+
+  @Override
+  public List<PrimitiveTypeProvider> getAll(String column) {
+    return this.selector.getAll(column);
+  }
+
+  @Override
+  public void forEachValue(String column, Consumer<PrimitiveTypeProvider> consumer) {
+    this.selector.forEachValue(column, consumer);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getAll(List<String> columns, int limit) {
+    return this.selector.getAll(columns, limit);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getAll() {
+    return this.selector.getAll();
+  }
+
+  @Override
+  public boolean existsEntity(String name) {
+    return this.selector.existsEntity(name);
+  }
+
+  @Override
+  public boolean ping() {
+    return this.selector.ping();
+  }
+
+  /**
+   * Extracts the parts of a {@link ReadableQueryConfig} that influence the result of a kNN lookup.
+   */
+  private static Object[] toParameters(ReadableQueryConfig config) {
+    if (config == null) {
+      return NO_PARAMETERS;
+    }
+    return new Object[]{
+        config.getDistance().orElse(null),
+        config.getDistanceWeights().map(float[]::clone).orElse(null),
+        config.getNorm().orElse(null),
+        new HashSet<>(config.getHints()),
+        new HashSet<>(config.getRelevantSegmentIds())
+    };
+  }
+
+  /**
+   * Copies array values so that later modifications by the caller do not alter the key of a cached result.
+   */
+  private static Object copy(Object value) {
+    if (value instanceof float[]) {
+      return ((float[]) value).clone();
+    } else if (value instanceof int[]) {
+      return ((int[]) value).clone();
+    } else if (value instanceof double[]) {
+      return ((double[]) value).clone();
+    } else if (value instanceof long[]) {
+      return ((long[]) value).clone();
+    }
+    return value;
+  }
+}
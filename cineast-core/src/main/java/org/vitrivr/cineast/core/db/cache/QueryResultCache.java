@@ -0,0 +1,134 @@
+package org.vitrivr.cineast.core.db.cache;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheStats;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * A size-bounded, least-recently-used cache for the results of read operations against the database.
+ * <p>
+ * Entries are keyed by the entity, the generation of that entity and the parameters of the operation. Writing to an entity increments its generation (see {@link #invalidate(String)}), which makes all of its entries unreachable at once; they are evicted eventually as new entries are added.
+ *
+ * @see CachingDBSelector
+ * @see CacheInvalidatingWriter
+ */
+public final class QueryResultCache {
+
+  /**
+   * The {@link Cache} that holds the results.
+   */
+  private final Cache<Key, List<?>> cache;
+
+  /**
+   * Current generation per entity.
+   */
+  private final ConcurrentHashMap<String, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  /**
+   * @param maximumSize Maximum number of results held by this {@link QueryResultCache}.
+   */
+  public QueryResultCache(long maximumSize) {
+    this.cache = CacheBuilder.newBuilder().maximumSize(maximumSize).recordStats().build();
+  }
+
+  /**
+   * Returns the cached result for the given entity and parameters or obtains, caches and returns it using the provided loader. Empty results are not cached, since the selectors also return an empty list if a query fails.
+   *
+   * @param entity     The name of the entity the operation reads from.
+   * @param loader     The operation to run if there is no cached result.
+   * @param parameters The parameters of the operation; arrays are compared by content.
+   * @return A copy of the cached or the freshly obtained result.
+   */
+  @SuppressWarnings("unchecked")
+  public <T> List<T> get(String entity, Supplier<List<T>> loader, Object... parameters) {
+    final Key key = new Key(entity, this.generation(entity).get(), parameters);
+    final List<T> cached = (List<T>) this.cache.getIfPresent(key);
+    if (cached != null) {
+      return new ArrayList<>(cached);
+    }
+    final List<T> result = loader.get();
+    if (result != null && !result.isEmpty()) {
+      this.cache.put(key, new ArrayList<>(result));
+    }
+    return result;
+  }
+
+  /**
+   * Invalidates all cached results of the given entity.
+   *
+   * @param entity The name of the entity that has been written to.
+   */
+  public void invalidate(String entity) {
+    this.generation(entity).incrementAndGet();
+  }
+
+  /**
+   * Invalidates all cached results.
+   */
+  public void invalidateAll() {
+    this.generations.values().forEach(AtomicLong::incrementAndGet);
+    this.cache.invalidateAll();
+  }
+
+  /**
+   * @return Number of cached results, including stale ones that have not been evicted yet.
+   */
+  public long size() {
+    return this.cache.size();
+  }
+
+  /**
+   * @return Hit, miss and eviction statistics of this {@link QueryResultCache}.
+   */
+  public CacheStats stats() {
+    return this.cache.stats();
+  }
+
+  private AtomicLong generation(String entity) {
+    return this.generations.computeIfAbsent(entity, e -> new AtomicLong());
+  }
+
+  /**
+   * Key of a cached result.
+   */
+  private static final class Key {
+
+    private final String entity;
+
+    private final long generation;
+
+    private final Object[] parameters;
+
+    private final int hash;
+
+    private Key(String entity, long generation, Object[] parameters) {
+      this.entity = entity;
+      this.generation = generation;
+      this.parameters = parameters;
+      this.hash = 31 * (31 * entity.hashCode() + Long.hashCode(generation)) + Arrays.deepHashCode(parameters);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      final Key key = (Key) o;
+      return this.generation == key.generation && this.hash == key.hash && this.entity.equals(key.entity) && Arrays.deepEquals(this.parameters, key.parameters);
+    }
+
+    @Override
+    public int hashCode() {
+      return this.hash;
+    }
+  }
+}
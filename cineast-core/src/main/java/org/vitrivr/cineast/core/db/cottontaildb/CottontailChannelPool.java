@@ -0,0 +1,170 @@
+package org.vitrivr.cineast.core.db.cottontaildb;
+
+import io.grpc.CallOptions;
+import io.grpc.Channel;
+import io.grpc.ClientCall;
+import io.grpc.ClientInterceptor;
+import io.grpc.ConnectivityState;
+import io.grpc.ManagedChannel;
+import io.grpc.MethodDescriptor;
+import io.grpc.netty.NettyChannelBuilder;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.config.DatabaseConfig;
+import org.vitrivr.cottontail.client.stub.SimpleClient;
+
+/**
+ * A fixed number of {@link ManagedChannel}s to Cottontail DB that are shared by all {@link CottontailWrapper}s created from it. Wrappers are assigned a slot round-robin and resolve the channel of their slot for every call, so that a channel replaced by {@link #recover()} is picked up by existing wrappers. Channels are only shut down once the pool is closed.
+ */
+public final class CottontailChannelPool implements AutoCloseable {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final DatabaseConfig config;
+
+  private final AtomicReferenceArray<Connection> channels;
+
+  private final AtomicInteger next = new AtomicInteger();
+
+  private volatile boolean closed = false;
+
+  public CottontailChannelPool(DatabaseConfig config) {
+    this.config = config;
+    final int size = Math.max(1, config.getChannelPoolSize());
+    this.channels = new AtomicReferenceArray<>(size);
+    for (int i = 0; i < size; i++) {
+      this.channels.set(i, new Connection(newChannel(config)));
+    }
+    LOGGER.info("Opened {} channel(s) to Cottontail at {}:{}", size, config.getHost(), config.getPort());
+  }
+
+  /**
+   * Creates a new {@link ManagedChannel} to the Cottontail DB instance described by the given {@link DatabaseConfig}, including keep-alive and per-call deadline, if configured.
+   */
+  public static ManagedChannel newChannel(DatabaseConfig config) {
+    final NettyChannelBuilder builder = NettyChannelBuilder.forAddress(config.getHost(), config.getPort());
+    if (config.getPlaintext()) {
+      builder.usePlaintext();
+    }
+    if (config.getKeepAliveTime() > 0) {
+      builder.keepAliveTime(config.getKeepAliveTime(), TimeUnit.MILLISECONDS);
+    }
+    if (config.getCallDeadline() > 0) {
+      builder.intercept(new DeadlineInterceptor(config.getCallDeadline()));
+    }
+    return builder.build();
+  }
+
+  /**
+   * @return The next slot in round-robin order.
+   */
+  public int nextSlot() {
+    return Math.floorMod(this.next.getAndIncrement(), this.channels.length());
+  }
+
+  /**
+   * @param slot Slot as returned by {@link #nextSlot()}.
+   * @return The {@link ManagedChannel} currently occupying the given slot.
+   */
+  public ManagedChannel channel(int slot) {
+    return this.channels.get(slot).channel;
+  }
+
+  /**
+   * @param slot Slot as returned by {@link #nextSlot()}.
+   * @return The {@link SimpleClient} of the {@link ManagedChannel} currently occupying the given slot.
+   */
+  public SimpleClient client(int slot) {
+    return this.channels.get(slot).client;
+  }
+
+  /**
+   * @return The number of channels that are neither failing nor shut down.
+   */
+  public int healthyChannels() {
+    int healthy = 0;
+    for (int i = 0; i < this.channels.length(); i++) {
+      final ConnectivityState state = this.channels.get(i).channel.getState(false);
+      if (state != ConnectivityState.TRANSIENT_FAILURE && state != ConnectivityState.SHUTDOWN) {
+        healthy += 1;
+      }
+    }
+    return healthy;
+  }
+
+  /**
+   * Attempts to recover unhealthy channels: failing channels reconnect immediately instead of waiting for their back-off to expire and channels that have been shut down are replaced.
+   */
+  public void recover() {
+    for (int i = 0; i < this.channels.length(); i++) {
+      final Connection connection = this.channels.get(i);
+      final ConnectivityState state = connection.channel.getState(false);
+      if (state == ConnectivityState.TRANSIENT_FAILURE) {
+        LOGGER.debug("Resetting back-off of Cottontail channel {}.", i);
+        connection.channel.resetConnectBackoff();
+      } else if (state == ConnectivityState.SHUTDOWN && !this.closed) {
+        LOGGER.info("Replacing Cottontail channel {}, which has been shut down.", i);
+        final Connection replacement = new Connection(newChannel(this.config));
+        if (!this.channels.compareAndSet(i, connection, replacement)) {
+          replacement.channel.shutdown();
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    this.closed = true;
+    LOGGER.info("Closing connections to Cottontail DB.");
+    for (int i = 0; i < this.channels.length(); i++) {
+      this.channels.get(i).channel.shutdown();
+    }
+    for (int i = 0; i < this.channels.length(); i++) {
+      try {
+        this.channels.get(i).channel.awaitTermination(5000, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        LOGGER.warn("Thread was interrupted while waiting for gRPC channel to close (timeout = 5s).");
+        Thread.currentThread().interrupt();
+        return;
+      }
+    }
+  }
+
+  /**
+   * A {@link ManagedChannel} together with the {@link SimpleClient} using it, which are replaced together.
+   */
+  private static final class Connection {
+
+    private final ManagedChannel channel;
+
+    private final SimpleClient client;
+
+    private Connection(ManagedChannel channel) {
+      this.channel = channel;
+      this.client = new SimpleClient(channel);
+    }
+  }
+
+  /**
+   * Applies a deadline to all calls that do not specify one.
+   */
+  private static final class DeadlineInterceptor implements ClientInterceptor {
+
+    private final long deadline;
+
+    private DeadlineInterceptor(long deadline) {
+      this.deadline = deadline;
+    }
+
+    @Override
+    public <ReqT, RespT> ClientCall<ReqT, RespT> interceptCall(MethodDescriptor<ReqT, RespT> method, CallOptions callOptions, Channel next) {
+      if (callOptions.getDeadline() == null) {
+        return next.newCall(method, callOptions.withDeadlineAfter(this.deadline, TimeUnit.MILLISECONDS));
+      }
+      return next.newCall(method, callOptions);
+    }
+  }
+}
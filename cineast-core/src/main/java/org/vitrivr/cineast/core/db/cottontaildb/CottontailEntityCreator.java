@@ -53,10 +53,10 @@ public CottontailEntityCreator(CottontailWrapper cottontailWrapper) {
    * Makes sure that schema 'cineast' is available.
    */
   private void init() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       final ListSchemas list = new ListSchemas();
-      final TupleIterator iterator = this.cottontail.client.list(list, txId);
+      final TupleIterator iterator = this.cottontail.client().list(list, txId);
       boolean exists = false;
       while (iterator.hasNext()) {
         TupleIterator.Tuple next = iterator.next();
@@ -66,18 +66,18 @@ private void init() {
         }
       }
       if (!exists) {
-        this.cottontail.client.create(new CreateSchema(CottontailWrapper.CINEAST_SCHEMA), txId);
+        this.cottontail.client().create(new CreateSchema(CottontailWrapper.CINEAST_SCHEMA), txId);
       }
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
     } catch (StatusRuntimeException e) {
       LOGGER.error("Error during initialization", e);
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
     }
   }
 
   @Override
   public boolean createTagEntity() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + TagReader.TAG_ENTITY_NAME;
@@ -85,7 +85,7 @@ public boolean createTagEntity() {
           .column(TagReader.TAG_ID_COLUMNNAME, Type.STRING, -1, false)
           .column(TagReader.TAG_NAME_COLUMNNAME, Type.STRING, -1, false)
           .column(TagReader.TAG_DESCRIPTION_COLUMNNAME, Type.STRING, -1, false);
-      this.cottontail.client.create(create, txId);
+      this.cottontail.client().create(create, txId);
 
       /* tag ids should be unique */
       this.createIndex(entityName, TagReader.TAG_ID_COLUMNNAME, IndexType.HASH_UQ, txId);
@@ -94,17 +94,17 @@ public boolean createTagEntity() {
       /* could be used for autocomplete */
       this.createIndex(entityName, TagReader.TAG_NAME_COLUMNNAME, IndexType.LUCENE, txId);
 
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
 
   @Override
   public boolean createMultiMediaObjectsEntity() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + MediaObjectDescriptor.ENTITY;
@@ -113,21 +113,21 @@ public boolean createMultiMediaObjectsEntity() {
           .column(MediaObjectDescriptor.FIELDNAMES[1], Type.INTEGER, -1, false)
           .column(MediaObjectDescriptor.FIELDNAMES[2], Type.STRING, -1, false)
           .column(MediaObjectDescriptor.FIELDNAMES[3], Type.STRING, -1, false);
-      this.cottontail.client.create(entity, txId);
+      this.cottontail.client().create(entity, txId);
 
       /* Create index. */
       this.createIndex(entityName, MediaObjectDescriptor.FIELDNAMES[0], IndexType.HASH_UQ, txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
 
   @Override
   public boolean createSegmentEntity() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + MediaSegmentDescriptor.ENTITY;
@@ -139,22 +139,22 @@ public boolean createSegmentEntity() {
           .column(MediaSegmentDescriptor.FIELDNAMES[4], Type.INTEGER, -1, false)
           .column(MediaSegmentDescriptor.FIELDNAMES[5], Type.DOUBLE, -1, false)
           .column(MediaSegmentDescriptor.FIELDNAMES[6], Type.DOUBLE, -1, false);
-      this.cottontail.client.create(entity, txId);
+      this.cottontail.client().create(entity, txId);
 
       /* Create indexes. */
       this.createIndex(entityName, MediaSegmentDescriptor.FIELDNAMES[0], IndexType.HASH_UQ, txId);
       this.createIndex(entityName, MediaSegmentDescriptor.FIELDNAMES[1], IndexType.HASH, txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
 
   @Override
   public boolean createMetadataEntity() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + MediaObjectMetadataDescriptor.ENTITY;
@@ -163,21 +163,21 @@ public boolean createMetadataEntity() {
           .column(MediaObjectMetadataDescriptor.FIELDNAMES[1], Type.STRING, -1, false)
           .column(MediaObjectMetadataDescriptor.FIELDNAMES[2], Type.STRING, -1, false)
           .column(MediaObjectMetadataDescriptor.FIELDNAMES[3], Type.STRING, -1, false);
-      this.cottontail.client.create(entity, txId);
+      this.cottontail.client().create(entity, txId);
 
       /* Create Index. */
       this.createIndex(entityName, MediaObjectMetadataDescriptor.FIELDNAMES[0], IndexType.HASH, txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
 
   @Override
   public boolean createSegmentMetadataEntity() {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + MediaSegmentMetadataDescriptor.ENTITY;
@@ -186,14 +186,14 @@ public boolean createSegmentMetadataEntity() {
           .column(MediaSegmentMetadataDescriptor.FIELDNAMES[1], Type.STRING, -1, false)
           .column(MediaSegmentMetadataDescriptor.FIELDNAMES[2], Type.STRING, -1, false)
           .column(MediaSegmentMetadataDescriptor.FIELDNAMES[3], Type.STRING, -1, false);
-      this.cottontail.client.create(entity, txId);
+      this.cottontail.client().create(entity, txId);
 
       /* Create Index. */
       this.createIndex(entityName, MediaSegmentMetadataDescriptor.FIELDNAMES[0], IndexType.HASH, txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
@@ -233,7 +233,7 @@ public boolean createEntity(String entityName, AttributeDefinition... attributes
 
   @Override
   public boolean createEntity(org.vitrivr.cineast.core.db.setup.EntityDefinition def) {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       /* Create entity. */
       final String entityName = CottontailWrapper.CINEAST_SCHEMA + "." + def.getEntityName();
@@ -246,7 +246,7 @@ public boolean createEntity(org.vitrivr.cineast.core.db.setup.EntityDefinition d
         entity.column(attribute.getName(), mapAttributeType(attribute.getType()), length, false);
 
       }
-      this.cottontail.client.create(entity, txId);
+      this.cottontail.client().create(entity, txId);
 
       /* Create Index. */
       for (AttributeDefinition attribute : def.getAttributes()) {
@@ -260,24 +260,24 @@ public boolean createEntity(org.vitrivr.cineast.core.db.setup.EntityDefinition d
           this.createIndex(CottontailWrapper.CINEAST_SCHEMA + "." + def.getEntityName(), attribute.getName(), idx, txId);
         }
       }
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
 
   @Override
   public boolean createHashNonUniqueIndex(String entityName, String column) {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       final String fqn = CottontailWrapper.CINEAST_SCHEMA + "." + entityName;
       this.createIndex(fqn, column, IndexType.HASH, txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
@@ -286,7 +286,7 @@ public boolean createHashNonUniqueIndex(String entityName, String column) {
   public boolean existsEntity(String entityName) {
     final AboutEntity about = new AboutEntity(this.cottontail.fqnInput(entityName));
     try {
-      final TupleIterator results = this.cottontail.client.about(about, null);
+      final TupleIterator results = this.cottontail.client().about(about, null);
       return results.hasNext();
     } catch (StatusRuntimeException e) {
       return false;
@@ -295,14 +295,14 @@ public boolean existsEntity(String entityName) {
 
   @Override
   public boolean dropEntity(String entityName) {
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       final String fqn = CottontailWrapper.CINEAST_SCHEMA + "." + entityName;
-      this.cottontail.client.drop(new DropEntity(fqn), txId);
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().drop(new DropEntity(fqn), txId);
+      this.cottontail.client().commit(txId);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
@@ -344,6 +344,6 @@ public static Type mapAttributeType(AttributeDefinition.AttributeType type) {
   private void createIndex(String entityName, String attribute, IndexType type, long txId) {
     final String indexName = entityName + ".idx_" + attribute + "_" + type.name().toLowerCase();
     final CreateIndex index = new CreateIndex(indexName, type).column(entityName + "." + attribute);
-    this.cottontail.client.create(index, txId);
+    this.cottontail.client().create(index, txId);
   }
 }
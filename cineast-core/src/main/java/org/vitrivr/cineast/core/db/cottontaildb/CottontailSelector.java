@@ -4,6 +4,7 @@
 import static org.vitrivr.cineast.core.util.CineastConstants.GENERIC_ID_COLUMN_QUALIFIER;
 
 import io.grpc.StatusRuntimeException;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -14,6 +15,7 @@
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
 import org.apache.commons.lang3.time.StopWatch;
@@ -39,6 +41,11 @@ public final class CottontailSelector implements DBSelector {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  /**
+   * Maximum number of kNN queries {@link #getBatchedNearestNeighbours(int, List, String, Class, List)} keeps in flight at the same time.
+   */
+  private static final int MAX_CONCURRENT_QUERIES = 8;
+
   /**
    * Internal reference to the {@link CottontailWrapper} used by this {@link CottontailSelector}.
    */
@@ -72,23 +79,64 @@ public boolean close() {
   public <E extends DistanceElement> List<E> getNearestNeighboursGeneric(int k, float[] vector, String column, Class<E> distanceElementClass, ReadableQueryConfig config) {
     final Query query = knn(k, vector, column, config).select(GENERIC_ID_COLUMN_QUALIFIER, DB_DISTANCE_VALUE_QUALIFIER);
     try {
-      return handleNearestNeighbourResponse(this.cottontail.client.query(query, null), distanceElementClass);
+      return handleNearestNeighbourResponse(this.cottontail.client().query(query, null), distanceElementClass);
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getNearestNeighboursGeneric(): {}", e.getMessage());
       return new ArrayList<>(0);
     }
   }
 
+  /**
+   * Issues one kNN query per vector and pipelines them over the shared channel: up to {@link #MAX_CONCURRENT_QUERIES} queries are in flight at once while the results of the oldest one are being collected. The results are returned query by query, i.e., in the order of the provided vectors.
+   * <p>
+   * If a single query fails, its results are omitted and the remaining queries are still processed.
+   */
   @Override
   public <E extends DistanceElement> List<E> getBatchedNearestNeighbours(int k, List<float[]> vectors, String column, Class<E> distanceElementClass, List<ReadableQueryConfig> configs) {
-    return new ArrayList<>(0); /* TODO. */
+    if (vectors.isEmpty()) {
+      return new ArrayList<>(0);
+    }
+    if (vectors.size() != configs.size()) {
+      throw new IllegalArgumentException("The number of query vectors (" + vectors.size() + ") does not match the number of query configurations (" + configs.size() + ").");
+    }
+    final StopWatch watch = StopWatch.createStarted();
+    final List<E> _return = new ArrayList<>(k * vectors.size());
+    final ArrayDeque<Optional<TupleIterator>> inFlight = new ArrayDeque<>(MAX_CONCURRENT_QUERIES);
+    int issued = 0;
+    int collected = 0;
+    while (collected < vectors.size()) {
+      /* Fill the window; every issued query occupies one slot, even if it failed to start. */
+      while (issued < vectors.size() && inFlight.size() < MAX_CONCURRENT_QUERIES) {
+        final Query query = knn(k, vectors.get(issued), column, configs.get(issued)).select(GENERIC_ID_COLUMN_QUALIFIER, DB_DISTANCE_VALUE_QUALIFIER);
+        try {
+          inFlight.add(Optional.of(this.cottontail.client().query(query, null)));
+        } catch (StatusRuntimeException e) {
+          LOGGER.warn("Error occurred during execution of query {} in getBatchedNearestNeighbours(): {}", issued, e.getMessage());
+          inFlight.add(Optional.empty());
+        }
+        issued++;
+      }
+
+      /* Drain the oldest query. */
+      final Optional<TupleIterator> results = inFlight.poll();
+      try {
+        if (results.isPresent()) {
+          _return.addAll(handleNearestNeighbourResponse(results.get(), distanceElementClass));
+        }
+      } catch (StatusRuntimeException e) {
+        LOGGER.warn("Error occurred during execution of query {} in getBatchedNearestNeighbours(): {}", collected, e.getMessage());
+      }
+      collected++;
+    }
+    LOGGER.trace("Executed {} kNN queries on {} in {} ms", vectors.size(), this.fqn, watch.getTime(TimeUnit.MILLISECONDS));
+    return _return;
   }
 
   @Override
   public List<Map<String, PrimitiveTypeProvider>> getNearestNeighbourRows(int k, float[] vector, String column, ReadableQueryConfig config) {
     final Query query = knn(k, vector, column, config).select("*");
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getNearestNeighbourRows(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -99,7 +147,7 @@ public List<Map<String, PrimitiveTypeProvider>> getNearestNeighbourRows(int k, f
   public List<float[]> getFeatureVectors(String fieldName, PrimitiveTypeProvider value, String vectorName) {
     final Query query = new Query(this.fqn).select(vectorName).where(new Literal(fieldName, "==", value.toObject()));
     try {
-      final TupleIterator results = this.cottontail.client.query(query, null);
+      final TupleIterator results = this.cottontail.client().query(query, null);
       final List<float[]> _return = new LinkedList<>();
       while (results.hasNext()) {
         final TupleIterator.Tuple t = results.next();
@@ -116,7 +164,7 @@ public List<float[]> getFeatureVectors(String fieldName, PrimitiveTypeProvider v
   public List<PrimitiveTypeProvider> getFeatureVectorsGeneric(String fieldName, PrimitiveTypeProvider value, String vectorName) {
     final Query query = new Query(this.fqn).select(vectorName).where(new Literal(fieldName, "==", value.toObject()));
     try {
-      return toSingleCol(this.cottontail.client.query(query, null), vectorName);
+      return toSingleCol(this.cottontail.client().query(query, null), vectorName);
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getFeatureVectorsGeneric(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -128,7 +176,7 @@ public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, Iterab
     final Object[] mapped = StreamSupport.stream(values.spliterator(), false).map(PrimitiveTypeProvider::toObject).toArray();
     final Query query = new Query(this.fqn).select("*").where(new Literal(fieldName, "IN", mapped));
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getRows(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -140,7 +188,7 @@ public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, List<S
     final Object[] mapped = values.toArray();
     final Query query = new Query(this.fqn).select("*").where(new Literal(fieldName, "IN", mapped));
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getRows(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -153,7 +201,7 @@ public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, Relati
     final String op = toOperator(operator);
     final Query query = new Query(this.fqn).select("*").where(new Literal(fieldName, op, mapped));
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getRows(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -186,7 +234,7 @@ public List<Map<String, PrimitiveTypeProvider>> getFulltextRows(int rows, String
     mappings.put("score", DB_DISTANCE_VALUE_QUALIFIER);
 
     try {
-      return processResults(this.cottontail.client.query(query, null), mappings);
+      return processResults(this.cottontail.client().query(query, null), mappings);
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getFulltextRows(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -221,7 +269,7 @@ public List<Map<String, PrimitiveTypeProvider>> getRowsAND(List<Triple<String, R
       predicates.ifPresent(query::where);
     }
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getRowsAND(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -232,13 +280,26 @@ public List<Map<String, PrimitiveTypeProvider>> getRowsAND(List<Triple<String, R
   public List<PrimitiveTypeProvider> getAll(String column) {
     final Query query = new Query(this.fqn).select(column);
     try {
-      return toSingleCol(this.cottontail.client.query(query, null), column);
+      return toSingleCol(this.cottontail.client().query(query, null), column);
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getAll(): {}", e.getMessage());
       return new ArrayList<>(0);
     }
   }
 
+  @Override
+  public void forEachValue(String column, Consumer<PrimitiveTypeProvider> consumer) {
+    final Query query = new Query(this.fqn).select(column);
+    try {
+      final TupleIterator results = this.cottontail.client().query(query, null);
+      while (results.hasNext()) {
+        consumer.accept(PrimitiveTypeProvider.fromObject(results.next().get(column)));
+      }
+    } catch (StatusRuntimeException e) {
+      throw new IllegalStateException("Error occurred during query execution in forEachValue(): " + e.getMessage(), e);
+    }
+  }
+
   @Override
   public List<Map<String, PrimitiveTypeProvider>> getAll(List<String> columns, int limit) {
     final Query query = new Query(this.fqn).select(columns.toArray(new String[]{}));
@@ -246,7 +307,7 @@ public List<Map<String, PrimitiveTypeProvider>> getAll(List<String> columns, int
       query.limit(limit);
     }
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getAll(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -257,7 +318,7 @@ public List<Map<String, PrimitiveTypeProvider>> getAll(List<String> columns, int
   public List<PrimitiveTypeProvider> getUniqueValues(String column) {
     final Query query = new Query(this.fqn).distinct(column);
     try {
-      return toSingleCol(this.cottontail.client.query(query, null), column);
+      return toSingleCol(this.cottontail.client().query(query, null), column);
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getUniqueValues(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -268,7 +329,7 @@ public Map<String, Integer> countDistinctValues(String column) {
     final Query query = new Query(this.fqn).select("*");
     final Map<String, Integer> count = new HashMap<>();
     try {
-      final TupleIterator results = this.cottontail.client.query(query, null);
+      final TupleIterator results = this.cottontail.client().query(query, null);
       while (results.hasNext()) {
         final TupleIterator.Tuple t = results.next();
         count.merge(t.asString(column), 1, (old, one) -> old + 1);
@@ -284,7 +345,7 @@ public Map<String, Integer> countDistinctValues(String column) {
   public List<Map<String, PrimitiveTypeProvider>> getAll() {
     final Query query = new Query(this.fqn).select("*");
     try {
-      return processResults(this.cottontail.client.query(query, null));
+      return processResults(this.cottontail.client().query(query, null));
     } catch (StatusRuntimeException e) {
       LOGGER.warn("Error occurred during query execution in getAll(): {}", e.getMessage());
       return new ArrayList<>(0);
@@ -295,7 +356,7 @@ public List<Map<String, PrimitiveTypeProvider>> getAll() {
   public boolean existsEntity(String name) {
     final AboutEntity about = new AboutEntity(this.cottontail.fqnInput(name));
     try {
-      final TupleIterator results = this.cottontail.client.about(about, null);
+      final TupleIterator results = this.cottontail.client().about(about, null);
       return results.hasNext();
     } catch (StatusRuntimeException e) {
       return false;
@@ -305,7 +366,7 @@ public boolean existsEntity(String name) {
   @Override
   public boolean ping() {
     try {
-      return this.cottontail.client.ping();
+      return this.cottontail.client().ping();
     } catch (StatusRuntimeException e) {
       return false;
     }
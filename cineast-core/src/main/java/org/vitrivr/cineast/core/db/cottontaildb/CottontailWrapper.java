@@ -3,7 +3,6 @@
 import org.apache.commons.lang3.time.StopWatch;
 import org.vitrivr.cottontail.client.stub.SimpleClient;
 import io.grpc.ManagedChannel;
-import io.grpc.netty.NettyChannelBuilder;
 
 import java.util.concurrent.TimeUnit;
 
@@ -20,14 +19,24 @@ public final class CottontailWrapper implements AutoCloseable {
   public static final String FQN_CINEAST_SCHEMA = WARREN_PREFIX + "." + CINEAST_SCHEMA;
 
   /**
-   * The {@link ManagedChannel} used for communication.
+   * The {@link ManagedChannel} used for communication, if this {@link CottontailWrapper} owns its channel. Null if the channel is taken from a {@link CottontailChannelPool}.
    */
-  public final ManagedChannel channel;
+  private final ManagedChannel channel;
 
   /**
-   * The {@link SimpleClient} instance that facilitates access to Cottontail DB.
+   * The {@link SimpleClient} instance that facilitates access to Cottontail DB, if this {@link CottontailWrapper} owns its channel.
    */
-  public final SimpleClient client;
+  private final SimpleClient client;
+
+  /**
+   * The {@link CottontailChannelPool} the channel is taken from, if any.
+   */
+  private final CottontailChannelPool pool;
+
+  /**
+   * The slot of the {@link CottontailChannelPool} used by this {@link CottontailWrapper}.
+   */
+  private final int slot;
 
   /**
    * Flag indicating that his {@link CottontailWrapper}'s {@link ManagedChannel} should be kept
@@ -47,18 +56,46 @@ public CottontailWrapper(DatabaseConfig config, boolean keepOpen) {
     StopWatch watch = StopWatch.createStarted();
     this.keepOpen = keepOpen;
     LOGGER.debug("Starting to connect to cottontail at {}:{}", config.getHost(), config.getPort());
-    final NettyChannelBuilder builder = NettyChannelBuilder
-        .forAddress(config.getHost(), config.getPort());
-    if (config.getPlaintext()) {
-      builder.usePlaintext();
-    }
-    this.channel = builder.build();
+    this.channel = CottontailChannelPool.newChannel(config);
     this.client = new SimpleClient(this.channel);
+    this.pool = null;
+    this.slot = -1;
     watch.stop();
     LOGGER.info("Connected to Cottontail in {} ms at {}:{}", watch.getTime(TimeUnit.MILLISECONDS),
         config.getHost(), config.getPort());
   }
 
+  /**
+   * Creates a {@link CottontailWrapper} that uses the next slot of the given {@link CottontailChannelPool}. The channel is owned by the pool and kept open when this wrapper is closed.
+   *
+   * @param pool The {@link CottontailChannelPool} to take the channel from.
+   */
+  public CottontailWrapper(CottontailChannelPool pool) {
+    this.keepOpen = true;
+    this.channel = null;
+    this.client = null;
+    this.pool = pool;
+    this.slot = pool.nextSlot();
+  }
+
+  /**
+   * Returns the {@link ManagedChannel} used for communication. For wrappers created from a {@link CottontailChannelPool}, this is the channel currently occupying the slot of this wrapper.
+   *
+   * @return {@link ManagedChannel}
+   */
+  public ManagedChannel channel() {
+    return this.pool == null ? this.channel : this.pool.channel(this.slot);
+  }
+
+  /**
+   * Returns the {@link SimpleClient} that facilitates access to Cottontail DB. For wrappers created from a {@link CottontailChannelPool}, this is the client of the channel currently occupying the slot of this wrapper; it should therefore be resolved per call rather than kept.
+   *
+   * @return {@link SimpleClient}
+   */
+  public SimpleClient client() {
+    return this.pool == null ? this.client : this.pool.client(this.slot);
+  }
+
   /**
    * Closes this {@link CottontailWrapper}.
    */
@@ -48,7 +48,7 @@ public boolean close() {
   @Override
   public boolean exists(String key, String value) {
     final Query query = new Query(this.fqn).exists().where(new Literal(key, "=", value));
-    final TupleIterator results = this.cottontail.client.query(query, null);
+    final TupleIterator results = this.cottontail.client().query(query, null);
     final Boolean b = results.next().asBoolean("exists");
     if (b != null) {
       return b;
@@ -61,7 +61,7 @@ public boolean exists(String key, String value) {
   public boolean persist(List<PersistentTuple> tuples) {
     long start = System.currentTimeMillis();
     int size = tuples.size();
-    final long txId = this.cottontail.client.begin();
+    final long txId = this.cottontail.client().begin();
     try {
       BatchInsert insert = new BatchInsert().into(this.fqn).columns(this.names);
       while (!tuples.isEmpty()) {
@@ -76,20 +76,20 @@ public boolean persist(List<PersistentTuple> tuples) {
         insert.append(values);
         if (insert.size() >= Constants.MAX_PAGE_SIZE_BYTES) {
           LOGGER.trace("Inserting msg of size {} into {}", insert.size(), this.fqn);
-          this.cottontail.client.insert(insert, txId);
+          this.cottontail.client().insert(insert, txId);
           insert = new BatchInsert().into(this.fqn).columns(this.names);
         }
       }
       if (insert.getBuilder().getInsertsCount() > 0) {
         LOGGER.trace("Inserting msg of size {} into {}", insert.size(), this.fqn);
-        this.cottontail.client.insert(insert, txId);
+        this.cottontail.client().insert(insert, txId);
       }
-      this.cottontail.client.commit(txId);
+      this.cottontail.client().commit(txId);
       long stop = System.currentTimeMillis();
       LOGGER.trace("Completed insert of {} elements in {} ms", size, stop - start);
       return true;
     } catch (StatusRuntimeException e) {
-      this.cottontail.client.rollback(txId);
+      this.cottontail.client().rollback(txId);
       return false;
     }
   }
@@ -0,0 +1,155 @@
+package org.vitrivr.cineast.core.db.dao.reader;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import org.vitrivr.cineast.core.data.entities.MediaObjectDescriptor;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+
+/**
+ * A bounded, thread-safe cache for {@link MediaSegmentDescriptor}s and {@link MediaObjectDescriptor}s, which is consulted by {@link MediaSegmentReader} and {@link MediaObjectReader} before they query the database.
+ * <p>
+ * Descriptors do not change after ingest, hence cached entries are only dropped if they are evicted or once a {@link org.vitrivr.cineast.core.db.dao.writer.MediaSegmentWriter} or {@link org.vitrivr.cineast.core.db.dao.writer.MediaObjectWriter} using the same cache has persisted additions to them. Changes made by other processes, e.g., a separate ingest, are not noticed: a cached list of segments of an object stays incomplete until it is evicted or {@link #invalidateAll()} is called. Only descriptors that exist are cached; missing ones are looked up again every time. In addition to the descriptors, the cache maintains a reverse index from an object to the ids of all its segments, which is filled whenever all segments of an object have been looked up.
+ */
+public final class DescriptorCache {
+
+  /**
+   * Default maximum number of cached {@link MediaSegmentDescriptor}s.
+   */
+  public static final int DEFAULT_MAX_SEGMENTS = 100_000;
+
+  /**
+   * Default maximum number of cached {@link MediaObjectDescriptor}s and object to segments entries.
+   */
+  public static final int DEFAULT_MAX_OBJECTS = 20_000;
+
+  /**
+   * The {@link DescriptorCache} shared by all readers that are not given one explicitly.
+   */
+  private static final DescriptorCache SHARED = new DescriptorCache(DEFAULT_MAX_SEGMENTS, DEFAULT_MAX_OBJECTS);
+
+  /**
+   * Cached {@link MediaSegmentDescriptor}s by segment id.
+   */
+  private final Cache<String, MediaSegmentDescriptor> segments;
+
+  /**
+   * Cached {@link MediaObjectDescriptor}s by object id.
+   */
+  private final Cache<String, MediaObjectDescriptor> objects;
+
+  /**
+   * Ids of all segments of an object by object id, in the order they were returned by the database.
+   */
+  private final Cache<String, List<String>> segmentsOfObject;
+
+  /**
+   * @param maxSegments Maximum number of cached {@link MediaSegmentDescriptor}s.
+   * @param maxObjects  Maximum number of cached {@link MediaObjectDescriptor}s and object to segments entries.
+   */
+  public DescriptorCache(int maxSegments, int maxObjects) {
+    this.segments = CacheBuilder.newBuilder().maximumSize(maxSegments).recordStats().build();
+    this.objects = CacheBuilder.newBuilder().maximumSize(maxObjects).recordStats().build();
+    this.segmentsOfObject = CacheBuilder.newBuilder().maximumSize(maxObjects).recordStats().build();
+  }
+
+  /**
+   * @return The {@link DescriptorCache} shared by all readers that are not given one explicitly.
+   */
+  public static DescriptorCache shared() {
+    return SHARED;
+  }
+
+  public Optional<MediaSegmentDescriptor> getSegment(String segmentId) {
+    return Optional.ofNullable(this.segments.getIfPresent(segmentId));
+  }
+
+  public void putSegment(MediaSegmentDescriptor descriptor) {
+    if (descriptor.exists()) {
+      this.segments.put(descriptor.getSegmentId(), descriptor);
+    }
+  }
+
+  /**
+   * Returns all segments of the given object, if they are known to this {@link DescriptorCache}.
+   *
+   * @param objectId The id of the object.
+   * @return Optional list of the segments of the object. Empty if they are not known or if one of them has been evicted.
+   */
+  public Optional<List<MediaSegmentDescriptor>> getSegmentsOfObject(String objectId) {
+    final List<String> segmentIds = this.segmentsOfObject.getIfPresent(objectId);
+    if (segmentIds == null) {
+      return Optional.empty();
+    }
+    final List<MediaSegmentDescriptor> _return = new ArrayList<>(segmentIds.size());
+    for (String segmentId : segmentIds) {
+      final MediaSegmentDescriptor descriptor = this.segments.getIfPresent(segmentId);
+      if (descriptor == null) {
+        this.segmentsOfObject.invalidate(objectId);
+        return Optional.empty();
+      }
+      _return.add(descriptor);
+    }
+    return Optional.of(_return);
+  }
+
+  /**
+   * Caches the given segments as the complete list of segments of the given object.
+   *
+   * @param objectId The id of the object.
+   * @param segments All segments of the object.
+   */
+  public void putSegmentsOfObject(String objectId, Collection<MediaSegmentDescriptor> segments) {
+    if (segments.isEmpty()) {
+      return;
+    }
+    final List<String> segmentIds = new ArrayList<>(segments.size());
+    for (MediaSegmentDescriptor descriptor : segments) {
+      this.putSegment(descriptor);
+      segmentIds.add(descriptor.getSegmentId());
+    }
+    this.segmentsOfObject.put(objectId, Collections.unmodifiableList(segmentIds));
+  }
+
+  public Optional<MediaObjectDescriptor> getObject(String objectId) {
+    return Optional.ofNullable(this.objects.getIfPresent(objectId));
+  }
+
+  public void putObject(MediaObjectDescriptor descriptor) {
+    if (descriptor.exists()) {
+      this.objects.put(descriptor.getObjectId(), descriptor);
+    }
+  }
+
+  /**
+   * Drops the cached list of segments of the given object, e.g., because a segment has been added to it.
+   *
+   * @param objectId The id of the object.
+   */
+  public void invalidateSegmentsOfObject(String objectId) {
+    this.segmentsOfObject.invalidate(objectId);
+  }
+
+  /**
+   * Drops the cached descriptor and the cached list of segments of the given object.
+   *
+   * @param objectId The id of the object.
+   */
+  public void invalidateObject(String objectId) {
+    this.objects.invalidate(objectId);
+    this.segmentsOfObject.invalidate(objectId);
+  }
+
+  /**
+   * Drops all cached entries.
+   */
+  public void invalidateAll() {
+    this.segments.invalidateAll();
+    this.objects.invalidateAll();
+    this.segmentsOfObject.invalidateAll();
+  }
+}
@@ -4,8 +4,11 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.data.MediaType;
@@ -19,24 +22,47 @@ public class MediaObjectReader extends AbstractEntityReader {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  /**
+   * The {@link DescriptorCache} consulted before the database is queried.
+   */
+  private final DescriptorCache cache;
+
   /**
    * Constructor for MediaObjectReader
    *
    * @param selector DBSelector to use for the MediaObjectMetadataReader instance.
    */
   public MediaObjectReader(DBSelector selector) {
+    this(selector, DescriptorCache.shared());
+  }
+
+  /**
+   * Constructor for MediaObjectReader
+   *
+   * @param selector DBSelector to use for the MediaObjectMetadataReader instance.
+   * @param cache    {@link DescriptorCache} to consult before querying the database.
+   */
+  public MediaObjectReader(DBSelector selector, DescriptorCache cache) {
     super(selector);
+    this.cache = cache;
     this.selector.open(MediaObjectDescriptor.ENTITY);
   }
 
   public MediaObjectDescriptor lookUpObjectById(String objectId) {
+    Optional<MediaObjectDescriptor> cached = this.cache.getObject(objectId);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+
     List<Map<String, PrimitiveTypeProvider>> result = selector.getRows(MediaObjectDescriptor.FIELDNAMES[0], new StringTypeProvider(objectId));
 
     if (result.isEmpty()) {
       return new MediaObjectDescriptor();
     }
 
-    return mapToDescriptor(result.get(0));
+    MediaObjectDescriptor descriptor = mapToDescriptor(result.get(0));
+    this.cache.putObject(descriptor);
+    return descriptor;
   }
 
   private MediaObjectDescriptor mapToDescriptor(Map<String, PrimitiveTypeProvider> map) {
@@ -100,15 +126,32 @@ public MediaObjectDescriptor lookUpObjectByPath(String path) {
     return mapToDescriptor(result.get(0));
   }
 
+  /**
+   * Looks up the objects with the given ids. Objects that are not cached are fetched from the database in a single query.
+   */
   public Map<String, MediaObjectDescriptor> lookUpObjects(Iterable<String> videoIds) {
     if (videoIds == null) {
       return new HashMap<>();
     }
 
     HashMap<String, MediaObjectDescriptor> _return = new HashMap<>();
-    List<Map<String, PrimitiveTypeProvider>> results = selector.getRows(MediaObjectDescriptor.FIELDNAMES[0], Lists.newArrayList(videoIds));
+    Set<String> missing = new HashSet<>();
+    for (String videoId : videoIds) {
+      Optional<MediaObjectDescriptor> cached = this.cache.getObject(videoId);
+      if (cached.isPresent()) {
+        _return.put(videoId, cached.get());
+      } else {
+        missing.add(videoId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return _return;
+    }
+
+    List<Map<String, PrimitiveTypeProvider>> results = selector.getRows(MediaObjectDescriptor.FIELDNAMES[0], Lists.newArrayList(missing));
     results.forEach(el -> {
       MediaObjectDescriptor d = mapToDescriptor(el);
+      this.cache.putObject(d);
       _return.put(d.getObjectId(), d);
     });
 
@@ -2,6 +2,7 @@
 
 import com.google.common.collect.ListMultimap;
 import com.google.common.collect.Lists;
+import com.google.common.collect.MultimapBuilder;
 import com.google.common.collect.Multimaps;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -23,13 +24,29 @@ public class MediaSegmentReader extends AbstractEntityReader {
 
   private static final Logger LOGGER = LogManager.getLogger();
 
+  /**
+   * The {@link DescriptorCache} consulted before the database is queried.
+   */
+  private final DescriptorCache cache;
+
   /**
    * Constructor for MediaSegmentReader
    *
    * @param dbSelector DBSelector to use for the MediaObjectMetadataReader instance.
    */
   public MediaSegmentReader(DBSelector dbSelector) {
+    this(dbSelector, DescriptorCache.shared());
+  }
+
+  /**
+   * Constructor for MediaSegmentReader
+   *
+   * @param dbSelector DBSelector to use for the MediaObjectMetadataReader instance.
+   * @param cache      {@link DescriptorCache} to consult before querying the database.
+   */
+  public MediaSegmentReader(DBSelector dbSelector, DescriptorCache cache) {
     super(dbSelector);
+    this.cache = cache;
     this.selector.open(MediaSegmentDescriptor.ENTITY);
   }
 
@@ -61,30 +78,74 @@ private static Optional<MediaSegmentDescriptor> propertiesToDescriptor(
   }
 
   public Optional<MediaSegmentDescriptor> lookUpSegment(String segmentId) {
-    Stream<MediaSegmentDescriptor> descriptors =
-        this.lookUpSegmentsByField(FIELDNAMES[0], segmentId);
-    return descriptors.findFirst();
+    Optional<MediaSegmentDescriptor> cached = this.cache.getSegment(segmentId);
+    if (cached.isPresent()) {
+      return cached;
+    }
+    Optional<MediaSegmentDescriptor> descriptor = this.lookUpSegmentsByField(FIELDNAMES[0], segmentId).findFirst();
+    descriptor.ifPresent(this.cache::putSegment);
+    return descriptor;
   }
 
+  /**
+   * Looks up the segments with the given ids. Segments that are not cached are fetched from the database in a single query.
+   */
   public Map<String, MediaSegmentDescriptor> lookUpSegments(Iterable<String> segmentIds) {
-    Stream<MediaSegmentDescriptor> descriptors = this.lookUpSegmentsByField(FIELDNAMES[0], segmentIds);
-    //this implicitly deduplicates the stream
     Map<String, MediaSegmentDescriptor> _return = new HashMap<>();
-    descriptors.forEach(msd -> _return.put(msd.getSegmentId(), msd));
+    Set<String> missing = new HashSet<>();
+    for (String segmentId : segmentIds) {
+      Optional<MediaSegmentDescriptor> cached = this.cache.getSegment(segmentId);
+      if (cached.isPresent()) {
+        _return.put(segmentId, cached.get());
+      } else {
+        missing.add(segmentId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return _return;
+    }
+    //this implicitly deduplicates the stream
+    this.lookUpSegmentsByField(FIELDNAMES[0], missing).forEach(msd -> {
+      this.cache.putSegment(msd);
+      _return.put(msd.getSegmentId(), msd);
+    });
     return _return;
   }
 
   public List<MediaSegmentDescriptor> lookUpSegmentsOfObject(String objectId) {
-    Stream<MediaSegmentDescriptor> descriptors =
-        this.lookUpSegmentsByField(FIELDNAMES[1], objectId);
-    return descriptors.collect(Collectors.toList());
+    Optional<List<MediaSegmentDescriptor>> cached = this.cache.getSegmentsOfObject(objectId);
+    if (cached.isPresent()) {
+      return cached.get();
+    }
+    List<MediaSegmentDescriptor> descriptors = this.lookUpSegmentsByField(FIELDNAMES[1], objectId).collect(Collectors.toList());
+    this.cache.putSegmentsOfObject(objectId, descriptors);
+    return descriptors;
   }
 
+  /**
+   * Looks up the segments of the given objects. Objects whose segments are not cached are fetched from the database in a single query.
+   */
   public ListMultimap<String, MediaSegmentDescriptor> lookUpSegmentsOfObjects(
       Iterable<String> objectIds) {
-    Stream<MediaSegmentDescriptor> descriptors =
-        this.lookUpSegmentsByField(FIELDNAMES[1], objectIds);
-    return Multimaps.index(descriptors.iterator(), MediaSegmentDescriptor::getObjectId);
+    ListMultimap<String, MediaSegmentDescriptor> _return = MultimapBuilder.hashKeys().arrayListValues().build();
+    Set<String> missing = new HashSet<>();
+    for (String objectId : objectIds) {
+      Optional<List<MediaSegmentDescriptor>> cached = this.cache.getSegmentsOfObject(objectId);
+      if (cached.isPresent()) {
+        _return.putAll(objectId, cached.get());
+      } else {
+        missing.add(objectId);
+      }
+    }
+    if (missing.isEmpty()) {
+      return _return;
+    }
+    ListMultimap<String, MediaSegmentDescriptor> fetched = Multimaps.index(this.lookUpSegmentsByField(FIELDNAMES[1], missing).iterator(), MediaSegmentDescriptor::getObjectId);
+    for (String objectId : fetched.keySet()) {
+      this.cache.putSegmentsOfObject(objectId, fetched.get(objectId));
+    }
+    _return.putAll(fetched);
+    return _return;
   }
 
   public List<MediaSegmentDescriptor> lookUpSegmentByNumber(String objectId, int segmentNumber){
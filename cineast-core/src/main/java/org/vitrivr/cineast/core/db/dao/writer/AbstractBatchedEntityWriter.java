@@ -4,6 +4,7 @@
 import org.vitrivr.cineast.core.db.PersistentTuple;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
@@ -13,6 +14,9 @@
     /** The {@link Queue} used to store {@link PersistentTuple}s until they are flushed to disk. */
     private final ArrayBlockingQueue<PersistentTuple> buffer;
 
+    /** The entities whose {@link PersistentTuple}s are currently held by the buffer. */
+    private final List<T> buffered;
+
     /** {@link PersistencyWriter} instance used to persist changes to the underlying persistence layer. */
     protected PersistencyWriter<?> writer;
 
@@ -22,8 +26,10 @@ protected AbstractBatchedEntityWriter(PersistencyWriter<?> writer, int batchsize
         this.batch = batchsize > 1;
         if(this.batch){
             this.buffer = new ArrayBlockingQueue<>(batchsize);
+            this.buffered = new ArrayList<>(batchsize);
         } else {
             this.buffer = null; //not used
+            this.buffered = null; //not used
         }
         this.writer = writer;
         if (init) {
@@ -42,6 +48,17 @@ protected AbstractBatchedEntityWriter(PersistencyWriter<?> writer, int batchsize
      */
     protected abstract PersistentTuple generateTuple(T entity);
 
+    /**
+     * Invoked once the provided entities have been written by the underlying persistence layer, i.e. after they have been
+     * written if not batched or after the buffer has been flushed otherwise. If the {@link PersistencyWriter} persists
+     * asynchronously, this is invoked by the thread that has written them, see {@link PersistencyWriter#whenPersisted(Runnable)}.
+     * Does nothing by default.
+     *
+     * @param entities The entities that have been persisted.
+     */
+    protected void persisted(List<T> entities) {
+    }
+
     /**
      * Persists the provided entity by first converting it to a {@link PersistentTuple} and subsequently writing that tuple to the local buffer.
      * If the buffer is full, i.e. the batch size was reached, then buffer is flushed first.
@@ -58,8 +75,10 @@ public void write(T entity) {
                 this.flush();
             }
             this.buffer.offer(tuple);
+            this.buffered.add(entity);
         } else {
             this.writer.persist(tuple);
+            this.writer.whenPersisted(() -> this.persisted(Collections.singletonList(entity)));
         }
     }
 
@@ -76,7 +95,10 @@ public final void flush() {
         }
         final List<PersistentTuple> batch = new ArrayList<>(buffer.size());
         this.buffer.drainTo(batch);
+        final List<T> entities = new ArrayList<>(this.buffered);
+        this.buffered.clear();
         this.writer.persist(batch);
+        this.writer.whenPersisted(() -> this.persisted(entities));
     }
 
     /**
@@ -0,0 +1,292 @@
+package org.vitrivr.cineast.core.db.dao.writer;
+
+import static org.vitrivr.cineast.core.util.CineastConstants.GENERIC_ID_COLUMN_QUALIFIER;
+
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import java.nio.charset.StandardCharsets;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
+import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.DBSelectorSupplier;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+
+/**
+ * A {@link PersistencyWriter} that answers {@link #idExists(String)} locally. Upon the first existence check, the tuples still pending in the wrapped writer are awaited and all ids of the opened entity are loaded with a single query. Ids persisted through this writer while or after the ids are loaded are added to the local index.
+ * <p>
+ * Entities with up to {@link #DEFAULT_MAX_EXACT_IDS} ids are indexed exactly. For larger entities, a {@link BloomFilter} is used instead and positive answers are confirmed by the wrapped {@link PersistencyWriter}.
+ */
+public final class BulkExistenceCheckingWriter<R> implements PersistencyWriter<R> {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /**
+   * Maximum number of ids that are kept in an exact index.
+   */
+  public static final int DEFAULT_MAX_EXACT_IDS = 1_000_000;
+
+  /**
+   * False positive probability of the {@link BloomFilter} used for large entities.
+   */
+  private static final double BLOOM_FPP = 0.01;
+
+  private final PersistencyWriter<R> writer;
+
+  private final DBSelectorSupplier selectorSupplier;
+
+  private final int maxExactIds;
+
+  /**
+   * Name of the entity opened by this {@link BulkExistenceCheckingWriter}.
+   */
+  private String entity;
+
+  /**
+   * Exact index of ids; null if not loaded or if the {@link #bloomFilter} is used.
+   */
+  private volatile Set<String> ids;
+
+  /**
+   * Approximate index of ids; null if not loaded or if the exact index is used.
+   */
+  private volatile BloomFilter<CharSequence> bloomFilter;
+
+  /**
+   * Whether loading the ids failed, in which case all checks are delegated.
+   */
+  private volatile boolean unavailable = false;
+
+  /**
+   * Guards {@link #recorded} and the publication of the local index, so that no id persisted during the load is lost.
+   */
+  private final Object recordLock = new Object();
+
+  /**
+   * Ids persisted through this writer while the ids are being loaded; null if no load is in progress. Guarded by {@link #recordLock}.
+   */
+  private Set<String> recorded;
+
+  public BulkExistenceCheckingWriter(PersistencyWriter<R> writer, DBSelectorSupplier selectorSupplier) {
+    this(writer, selectorSupplier, DEFAULT_MAX_EXACT_IDS);
+  }
+
+  /**
+   * @param writer           The wrapped {@link PersistencyWriter}.
+   * @param selectorSupplier Supplies the {@link DBSelector} used to load the ids of the opened entity.
+   * @param maxExactIds      Maximum number of ids that are indexed exactly.
+   */
+  public BulkExistenceCheckingWriter(PersistencyWriter<R> writer, DBSelectorSupplier selectorSupplier, int maxExactIds) {
+    this.writer = writer;
+    this.selectorSupplier = selectorSupplier;
+    this.maxExactIds = maxExactIds;
+  }
+
+  @Override
+  public boolean open(String name) {
+    this.entity = name;
+    return this.writer.open(name);
+  }
+
+  @Override
+  public boolean close() {
+    return this.writer.close();
+  }
+
+  @Override
+  public boolean idExists(String id) {
+    if (!this.ensureLoaded()) {
+      return this.writer.idExists(id);
+    }
+    final Set<String> exact = this.ids;
+    if (exact != null) {
+      return exact.contains(id);
+    }
+    return this.bloomFilter.mightContain(id) && this.writer.idExists(id);
+  }
+
+  @Override
+  public boolean exists(String key, String value) {
+    if (GENERIC_ID_COLUMN_QUALIFIER.equals(key)) {
+      return this.idExists(value);
+    }
+    return this.writer.exists(key, value);
+  }
+
+  @Override
+  public PersistentTuple generateTuple(Object... objects) {
+    return this.writer.generateTuple(objects);
+  }
+
+  @Override
+  public boolean persist(PersistentTuple tuple) {
+    final boolean success = this.writer.persist(tuple);
+    this.record(tuple);
+    return success;
+  }
+
+  @Override
+  public void setFieldNames(String... names) {
+    this.writer.setFieldNames(names);
+  }
+
+  @Override
+  public boolean persist(List<PersistentTuple> tuples) {
+    final boolean success = this.writer.persist(tuples);
+    tuples.forEach(this::record);
+    return success;
+  }
+
+  @Override
+  public R getPersistentRepresentation(PersistentTuple tuple) {
+    return this.writer.getPersistentRepresentation(tuple);
+  }
+
+  @Override
+  public void awaitPending() {
+    this.writer.awaitPending();
+  }
+
+  @Override
+  public void whenPersisted(Runnable action) {
+    this.writer.whenPersisted(action);
+  }
+
+  /**
+   * Adds the id of the given tuple, which is expected to be its first element, to the local index if it has been loaded, or remembers it if the index is being loaded. Ids persisted before a load has started are found by the load itself.
+   */
+  private void record(PersistentTuple tuple) {
+    final List<Object> elements = tuple.getElements();
+    if (elements.isEmpty() || !(elements.get(0) instanceof String)) {
+      return;
+    }
+    final String id = (String) elements.get(0);
+    if (this.addToIndex(id)) {
+      return;
+    }
+    synchronized (this.recordLock) {
+      if (!this.addToIndex(id) && this.recorded != null) {
+        this.recorded.add(id);
+      }
+    }
+  }
+
+  /**
+   * @return true if the local index has been loaded and the id has been added to it.
+   */
+  private boolean addToIndex(String id) {
+    final Set<String> exact = this.ids;
+    if (exact != null) {
+      exact.add(id);
+      return true;
+    }
+    final BloomFilter<CharSequence> filter = this.bloomFilter;
+    if (filter != null) {
+      filter.put(id);
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Loads the ids of the opened entity, unless they have been loaded before. If the ids cannot be loaded, the index is marked as unavailable and all checks are delegated to the wrapped {@link PersistencyWriter} from then on.
+   *
+   * @return true if the local index is available, false if checks must be delegated.
+   */
+  private boolean ensureLoaded() {
+    if (this.ids != null || this.bloomFilter != null) {
+      return true;
+    }
+    if (this.unavailable || this.entity == null) {
+      return false;
+    }
+    synchronized (this) {
+      if (this.ids != null || this.bloomFilter != null) {
+        return true;
+      }
+      if (this.unavailable) {
+        return false;
+      }
+      /* Tuples still queued by the wrapped writer (e.g. write-behind) would otherwise be missing from the database. */
+      this.writer.awaitPending();
+      synchronized (this.recordLock) {
+        this.recorded = new HashSet<>();
+      }
+      final DBSelector selector = this.selectorSupplier.get();
+      try {
+        selector.open(this.entity);
+        final long start = System.currentTimeMillis();
+        final IndexBuilder builder = new IndexBuilder(this.maxExactIds);
+        selector.forEachValue(GENERIC_ID_COLUMN_QUALIFIER, builder);
+        synchronized (this.recordLock) {
+          this.recorded.forEach(builder::add);
+          this.recorded = null;
+          if (builder.bloomFilter != null) {
+            this.bloomFilter = builder.bloomFilter;
+          } else {
+            this.ids = builder.exact;
+          }
+        }
+        LOGGER.debug("Loaded {} ids of entity {} in {} ms.", builder.count, this.entity, System.currentTimeMillis() - start);
+        return true;
+      } catch (Exception e) {
+        LOGGER.warn("Failed to load ids of entity {}; existence checks are delegated to the database: {}", this.entity, e.getMessage());
+        synchronized (this.recordLock) {
+          this.recorded = null;
+        }
+        this.unavailable = true;
+        return false;
+      } finally {
+        selector.close();
+      }
+    }
+  }
+
+  /**
+   * Builds the local index from a stream of ids. Ids are indexed exactly until there are more than the maximum number of exact ids; from then on, the ids are put into a {@link BloomFilter} without being retained.
+   */
+  private static final class IndexBuilder implements Consumer<PrimitiveTypeProvider> {
+
+    /**
+     * Number of ids the {@link BloomFilter} is sized for, as a multiple of the maximum number of exact ids. The total number of ids is not known while streaming; if it is exceeded, the false positive probability grows, which only costs additional delegated checks.
+     */
+    private static final int BLOOM_CAPACITY_FACTOR = 4;
+
+    private final int maxExactIds;
+
+    private Set<String> exact = ConcurrentHashMap.newKeySet();
+
+    private BloomFilter<CharSequence> bloomFilter;
+
+    private long count;
+
+    private IndexBuilder(int maxExactIds) {
+      this.maxExactIds = maxExactIds;
+    }
+
+    @Override
+    public void accept(PrimitiveTypeProvider id) {
+      this.count++;
+      this.add(id.getString());
+    }
+
+    private void add(String id) {
+      if (this.bloomFilter != null) {
+        this.bloomFilter.put(id);
+        return;
+      }
+      this.exact.add(id);
+      if (this.exact.size() > this.maxExactIds) {
+        this.bloomFilter = BloomFilter.create(Funnels.stringFunnel(StandardCharsets.UTF_8), Math.max(1024L, (long) BLOOM_CAPACITY_FACTOR * this.maxExactIds), BLOOM_FPP);
+        this.exact.forEach(this.bloomFilter::put);
+        this.exact = null;
+      }
+    }
+  }
+}
@@ -3,15 +3,42 @@
 import org.vitrivr.cineast.core.data.entities.MediaObjectDescriptor;
 import org.vitrivr.cineast.core.db.PersistencyWriter;
 import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.dao.reader.DescriptorCache;
+
+import java.util.List;
 
 
 
 public class MediaObjectWriter extends AbstractBatchedEntityWriter<MediaObjectDescriptor> {
+    /** The {@link DescriptorCache} whose entries are dropped once objects have been persisted. */
+    private final DescriptorCache cache;
+
     /**
      * @param writer
      */
     public MediaObjectWriter(PersistencyWriter<?> writer) {
+        this(writer, DescriptorCache.shared());
+    }
+
+    /**
+     * @param writer
+     * @param cache  {@link DescriptorCache} used by the readers of the persisted objects.
+     */
+    public MediaObjectWriter(PersistencyWriter<?> writer, DescriptorCache cache) {
         super(writer, 1, true);
+        this.cache = cache;
+    }
+
+    /**
+     * Drops the cached descriptors of the persisted objects, which may be outdated.
+     *
+     * @param entities The persisted {@link MediaObjectDescriptor}s.
+     */
+    @Override
+    protected void persisted(List<MediaObjectDescriptor> entities) {
+        for (MediaObjectDescriptor entity : entities) {
+            this.cache.invalidateObject(entity.getObjectId());
+        }
     }
 
     /**
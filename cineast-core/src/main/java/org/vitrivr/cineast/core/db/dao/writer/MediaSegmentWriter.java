@@ -3,14 +3,20 @@
 import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
 import org.vitrivr.cineast.core.db.PersistencyWriter;
 import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.dao.reader.DescriptorCache;
+
+import java.util.List;
 
 
 public class MediaSegmentWriter extends AbstractBatchedEntityWriter<MediaSegmentDescriptor> {
+    /** The {@link DescriptorCache} whose entries are dropped once segments have been persisted. */
+    private final DescriptorCache cache;
+
     /**
      * @param writer
      */
     public MediaSegmentWriter(PersistencyWriter<?> writer) {
-        super(writer, 1, true);
+        this(writer, 1);
     }
 
     /**
@@ -18,7 +24,29 @@ public MediaSegmentWriter(PersistencyWriter<?> writer) {
      * @param batchsize
      */
     public MediaSegmentWriter(PersistencyWriter<?> writer, int batchsize) {
+        this(writer, batchsize, DescriptorCache.shared());
+    }
+
+    /**
+     * @param writer
+     * @param batchsize
+     * @param cache     {@link DescriptorCache} used by the readers of the persisted segments.
+     */
+    public MediaSegmentWriter(PersistencyWriter<?> writer, int batchsize, DescriptorCache cache) {
         super(writer, batchsize, true);
+        this.cache = cache;
+    }
+
+    /**
+     * Drops the cached lists of segments of the objects the persisted segments belong to, which are now incomplete.
+     *
+     * @param entities The persisted {@link MediaSegmentDescriptor}s.
+     */
+    @Override
+    protected void persisted(List<MediaSegmentDescriptor> entities) {
+        for (MediaSegmentDescriptor entity : entities) {
+            this.cache.invalidateSegmentsOfObject(entity.getObjectId());
+        }
     }
 
     /**
@@ -0,0 +1,291 @@
+package org.vitrivr.cineast.core.db.dao.writer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.util.LogHelper;
+
+/**
+ * A {@link PersistencyWriter} that persists tuples asynchronously. Calls to persist only add the tuples to a bounded queue, which is drained by a shared {@link Executor}; tuples that have queued up in the meantime are coalesced into a single batch. If the queue is full, persisting blocks until space becomes available.
+ * <p>
+ * Closing the {@link WriteBehindWriter} as well as existence checks wait until all queued tuples have been persisted. Tuples that could not be persisted are logged and counted, see {@link #getFailedTuples()}.
+ */
+public final class WriteBehindWriter<R> implements PersistencyWriter<R> {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final PersistencyWriter<R> writer;
+
+  private final Executor executor;
+
+  /**
+   * Maximum number of tuples that are queued or being persisted.
+   */
+  private final int capacity;
+
+  /**
+   * Tuples that have not yet been handed to the wrapped {@link PersistencyWriter}.
+   */
+  private final ArrayDeque<PersistentTuple> pending = new ArrayDeque<>();
+
+  /**
+   * Number of tuples that are queued or being persisted. Guarded by this.
+   */
+  private int outstanding = 0;
+
+  /**
+   * Total number of tuples queued so far. Guarded by this.
+   */
+  private long queued = 0;
+
+  /**
+   * Total number of tuples that have been persisted (or failed to) so far. Guarded by this.
+   */
+  private long completed = 0;
+
+  /**
+   * Actions waiting for the tuples queued before them, in the order they were registered. Guarded by this.
+   */
+  private final ArrayDeque<Callback> callbacks = new ArrayDeque<>();
+
+  /**
+   * Whether a drain task has been scheduled. Guarded by this.
+   */
+  private boolean draining = false;
+
+  /**
+   * Number of tuples that could not be persisted. Guarded by this.
+   */
+  private long failed = 0;
+
+  /**
+   * Name of the entity opened by this {@link WriteBehindWriter}.
+   */
+  private String entity;
+
+  /**
+   * @param writer   The wrapped {@link PersistencyWriter}, which is only accessed by one thread at a time.
+   * @param executor The {@link Executor} used to persist queued tuples.
+   * @param capacity Maximum number of tuples that are queued before persisting blocks.
+   */
+  public WriteBehindWriter(PersistencyWriter<R> writer, Executor executor, int capacity) {
+    if (capacity < 1) {
+      throw new IllegalArgumentException("Capacity must be positive");
+    }
+    this.writer = writer;
+    this.executor = executor;
+    this.capacity = capacity;
+  }
+
+  @Override
+  public boolean open(String name) {
+    this.entity = name;
+    synchronized (this.writer) {
+      return this.writer.open(name);
+    }
+  }
+
+  /**
+   * Waits until all queued tuples have been persisted and closes the wrapped {@link PersistencyWriter}.
+   */
+  @Override
+  public boolean close() {
+    this.awaitPending();
+    synchronized (this) {
+      if (this.failed > 0) {
+        LOGGER.error("{} tuple(s) could not be persisted to entity {}.", this.failed, this.entity);
+      }
+    }
+    synchronized (this.writer) {
+      return this.writer.close();
+    }
+  }
+
+  @Override
+  public boolean idExists(String id) {
+    this.awaitPending();
+    synchronized (this.writer) {
+      return this.writer.idExists(id);
+    }
+  }
+
+  @Override
+  public boolean exists(String key, String value) {
+    this.awaitPending();
+    synchronized (this.writer) {
+      return this.writer.exists(key, value);
+    }
+  }
+
+  @Override
+  public PersistentTuple generateTuple(Object... objects) {
+    return this.writer.generateTuple(objects);
+  }
+
+  @Override
+  public boolean persist(PersistentTuple tuple) {
+    final List<PersistentTuple> tuples = new ArrayList<>(1);
+    tuples.add(tuple);
+    return this.persist(tuples);
+  }
+
+  @Override
+  public void setFieldNames(String... names) {
+    synchronized (this.writer) {
+      this.writer.setFieldNames(names);
+    }
+  }
+
+  /**
+   * Queues the given tuples for persisting. Blocks while the queue is full.
+   *
+   * @return true if the tuples have been queued, false if the calling thread was interrupted.
+   */
+  @Override
+  public boolean persist(List<PersistentTuple> tuples) {
+    if (tuples.isEmpty()) {
+      return true;
+    }
+    synchronized (this) {
+      /* An oversized list is accepted once everything before it has been persisted. */
+      while (this.outstanding > 0 && this.outstanding + tuples.size() > this.capacity) {
+        try {
+          this.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return false;
+        }
+      }
+      this.pending.addAll(tuples);
+      this.outstanding += tuples.size();
+      this.queued += tuples.size();
+      if (this.draining) {
+        return true;
+      }
+      this.draining = true;
+    }
+    try {
+      this.executor.execute(this::drain);
+    } catch (RejectedExecutionException e) {
+      LOGGER.warn("Write-behind executor rejected task for entity {}; persisting synchronously.", this.entity);
+      this.drain();
+    }
+    return true;
+  }
+
+  @Override
+  public R getPersistentRepresentation(PersistentTuple tuple) {
+    return this.writer.getPersistentRepresentation(tuple);
+  }
+
+  /**
+   * @return The number of tuples that could not be persisted so far.
+   */
+  public synchronized long getFailedTuples() {
+    return this.failed;
+  }
+
+  /**
+   * Blocks until all queued tuples have been persisted.
+   */
+  @Override
+  public synchronized void awaitPending() {
+    boolean interrupted = false;
+    while (this.outstanding > 0) {
+      try {
+        this.wait();
+      } catch (InterruptedException e) {
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * Runs the given action once all tuples queued so far have been persisted (or failed to), on the thread that persisted the last of them. If no tuples are outstanding, the action runs immediately.
+   */
+  @Override
+  public void whenPersisted(Runnable action) {
+    synchronized (this) {
+      if (this.completed < this.queued) {
+        this.callbacks.add(new Callback(this.queued, action));
+        return;
+      }
+    }
+    action.run();
+  }
+
+  /**
+   * Persists queued tuples until the queue is empty. Only one drain task per {@link WriteBehindWriter} runs at any time.
+   */
+  private void drain() {
+    while (true) {
+      final List<PersistentTuple> batch;
+      synchronized (this) {
+        if (this.pending.isEmpty()) {
+          this.draining = false;
+          return;
+        }
+        batch = new ArrayList<>(this.pending);
+        this.pending.clear();
+      }
+
+      boolean success;
+      try {
+        synchronized (this.writer) {
+          success = this.writer.persist(batch);
+        }
+      } catch (Exception e) {
+        LOGGER.error("Failed to persist {} tuple(s) to entity {}: {}", batch.size(), this.entity, LogHelper.getStackTrace(e));
+        success = false;
+      }
+
+      /* Callbacks run before the tuples count as done, so that awaitPending() also waits for them. */
+      final List<Runnable> ready = new ArrayList<>();
+      synchronized (this) {
+        if (!success) {
+          this.failed += batch.size();
+        }
+        this.completed += batch.size();
+        while (!this.callbacks.isEmpty() && this.callbacks.peek().sequence <= this.completed) {
+          ready.add(this.callbacks.poll().action);
+        }
+      }
+      for (Runnable action : ready) {
+        try {
+          action.run();
+        } catch (Exception e) {
+          LOGGER.error("Callback after persisting to entity {} failed: {}", this.entity, LogHelper.getStackTrace(e));
+        }
+      }
+
+      synchronized (this) {
+        this.outstanding -= batch.size();
+        this.notifyAll();
+      }
+    }
+  }
+
+  /**
+   * An action waiting until the given number of tuples have been persisted.
+   */
+  private static final class Callback {
+
+    private final long sequence;
+
+    private final Runnable action;
+
+    private Callback(long sequence, Runnable action) {
+      this.sequence = sequence;
+      this.action = action;
+    }
+  }
+}
@@ -0,0 +1,516 @@
+package org.vitrivr.cineast.core.db.memory;
+
+import static org.vitrivr.cineast.core.util.CineastConstants.DB_DISTANCE_VALUE_QUALIFIER;
+import static org.vitrivr.cineast.core.util.CineastConstants.GENERIC_ID_COLUMN_QUALIFIER;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+import org.apache.commons.lang3.tuple.Triple;
+import org.apache.commons.text.similarity.LevenshteinDistance;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.config.ReadableQueryConfig;
+import org.vitrivr.cineast.core.data.distance.DistanceElement;
+import org.vitrivr.cineast.core.data.providers.primitive.FloatTypeProvider;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
+import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.RelationalOperator;
+import org.vitrivr.cineast.core.db.memory.InMemoryStore.Entity;
+import org.vitrivr.cineast.core.util.distance.FloatArrayDistance;
+
+/**
+ * Implementation of a Cineast {@link DBSelector} on top of the {@link InMemoryStore}.
+ * <p>
+ * kNN lookups are performed as brute-force scans over the columnar vector storage of an {@link Entity}, boolean lookups as full scans with the exception of lookups by id. Fulltext lookups support a subset of the Apache Lucene syntax: plain terms (all words must occur), quoted phrases and fuzzy terms (e.g. hello~1).
+ *
+ * @see InMemoryStore
+ */
+public class InMemorySelector implements DBSelector {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /**
+   * Pattern used to split text into words for fulltext lookups.
+   */
+  private static final Pattern WORD_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+  private final InMemoryStore store;
+
+  private Entity entity = null;
+
+  public InMemorySelector() {
+    this(InMemoryStore.sharedInMemoryStore());
+  }
+
+  public InMemorySelector(InMemoryStore store) {
+    this.store = store;
+  }
+
+  @Override
+  public boolean open(String name) {
+    final Optional<Entity> entity = this.store.getEntity(name);
+    if (entity.isPresent()) {
+      this.entity = entity.get();
+      return true;
+    } else {
+      this.entity = null;
+      return false;
+    }
+  }
+
+  @Override
+  public boolean close() {
+    this.entity = null;
+    return true;
+  }
+
+  @Override
+  public <E extends DistanceElement> List<E> getNearestNeighboursGeneric(int k, float[] query, String column, Class<E> distanceElementClass, ReadableQueryConfig config) {
+    return this.getBatchedNearestNeighbours(k, Collections.singletonList(query), column, distanceElementClass, Collections.singletonList(config));
+  }
+
+  /**
+   * Performs the kNN search for all query vectors in a single scan over the entity. The results are returned query by query, each block ordered by ascending distance.
+   */
+  @Override
+  public <E extends DistanceElement> List<E> getBatchedNearestNeighbours(int k, List<float[]> vectors, String column, Class<E> distanceElementClass, List<ReadableQueryConfig> configs) {
+    if (this.entity == null || vectors.isEmpty()) {
+      return new ArrayList<>(0);
+    }
+    if (vectors.size() != configs.size()) {
+      throw new IllegalArgumentException("The number of query vectors (" + vectors.size() + ") does not match the number of query configurations (" + configs.size() + ").");
+    }
+    final float[][] queries = vectors.toArray(new float[0][]);
+    final FloatArrayDistance[] distances = configs.stream().map(FloatArrayDistance::fromQueryConfig).toArray(FloatArrayDistance[]::new);
+    final List<E> _return = new ArrayList<>(k * queries.length);
+    final Entity entity = this.entity;
+    final IntPredicate[] filters = configs.stream().map(c -> relevantFilter(entity, c)).toArray(IntPredicate[]::new);
+    final boolean found = entity.knn(column, k, queries, distances, filters, (q, row, distance) ->
+        _return.add(DistanceElement.create(distanceElementClass, entity.getId(row), distance))
+    );
+    if (!found) {
+      LOGGER.warn("Column '{}' does not exist; kNN lookup returns no results.", column);
+    }
+    return _return;
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getNearestNeighbourRows(int k, float[] vector, String column, ReadableQueryConfig config) {
+    if (this.entity == null) {
+      return new ArrayList<>(0);
+    }
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>(k);
+    final Entity entity = this.entity;
+    entity.knn(column, k, new float[][]{vector}, new FloatArrayDistance[]{FloatArrayDistance.fromQueryConfig(config)}, new IntPredicate[]{relevantFilter(entity, config)}, (q, row, distance) -> {
+      final Map<String, PrimitiveTypeProvider> map = entity.getRow(row, null);
+      map.put(DB_DISTANCE_VALUE_QUALIFIER, new FloatTypeProvider((float) distance));
+      _return.add(map);
+    });
+    return _return;
+  }
+
+  @Override
+  public List<float[]> getFeatureVectors(String fieldName, PrimitiveTypeProvider value, String vectorName) {
+    return this.getFeatureVectorsGeneric(fieldName, value, vectorName).stream().map(PrimitiveTypeProvider::getSafeFloatArray).collect(Collectors.toList());
+  }
+
+  @Override
+  public List<PrimitiveTypeProvider> getFeatureVectorsGeneric(String fieldName, PrimitiveTypeProvider value, String vectorName) {
+    return this.select(Collections.singletonList(vectorName), fieldName, RelationalOperator.EQ, Collections.singletonList(value)).stream()
+        .map(m -> m.get(vectorName))
+        .collect(Collectors.toList());
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, Iterable<PrimitiveTypeProvider> values) {
+    return this.getRows(fieldName, RelationalOperator.IN, values);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRows(String fieldName, RelationalOperator operator, Iterable<PrimitiveTypeProvider> values) {
+    final List<PrimitiveTypeProvider> list = StreamSupport.stream(values.spliterator(), false).collect(Collectors.toList());
+    return this.select(null, fieldName, operator, list);
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getRowsAND(List<Triple<String, RelationalOperator, List<PrimitiveTypeProvider>>> conditions, String identifier, List<String> projection, ReadableQueryConfig qc) {
+    if (this.entity == null) {
+      return new ArrayList<>(0);
+    }
+    final Entity entity = this.entity;
+    final List<IntPredicate> predicates = new ArrayList<>(conditions.size() + 1);
+    for (Triple<String, RelationalOperator, List<PrimitiveTypeProvider>> c : conditions) {
+      final IntPredicate predicate = predicate(entity, c.getLeft(), c.getMiddle(), c.getRight());
+      if (predicate == null) {
+        return new ArrayList<>(0);
+      }
+      predicates.add(predicate);
+    }
+    final IntPredicate relevant = relevantFilter(entity, qc);
+    if (relevant != null) {
+      predicates.add(relevant);
+    }
+    final int[] columns = projection(entity, projection == null || projection.isEmpty() ? null : projection);
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>();
+    entity.scan(row -> {
+      for (IntPredicate p : predicates) {
+        if (!p.test(row)) {
+          return;
+        }
+      }
+      _return.add(entity.getRow(row, columns));
+    });
+    return _return;
+  }
+
+  /**
+   * Rows are scored by the number of terms they match, which is returned in the {@link org.vitrivr.cineast.core.util.CineastConstants#DB_DISTANCE_VALUE_QUALIFIER} column.
+   */
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getFulltextRows(int rows, String fieldname, ReadableQueryConfig queryConfig, String... terms) {
+    if (this.entity == null) {
+      return new ArrayList<>(0);
+    }
+    final Entity entity = this.entity;
+    final int column = entity.getColumnIndex(fieldname);
+    if (column < 0) {
+      return new ArrayList<>(0);
+    }
+    final List<TextMatcher> matchers = Arrays.stream(terms).map(TextMatcher::new).collect(Collectors.toList());
+    final IntPredicate relevant = relevantFilter(entity, queryConfig);
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>();
+    entity.scan(row -> {
+      if (relevant != null && !relevant.test(row)) {
+        return;
+      }
+      final Object value = entity.getValue(column, row);
+      if (value == null) {
+        return;
+      }
+      final List<String> words = tokenize(value.toString());
+      int score = 0;
+      for (TextMatcher matcher : matchers) {
+        if (matcher.matches(words)) {
+          score += 1;
+        }
+      }
+      if (score > 0) {
+        final Map<String, PrimitiveTypeProvider> map = entity.getRow(row, null);
+        map.put(DB_DISTANCE_VALUE_QUALIFIER, new FloatTypeProvider(score));
+        _return.add(map);
+      }
+    });
+    _return.sort((a, b) -> Float.compare(b.get(DB_DISTANCE_VALUE_QUALIFIER).getFloat(), a.get(DB_DISTANCE_VALUE_QUALIFIER).getFloat()));
+    if (_return.size() > rows) {
+      return new ArrayList<>(_return.subList(0, rows));
+    }
+    return _return;
+  }
+
+  @Override
+  public List<PrimitiveTypeProvider> getAll(String column) {
+    return this.getAll(Collections.singletonList(column), -1).stream().map(m -> m.get(column)).collect(Collectors.toList());
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getAll(List<String> columns, int limit) {
+    if (this.entity == null) {
+      return new ArrayList<>(0);
+    }
+    final Entity entity = this.entity;
+    final int[] projection = projection(entity, columns);
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>();
+    entity.scan(row -> {
+      if (limit <= 0 || _return.size() < limit) {
+        _return.add(entity.getRow(row, projection));
+      }
+    });
+    return _return;
+  }
+
+  @Override
+  public List<Map<String, PrimitiveTypeProvider>> getAll() {
+    return this.getAll(null, -1);
+  }
+
+  @Override
+  public boolean existsEntity(String name) {
+    return this.store.hasEntity(name);
+  }
+
+  @Override
+  public boolean ping() {
+    return true;
+  }
+
+  /**
+   * Selects all rows that satisfy the given condition.
+   *
+   * @param projection Columns to return; all columns if null.
+   * @param fieldName  Column the condition refers to.
+   * @param operator   {@link RelationalOperator} to apply.
+   * @param values     Operand(s) of the condition.
+   * @return List of matching rows.
+   */
+  private List<Map<String, PrimitiveTypeProvider>> select(List<String> projection, String fieldName, RelationalOperator operator, List<PrimitiveTypeProvider> values) {
+    if (this.entity == null) {
+      return new ArrayList<>(0);
+    }
+    final Entity entity = this.entity;
+    final int[] columns = projection(entity, projection);
+
+    /* Lookups by id make use of the index. */
+    if (fieldName.equals(GENERIC_ID_COLUMN_QUALIFIER) && entity.getColumnIndex(fieldName) == 0 && (operator == RelationalOperator.EQ || operator == RelationalOperator.IN)) {
+      final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>(values.size());
+      for (String id : values.stream().map(PrimitiveTypeProvider::getString).collect(Collectors.toCollection(LinkedHashSet::new))) {
+        for (Map<String, PrimitiveTypeProvider> row : entity.get(id)) {
+          if (projection != null) {
+            row.keySet().retainAll(projection);
+          }
+          _return.add(row);
+        }
+      }
+      return _return;
+    }
+
+    final IntPredicate predicate = predicate(entity, fieldName, operator, values);
+    if (predicate == null) {
+      return new ArrayList<>(0);
+    }
+    final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>();
+    entity.scan(row -> {
+      if (predicate.test(row)) {
+        _return.add(entity.getRow(row, columns));
+      }
+    });
+    return _return;
+  }
+
+  /**
+   * Translates a list of column names into column indexes of the given {@link Entity}. Unknown columns are ignored.
+   *
+   * @return Array of column indexes or null, if columns is null.
+   */
+  private static int[] projection(Entity entity, List<String> columns) {
+    if (columns == null) {
+      return null;
+    }
+    return columns.stream().mapToInt(entity::getColumnIndex).filter(i -> i >= 0).toArray();
+  }
+
+  /**
+   * Creates an {@link IntPredicate} that only accepts rows whose id is contained in the relevant segment ids of the provided {@link ReadableQueryConfig}.
+   *
+   * @return {@link IntPredicate} or null, if no restriction applies.
+   */
+  private static IntPredicate relevantFilter(Entity entity, ReadableQueryConfig config) {
+    if (config == null || !config.hasRelevantSegmentIds()) {
+      return null;
+    }
+    final Set<String> ids = config.getRelevantSegmentIds();
+    return row -> ids.contains(entity.getId(row));
+  }
+
+  /**
+   * Creates an {@link IntPredicate} that evaluates the given condition on a row of the {@link Entity}.
+   *
+   * @return {@link IntPredicate} or null, if the column doesn't exist.
+   */
+  private static IntPredicate predicate(Entity entity, String fieldName, RelationalOperator operator, List<PrimitiveTypeProvider> values) {
+    final int column = entity.getColumnIndex(fieldName);
+    if (column < 0) {
+      LOGGER.warn("Column '{}' does not exist; lookup returns no results.", fieldName);
+      return null;
+    }
+    switch (operator) {
+      case EQ:
+      case IN: {
+        final Set<String> set = values.stream().map(PrimitiveTypeProvider::getString).collect(Collectors.toSet());
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          return v != null && set.contains(v.toString());
+        };
+      }
+      case NEQ: {
+        final Set<String> set = values.stream().map(PrimitiveTypeProvider::getString).collect(Collectors.toSet());
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          return v != null && !set.contains(v.toString());
+        };
+      }
+      case GEQ:
+        return row -> compare(entity.getValue(column, row), values.get(0)) >= 0;
+      case LEQ:
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          return v != null && compare(v, values.get(0)) <= 0;
+        };
+      case GREATER:
+        return row -> compare(entity.getValue(column, row), values.get(0)) > 0;
+      case LESS:
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          return v != null && compare(v, values.get(0)) < 0;
+        };
+      case BETWEEN: {
+        if (values.size() != 2) {
+          throw new IllegalArgumentException("BETWEEN requires exactly two operands.");
+        }
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          if (v == null) {
+            return false;
+          }
+          final int a = compare(v, values.get(0));
+          final int b = compare(v, values.get(1));
+          return (a >= 0 && b <= 0) || (a <= 0 && b >= 0);
+        };
+      }
+      case LIKE:
+      case NLIKE: {
+        final Pattern pattern = likeToRegex(values.get(0).getString());
+        final boolean negate = operator == RelationalOperator.NLIKE;
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          return v != null && pattern.matcher(v.toString()).matches() != negate;
+        };
+      }
+      case MATCH: {
+        final List<TextMatcher> matchers = values.stream().map(v -> new TextMatcher(v.getString())).collect(Collectors.toList());
+        return row -> {
+          final Object v = entity.getValue(column, row);
+          if (v == null) {
+            return false;
+          }
+          final List<String> words = tokenize(v.toString());
+          return matchers.stream().anyMatch(m -> m.matches(words));
+        };
+      }
+      case ISNULL:
+        return row -> entity.getValue(column, row) == null;
+      case ISNOTNULL:
+        return row -> entity.getValue(column, row) != null;
+      default:
+        throw new IllegalArgumentException("Operator '" + operator + "' not supported by in-memory store.");
+    }
+  }
+
+  /**
+   * Compares a stored value with a {@link PrimitiveTypeProvider}. Numbers are compared numerically, everything else by its string representation. Null values are smaller than everything else.
+   */
+  private static int compare(Object value, PrimitiveTypeProvider provider) {
+    if (value == null) {
+      return -1;
+    }
+    if (value instanceof Number) {
+      try {
+        return Double.compare(((Number) value).doubleValue(), provider.getDouble());
+      } catch (UnsupportedOperationException e) {
+        try {
+          return Double.compare(((Number) value).doubleValue(), Double.parseDouble(provider.getString()));
+        } catch (NumberFormatException | UnsupportedOperationException ex) {
+          /* Fall through to string comparison. */
+        }
+      }
+    }
+    return value.toString().compareTo(provider.getString());
+  }
+
+  /**
+   * Converts a SQL LIKE pattern into a {@link Pattern}.
+   */
+  private static Pattern likeToRegex(String like) {
+    final StringBuilder builder = new StringBuilder();
+    for (char c : like.toCharArray()) {
+      if (c == '%') {
+        builder.append(".*");
+      } else if (c == '_') {
+        builder.append('.');
+      } else {
+        builder.append(Pattern.quote(String.valueOf(c)));
+      }
+    }
+    return Pattern.compile(builder.toString(), Pattern.DOTALL);
+  }
+
+  /**
+   * Splits the given text into lower case words.
+   */
+  private static List<String> tokenize(String text) {
+    return Arrays.stream(WORD_SEPARATOR.split(text.toLowerCase(Locale.ROOT))).filter(s -> !s.isEmpty()).collect(Collectors.toList());
+  }
+
+  /**
+   * Matches a single fulltext query term against the words of a text.
+   */
+  private static final class TextMatcher {
+
+    /** The words of the query term. */
+    private final List<String> words;
+
+    /** True, if the words must occur as a phrase. */
+    private final boolean phrase;
+
+    /** Maximum Levenshtein distance between a query word and a text word; 0 for exact matches. */
+    private final int fuzziness;
+
+    private TextMatcher(String term) {
+      String t = term.trim();
+      int fuzziness = 0;
+      final int tilde = t.lastIndexOf('~');
+      if (tilde > 0) {
+        try {
+          fuzziness = (int) Math.ceil(Float.parseFloat(t.substring(tilde + 1)));
+        } catch (NumberFormatException e) {
+          fuzziness = 2; /* Lucene's default. */
+        }
+        t = t.substring(0, tilde);
+      }
+      this.phrase = t.length() > 1 && t.startsWith("\"") && t.endsWith("\"");
+      this.words = tokenize(this.phrase ? t.substring(1, t.length() - 1) : t);
+      this.fuzziness = Math.max(0, fuzziness);
+    }
+
+    private boolean matches(List<String> text) {
+      if (this.words.isEmpty()) {
+        return false;
+      }
+      if (this.phrase) {
+        for (int i = 0; i + this.words.size() <= text.size(); i++) {
+          boolean match = true;
+          for (int j = 0; j < this.words.size() && match; j++) {
+            match = this.matches(this.words.get(j), text.get(i + j));
+          }
+          if (match) {
+            return true;
+          }
+        }
+        return false;
+      }
+      for (String word : this.words) {
+        if (text.stream().noneMatch(w -> this.matches(word, w))) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private boolean matches(String query, String word) {
+      if (this.fuzziness == 0) {
+        return query.equals(word);
+      }
+      return new LevenshteinDistance(this.fuzziness).apply(query, word) >= 0;
+    }
+  }
+}
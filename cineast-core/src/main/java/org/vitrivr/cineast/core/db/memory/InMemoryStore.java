@@ -1,26 +1,37 @@
 package org.vitrivr.cineast.core.db.memory;
 
+import gnu.trove.list.array.TIntArrayList;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
-import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.TreeMap;
 import java.util.concurrent.locks.StampedLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.vitrivr.cineast.core.data.ReadableFloatVector;
+import org.vitrivr.cineast.core.data.TopKIndexHeap;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
 import org.vitrivr.cineast.core.db.DBSelector;
 import org.vitrivr.cineast.core.db.PersistencyWriter;
 import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.util.distance.FloatArrayDistance;
 
 
 /**
- * This is a very simple in-memory key-value store implementation. It revolves around {@link Entity} objects, that hold
- * instance of {@link PersistentTuple}s. Obtaining such a {@link PersistentTuple} by key can be done in O(1). All other
- * operations take at least linear time to complete.
+ * This is a very simple in-memory store implementation. It revolves around {@link Entity} objects, that hold the values
+ * of the {@link PersistentTuple}s written to them in a columnar layout. Looking up rows by key can be done in O(1). All other
+ * operations, including kNN search, take linear time to complete.
  *
  *
  * {@link InMemoryStore} can be used as a storage engine for Cineast. That is, there are implementations of
  * {@link PersistencyWriter} and {@link DBSelector} for this store.
  *
  * @see InMemoryWriter
+ * @see InMemorySelector
  * @see InMemoryEntityCreator
  *
  */
@@ -29,6 +40,18 @@ public class InMemoryStore {
   /** Shared instance of {@link InMemoryStore}. */
   private static final InMemoryStore SHARED_STORE = new InMemoryStore();
 
+  /** Initial number of rows an {@link Entity} can hold before its columns need to grow. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** Minimum number of rows per partition before a kNN search on an {@link Entity} is parallelized. */
+  private static final int MIN_ROWS_PER_PARTITION = 8192;
+
+  /** Maximum number of partitions a kNN search on an {@link Entity} is split into. */
+  private static final int PARALLELISM = Runtime.getRuntime().availableProcessors();
+
+  /** Number of rows whose distances to a query vector are computed at once during a kNN search. */
+  private static final int KNN_BLOCK_SIZE = 256;
+
   /** List of {@link Entity} objects held by this {@link InMemoryStore}. */
   private final Map<String,Entity> entities = new HashMap<>();
 
@@ -88,7 +111,12 @@ public boolean hasEntity(String name) {
   public Optional<Entity> createEntity(String name, String... columns) {
     final long stamp = this.storeLock.writeLock();
     try {
-      return Optional.ofNullable(this.entities.putIfAbsent(name, new Entity(columns)));
+      if (this.entities.containsKey(name)) {
+        return Optional.empty();
+      }
+      final Entity entity = new Entity(columns);
+      this.entities.put(name, entity);
+      return Optional.of(entity);
     } finally {
       this.storeLock.unlockWrite(stamp);
     }
@@ -122,17 +150,47 @@ public void dropAll() {
   }
 
   /**
-   * An individual {@link Entity} in the {@link InMemoryStore}.
-   *
+   * Callback used by {@link Entity#knn(String, int, float[][], FloatArrayDistance[], IntPredicate[], NeighbourConsumer)} to hand out the nearest neighbours of a query.
    */
-  public class Entity implements Iterable<PersistentTuple> {
+  @FunctionalInterface
+  public interface NeighbourConsumer {
 
-    /** The {@link java.util.Map} that holds all the data stored in this {@link org.vitrivr.cineast.core.db.memory.InMemoryStore.Entity}. */
-    private final Map<String, PersistentTuple> store = new TreeMap<>();
+    /**
+     * @param query    Index of the query vector the neighbour belongs to.
+     * @param row      Index of the row in the {@link Entity}. Only valid for the duration of the callback.
+     * @param distance Distance between query and row.
+     */
+    void accept(int query, int row, double distance);
+  }
+
+  /**
+   * An individual {@link Entity} in the {@link InMemoryStore}.
+   * <p>
+   * Data is stored column by column: ids are held in a dedicated array, feature vectors (i.e. float[] values) are stored back to back in one contiguous float[] per column and all other values are kept in one Object[] per column. Row i of the {@link Entity} is made up of the i-th entry of every column. Multiple rows may share the same id.
+   */
+  public class Entity {
 
-    /** Name of the columns held by this {@link Entity}. */
+    /** Name of the columns held by this {@link Entity}. The first column holds the id. */
     private final String[] columns;
 
+    /** Values of the non-vector columns; null for vector columns. */
+    private final Object[][] values;
+
+    /** Contiguous buffers of the vector columns; null for non-vector columns. */
+    private final float[][] vectors;
+
+    /** Dimension of the vector columns; 0 for non-vector columns and -1 as long as the type of column is unknown. */
+    private final int[] dimensions;
+
+    /** Ids of the rows held by this {@link Entity}, i.e., the values of the first column. */
+    private String[] ids;
+
+    /** Maps every id to the rows that hold it. */
+    private final Map<String, TIntArrayList> index = new HashMap<>();
+
+    /** Number of rows currently held by this {@link Entity}. */
+    private int size = 0;
+
     /** Stamped lock to mediate access to {@link Entity}. */
     private final StampedLock lock = new StampedLock();
 
@@ -143,53 +201,114 @@ public class Entity implements Iterable<PersistentTuple> {
      */
     public Entity(String... columns) {
       this.columns = columns;
+      this.values = new Object[columns.length][];
+      this.vectors = new float[columns.length][];
+      this.dimensions = new int[columns.length];
+      Arrays.fill(this.dimensions, -1);
+      this.ids = new String[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Returns the names of the columns held by this {@link Entity}.
+     *
+     * @return Array of column names.
+     */
+    public String[] getColumns() {
+      return this.columns.clone();
     }
 
     /**
-     * Adds a {@link PersistentTuple} for the given key to the store.
+     * Returns the index of the column with the given name or -1, if no such column exists.
+     *
+     * @param name Name of the column.
+     * @return Index of the column.
+     */
+    public int getColumnIndex(String name) {
+      for (int i = 0; i < this.columns.length; i++) {
+        if (this.columns[i].equals(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+
+    /**
+     * Adds a {@link PersistentTuple} for the given key to the store. Existing rows for the same key are retained.
      *
      * @param key   The key to use.
      * @param value The {@link PersistentTuple} to add.
+     * @return True if the {@link PersistentTuple} was added, false if it doesn't match the layout of this {@link Entity}.
      */
     public boolean put(String key, PersistentTuple value) {
+      final List<Object> elements = value.getElements();
+      if (elements.size() != this.columns.length) {
+        return false;
+      }
+      final Object[] normalized = new Object[elements.size()];
+      int c = 0;
+      for (Object o : elements) {
+        normalized[c++] = normalize(o);
+      }
       final long stamp = this.lock.writeLock();
       try {
-        if (value.getElements().size() == this.columns.length) {
-          this.store.put(key, value);
-          return true;
-        } else {
-          return false;
+        for (int i = 0; i < normalized.length; i++) {
+          if (!this.accepts(i, normalized[i])) {
+            return false;
+          }
         }
-      }finally {
+        this.ensureCapacity(this.size + 1);
+        final int row = this.size++;
+        this.ids[row] = key;
+        for (int i = 0; i < normalized.length; i++) {
+          this.set(i, row, normalized[i]);
+        }
+        this.index.computeIfAbsent(key, k -> new TIntArrayList(1)).add(row);
+        return true;
+      } finally {
         this.lock.unlockWrite(stamp);
       }
     }
 
     /**
-     * Fetches and returns the {@link PersistentTuple} for the given key.
+     * Fetches and returns all rows stored for the given key.
      *
-     * @param key Key to retrieve the {@link PersistentTuple} for.
-     * @return Optional {@link PersistentTuple}
+     * @param key Key to retrieve the rows for.
+     * @return List of rows; empty if there are none.
      */
-    public Optional<PersistentTuple> get(String key) {
+    public List<Map<String, PrimitiveTypeProvider>> get(String key) {
       final long stamp = this.lock.readLock();
       try {
-        return Optional.ofNullable(this.store.get(key));
+        final TIntArrayList rows = this.index.get(key);
+        if (rows == null) {
+          return new ArrayList<>(0);
+        }
+        final List<Map<String, PrimitiveTypeProvider>> _return = new ArrayList<>(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+          _return.add(this.getRow(rows.get(i), null));
+        }
+        return _return;
       } finally {
         this.lock.unlockRead(stamp);
       }
     }
 
     /**
-     * Deletes the entry for the given key.
+     * Deletes all entries for the given key.
      *
-     * @param key Key to delete the entry for.
+     * @param key Key to delete the entries for.
      * @return True on success. False otherwise
      */
     public boolean delete(String key) {
       final long stamp = this.lock.writeLock();
       try {
-        return this.store.remove(key) != null;
+        final TIntArrayList rows = this.index.get(key);
+        if (rows == null) {
+          return false;
+        }
+        while (this.index.containsKey(key)) {
+          this.remove(rows.get(rows.size() - 1));
+        }
+        return true;
       } finally {
         this.lock.unlockWrite(stamp);
       }
@@ -201,51 +320,304 @@ public boolean delete(String key) {
     public void truncate() {
       final long stamp = this.lock.writeLock();
       try {
-        this.store.clear();
+        this.index.clear();
+        this.size = 0;
+        this.ids = new String[INITIAL_CAPACITY];
+        Arrays.fill(this.values, null);
+        Arrays.fill(this.vectors, null);
+        Arrays.fill(this.dimensions, -1);
       } finally {
         this.lock.unlockWrite(stamp);
       }
     }
 
     /**
-     * Returns true if this {@link Entity} contains a {@link PersistentTuple} for the given key, and
-     * false otherwise.
+     * Returns true if this {@link Entity} contains a row for the given key, and false otherwise.
      *
      * @param key The key to look up.
-     * @return True if {@link Entity} contains a {@link PersistentTuple} for the given key, and
-     * false otherwise
+     * @return True if {@link Entity} contains a row for the given key, and false otherwise
      */
     public boolean has(String key) {
       final long stamp = this.lock.readLock();
       try {
-        return this.store.containsKey(key);
+        return this.index.containsKey(key);
       } finally {
         this.lock.unlockRead(stamp);
       }
     }
 
     /**
-     * Returns an {@link Iterator} for the values contained in this {@link Entity}.
+     * Returns the number of rows held by this {@link Entity}.
      *
-     * @return {@link Iterator} for the values contained in this {@link Entity}
+     * @return Number of rows.
      */
-    public Iterator<PersistentTuple> iterator() {
+    public int size() {
       final long stamp = this.lock.readLock();
-      return new Iterator<PersistentTuple>() {
+      try {
+        return this.size;
+      } finally {
+        this.lock.unlockRead(stamp);
+      }
+    }
 
-        final Iterator<String> inner = Entity.this.store.keySet().iterator();
+    /**
+     * Invokes the given consumer for the index of every row held by this {@link Entity}. The {@link Entity} is read-locked for the duration of the scan; the consumer may use {@link #getValue(int, int)} and {@link #getRow(int, int[])} to access the row, but must not modify the {@link Entity}.
+     *
+     * @param consumer The {@link IntConsumer} to invoke.
+     */
+    public void scan(IntConsumer consumer) {
+      final long stamp = this.lock.readLock();
+      try {
+        for (int row = 0; row < this.size; row++) {
+          consumer.accept(row);
+        }
+      } finally {
+        this.lock.unlockRead(stamp);
+      }
+    }
 
-        @Override
-        public boolean hasNext() {
-          return this.inner.hasNext();
+    /**
+     * Performs a brute-force kNN search for every query vector on the given column and hands the results to the provided {@link NeighbourConsumer}, nearest neighbour first. The {@link Entity} is read-locked for the duration of the search.
+     * <p>
+     * Large entities are partitioned and scanned in parallel, every partition maintaining its own bounded top-k heap per query vector.
+     *
+     * @param column    Name of the column to search.
+     * @param k         Number of neighbours per query vector.
+     * @param queries   The query vectors.
+     * @param distances The {@link FloatArrayDistance} to use for every query vector.
+     * @param filters   Optional {@link IntPredicate} per query vector that decides whether a row should be considered. Entries may be null.
+     * @param consumer  The {@link NeighbourConsumer} that receives the results.
+     * @return True if the search could be performed, false if the column doesn't exist.
+     */
+    public boolean knn(String column, int k, float[][] queries, FloatArrayDistance[] distances, IntPredicate[] filters, NeighbourConsumer consumer) {
+      final int c = this.getColumnIndex(column);
+      if (c < 0) {
+        return false;
+      }
+      final long stamp = this.lock.readLock();
+      try {
+        final int partitions = Math.max(1, Math.min(PARALLELISM, this.size / MIN_ROWS_PER_PARTITION));
+        final int chunk = (this.size + partitions - 1) / Math.max(partitions, 1);
+        final List<TopKIndexHeap[]> partial = IntStream.range(0, partitions).parallel()
+            .mapToObj(p -> this.knnPartition(c, k, queries, distances, filters, p * chunk, Math.min(this.size, (p + 1) * chunk)))
+            .collect(Collectors.toList());
+        final int[] rows = new int[k];
+        final double[] dist = new double[k];
+        for (int q = 0; q < queries.length; q++) {
+          final TopKIndexHeap heap = partial.get(0)[q];
+          for (int p = 1; p < partial.size(); p++) {
+            heap.merge(partial.get(p)[q]);
+          }
+          final int n = heap.drainSorted(rows, dist);
+          for (int i = 0; i < n; i++) {
+            consumer.accept(q, rows[i], dist[i]);
+          }
         }
+        return true;
+      } finally {
+        this.lock.unlockRead(stamp);
+      }
+    }
 
-        @Override
-        public PersistentTuple next() {
-          return Entity.this.store.get(this.inner.next());
+    /**
+     * Returns the id of the given row. Must only be used while the {@link Entity} is locked, i.e., from within {@link #scan(IntConsumer)} or {@link #knn(String, int, float[][], FloatArrayDistance[], IntPredicate[], NeighbourConsumer)}.
+     *
+     * @param row Index of the row.
+     * @return Id of the row.
+     */
+    public String getId(int row) {
+      return this.ids[row];
+    }
+
+    /**
+     * Returns the value of the given column and row. Feature vectors are returned as a copy. Must only be used while the {@link Entity} is locked, i.e., from within {@link #scan(IntConsumer)} or {@link #knn(String, int, float[][], FloatArrayDistance[], IntPredicate[], NeighbourConsumer)}.
+     *
+     * @param column Index of the column.
+     * @param row    Index of the row.
+     * @return Value or null.
+     */
+    public Object getValue(int column, int row) {
+      if (this.vectors[column] != null) {
+        final int dim = this.dimensions[column];
+        return Arrays.copyOfRange(this.vectors[column], row * dim, (row + 1) * dim);
+      }
+      if (this.values[column] != null) {
+        return this.values[column][row];
+      }
+      return null;
+    }
+
+    /**
+     * Materializes the given row. Must only be used while the {@link Entity} is locked, i.e., from within {@link #scan(IntConsumer)} or {@link #knn(String, int, float[][], FloatArrayDistance[], IntPredicate[], NeighbourConsumer)}.
+     *
+     * @param row        Index of the row.
+     * @param projection Indexes of the columns to include; all columns are included if null.
+     * @return Map of column name to value.
+     */
+    public Map<String, PrimitiveTypeProvider> getRow(int row, int[] projection) {
+      if (projection == null) {
+        final Map<String, PrimitiveTypeProvider> map = new HashMap<>(this.columns.length);
+        for (int c = 0; c < this.columns.length; c++) {
+          map.put(this.columns[c], PrimitiveTypeProvider.fromObject(this.getValue(c, row)));
         }
+        return map;
+      } else {
+        final Map<String, PrimitiveTypeProvider> map = new HashMap<>(projection.length);
+        for (int c : projection) {
+          map.put(this.columns[c], PrimitiveTypeProvider.fromObject(this.getValue(c, row)));
+        }
+        return map;
+      }
+    }
+
+    /**
+     * Scans the rows [start, end) for the nearest neighbours of every query vector.
+     */
+    private TopKIndexHeap[] knnPartition(int column, int k, float[][] queries, FloatArrayDistance[] distances, IntPredicate[] filters, int start, int end) {
+      final TopKIndexHeap[] heaps = new TopKIndexHeap[queries.length];
+      for (int q = 0; q < queries.length; q++) {
+        heaps[q] = TopKIndexHeap.smallest(k);
+      }
+      final float[] data = this.vectors[column];
+      final int dim = this.dimensions[column];
+      if (data != null) {
+        /* Compute the distances block-wise, so that every block of rows is read from cache for all but the first query. */
+        final double[] block = new double[KNN_BLOCK_SIZE];
+        for (int from = start; from < end; from += KNN_BLOCK_SIZE) {
+          final int count = Math.min(KNN_BLOCK_SIZE, end - from);
+          for (int q = 0; q < queries.length; q++) {
+            if (filters[q] == null) {
+              distances[q].applyAsDouble(queries[q], data, from * dim, dim, count, block);
+              for (int i = 0; i < count; i++) {
+                heaps[q].offer(from + i, block[i]);
+              }
+            } else {
+              for (int row = from; row < from + count; row++) {
+                if (filters[q].test(row)) {
+                  heaps[q].offer(row, distances[q].applyAsDouble(queries[q], data, row * dim, dim));
+                }
+              }
+            }
+          }
+        }
+        return heaps;
+      }
+      /* Fallback for columns that don't hold float[], e.g., int[]. */
+      for (int row = start; row < end; row++) {
+        final Object value = this.values[column] == null ? null : this.values[column][row];
+        if (value == null) {
+          continue;
+        }
+        final float[] vector = PrimitiveTypeProvider.getSafeFloatArray(PrimitiveTypeProvider.fromObject(value));
+        for (int q = 0; q < queries.length; q++) {
+          if (filters[q] == null || filters[q].test(row)) {
+            heaps[q].offer(row, distances[q].applyAsDouble(queries[q], vector));
+          }
+        }
+      }
+      return heaps;
+    }
 
-      };
+    /**
+     * Checks if the given value can be stored in the given column. The first non-null value determines the layout of a column: float[] values are stored in a contiguous vector buffer, everything else as objects.
+     */
+    private boolean accepts(int column, Object value) {
+      if (this.dimensions[column] == -1 || value == null) {
+        return this.dimensions[column] <= 0 || value != null;
+      }
+      if (this.dimensions[column] > 0) {
+        return value instanceof float[] && ((float[]) value).length == this.dimensions[column];
+      }
+      return true;
+    }
+
+    /**
+     * Writes a value to the given column and row. Capacity must have been ensured beforehand.
+     */
+    private void set(int column, int row, Object value) {
+      if (this.dimensions[column] == -1 && value != null) {
+        if (value instanceof float[] && this.values[column] == null) {
+          this.dimensions[column] = ((float[]) value).length;
+          this.vectors[column] = new float[this.ids.length * this.dimensions[column]];
+        } else {
+          this.dimensions[column] = 0;
+          this.values[column] = new Object[this.ids.length];
+        }
+      }
+      if (this.vectors[column] != null) {
+        final int dim = this.dimensions[column];
+        System.arraycopy((float[]) value, 0, this.vectors[column], row * dim, dim);
+      } else {
+        if (this.values[column] == null) {
+          this.values[column] = new Object[this.ids.length];
+        }
+        this.values[column][row] = value;
+      }
+    }
+
+    /**
+     * Removes a single row by moving the last row into its place.
+     */
+    private void remove(int row) {
+      final int last = --this.size;
+      final TIntArrayList rows = this.index.get(this.ids[row]);
+      rows.remove(row);
+      if (rows.isEmpty()) {
+        this.index.remove(this.ids[row]);
+      }
+      if (row != last) {
+        final TIntArrayList moved = this.index.get(this.ids[last]);
+        moved.set(moved.indexOf(last), row);
+        this.ids[row] = this.ids[last];
+        for (int c = 0; c < this.columns.length; c++) {
+          if (this.vectors[c] != null) {
+            final int dim = this.dimensions[c];
+            System.arraycopy(this.vectors[c], last * dim, this.vectors[c], row * dim, dim);
+          } else if (this.values[c] != null) {
+            this.values[c][row] = this.values[c][last];
+          }
+        }
+      }
+      this.ids[last] = null;
+      for (int c = 0; c < this.columns.length; c++) {
+        if (this.values[c] != null) {
+          this.values[c][last] = null;
+        }
+      }
+    }
+
+    /**
+     * Makes sure that all columns can hold at least the given number of rows.
+     */
+    private void ensureCapacity(int capacity) {
+      if (capacity <= this.ids.length) {
+        return;
+      }
+      final int newCapacity = Math.max(capacity, this.ids.length * 2);
+      this.ids = Arrays.copyOf(this.ids, newCapacity);
+      for (int c = 0; c < this.columns.length; c++) {
+        if (this.vectors[c] != null) {
+          this.vectors[c] = Arrays.copyOf(this.vectors[c], newCapacity * this.dimensions[c]);
+        } else if (this.values[c] != null) {
+          this.values[c] = Arrays.copyOf(this.values[c], newCapacity);
+        }
+      }
+    }
+  }
+
+  /**
+   * Converts the values handed to the {@link InMemoryStore} to the representation used for storage.
+   *
+   * @param value The value to convert.
+   * @return Converted value.
+   */
+  private static Object normalize(Object value) {
+    if (value instanceof ReadableFloatVector) {
+      return ReadableFloatVector.toArray((ReadableFloatVector) value);
+    } else if (value instanceof PrimitiveTypeProvider) {
+      return ((PrimitiveTypeProvider) value).toObject();
+    } else {
+      return value;
     }
   }
 }
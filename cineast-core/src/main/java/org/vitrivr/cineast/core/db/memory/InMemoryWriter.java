@@ -4,6 +4,7 @@
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
 import org.vitrivr.cineast.core.db.AbstractPersistencyWriter;
 import org.vitrivr.cineast.core.db.PersistentTuple;
 import org.vitrivr.cineast.core.db.memory.InMemoryStore.Entity;
@@ -43,9 +44,19 @@ public boolean close() {
   public boolean exists(String key, String value) {
     if (key.equals(GENERIC_ID_COLUMN_QUALIFIER)) {
       return this.entity.has(value);
-    } else {
+    }
+    final int column = this.entity.getColumnIndex(key);
+    if (column < 0) {
       return false;
     }
+    final AtomicBoolean exists = new AtomicBoolean(false);
+    this.entity.scan(row -> {
+      final Object v = this.entity.getValue(column, row);
+      if (v != null && v.toString().equals(value)) {
+        exists.set(true);
+      }
+    });
+    return exists.get();
   }
 
   @Override
@@ -140,6 +140,13 @@ default Optional<Path> relPath() {
    */
   Integer segmentQueueSize();
 
+  /**
+   * Returns the maximum number of segments that are handed to an extractor at once. Segments are only batched if they are already waiting in the segment queue, hence the effective batch size is also limited by the size of that queue.
+   *
+   * @return Size of an extraction batch. A value of 1 disables batching.
+   */
+  int extractionBatchSize();
+
 
   /**
    * Returns the size of a batch. A batch is used when persisting data. Entities will be kept in memory until the batchsize limit is hit at which point they will be persisted.
@@ -8,16 +8,22 @@
 import org.vitrivr.cineast.core.extraction.decode.general.Decoder;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.spi.IIORegistry;
+import javax.imageio.spi.ImageReaderSpi;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.awt.image.BufferedImageOp;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -31,6 +37,15 @@ public class DefaultImageDecoder implements Decoder<BufferedImage> {
     /** Default logging facility. */
     private static final Logger LOGGER = LogManager.getLogger();
 
+    /**
+     * Images are decoded with source subsampling to at most this multiple of the target size. The remaining
+     * down-scaling is done by the Lanczos filter, since subsampling alone just drops pixels and produces aliasing.
+     */
+    private static final int SUBSAMPLING_HEADROOM = 2;
+
+    /** {@link ImageReader}s of the current thread by their provider. Readers are not thread-safe but can be re-used for several images. */
+    private static final ThreadLocal<Map<ImageReaderSpi, ImageReader>> READERS = ThreadLocal.withInitial(HashMap::new);
+
     /** HashSet containing all the mime-types supported by this ImageDecoder instance. */
     private static Set<String> supportedFiles = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(ImageIO.getReaderMIMETypes())));
 
@@ -66,52 +81,138 @@ public boolean init(Path path, DecoderConfig decoderConfig, CacheConfig cacheCon
      * Obtains and returns a result by decoding the image. The image is re-rescaled to match the
      * bounding box defined by RESCALE_BOUNDS.
      *
+     * The dimensions are read from the header first, so that large images can be decoded with source
+     * subsampling, close to the target size, instead of being decoded at full resolution. Images that
+     * are already within the bounds are not resampled at all.
+     *
      * @return BufferedImage of the decoded image file or null of decoding failed.
      */
     @Override
     public BufferedImage getNext() {
-        InputStream is = null;
         BufferedImage output = null;
-        BufferedImage input;
-        try {
-            is = Files.newInputStream(this.input, StandardOpenOption.READ);
-            input = ImageIO.read(is);
-
-            if (input != null) {
-                int width = input.getWidth();
-                int height = input.getHeight();
-                float ratio = 0;
-
-                if (width > rescale_bounds) {
-                    ratio = (float)rescale_bounds/(float)width;
-                    width = (int)(width * ratio);
-                    height = (int)(height * ratio);
-                }
+        try (ImageInputStream is = ImageIO.createImageInputStream(this.input.toFile())) {
+            final ImageReader reader = is == null ? null : reader(is);
+            if (reader == null) {
+                LOGGER.warn("No image reader available for the file under '{}'. Image will be skipped...", this.input.toString());
+                return null;
+            }
+            try {
+                reader.setInput(is, true, true);
+                final int[] source = new int[]{reader.getWidth(0), reader.getHeight(0)};
+                final int[] target = targetSize(source[0], source[1], this.rescale_bounds);
 
-                if (height > rescale_bounds) {
-                    ratio = (float)rescale_bounds/(float)height;
-                    width = (int)(width * ratio);
-                    height = (int)(height * ratio);
+                final ImageReadParam param = reader.getDefaultReadParam();
+                final int subsampling = subsampling(source[0], source[1], target[0], target[1]);
+                if (subsampling > 1) {
+                    param.setSourceSubsampling(subsampling, subsampling, 0, 0);
                 }
+                final BufferedImage input = reader.read(0, param);
 
-                final BufferedImageOp resampler = new ResampleOp(width, height, ResampleOp.FILTER_LANCZOS); // A good default filter, see class documentation for more info
-                output = resampler.filter(input, null);
+                if (input.getWidth() == target[0] && input.getHeight() == target[1]) {
+                    output = toDirectColorModel(input);
+                } else {
+                    final BufferedImageOp resampler = new ResampleOp(target[0], target[1], ResampleOp.FILTER_LANCZOS); // A good default filter, see class documentation for more info
+                    output = resampler.filter(input, null);
+                }
+            } finally {
+                reader.reset();
             }
         } catch (IOException | IllegalArgumentException e) {
             LOGGER.fatal("A severe error occurred while trying to decode the image file under '{}'. Image will be skipped...", this.input.toString());
         } finally {
-            try {
-                if (is != null) {
-                  is.close();
-                }
-            } catch (IOException e) {
-                LOGGER.warn("Could not close the input stream of the image file under {}.", this.input.toString());
-            }
             this.complete.set(true);
         }
         return output;
     }
 
+    /**
+     * Converts images whose type does not hold the colors directly (e.g. palette or gray images) to {@link BufferedImage#TYPE_INT_ARGB}.
+     * Downstream code re-creates images with the type of the decoded image, which would quantize the colors to the default
+     * palette of such types.
+     *
+     * @param image The decoded image.
+     * @return The image itself or a copy of type {@link BufferedImage#TYPE_INT_ARGB}.
+     */
+    static BufferedImage toDirectColorModel(BufferedImage image) {
+        switch (image.getType()) {
+            case BufferedImage.TYPE_INT_RGB:
+            case BufferedImage.TYPE_INT_ARGB:
+            case BufferedImage.TYPE_3BYTE_BGR:
+                return image;
+            default:
+                final BufferedImage converted = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_ARGB);
+                final Graphics2D graphics = converted.createGraphics();
+                graphics.drawImage(image, 0, 0, null);
+                graphics.dispose();
+                return converted;
+        }
+    }
+
+    /**
+     * Returns an {@link ImageReader} that can decode the provided stream. Readers are cached per thread.
+     *
+     * @param is {@link ImageInputStream} to decode.
+     * @return {@link ImageReader} or null, if the format is not supported.
+     */
+    private static ImageReader reader(ImageInputStream is) throws IOException {
+        final Iterator<ImageReaderSpi> providers = IIORegistry.getDefaultInstance().getServiceProviders(ImageReaderSpi.class, true);
+        while (providers.hasNext()) {
+            final ImageReaderSpi provider = providers.next();
+            if (provider.canDecodeInput(is)) {
+                final Map<ImageReaderSpi, ImageReader> readers = READERS.get();
+                ImageReader reader = readers.get(provider);
+                if (reader == null) {
+                    reader = provider.createReaderInstance();
+                    readers.put(provider, reader);
+                }
+                return reader;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Calculates the size of an image of the given size once it has been rescaled to the bounding box.
+     *
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param bounds Size of the bounding box.
+     * @return Width and height of the rescaled image.
+     */
+    static int[] targetSize(int width, int height, int bounds) {
+        float ratio;
+
+        if (width > bounds) {
+            ratio = (float)bounds/(float)width;
+            width = (int)(width * ratio);
+            height = (int)(height * ratio);
+        }
+
+        if (height > bounds) {
+            ratio = (float)bounds/(float)height;
+            width = (int)(width * ratio);
+            height = (int)(height * ratio);
+        }
+
+        return new int[]{width, height};
+    }
+
+    /**
+     * Calculates the source subsampling factor for decoding an image of the given size, such that the decoded image is
+     * still at least {@link #SUBSAMPLING_HEADROOM} times as large as the target size.
+     *
+     * @param width Width of the image.
+     * @param height Height of the image.
+     * @param targetWidth Width of the rescaled image.
+     * @param targetHeight Height of the rescaled image.
+     * @return Subsampling factor, 1 if the image should be decoded at full resolution.
+     */
+    static int subsampling(int width, int height, int targetWidth, int targetHeight) {
+        final int horizontal = width / (SUBSAMPLING_HEADROOM * Math.max(1, targetWidth));
+        final int vertical = height / (SUBSAMPLING_HEADROOM * Math.max(1, targetHeight));
+        return Math.max(1, Math.min(horizontal, vertical));
+    }
+
     /**
      * Returns the total number of content pieces T this decoder can return
      * for a given file.
@@ -48,12 +48,24 @@ public class FFMpegVideoDecoder implements Decoder<VideoFrame> {
     /** Configuration property name for the {@link FFMpegVideoDecoder}: Indicates whether subtitles should be decoded as well. */
     private static final String CONFIG_SUBTITLE_PROPERTY= "subtitles";
 
+    /** Configuration property name for the {@link FFMpegVideoDecoder}: only every n-th decoded video frame is converted and returned. */
+    private static final String CONFIG_FRAMESTRIDE_PROPERTY = "frameStride";
+
+    /** Configuration property name for the {@link FFMpegVideoDecoder}: number of video frames per second that are converted and returned. If <= 0, the frame rate of the video is kept. */
+    private static final String CONFIG_FRAMERATE_PROPERTY = "frameRate";
+
+    /** Configuration property name for the {@link FFMpegVideoDecoder}: Indicates whether only key frames should be decoded. */
+    private static final String CONFIG_KEYFRAMES_PROPERTY = "keyframesOnly";
+
     /** Configuration property default for the FFMpegVideoDecoder: max width of the converted video. */
     private final static int CONFIG_MAXWIDTH_DEFAULT = 1920;
 
     /** Configuration property default for the FFMpegVideoDecoder: max height of the converted video. */
     private final static int CONFIG_MAXHEIGHT_DEFAULT = 1080;
 
+    /** Configuration property default for the FFMpegVideoDecoder: every video frame is returned. */
+    private final static int CONFIG_FRAMESTRIDE_DEFAULT = 1;
+
     /** Configuration property default for the FFMpegVideoDecoder: number of channels of the converted audio. */
     private static final int CONFIG_CHANNELS_DEFAULT = 1;
 
@@ -131,6 +143,18 @@ public class FFMpegVideoDecoder implements Decoder<VideoFrame> {
     /** The {@link CachedDataFactory} reference used to create {@link MultiImage} objects. */
     private CachedDataFactory factory;
 
+    /** Only every n-th decoded video frame is converted and returned. */
+    private int frameStride = CONFIG_FRAMESTRIDE_DEFAULT;
+
+    /** Interval between two returned video frames in milliseconds. If <= 0, frames are not sampled by time. */
+    private double frameInterval = 0;
+
+    /** Timestamp in milliseconds from which on the next video frame is returned, if frames are sampled by time. */
+    private double nextFrameTimestamp = 0;
+
+    /** Indicates that only key frames are decoded. */
+    private boolean keyframesOnly = false;
+
     /**
      *
      * @param queue
@@ -162,8 +186,8 @@ private boolean readFrame(boolean queue) {
              * remaining in the packet.
              */
             while (avcodec.avcodec_receive_frame(this.pCodecCtxVideo, this.pFrame) == 0) {
-              /* If queue is true; enqueue frame. */
-                if (queue) {
+              /* If queue is true and the frame is sampled; enqueue frame. Frames that are not sampled are neither converted nor copied. */
+                if (queue && this.sampleVideo()) {
                     readVideo();
                 }
             }
@@ -209,6 +233,43 @@ private Long getFrameTimestamp(int stream) {
         return Math.floorDiv((this.pFrame.best_effort_timestamp() * timebase.num() * 1000), (long)timebase.den());
     }
 
+    /**
+     * Returns the number of the currently active video frame. If only key frames are decoded, the decoder does not count
+     * the skipped frames, so the number is derived from the timestamp of the frame instead.
+     *
+     * @return Number of the current video frame, starting at 1.
+     */
+    private int getVideoFrameNumber() {
+        if (this.keyframesOnly && this.videoDescriptor.getFps() > 0) {
+            return 1 + Math.round(this.getFrameTimestamp(this.videoStream) * this.videoDescriptor.getFps() / 1000.0f);
+        }
+        return this.pCodecCtxVideo.frame_number();
+    }
+
+    /**
+     * Decides whether the currently active video frame should be converted and returned, according to the configured
+     * frame stride, frame rate or key frame setting. Timestamps and numbers of the returned frames remain those of the
+     * original video.
+     *
+     * @return True if the frame should be returned, false if it should be skipped.
+     */
+    private boolean sampleVideo() {
+        if (this.keyframesOnly && this.pFrame.key_frame() == 0) {
+            return false;
+        }
+        if (this.frameInterval > 0) {
+            final long timestamp = this.getFrameTimestamp(this.videoStream);
+            if (timestamp < this.nextFrameTimestamp) {
+                return false;
+            }
+            while (this.nextFrameTimestamp <= timestamp) {
+                this.nextFrameTimestamp += this.frameInterval;
+            }
+            return true;
+        }
+        return this.frameStride <= 1 || (this.pCodecCtxVideo.frame_number() - 1) % this.frameStride == 0;
+    }
+
     /**
      * Reads the decoded audio frames copies them directly into the AudioFrame data-structure which is subsequently
      * enqueued.
@@ -294,7 +355,7 @@ private void readVideo() {
         }
 
         /* Prepare frame and associated timestamp and add it to output queue. */
-        VideoFrame videoFrame = new VideoFrame(this.pCodecCtxVideo.frame_number(), this.getFrameTimestamp(this.videoStream), this.factory.newMultiImage(this.videoDescriptor.getWidth(), this.videoDescriptor.getHeight(), pixels), this.videoDescriptor);
+        VideoFrame videoFrame = new VideoFrame(this.getVideoFrameNumber(), this.getFrameTimestamp(this.videoStream), this.factory.newMultiImage(this.videoDescriptor.getWidth(), this.videoDescriptor.getHeight(), pixels), this.videoDescriptor);
         this.videoFrameQueue.add(videoFrame);
     }
 
@@ -443,6 +504,11 @@ private boolean initVideo(DecoderConfig config) {
         /* Read decoder config (VIDEO). */
         int maxWidth = config.namedAsInt(CONFIG_MAXWIDTH_PROPERTY, CONFIG_MAXWIDTH_DEFAULT);
         int maxHeight = config.namedAsInt(CONFIG_HEIGHT_PROPERTY, CONFIG_MAXHEIGHT_DEFAULT);
+        this.frameStride = Math.max(1, config.namedAsInt(CONFIG_FRAMESTRIDE_PROPERTY, CONFIG_FRAMESTRIDE_DEFAULT));
+        float frameRate = config.namedAsFloat(CONFIG_FRAMERATE_PROPERTY, 0.0f);
+        this.frameInterval = frameRate > 0 ? 1000.0 / frameRate : 0;
+        this.nextFrameTimestamp = 0;
+        this.keyframesOnly = config.namedAsBoolean(CONFIG_KEYFRAMES_PROPERTY, false);
 
         /* Find the best video stream. */
         final AVCodec codec = avcodec.av_codec_iterate(new Pointer());
@@ -455,6 +521,13 @@ private boolean initVideo(DecoderConfig config) {
         /* Allocate new codec-context for codec returned by av_find_best_stream(). */
         this.pCodecCtxVideo = avcodec.avcodec_alloc_context3(codec);
         avcodec.avcodec_parameters_to_context(this.pCodecCtxVideo, this.pFormatCtx.streams(this.videoStream).codecpar());
+
+        /* If only key frames are requested, other frames are discarded by the demuxer and the decoder. */
+        if (this.keyframesOnly) {
+            this.pFormatCtx.streams(this.videoStream).discard(avcodec.AVDISCARD_NONKEY);
+            this.pCodecCtxVideo.skip_frame(avcodec.AVDISCARD_NONKEY);
+        }
+
         /* Open the code context. */
         if (avcodec.avcodec_open2(this.pCodecCtxVideo, codec, (AVDictionary)null) < 0) {
             LOGGER.error("Error, Could not open video codec.");
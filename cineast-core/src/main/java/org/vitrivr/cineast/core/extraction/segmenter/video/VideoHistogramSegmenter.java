@@ -91,6 +91,17 @@ private static Histogram getHistogram(VideoFrame f){
         return FuzzyColorHistogramCalculator.getSubdividedHistogramNormalized(f.getImage().getThumbnailImage(), 3);
     }
 
+    /**
+     * Returns the length of the shot in frames of the original video. If the decoder samples frames, this is larger than
+     * the number of frames in the segment.
+     *
+     * @param segment The {@link VideoSegment} to measure.
+     * @return Number of frames of the original video the segment spans.
+     */
+    private static int shotLength(VideoSegment segment) {
+        return segment.getEnd() - segment.getStart() + 1;
+    }
+
     /**
      * Method used to initialize the Segmenter - assigns the new Decoder instance and clears
      * all the queues.
@@ -198,14 +209,11 @@ public void run() {
 
                     _return.addVideoFrame(videoFrame);
                     queueFrames(bounds.getEnd() - bounds.getStart());
-                    do {
-                        videoFrame = this.videoFrameList.poll();
-                        if (videoFrame != null) {
-                            _return.addVideoFrame(videoFrame);
-                        } else {
-                            break;
-                        }
-                    } while (videoFrame.getId() < bounds.getEnd());
+
+                    /* The decoder may skip frames, so the end of the segment is determined by the frame numbers rather than by counting frames. */
+                    while ((videoFrame = this.videoFrameList.peek()) != null && videoFrame.getId() <= bounds.getEnd()) {
+                        _return.addVideoFrame(this.videoFrameList.poll());
+                    }
 
                     this.segments.put(_return);
                     continue;
@@ -238,7 +246,7 @@ public void run() {
                                 }
                                 i++;
                             }
-                            if (max <= this.threshold && _return.getNumberOfFrames() < this.maxShotLength) { //no cut
+                            if (max <= this.threshold && shotLength(_return) < this.maxShotLength) { //no cut
                                 for (Pair<VideoFrame, Double> pair : preShotList) {
                                     _return.addVideoFrame(pair.first);
                                 }
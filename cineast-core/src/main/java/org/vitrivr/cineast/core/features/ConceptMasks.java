@@ -10,6 +10,8 @@
 import org.vitrivr.cineast.core.data.score.ScoreElement;
 import org.vitrivr.cineast.core.data.segments.SegmentContainer;
 import org.vitrivr.cineast.core.features.abstracts.AbstractFeatureModule;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry.Handle;
 import org.vitrivr.cineast.core.features.neuralnet.tf.models.deeplab.*;
 import org.vitrivr.cineast.core.util.GridPartitioner;
 
@@ -19,14 +21,39 @@ public class ConceptMasks extends AbstractFeatureModule {
 
   private static final int GRID_PARTITIONS = 16;
 
-  private final DeepLab ade20k, cityscapes, pascalvoc;
+  /** Handles for the DeepLab models, which are shared with other modules. Acquired upon first extraction. */
+  private Handle<DeepLab> ade20k, cityscapes, pascalvoc;
 
   public ConceptMasks() {
     super("features_conceptmasks", 1, GRID_PARTITIONS * GRID_PARTITIONS * 2);
     this.correspondence = CorrespondenceFunction.hyperbolic(10); //TODO determine distance
-    this.ade20k = new DeepLabAde20k();
-    this.cityscapes = new DeepLabCityscapes();
-    this.pascalvoc = new DeepLabPascalVoc();
+  }
+
+  /**
+   * @return The ADE20K, Cityscapes and PASCAL VOC models, in that order.
+   */
+  private synchronized DeepLab[] models() {
+    if (this.ade20k == null) {
+      this.ade20k = TensorFlowModelRegistry.acquire(DeepLabAde20k.class.getName(), DeepLabAde20k::new);
+    }
+    if (this.cityscapes == null) {
+      this.cityscapes = TensorFlowModelRegistry.acquire(DeepLabCityscapes.class.getName(), DeepLabCityscapes::new);
+    }
+    if (this.pascalvoc == null) {
+      this.pascalvoc = TensorFlowModelRegistry.acquire(DeepLabPascalVoc.class.getName(), DeepLabPascalVoc::new);
+    }
+    return new DeepLab[]{this.ade20k.get(), this.cityscapes.get(), this.pascalvoc.get()};
+  }
+
+  @Override
+  public synchronized void finish() {
+    super.finish();
+    for (Handle<DeepLab> handle : Arrays.asList(this.ade20k, this.cityscapes, this.pascalvoc)) {
+      if (handle != null) {
+        handle.close();
+      }
+    }
+    this.ade20k = this.cityscapes = this.pascalvoc = null;
   }
 
   private static List<DeepLabLabel> linearize(DeepLabLabel[][] labels) {
@@ -38,7 +65,7 @@ private static List<DeepLabLabel> linearize(DeepLabLabel[][] labels) {
   }
 
   @Override
-  public synchronized void processSegment(SegmentContainer shot) {
+  public void processSegment(SegmentContainer shot) {
 
     if (shot == null || shot.getMostRepresentativeFrame() == null
         || shot.getMostRepresentativeFrame().getImage() == null
@@ -46,16 +73,19 @@ public synchronized void processSegment(SegmentContainer shot) {
       return;
     }
 
+    DeepLab[] models = models();
+    DeepLab ade20k = models[0], cityscapes = models[1], pascalvoc = models[2];
+
     TUint8 inputTensor = DeepLab.prepareImage(shot.getMostRepresentativeFrame().getImage().getBufferedImage());
 
-    int[][] tmp = this.ade20k.processImage(inputTensor);
+    int[][] tmp = ade20k.processImage(inputTensor);
 
     List<DeepLabLabel> ade20kLabels = linearize(
         DeepLabLabel.fromAde20kId(tmp));
     List<DeepLabLabel> cityscapesLabels = linearize(
-        DeepLabLabel.fromCityscapesId(this.cityscapes.processImage(inputTensor)));
+        DeepLabLabel.fromCityscapesId(cityscapes.processImage(inputTensor)));
     List<DeepLabLabel> pascalvocLabels = linearize(
-        DeepLabLabel.fromPascalVocId(this.pascalvoc.processImage(inputTensor)));
+        DeepLabLabel.fromPascalVocId(pascalvoc.processImage(inputTensor)));
 
     inputTensor.close();
 
@@ -12,6 +12,8 @@
 import org.vitrivr.cineast.core.data.score.ScoreElement;
 import org.vitrivr.cineast.core.data.segments.SegmentContainer;
 import org.vitrivr.cineast.core.features.abstracts.AbstractFeatureModule;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry.Handle;
 import org.vitrivr.cineast.core.features.neuralnet.tf.models.deeplab.DeepLab;
 import org.vitrivr.cineast.core.features.neuralnet.tf.models.deeplab.DeepLabAde20k;
 import org.vitrivr.cineast.core.features.neuralnet.tf.models.deeplab.DeepLabLabel;
@@ -25,7 +27,8 @@ public class ConceptMasksAde20k extends AbstractFeatureModule {
   private static final int GRID_PARTITIONS = 32;
   private static final Logger LOGGER = LogManager.getLogger();
 
-  private DeepLab ade20k;
+  /** Handle for the DeepLab model, which is shared with other modules. Acquired upon first extraction. */
+  private Handle<DeepLab> ade20k;
 
   public ConceptMasksAde20k() {
     super("features_conceptmasksade20k", 1, GRID_PARTITIONS * GRID_PARTITIONS * 2);
@@ -42,7 +45,7 @@ private static List<DeepLabLabel> linearize(DeepLabLabel[][] labels) {
   }
 
   @Override
-  public synchronized void processSegment(SegmentContainer shot) {
+  public void processSegment(SegmentContainer shot) {
 
     if (shot == null || shot.getMostRepresentativeFrame() == null
         || shot.getMostRepresentativeFrame().getImage() == null
@@ -50,18 +53,17 @@ public synchronized void processSegment(SegmentContainer shot) {
       return;
     }
 
-    if (this.ade20k == null) {
-      try {
-        this.ade20k = new DeepLabAde20k();
-      } catch (RuntimeException e) {
-        LOGGER.error(LogHelper.getStackTrace(e));
-        return;
-      }
+    final DeepLab ade20k;
+    try {
+      ade20k = this.model();
+    } catch (RuntimeException e) {
+      LOGGER.error(LogHelper.getStackTrace(e));
+      return;
     }
 
     TUint8 inputTensor = DeepLab.prepareImage(shot.getMostRepresentativeFrame().getImage().getBufferedImage());
 
-    int[][] tmp = this.ade20k.processImage(inputTensor);
+    int[][] tmp = ade20k.processImage(inputTensor);
 
     List<DeepLabLabel> ade20kLabels = linearize(
         DeepLabLabel.fromAde20kId(tmp));
@@ -84,6 +86,22 @@ public synchronized void processSegment(SegmentContainer shot) {
     persist(shot.getId(), new FloatVectorImpl(vector));
   }
 
+  private synchronized DeepLab model() {
+    if (this.ade20k == null) {
+      this.ade20k = TensorFlowModelRegistry.acquire(DeepLabAde20k.class.getName(), DeepLabAde20k::new);
+    }
+    return this.ade20k.get();
+  }
+
+  @Override
+  public synchronized void finish() {
+    super.finish();
+    if (this.ade20k != null) {
+      this.ade20k.close();
+      this.ade20k = null;
+    }
+  }
+
   @Override
   public List<ScoreElement> getSimilar(SegmentContainer sc, ReadableQueryConfig qc) {
 
@@ -17,6 +17,7 @@
 import java.awt.image.BufferedImage;
 import java.util.*;
 import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
  * OCR is handled by adding fuzziness / levenshtein-distance support to the query if there are no quotes present (as quotes indicate precision) This makes sense here since we expect small errors from OCR sources
@@ -50,10 +51,38 @@ public class OCRSearch extends AbstractTextRetriever {
   private static final MultiTracker.TRACKER_TYPE tracker_type = MultiTracker.TRACKER_TYPE.CIRCULANT;
   private static final int threshold_stream_length = 9;
 
+  /**
+   * Initialized detector / recognizer pairs that are currently not in use. OpenCV networks must not be used by several threads at once, so every extraction thread borrows a pair of its own. A new pair is only loaded if all existing ones are in use; the pool hence grows to the number of extraction threads and the networks are loaded once per thread rather than once per segment.
+   */
+  private final Queue<Models> models = new ConcurrentLinkedQueue<>();
+
   public OCRSearch() {
     super(OCR_TABLE_NAME);
   }
 
+  /**
+   * A text detector and a text recognizer with their networks loaded.
+   */
+  private static final class Models {
+
+    private final TextDetector_EAST detector = new TextDetector_EAST().initialize();
+    private final TextRecognizer_CTC recognizer = new TextRecognizer_CTC().initialize();
+  }
+
+  /**
+   * @return An idle detector / recognizer pair from the pool, or a newly initialized one if all are in use. Must be returned to the pool after use.
+   */
+  private Models borrowModels() {
+    Models borrowed = this.models.poll();
+    return borrowed != null ? borrowed : new Models();
+  }
+
+  @Override
+  public void finish() {
+    super.finish();
+    this.models.clear();
+  }
+
   /**
    * @param coordinate The coordinate to be processed
    * @return The minimum and maximum (in that order) of the X-coordinates
@@ -262,17 +291,23 @@ public double getAverageIntersectionOverUnion(List<Quadrilateral_F64> coordinate
    */
   @Override
   public void processSegment(SegmentContainer shot) {
-    TextDetector_EAST detector = new TextDetector_EAST().initialize();
-    TextRecognizer_CTC recognizer = new TextRecognizer_CTC().initialize();
+    Models borrowed = borrowModels();
+    try {
+      processSegment(shot, borrowed.detector, borrowed.recognizer);
+    } finally {
+      this.models.add(borrowed);
+    }
+  }
 
+  private void processSegment(SegmentContainer shot, TextDetector_EAST detector, TextRecognizer_CTC recognizer) {
     int lenVideo = shot.getVideoFrames().size();
     // Scene text extraction for image
     if (lenVideo == 1) {
       Mat frame = img2Mat(shot.getVideoFrames().get(0).getImage().getBufferedImage());
       Point[][] coordinates = detector.detect(frame);
       StringBuilder sb = new StringBuilder();
-      for (Point[] coordinate : coordinates) {
-        sb.append(recognizer.recognize(coordinate, frame, true)).append('\n');
+      for (String recognition : recognizer.recognize(Arrays.asList(coordinates), frame, true)) {
+        sb.append(recognition).append('\n');
       }
       saveText(shot.getId(), sb.toString());
       return;
@@ -386,23 +421,31 @@ public void processSegment(SegmentContainer shot) {
 
     List<TextStream> shouldRemove = new ArrayList<>();
 
-    // Recognize text within each stream
+    // Recognize text from the filtered coordinates of all streams, frame by frame, so that every frame is converted once and all of its text instances are recognized in one batch
+    TreeMap<Integer, List<Pair<TextStream, Point[]>>> crops = new TreeMap<>();
     for (TextStream stream : streams) {
-      HashMap<Integer, Quadrilateral_F64> filtered = stream.getFilteredCoordinates();
-      Iterator<Integer> frameIterator = filtered.keySet().iterator();
-      HashMap<String, Integer> counts = new HashMap<>();
-
-      // Recognize text from the filtered coordinates and count the amount of times they occur
-      while (frameIterator.hasNext()) {
-        int key = frameIterator.next();
-
-        Quadrilateral_F64 coord_before = filtered.get(key);
+      for (Map.Entry<Integer, Quadrilateral_F64> entry : stream.getFilteredCoordinates().entrySet()) {
+        Quadrilateral_F64 coord_before = entry.getValue();
         Point[] coordinates = new Point[]{new Point(coord_before.getD().x, coord_before.getD().y), new Point(coord_before.getA().x, coord_before.getA().y), new Point(coord_before.getB().x, coord_before.getB().y), new Point(coord_before.getC().x, coord_before.getC().y)};
-        Mat frame = img2Mat(shot.getVideoFrames().get(key).getImage().getBufferedImage());
-        String recognition = recognizer.recognize(coordinates, frame, false);
-        Integer count = counts.get(recognition);
-        counts.put(recognition, count != null ? count + 1 : 1);
+        crops.computeIfAbsent(entry.getKey(), key -> new ArrayList<>()).add(new Pair<>(stream, coordinates));
       }
+    }
+
+    // Count the amount of times the recognitions occur per stream (streams are compared by identity, since their equality only depends on their last frame and coordinate id)
+    Map<TextStream, HashMap<String, Integer>> streamCounts = new IdentityHashMap<>();
+    for (Map.Entry<Integer, List<Pair<TextStream, Point[]>>> entry : crops.entrySet()) {
+      Mat frame = img2Mat(shot.getVideoFrames().get(entry.getKey()).getImage().getBufferedImage());
+      List<Point[]> coordinates = new ArrayList<>(entry.getValue().size());
+      entry.getValue().forEach(crop -> coordinates.add(crop.second));
+      List<String> recognitions = recognizer.recognize(coordinates, frame, false);
+      for (int i = 0; i < recognitions.size(); i++) {
+        HashMap<String, Integer> counts = streamCounts.computeIfAbsent(entry.getValue().get(i).first, stream -> new HashMap<>());
+        counts.merge(recognitions.get(i), 1, Integer::sum);
+      }
+    }
+
+    for (TextStream stream : streams) {
+      HashMap<String, Integer> counts = streamCounts.getOrDefault(stream, new HashMap<>());
 
       // Select the recognitions which appear most often (majority voting)
       int max_count = 0;
@@ -3,6 +3,8 @@
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
 import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,6 +24,9 @@
 import org.vitrivr.cineast.core.data.score.ScoreElement;
 import org.vitrivr.cineast.core.data.segments.SegmentContainer;
 import org.vitrivr.cineast.core.features.abstracts.AbstractFeatureModule;
+import org.vitrivr.cineast.core.features.neuralnet.tf.MicroBatcher;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry.Handle;
 
 /**
  * A visual-text co-embedding mapping images and text descriptions to the same embedding space.
@@ -38,6 +43,12 @@ public class VisualTextCoEmbedding extends AbstractFeatureModule {
   private static final int IMAGE_WIDTH = 299;
   private static final int IMAGE_HEIGHT = 299;
 
+  /**
+   * Maximum number of images embedded at once and maximum time in milliseconds an image waits for others to join its batch.
+   */
+  private static final int MAX_BATCH_SIZE = 16;
+  private static final long MAX_BATCH_LATENCY = 20;
+
   /**
    * Resource paths.
    */
@@ -64,22 +75,27 @@ public class VisualTextCoEmbedding extends AbstractFeatureModule {
    * <p>
    * Currently using UniversalSentenceEncoderV4: https://tfhub.dev/google/universal-sentence-encoder/4
    */
-  private static SavedModelBundle textEmbedding;
+  private Handle<SavedModelBundle> textEmbedding;
   /**
    * Embedding network from text intermediary embedding to visual-text co-embedding.
    */
-  private static SavedModelBundle textCoEmbedding;
+  private Handle<SavedModelBundle> textCoEmbedding;
 
   /**
    * Embedding network from image to intermediary embedding.
    * <p>
    * Currently using InceptionResNetV2 pretrained on ImageNet: https://storage.googleapis.com/tensorflow/keras-applications/inception_resnet_v2/inception_resnet_v2_weights_tf_dim_ordering_tf_kernels_notop.h5
    */
-  private static SavedModelBundle visualEmbedding;
+  private Handle<SavedModelBundle> visualEmbedding;
   /**
    * Embedding network from visual intermediary embedding to visual-text co-embedding.
    */
-  private static SavedModelBundle visualCoEmbedding;
+  private Handle<SavedModelBundle> visualCoEmbedding;
+
+  /**
+   * Coalesces the images of concurrent extraction tasks into batched runs of the visual embedding networks.
+   */
+  private MicroBatcher<BufferedImage, float[]> visualBatcher;
 
   public VisualTextCoEmbedding() {
     super(TABLE_NAME, 2f, EMBEDDING_SIZE);
@@ -94,11 +110,38 @@ public void processSegment(SegmentContainer shot) {
     BufferedImage image = shot.getMostRepresentativeFrame().getImage().getBufferedImage();
 
     if (image != null) {
-      float[] embeddingArray = embedImage(image);
+      float[] embeddingArray = visualBatcher().process(image);
       this.persist(shot.getId(), new FloatVectorImpl(embeddingArray));
     }
   }
 
+  /**
+   * Embeds the most representative frames of all given segments with a single call of the visual embedding networks.
+   */
+  @Override
+  public void processSegments(List<SegmentContainer> shots) {
+    List<String> ids = new ArrayList<>(shots.size());
+    List<BufferedImage> images = new ArrayList<>(shots.size());
+    for (SegmentContainer shot : shots) {
+      if (shot.getMostRepresentativeFrame() == VideoFrame.EMPTY_VIDEO_FRAME) {
+        continue;
+      }
+      BufferedImage image = shot.getMostRepresentativeFrame().getImage().getBufferedImage();
+      if (image != null) {
+        ids.add(shot.getId());
+        images.add(image);
+      }
+    }
+    if (images.isEmpty()) {
+      return;
+    }
+
+    List<float[]> embeddings = visualBatcher().processAll(images);
+    for (int i = 0; i < embeddings.size(); i++) {
+      this.persist(ids.get(i), new FloatVectorImpl(embeddings.get(i)));
+    }
+  }
+
   @Override
   public List<ScoreElement> getSimilar(SegmentContainer sc, ReadableQueryConfig qc) {
     String text = sc.getText();
@@ -121,22 +164,53 @@ public List<ScoreElement> getSimilar(String segmentId, ReadableQueryConfig qc) {
     return super.getSimilar(segmentId, queryConfig);
   }
 
-  private void initializeTextEmbedding() {
+  @Override
+  public synchronized void finish() {
+    super.finish();
+    if (visualBatcher != null) {
+      visualBatcher.close();
+      visualBatcher = null;
+    }
+    textEmbedding = release(textEmbedding);
+    textCoEmbedding = release(textCoEmbedding);
+    visualEmbedding = release(visualEmbedding);
+    visualCoEmbedding = release(visualCoEmbedding);
+  }
+
+  private synchronized void initializeTextEmbedding() {
     if (textEmbedding == null) {
-      textEmbedding = SavedModelBundle.load(RESOURCE_PATH + TEXT_EMBEDDING_MODEL);
+      textEmbedding = acquire(TEXT_EMBEDDING_MODEL);
     }
     if (textCoEmbedding == null) {
-      textCoEmbedding = SavedModelBundle.load(RESOURCE_PATH + TEXT_CO_EMBEDDING_MODEL);
+      textCoEmbedding = acquire(TEXT_CO_EMBEDDING_MODEL);
     }
   }
 
-  private void initializeVisualEmbedding() {
+  private synchronized MicroBatcher<BufferedImage, float[]> visualBatcher() {
     if (visualEmbedding == null) {
-      visualEmbedding = SavedModelBundle.load(RESOURCE_PATH + VISUAL_EMBEDDING_MODEL);
+      visualEmbedding = acquire(VISUAL_EMBEDDING_MODEL);
     }
     if (visualCoEmbedding == null) {
-      visualCoEmbedding = SavedModelBundle.load(RESOURCE_PATH + VISUAL_CO_EMBEDDING_MODEL);
+      visualCoEmbedding = acquire(VISUAL_CO_EMBEDDING_MODEL);
+    }
+    if (visualBatcher == null) {
+      visualBatcher = new MicroBatcher<>(VISUAL_EMBEDDING_MODEL, MAX_BATCH_SIZE, MAX_BATCH_LATENCY, images -> Arrays.asList(embedImages(images)));
+    }
+    return visualBatcher;
+  }
+
+  /**
+   * Loads the saved model with the given name or returns the instance already loaded by another module.
+   */
+  private static Handle<SavedModelBundle> acquire(String model) {
+    return TensorFlowModelRegistry.acquire(RESOURCE_PATH + model, () -> SavedModelBundle.load(RESOURCE_PATH + model));
+  }
+
+  private static Handle<SavedModelBundle> release(Handle<SavedModelBundle> handle) {
+    if (handle != null) {
+      handle.close();
     }
+    return null;
   }
 
   private float[] embedText(String text) {
@@ -147,14 +221,14 @@ private float[] embedText(String text) {
       HashMap<String, Tensor> inputMap = new HashMap<>();
       inputMap.put(TEXT_EMBEDDING_INPUT, textTensor);
 
-      Map<String, Tensor> resultMap = textEmbedding.call(inputMap);
+      Map<String, Tensor> resultMap = textEmbedding.get().call(inputMap);
 
       try (TFloat32 intermediaryEmbedding = (TFloat32) resultMap.get(TEXT_EMBEDDING_OUTPUT)) {
 
         inputMap.clear();
         inputMap.put(TEXT_CO_EMBEDDING_INPUT, intermediaryEmbedding);
 
-        resultMap = textCoEmbedding.call(inputMap);
+        resultMap = textCoEmbedding.get().call(inputMap);
         try (TFloat32 embedding = (TFloat32) resultMap.get(TEXT_CO_EMBEDDING_OUTPUT)) {
 
           float[] embeddingArray = new float[EMBEDDING_SIZE];
@@ -168,36 +242,49 @@ private float[] embedText(String text) {
     }
   }
 
-  private float[] embedImage(BufferedImage image) {
-    initializeVisualEmbedding();
-
-    if (image.getWidth() != IMAGE_WIDTH || image.getHeight() != IMAGE_HEIGHT) {
-      image = rescale(image, IMAGE_WIDTH, IMAGE_HEIGHT);
+  /**
+   * Embeds all given images as one batch. Invoked by the {@link #visualBatcher}, which makes sure the models are loaded.
+   *
+   * @return One embedding per image, in the order of the images.
+   */
+  private float[][] embedImages(List<BufferedImage> images) {
+
+    int imageSize = IMAGE_WIDTH * IMAGE_HEIGHT * 3;
+    float[] processedColors = new float[images.size() * imageSize];
+    for (int i = 0; i < images.size(); i++) {
+      BufferedImage image = images.get(i);
+      if (image.getWidth() != IMAGE_WIDTH || image.getHeight() != IMAGE_HEIGHT) {
+        image = rescale(image, IMAGE_WIDTH, IMAGE_HEIGHT);
+      }
+      int[] colors = image.getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH);
+      int[] rgb = colorsToRGB(colors);
+      System.arraycopy(preprocessInput(rgb), 0, processedColors, i * imageSize, imageSize);
     }
-    int[] colors = image.getRGB(0, 0, IMAGE_WIDTH, IMAGE_HEIGHT, null, 0, IMAGE_WIDTH);
-    int[] rgb = colorsToRGB(colors);
-    float[] processedColors = preprocessInput(rgb);
 
-    try (TFloat32 imageTensor = TFloat32.tensorOf(Shape.of(1, IMAGE_WIDTH, IMAGE_HEIGHT, 3), DataBuffers.of(processedColors))) {
+    try (TFloat32 imageTensor = TFloat32.tensorOf(Shape.of(images.size(), IMAGE_WIDTH, IMAGE_HEIGHT, 3), DataBuffers.of(processedColors))) {
       HashMap<String, Tensor> inputMap = new HashMap<>();
       inputMap.put(VISUAL_EMBEDDING_INPUT, imageTensor);
 
-      Map<String, Tensor> resultMap = visualEmbedding.call(inputMap);
+      Map<String, Tensor> resultMap = visualEmbedding.get().call(inputMap);
 
       try (TFloat32 intermediaryEmbedding = (TFloat32) resultMap.get(VISUAL_EMBEDDING_OUTPUT)) {
 
         inputMap.clear();
         inputMap.put(VISUAL_CO_EMBEDDING_INPUT, intermediaryEmbedding);
 
-        resultMap = visualCoEmbedding.call(inputMap);
+        resultMap = visualCoEmbedding.get().call(inputMap);
         try (TFloat32 embedding = (TFloat32) resultMap.get(VISUAL_CO_EMBEDDING_OUTPUT)) {
 
-          float[] embeddingArray = new float[EMBEDDING_SIZE];
+          float[] embeddingArray = new float[images.size() * EMBEDDING_SIZE];
           FloatDataBuffer floatBuffer = DataBuffers.of(embeddingArray);
           // Beware TensorFlow allows tensor writing to buffers through the function read rather than write
           embedding.read(floatBuffer);
 
-          return embeddingArray;
+          float[][] embeddings = new float[images.size()][];
+          for (int i = 0; i < images.size(); i++) {
+            embeddings[i] = Arrays.copyOfRange(embeddingArray, i * EMBEDDING_SIZE, (i + 1) * EMBEDDING_SIZE);
+          }
+          return embeddings;
         }
       }
     }
@@ -13,6 +13,8 @@
 import org.vitrivr.cineast.core.db.PersistencyWriterSupplier;
 
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * An abstract feature module that leverages a named codebook and a set of features to obtain
@@ -33,6 +35,9 @@ public abstract class AbstractCodebookFeatureModule extends StagedFeatureModule
     /** The folder that contains the Codebook(s). */
     private static String CODEBOOK_FOLDER = "resources/codebooks/";
 
+    /** Codebooks that have been loaded so far, by name. Instances only use copies of them. */
+    private static final Map<String, AssignCluster<double[]>> CODEBOOKS = new ConcurrentHashMap<>();
+
     /**
      *
      * @param tableName
@@ -52,7 +57,7 @@ public final void init(PersistencyWriterSupplier phandlerSupply, int batchSize)
         super.init(phandlerSupply, batchSize);
 
         /* Load the Codebook. */
-        this.assignment = UtilIO.load(CODEBOOK_FOLDER + this.codebook());
+        this.assignment = loadCodebook(this.codebook());
     }
 
     /**
@@ -65,7 +70,17 @@ public final void init(DBSelectorSupplier selectorSupply) {
         super.init(selectorSupply);
 
         /* Load the Codebook. */
-        this.assignment = UtilIO.load(CODEBOOK_FOLDER + this.codebook());
+        this.assignment = loadCodebook(this.codebook());
+    }
+
+    /**
+     * Returns a copy of the named codebook, which is only read from disk the first time it is requested.
+     *
+     * @param name Name of the codebook.
+     * @return Assignment for the codebook.
+     */
+    private static AssignCluster<double[]> loadCodebook(String name) {
+        return CODEBOOKS.computeIfAbsent(name, n -> UtilIO.load(CODEBOOK_FOLDER + n)).copy();
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.vitrivr.cineast.core.features.extractor;
 
+import java.util.List;
 import org.vitrivr.cineast.core.data.segments.SegmentContainer;
 import org.vitrivr.cineast.core.db.PersistencyWriterSupplier;
 import org.vitrivr.cineast.core.db.PersistentOperator;
@@ -8,6 +9,17 @@ public interface Extractor extends PersistentOperator {
 	void init(PersistencyWriterSupplier phandlerSupply, int batchSize);
 
 	void processSegment(SegmentContainer shot);
-		
+
+	/**
+	 * Processes a batch of segments. Extractors that can process several segments at once more efficiently than one by one (e.g., by means of a single inference call of a neural network) should override this method.
+	 *
+	 * @param shots The segments to process.
+	 */
+	default void processSegments(List<SegmentContainer> shots) {
+		for (SegmentContainer shot : shots) {
+			this.processSegment(shot);
+		}
+	}
+
 	void finish();
 }
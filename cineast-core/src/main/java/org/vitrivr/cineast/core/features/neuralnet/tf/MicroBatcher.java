@@ -0,0 +1,185 @@
+package org.vitrivr.cineast.core.features.neuralnet.tf;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Request queue in front of a model that coalesces concurrent single-input calls into batched invocations.
+ * <p>
+ * Callers block in {@link #process(Object)} while a worker thread collects requests: once the first request has arrived,
+ * it waits at most for the configured latency (or until the maximum batch size has been reached) and then hands all
+ * collected inputs to the batch function at once. Running a network on a batch is usually much cheaper than running it
+ * once per input, while the latency bound keeps single requests from waiting long when there is no concurrency.
+ *
+ * @param <I> Type of the inputs.
+ * @param <O> Type of the outputs.
+ */
+public final class MicroBatcher<I, O> implements AutoCloseable {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final String name;
+
+  private final int maxBatchSize;
+
+  private final long maxLatencyNanos;
+
+  /** Computes the outputs for a batch of inputs, in the same order. */
+  private final Function<List<I>, List<O>> batchFunction;
+
+  private final LinkedBlockingQueue<Request<I, O>> queue = new LinkedBlockingQueue<>();
+
+  private final Thread worker;
+
+  private volatile boolean running = true;
+
+  /**
+   * @param name          Name of the batcher, used for the worker thread.
+   * @param maxBatchSize  Maximum number of inputs handed to the batch function at once.
+   * @param maxLatency    Maximum time in milliseconds the first request of a batch waits for further requests.
+   * @param batchFunction Computes the outputs for a batch of inputs; must return one output per input, in the same order.
+   */
+  public MicroBatcher(String name, int maxBatchSize, long maxLatency, Function<List<I>, List<O>> batchFunction) {
+    if (maxBatchSize < 1) {
+      throw new IllegalArgumentException("The maximum batch size must be at least 1.");
+    }
+    this.name = name;
+    this.maxBatchSize = maxBatchSize;
+    this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, maxLatency));
+    this.batchFunction = batchFunction;
+    this.worker = new Thread(this::work, "micro-batcher-" + name);
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Computes the output for a single input, as part of a batch with other concurrent requests.
+   *
+   * @param input Input to process.
+   * @return Output for the input.
+   * @throws IllegalStateException If the batcher has been closed.
+   * @throws RuntimeException      If the batch function failed.
+   */
+  public O process(I input) {
+    return this.processAll(Collections.singletonList(input)).get(0);
+  }
+
+  /**
+   * Computes the outputs for the given inputs. The inputs may be split into or merged with other batches.
+   *
+   * @param inputs Inputs to process.
+   * @return Outputs in the order of the inputs.
+   */
+  public List<O> processAll(List<I> inputs) {
+    if (!this.running) {
+      throw new IllegalStateException("Micro batcher " + this.name + " has been closed.");
+    }
+    final List<CompletableFuture<O>> futures = new ArrayList<>(inputs.size());
+    for (I input : inputs) {
+      final Request<I, O> request = new Request<>(input);
+      futures.add(request.result);
+      this.queue.add(request);
+    }
+    if (!this.running) {
+      /* Closed concurrently; requests that the worker will not pick up anymore must not wait forever. */
+      this.failQueued();
+    }
+    final List<O> _return = new ArrayList<>(inputs.size());
+    try {
+      for (CompletableFuture<O> future : futures) {
+        _return.add(future.get());
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for micro batcher " + this.name + ".", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Micro batcher " + this.name + " failed.", e.getCause());
+    }
+    return _return;
+  }
+
+  /**
+   * Stops the worker thread. Requests that are still queued fail.
+   */
+  @Override
+  public void close() {
+    this.running = false;
+    this.worker.interrupt();
+    this.failQueued();
+  }
+
+  private void failQueued() {
+    Request<I, O> request;
+    while ((request = this.queue.poll()) != null) {
+      request.result.completeExceptionally(new IllegalStateException("Micro batcher " + this.name + " has been closed."));
+    }
+  }
+
+  private void work() {
+    final List<Request<I, O>> batch = new ArrayList<>(this.maxBatchSize);
+    while (this.running) {
+      try {
+        batch.add(this.queue.take());
+        final long deadline = System.nanoTime() + this.maxLatencyNanos;
+        while (batch.size() < this.maxBatchSize) {
+          final long remaining = deadline - System.nanoTime();
+          final Request<I, O> next = remaining > 0 ? this.queue.poll(remaining, TimeUnit.NANOSECONDS) : this.queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+      } catch (InterruptedException e) {
+        for (Request<I, O> request : batch) {
+          request.result.completeExceptionally(new IllegalStateException("Micro batcher " + this.name + " has been closed."));
+        }
+        return;
+      }
+      this.run(batch);
+      batch.clear();
+    }
+  }
+
+  private void run(List<Request<I, O>> batch) {
+    final List<I> inputs = new ArrayList<>(batch.size());
+    for (Request<I, O> request : batch) {
+      inputs.add(request.input);
+    }
+    try {
+      final List<O> outputs = this.batchFunction.apply(inputs);
+      if (outputs == null || outputs.size() != inputs.size()) {
+        throw new IllegalStateException("Batch function of micro batcher " + this.name + " returned " + (outputs == null ? "null" : outputs.size() + " outputs") + " for " + inputs.size() + " inputs.");
+      }
+      for (int i = 0; i < batch.size(); i++) {
+        batch.get(i).result.complete(outputs.get(i));
+      }
+    } catch (Throwable t) {
+      LOGGER.warn("Batch of {} inputs failed in micro batcher {}: {}", inputs.size(), this.name, t.getMessage());
+      for (Request<I, O> request : batch) {
+        request.result.completeExceptionally(t);
+      }
+    }
+  }
+
+  private static final class Request<I, O> {
+
+    private final I input;
+
+    private final CompletableFuture<O> result = new CompletableFuture<>();
+
+    private Request(I input) {
+      this.input = input;
+    }
+  }
+}
@@ -0,0 +1,137 @@
+package org.vitrivr.cineast.core.features.neuralnet.tf;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * Process-wide registry of TensorFlow models (graphs, sessions, saved model bundles), so that every model is loaded only
+ * once per JVM no matter how many feature modules use it.
+ * <p>
+ * Models are handed out as reference-counted {@link Handle}s. The model is loaded by the first {@link #acquire(String,
+ * Supplier)} and closed once the last handle has been closed. TensorFlow sessions are thread-safe, so a shared model can
+ * be used by several threads concurrently.
+ */
+public final class TensorFlowModelRegistry {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  /** Registered models by key. Guarded by the map itself. */
+  private static final Map<String, Entry<?>> MODELS = new HashMap<>();
+
+  private TensorFlowModelRegistry() {
+  }
+
+  /**
+   * Returns a handle for the model with the given key, loading it with the provided loader if it is not registered yet.
+   * Concurrent acquisitions of the same model wait for the model to be loaded once; if loading fails, the exception is
+   * thrown to the caller and the next acquisition tries again.
+   *
+   * @param key    Key that identifies the model, e.g. its path or the name of the class that wraps it.
+   * @param loader Loads the model. Only invoked if the model is not registered.
+   * @return Handle for the model. Must be closed once the model is not needed anymore.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T extends AutoCloseable> Handle<T> acquire(String key, Supplier<T> loader) {
+    final Entry<T> entry;
+    synchronized (MODELS) {
+      entry = (Entry<T>) MODELS.computeIfAbsent(key, k -> new Entry<>(key));
+      entry.references++;
+    }
+    try {
+      entry.load(loader);
+    } catch (RuntimeException e) {
+      release(entry);
+      throw e;
+    }
+    return new Handle<>(entry);
+  }
+
+  /**
+   * Returns the number of handles that are currently open for the model with the given key.
+   */
+  public static int references(String key) {
+    synchronized (MODELS) {
+      final Entry<?> entry = MODELS.get(key);
+      return entry == null ? 0 : entry.references;
+    }
+  }
+
+  private static void release(Entry<?> entry) {
+    synchronized (MODELS) {
+      if (--entry.references > 0) {
+        return;
+      }
+      MODELS.remove(entry.key);
+    }
+    entry.close();
+  }
+
+  private static final class Entry<T extends AutoCloseable> {
+
+    private final String key;
+
+    /** Number of open handles. Guarded by {@link #MODELS}. */
+    private int references;
+
+    private T model;
+
+    private Entry(String key) {
+      this.key = key;
+    }
+
+    private synchronized void load(Supplier<T> loader) {
+      if (this.model == null) {
+        LOGGER.debug("Loading TensorFlow model {}.", this.key);
+        this.model = loader.get();
+      }
+    }
+
+    private synchronized void close() {
+      if (this.model == null) {
+        return;
+      }
+      LOGGER.debug("Closing TensorFlow model {}.", this.key);
+      try {
+        this.model.close();
+      } catch (Exception e) {
+        LOGGER.warn("Failed to close TensorFlow model {}: {}", this.key, e.getMessage());
+      }
+      this.model = null;
+    }
+  }
+
+  /**
+   * Reference to a model in the registry. Closing the handle releases the reference; the handle cannot be used afterwards.
+   */
+  public static final class Handle<T extends AutoCloseable> implements AutoCloseable {
+
+    private Entry<T> entry;
+
+    private Handle(Entry<T> entry) {
+      this.entry = entry;
+    }
+
+    /**
+     * Returns the model.
+     *
+     * @throws IllegalStateException If the handle has already been closed.
+     */
+    public synchronized T get() {
+      if (this.entry == null) {
+        throw new IllegalStateException("The handle has already been closed.");
+      }
+      return this.entry.model;
+    }
+
+    @Override
+    public synchronized void close() {
+      if (this.entry != null) {
+        release(this.entry);
+        this.entry = null;
+      }
+    }
+  }
+}
@@ -35,9 +35,10 @@ public DeepLab(byte[] graph, String[] labels) {
 
 
   /**
-   * returns the class label index for every pixel of the rescaled image
+   * returns the class label index for every pixel of the rescaled image. Can be invoked concurrently, since TensorFlow
+   * sessions are thread-safe; instances are usually shared through the TensorFlowModelRegistry.
    */
-  public synchronized int[][] processImage(BufferedImage img) {
+  public int[][] processImage(BufferedImage img) {
     TUint8 input = prepareImage(img);
     int[][] _return = processImage(input);
     input.close();
@@ -45,7 +46,7 @@ public synchronized int[][] processImage(BufferedImage img) {
   }
 
 
-  public synchronized int[][] processImage(TUint8 input) {
+  public int[][] processImage(TUint8 input) {
 
     TInt64 result = (TInt64) session.runner().feed("ImageTensor", input).fetch("SemanticPredictions").run().get(0);
 
@@ -5,7 +5,7 @@
 import org.vitrivr.cineast.core.data.StringDoublePair;
 import org.vitrivr.cineast.core.data.TemporalObject;
 import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
-import org.vitrivr.cineast.core.temporal.sequential.SequentialTemporalScoringAlgorithm;
+import org.vitrivr.cineast.core.temporal.sequential.DynamicSequentialTemporalScoringAlgorithm;
 import org.vitrivr.cineast.core.temporal.timedistance.TimeDistanceTemporalScoringAlgorithm;
 
 /**
@@ -49,7 +49,7 @@ public List<TemporalObject> score() {
     if (this.timeDistances.size() > 0) {
       temporalScoringAlgorithm = new TimeDistanceTemporalScoringAlgorithm(this.segmentMap, this.containerResults, maxLength, this.timeDistances);
     } else {
-      temporalScoringAlgorithm = new SequentialTemporalScoringAlgorithm(this.segmentMap, this.containerResults, maxLength);
+      temporalScoringAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(this.segmentMap, this.containerResults, maxLength);
     }
     return temporalScoringAlgorithm.score();
   }
@@ -0,0 +1,182 @@
+package org.vitrivr.cineast.core.temporal.sequential;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+import org.vitrivr.cineast.core.data.TemporalObject;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.temporal.ScoredSegment;
+
+/**
+ * Implementation of the sequential scoring algorithm that computes the best path of every segment by means of dynamic programming instead of enumerating all paths.
+ *
+ * <p>The scored segments of an object are ordered by their sequence number. The best path that continues at a segment only depends on the segments that may follow it and on the last segment admitted by the max length of the path's starting segment, so the best paths of all starting segments that admit the same last segment are computed in a single backwards pass.</p>
+ * <p>This requires the segments of an object to be ordered consistently, i.e., start and end must not decrease with increasing sequence number. Objects that violate this are scored by means of {@link SequentialTemporalScoringAlgorithm#getBestPathForSegment(MediaSegmentDescriptor, ScoredSegment)}.</p>
+ * <p>Results carry the same scores as those of {@link SequentialTemporalScoringAlgorithm}; if several paths of a segment share the best score, the segments that make up the path may differ.</p>
+ */
+public class DynamicSequentialTemporalScoringAlgorithm extends SequentialTemporalScoringAlgorithm {
+
+  private static final Comparator<ScoredSegment> SEQUENCE_ORDER = Comparator.comparingInt(ScoredSegment::getSequenceNumber).thenComparingInt(ScoredSegment::getContainerId);
+
+  public DynamicSequentialTemporalScoringAlgorithm(Map<String, MediaSegmentDescriptor> segmentMap, List<List<StringDoublePair>> containerResults, float maxLength) {
+    super(segmentMap, containerResults, maxLength);
+  }
+
+  /**
+   * Score the information given to the class upon the creation of the class according to the sequential scoring algorithm.
+   *
+   * @return List of {@link TemporalObject}
+   */
+  @Override
+  public List<TemporalObject> score() {
+    /* Collect the scored segments of every object, including those that share container and sequence number with another one. */
+    final Map<String, List<ScoredSegment>> objectSegments = new HashMap<>();
+    for (Map<Integer, ScoredSegment> segments : this.scoredSegmentStorage.values()) {
+      for (ScoredSegment scoredSegment : segments.values()) {
+        objectSegments.computeIfAbsent(scoredSegment.getObjectId(), k -> new ArrayList<>()).add(scoredSegment);
+      }
+    }
+
+    for (Map.Entry<String, List<ScoredSegment>> entry : objectSegments.entrySet()) {
+      final ScoredSegment[] segments = entry.getValue().toArray(new ScoredSegment[0]);
+      Arrays.sort(segments, SEQUENCE_ORDER);
+      final List<SequentialPath> paths = new ArrayList<>(segments.length);
+      if (segments.length == this.scoredSegmentSets.get(entry.getKey()).size() && isOrdered(segments)) {
+        this.scoreObject(entry.getKey(), segments, paths);
+      } else {
+        for (ScoredSegment scoredSegment : segments) {
+          paths.add(this.getBestPathForSegment(this.segmentMap.get(scoredSegment.getSegmentId()), scoredSegment));
+        }
+      }
+      this.objectPaths.put(entry.getKey(), paths);
+    }
+    return this.collectResults();
+  }
+
+  /**
+   * Calculates the best path of every segment of an object.
+   *
+   * @param objectId The id of the object.
+   * @param segments The {@link ScoredSegment}s of the object, ordered by sequence number.
+   * @param paths    List the best paths are added to.
+   */
+  private void scoreObject(String objectId, ScoredSegment[] segments, List<SequentialPath> paths) {
+    final int n = segments.length;
+    final int containers = this.maxContainerId + 1;
+
+    /* Index of the first segment that may follow a segment, if it has a higher container id. */
+    final int[] next = new int[n];
+    int higherSequence = 0;
+    int laterStart = 0;
+    for (int i = 0; i < n; i++) {
+      while (higherSequence < n && segments[higherSequence].getSequenceNumber() <= segments[i].getSequenceNumber()) {
+        higherSequence++;
+      }
+      while (laterStart < n && segments[laterStart].getStart() < segments[i].getEnd()) {
+        laterStart++;
+      }
+      next[i] = Math.max(Math.max(higherSequence, laterStart), i + 1);
+    }
+
+    /* Group the starting segments by the last segment their path may contain. */
+    final TreeMap<Integer, List<Integer>> startsByLast = new TreeMap<>();
+    for (int i = 0; i < n; i++) {
+      startsByLast.computeIfAbsent(this.lastWithinMaxLength(segments, i), k -> new ArrayList<>()).add(i);
+    }
+
+    /*
+    best[p * containers + c] holds the best path score among the segments in [p, last] with a
+    container id higher than c and bestIndex the segment that path starts with.
+     */
+    final double[] best = new double[(n + 1) * containers];
+    final int[] bestIndex = new int[(n + 1) * containers];
+    final double[] pathScore = new double[n];
+    final int[] successor = new int[n];
+
+    for (Map.Entry<Integer, List<Integer>> group : startsByLast.entrySet()) {
+      final int last = group.getKey();
+      final int first = group.getValue().get(0);
+
+      Arrays.fill(best, (last + 1) * containers, (last + 2) * containers, Double.NEGATIVE_INFINITY);
+      Arrays.fill(bestIndex, (last + 1) * containers, (last + 2) * containers, -1);
+      for (int p = last; p >= first; p--) {
+        final int containerId = segments[p].getContainerId();
+
+        /* Continue with the best following segment, but only if that improves the path. */
+        pathScore[p] = segments[p].getScore();
+        successor[p] = -1;
+        if (next[p] <= last) {
+          final int offset = next[p] * containers + containerId;
+          if (best[offset] > 0d) {
+            pathScore[p] += best[offset];
+            successor[p] = bestIndex[offset];
+          }
+        }
+
+        /* Prefer the earlier segment among paths with the same score. */
+        for (int c = 0; c < containers; c++) {
+          final int offset = p * containers + c;
+          if (containerId > c && pathScore[p] >= best[offset + containers]) {
+            best[offset] = pathScore[p];
+            bestIndex[offset] = p;
+          } else {
+            best[offset] = best[offset + containers];
+            bestIndex[offset] = bestIndex[offset + containers];
+          }
+        }
+      }
+
+      for (int start : group.getValue()) {
+        final SequentialPath path = new SequentialPath(objectId, segments[start]);
+        for (int p = successor[start]; p >= 0; p = successor[p]) {
+          path.addSegment(segments[p]);
+        }
+        paths.add(path);
+      }
+    }
+  }
+
+  /**
+   * Returns the index of the last segment that a path starting at the given segment may contain according to the max length, or the index of the starting segment if there is none.
+   */
+  private int lastWithinMaxLength(ScoredSegment[] segments, int start) {
+    int low = start;
+    int high = segments.length - 1;
+    while (low < high) {
+      final int mid = (low + high + 1) >>> 1;
+      if (this.withinMaxLength(segments[start], segments[mid])) {
+        low = mid;
+      } else {
+        high = mid - 1;
+      }
+    }
+    return low;
+  }
+
+  /* if endAbs is 0, we're dealing with image sequences so we're looking at non-abs information (which is in seconds) */
+  private boolean withinMaxLength(ScoredSegment start, ScoredSegment candidate) {
+    return candidate.getEndAbs() == 0 ? candidate.getEnd() - start.getStart() <= this.maxLength : candidate.getEndAbs() - start.getStartAbs() <= this.maxLength;
+  }
+
+  /**
+   * Checks whether the segments, ordered by sequence number, are ordered by their start and end as well, which is what the dynamic programming relies on.
+   */
+  private static boolean isOrdered(ScoredSegment[] segments) {
+    for (int i = 1; i < segments.length; i++) {
+      final ScoredSegment previous = segments[i - 1];
+      final ScoredSegment current = segments[i];
+      if ((previous.getEndAbs() == 0) != (current.getEndAbs() == 0)) {
+        return false;
+      }
+      if (current.getStart() < previous.getStart() || current.getEnd() < previous.getEnd() || current.getStartAbs() < previous.getStartAbs() || current.getEndAbs() < previous.getEndAbs()) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
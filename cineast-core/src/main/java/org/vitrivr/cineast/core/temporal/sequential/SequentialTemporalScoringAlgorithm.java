@@ -26,7 +26,7 @@
  */
 public class SequentialTemporalScoringAlgorithm extends AbstractTemporalScoringAlgorithm {
 
-  private final Map<String, List<SequentialPath>> objectPaths;
+  protected final Map<String, List<SequentialPath>> objectPaths;
 
   public SequentialTemporalScoringAlgorithm(Map<String, MediaSegmentDescriptor> segmentMap, List<List<StringDoublePair>> containerResults, float maxLength) {
     super(segmentMap, containerResults, maxLength);
@@ -51,6 +51,15 @@ public List<TemporalObject> score() {
       }
     }
 
+    return this.collectResults();
+  }
+
+  /**
+   * Turns the best paths of all segments, as collected in {@link #objectPaths}, into one {@link TemporalObject} per object.
+   *
+   * @return List of {@link TemporalObject}, best first
+   */
+  protected List<TemporalObject> collectResults() {
     List<TemporalObject> results = new ArrayList<>();
 
     /*
@@ -80,7 +89,7 @@ public List<TemporalObject> score() {
   }
 
   /* Calculate the best path possible for a segment. */
-  private SequentialPath getBestPathForSegment(MediaSegmentDescriptor mediaSegmentDescriptor, ScoredSegment scoredSegment) {
+  protected SequentialPath getBestPathForSegment(MediaSegmentDescriptor mediaSegmentDescriptor, ScoredSegment scoredSegment) {
     PriorityQueue<SequentialPath> pathQueue = new PriorityQueue<>();
 
     SequentialPath initPath = new SequentialPath(mediaSegmentDescriptor.getObjectId(), scoredSegment);
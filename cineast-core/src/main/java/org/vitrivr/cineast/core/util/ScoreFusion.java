@@ -5,6 +5,7 @@
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.data.score.ScoreAccumulator;
 import org.vitrivr.cineast.core.db.dao.reader.MediaSegmentReader;
 
 import java.util.List;
@@ -25,7 +26,7 @@ private ScoreFusion() {}
    * @param scoreBySegmentId segment ids with their respective score
    * @param scoreByObjectId object ids with their respective score
    */
-  public static void fuseObjectsIntoSegments(TObjectDoubleMap<String> scoreBySegmentId,
+  public static void fuseObjectsIntoSegments(ScoreAccumulator scoreBySegmentId,
       TObjectDoubleMap<String> scoreByObjectId, MediaSegmentReader mediaSegmentReader) {
 
     Set<String> objectIds = scoreByObjectId.keySet();
@@ -41,24 +42,15 @@ public static void fuseObjectsIntoSegments(TObjectDoubleMap<String> scoreBySegme
         logger.error("Object {} has no segments", objectId);
         continue;
       }
-      fuseObjectScoreIntoSegments(scoreBySegmentId, objectScore, segments);
-    }
-  }
-
-  private static void fuseObjectScoreIntoSegments(TObjectDoubleMap<String> scoreBySegmentId,
-      double objectScore, List<MediaSegmentDescriptor> segments) {
-    boolean objectSegmentsFoundInResults = false;
-    for (MediaSegmentDescriptor segment : segments) {
-      boolean foundElement = scoreBySegmentId.adjustValue(segment.getSegmentId(), objectScore);
-      if (foundElement) {
-        objectSegmentsFoundInResults = true;
+      boolean objectSegmentsFoundInResults = false;
+      for (MediaSegmentDescriptor segment : segments) {
+        if (scoreBySegmentId.adjust(segment.getSegmentId(), objectScore)) {
+          objectSegmentsFoundInResults = true;
+        }
+      }
+      if (!objectSegmentsFoundInResults) {
+        scoreBySegmentId.put(segments.get(0).getSegmentId(), objectScore);
       }
-    }
-
-    if (!objectSegmentsFoundInResults) {
-      MediaSegmentDescriptor firstSegment = segments.get(0);
-      String firstId = firstSegment.getSegmentId();
-      scoreBySegmentId.put(firstId, objectScore);
     }
   }
 }
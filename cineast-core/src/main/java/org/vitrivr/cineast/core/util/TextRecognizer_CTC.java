@@ -1,5 +1,7 @@
 package org.vitrivr.cineast.core.util;
 
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.opencv.core.*;
 import org.opencv.dnn.Dnn;
 import org.opencv.dnn.Net;
@@ -8,6 +10,7 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 /**
@@ -15,6 +18,8 @@
  */
 public class TextRecognizer_CTC {
 
+  private static final Logger LOGGER = LogManager.getLogger();
+
   static {
     nu.pattern.OpenCV.loadLocally();
   }
@@ -26,6 +31,16 @@ public class TextRecognizer_CTC {
       "a", "b", "c", "d", "e", "f", "g", "h", "i", "j", "k", "l", "m",
       "n", "o", "p", "q", "r", "s", "t", "u", "v", "w", "x", "y", "z"};
 
+  /**
+   * Number of classes per time step of the output layer (the CTC blank plus the alphabet)
+   */
+  private final int classes = alphabet.length + 1;
+
+  /**
+   * Whether the model accepts batches of more than one crop. Cleared if a batched forward pass fails, e.g. because the model has been exported with a fixed batch size
+   */
+  private boolean batching = true;
+
   public TextRecognizer_CTC initialize(String modelPath) {
     this.model = Dnn.readNetFromONNX(modelPath);
     return this;
@@ -77,37 +92,72 @@ private Mat rectangularCrop(Point[] coordinate, Mat frame) {
     return resized;
   }
 
+  /**
+   * crop crops the text region from the frame and converts it to grayscale, as expected by the recognition module
+   *
+   * @param coordinate    The coordinate of the text
+   * @param frame         The frame containing the text
+   * @param quadrilateral If true, quadrilateral cropping is applied, rectangular cropping otherwise
+   * @return The cropped grayscale image containing the text
+   */
+  private Mat crop(Point[] coordinate, Mat frame, boolean quadrilateral) {
+    Mat cropped = quadrilateral ? quadrilateralCrop(coordinate, frame) : rectangularCrop(coordinate, frame);
+    Imgproc.cvtColor(cropped, cropped, Imgproc.COLOR_RGB2GRAY);
+    return cropped;
+  }
+
   /**
    * decode takes an output layer and extracts the string using CTC-based decoding
    *
-   * @param predictions The output layer of the model
+   * @param predictions The output layer of the model, one row per time step
+   * @param offset      The column at which the predictions of the decoded crop start (the output of a batch holds the predictions of all crops side by side)
    * @return The extracted string from the layer
    */
-  private String decode(Mat predictions) {
-    List<String> text = new ArrayList<>();
-
+  private String decode(Mat predictions, int offset) {
+    float[] scores = new float[this.classes];
+    StringBuilder char_list = new StringBuilder();
+    int previous = 0;
     for (int i = 0; i < predictions.rows(); i++) {
+      predictions.get(i, offset, scores);
       int maxIndex = 0;
-      for (int j = 1; j < predictions.cols(); j++) {
-        if (predictions.get(i, j)[0] > predictions.get(i, maxIndex)[0]) {
+      for (int j = 1; j < this.classes; j++) {
+        if (scores[j] > scores[maxIndex]) {
           maxIndex = j;
         }
       }
-      if (maxIndex > 0 && maxIndex <= this.alphabet.length) {
-        text.add(this.alphabet[maxIndex - 1]);
-      } else {
-        text.add("-");
+      if (maxIndex > this.alphabet.length) {
+        maxIndex = 0;
       }
-    }
-    StringBuffer char_list = new StringBuffer();
-    for (int i = 0; i < text.size(); i++) {
-      if (!text.get(i).equals("-") && !(i > 0 && text.get(i).equals(text.get(i - 1)))) {
-        char_list.append(text.get(i));
+      if (maxIndex > 0 && maxIndex != previous) {
+        char_list.append(this.alphabet[maxIndex - 1]);
       }
+      previous = maxIndex;
     }
     return char_list.toString();
   }
 
+  /**
+   * forward runs the model on the given crops and decodes the output
+   *
+   * @param crops The grayscale crops containing the text
+   * @return The extracted text for every crop, in the same order
+   */
+  private List<String> forward(List<Mat> crops) {
+    Mat blob = crops.size() == 1
+        ? Dnn.blobFromImage(crops.get(0), 1 / 127.5, new Size(this.width, this.height), new Scalar(127.5))
+        : Dnn.blobFromImages(crops, 1 / 127.5, new Size(this.width, this.height), new Scalar(127.5));
+    model.setInput(blob);
+    List<Mat> outs = new ArrayList<>();
+    model.forward(outs);
+    Mat result = outs.get(0);
+    Mat predictions = result.reshape(1, (int) result.size().height);
+    List<String> _return = new ArrayList<>(crops.size());
+    for (int i = 0; i < crops.size(); i++) {
+      _return.add(decode(predictions, i * this.classes));
+    }
+    return _return;
+  }
+
   /**
    * @param coordinate    The coordinate of the text
    * @param frame         The frame cotnaining the text
@@ -116,14 +166,38 @@ private String decode(Mat predictions) {
    */
   public String recognize(Point[] coordinate, Mat frame, boolean quadrilateral) {
     assert model != null : "Model has not been initialized!";
-    Mat cropped = quadrilateral ? quadrilateralCrop(coordinate, frame) : rectangularCrop(coordinate, frame);
-    Imgproc.cvtColor(cropped, cropped, Imgproc.COLOR_RGB2GRAY);
-    Mat blob = Dnn.blobFromImage(cropped, 1 / 127.5, new Size(100, 32), new Scalar(127.5));
-    model.setInput(blob);
-    List<Mat> outs = new ArrayList<>();
-    model.forward(outs);
-    Mat result = outs.get(0);
-    return decode(result.reshape(1, (int) result.size().height));
+    return forward(Collections.singletonList(crop(coordinate, frame, quadrilateral))).get(0);
   }
-}
 
+  /**
+   * Recognizes the text at all given coordinates of a frame in a single forward pass of the model
+   *
+   * @param coordinates   The coordinates of the text instances
+   * @param frame         The frame containing the text
+   * @param quadrilateral If true, the regions of the coordinates are regarded as quadrilateral, and quadrilateral cropping is applied
+   * @return The extracted text within every coordinate, in the order of the coordinates
+   */
+  public List<String> recognize(List<Point[]> coordinates, Mat frame, boolean quadrilateral) {
+    assert model != null : "Model has not been initialized!";
+    List<Mat> crops = new ArrayList<>(coordinates.size());
+    for (Point[] coordinate : coordinates) {
+      crops.add(crop(coordinate, frame, quadrilateral));
+    }
+    if (crops.size() <= 1) {
+      return crops.isEmpty() ? new ArrayList<>() : forward(crops);
+    }
+    if (this.batching) {
+      try {
+        return forward(crops);
+      } catch (CvException e) {
+        LOGGER.warn("Batched text recognition failed, falling back to recognizing one crop at a time: {}", e.getMessage());
+        this.batching = false;
+      }
+    }
+    List<String> _return = new ArrayList<>(crops.size());
+    for (Mat crop : crops) {
+      _return.add(forward(Collections.singletonList(crop)).get(0));
+    }
+    return _return;
+  }
+}
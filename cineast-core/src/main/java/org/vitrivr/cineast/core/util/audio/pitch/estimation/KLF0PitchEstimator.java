@@ -75,12 +75,12 @@ public KLF0PitchEstimator(int min, int max, float alpha, float beta) {
      * @return List of PitchCandidate lists.
      */
     public List<List<Pitch>> estimatePitch(STFT stft) {
-        List<List<Pitch>> results = new ArrayList<>(stft.getStft().size());
-        for (FFT fft : stft.getStft()) {
-            if (fft.isZero()) {
+        List<List<Pitch>> results = new ArrayList<>(stft.getWidth());
+        for (int t = 0; t < stft.getWidth(); t++) {
+            if (stft.isZero(t)) {
               continue;
             }
-            results.add(this.estimatePitch(fft));
+            results.add(this.estimatePitch(stft.getPowerSpectrum(t), stft.getSamplingrate(), stft.getWindowsize()));
         }
         return results;
     }
@@ -94,11 +94,19 @@ public List<List<Pitch>> estimatePitch(STFT stft) {
      * @return List of pitch candidates.
      */
     public List<Pitch> estimatePitch(FFT fft) {
-        /* Prepare required helper variables. */
-        final float samplingrate = fft.getSamplingrate();
-        final int windowsize = fft.getWindowsize();
-        final Spectrum spectrum = fft.getPowerSpectrum();
+        return this.estimatePitch(fft.getPowerSpectrum(), fft.getSamplingrate(), fft.getWindowsize());
+    }
 
+    /**
+     * Estimates the pitches from the provided power spectrum and returns them as a list
+     * of PitchCandidates. The spectrum is altered in the process.
+     *
+     * @param spectrum Power spectrum to estimate the pitches from.
+     * @param samplingrate Samplingrate at which the original signal has been sampled.
+     * @param windowsize Windowsize used in the FFT.
+     * @return List of pitch candidates.
+     */
+    private List<Pitch> estimatePitch(final Spectrum spectrum, final float samplingrate, final int windowsize) {
         /* Prepare empty array of booleans holding the estimates. */
         List<Pitch> candidates = new ArrayList<>();
 
@@ -1,5 +1,7 @@
 package org.vitrivr.cineast.core.util.distance;
 
+import java.util.Arrays;
+
 public class CosineDistance implements FloatArrayDistance {
 
   private static final long serialVersionUID = -5987989568306235901L;
@@ -16,14 +18,37 @@ public double applyAsDouble(float[] t, float[] u) {
 
     int len = Math.min(t.length, u.length);
 
-    double dot = 0d, a = 0d, b = 0d;
+    return distance(FloatArrayKernels.dot(t, u, 0, len), FloatArrayKernels.squaredNorm(t, 0, len), FloatArrayKernels.squaredNorm(u, 0, len));
+  }
+
+  @Override
+  public double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    if (query == null) {
+      return Double.NaN;
+    }
+
+    int len = Math.min(query.length, dim);
 
-    for (int i = 0; i < len; ++i) {
-      dot += t[i] * u[i];
-      a += t[i] * t[i];
-      b += u[i] * u[i];
+    return distance(FloatArrayKernels.dot(query, data, offset, len), FloatArrayKernels.squaredNorm(query, 0, len), FloatArrayKernels.squaredNorm(data, offset, len));
+  }
+
+  /* The norm of the query is the same for all vectors and thus only computed once. */
+  @Override
+  public void applyAsDouble(float[] query, float[] data, int offset, int dim, int count, double[] result) {
+    if (query == null) {
+      Arrays.fill(result, 0, count, Double.NaN);
+      return;
     }
 
+    int len = Math.min(query.length, dim);
+    double a = FloatArrayKernels.squaredNorm(query, 0, len);
+
+    for (int i = 0, o = offset; i < count; ++i, o += dim) {
+      result[i] = distance(FloatArrayKernels.dot(query, data, o, len), a, FloatArrayKernels.squaredNorm(data, o, len));
+    }
+  }
+
+  private static double distance(double dot, double a, double b) {
     double div = (Math.sqrt(a) * Math.sqrt(b));
 
     if (div < 1e-6 || Double.isNaN(div)) {
@@ -1,5 +1,6 @@
 package org.vitrivr.cineast.core.util.distance;
 
+import java.util.Arrays;
 import org.apache.commons.math3.exception.DimensionMismatchException;
 import org.apache.commons.math3.ml.distance.DistanceMeasure;
 import org.vitrivr.cineast.core.config.ReadableQueryConfig;
@@ -15,8 +16,50 @@ public interface FloatArrayDistance extends Distance<float[]>, DistanceMeasure {
   @Override
   double applyAsDouble(float[] t, float[] u);
 
-  
-  
+  /**
+   * returns the distance between the provided query and the vector of dimension <code>dim</code>
+   * that starts at <code>offset</code> in <code>data</code>, or NaN if the query is
+   * <code>null</code>. Only the first min(query.length, dim) components are compared, as in
+   * {@link #applyAsDouble(float[], float[])}. Implementations with a dedicated kernel read the
+   * buffer directly, the default implementation copies the vector.
+   */
+  default double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    return applyAsDouble(query, Arrays.copyOfRange(data, offset, offset + dim));
+  }
+
+  /**
+   * computes the distances between the provided query and <code>count</code> consecutive vectors
+   * of dimension <code>dim</code> that are stored in <code>data</code>, starting at
+   * <code>offset</code>, and writes them to the first <code>count</code> entries of
+   * <code>result</code>.
+   */
+  default void applyAsDouble(float[] query, float[] data, int offset, int dim, int count, double[] result) {
+    for (int i = 0; i < count; ++i) {
+      result[i] = applyAsDouble(query, data, offset + i * dim, dim);
+    }
+  }
+
+  /**
+   * computes the distances between the provided query and every one of the provided vectors and
+   * writes them to <code>result</code>.
+   */
+  default void applyAsDouble(float[] query, float[][] vectors, double[] result) {
+    for (int i = 0; i < vectors.length; ++i) {
+      result[i] = applyAsDouble(query, vectors[i]);
+    }
+  }
+
+  /**
+   * computes the distances between every one of the provided queries and <code>count</code>
+   * consecutive vectors as described in {@link #applyAsDouble(float[], float[], int, int, int, double[])}
+   * and writes the distances of the i-th query to <code>result[i]</code>.
+   */
+  default void applyAsDouble(float[][] queries, float[] data, int offset, int dim, int count, double[][] result) {
+    for (int q = 0; q < queries.length; ++q) {
+      applyAsDouble(queries[q], data, offset, dim, count, result[q]);
+    }
+  }
+
   @Override
   default double compute(double[] a, double[] b) throws DimensionMismatchException {
     if(a == null || b == null){
@@ -0,0 +1,188 @@
+package org.vitrivr.cineast.core.util.distance;
+
+/**
+ * Kernels shared by the {@link FloatArrayDistance} implementations. Every kernel compares the first n components of a query with the vector that starts at offset o of a (possibly larger) buffer.
+ * <p>
+ * The loops are unrolled by four and sum into four independent accumulators, which removes the dependency between consecutive additions and lets the JIT compiler pipeline or vectorize the loads and arithmetic. Individual terms are computed exactly as in the original pairwise implementations; only the order of the summation differs.
+ */
+final class FloatArrayKernels {
+
+  private FloatArrayKernels() {
+  }
+
+  static double squaredEuclidean(float[] q, float[] d, int o, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      final float d0 = q[i] - d[o + i];
+      final float d1 = q[i + 1] - d[o + i + 1];
+      final float d2 = q[i + 2] - d[o + i + 2];
+      final float d3 = q[i + 3] - d[o + i + 3];
+      s0 += d0 * d0;
+      s1 += d1 * d1;
+      s2 += d2 * d2;
+      s3 += d3 * d3;
+    }
+    for (; i < n; ++i) {
+      final float diff = q[i] - d[o + i];
+      s0 += diff * diff;
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double squaredEuclidean(float[] q, float[] d, int o, float[] w, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      final float d0 = q[i] - d[o + i];
+      final float d1 = q[i + 1] - d[o + i + 1];
+      final float d2 = q[i + 2] - d[o + i + 2];
+      final float d3 = q[i + 3] - d[o + i + 3];
+      s0 += d0 * d0 * w[i];
+      s1 += d1 * d1 * w[i + 1];
+      s2 += d2 * d2 * w[i + 2];
+      s3 += d3 * d3 * w[i + 3];
+    }
+    for (; i < n; ++i) {
+      final float diff = q[i] - d[o + i];
+      s0 += diff * diff * w[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double manhattan(float[] q, float[] d, int o, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += Math.abs(q[i] - d[o + i]);
+      s1 += Math.abs(q[i + 1] - d[o + i + 1]);
+      s2 += Math.abs(q[i + 2] - d[o + i + 2]);
+      s3 += Math.abs(q[i + 3] - d[o + i + 3]);
+    }
+    for (; i < n; ++i) {
+      s0 += Math.abs(q[i] - d[o + i]);
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double manhattan(float[] q, float[] d, int o, float[] w, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += Math.abs(q[i] - d[o + i]) * w[i];
+      s1 += Math.abs(q[i + 1] - d[o + i + 1]) * w[i + 1];
+      s2 += Math.abs(q[i + 2] - d[o + i + 2]) * w[i + 2];
+      s3 += Math.abs(q[i + 3] - d[o + i + 3]) * w[i + 3];
+    }
+    for (; i < n; ++i) {
+      s0 += Math.abs(q[i] - d[o + i]) * w[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double dot(float[] q, float[] d, int o, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += q[i] * d[o + i];
+      s1 += q[i + 1] * d[o + i + 1];
+      s2 += q[i + 2] * d[o + i + 2];
+      s3 += q[i + 3] * d[o + i + 3];
+    }
+    for (; i < n; ++i) {
+      s0 += q[i] * d[o + i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double dot(float[] q, float[] d, int o, float[] w, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += q[i] * d[o + i] * w[i];
+      s1 += q[i + 1] * d[o + i + 1] * w[i + 1];
+      s2 += q[i + 2] * d[o + i + 2] * w[i + 2];
+      s3 += q[i + 3] * d[o + i + 3] * w[i + 3];
+    }
+    for (; i < n; ++i) {
+      s0 += q[i] * d[o + i] * w[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /**
+   * Squared L2 norm of the vector that starts at offset o, i.e., the dot product of the vector with itself.
+   */
+  static double squaredNorm(float[] d, int o, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      final float v0 = d[o + i], v1 = d[o + i + 1], v2 = d[o + i + 2], v3 = d[o + i + 3];
+      s0 += v0 * v0;
+      s1 += v1 * v1;
+      s2 += v2 * v2;
+      s3 += v3 * v3;
+    }
+    for (; i < n; ++i) {
+      final float v = d[o + i];
+      s0 += v * v;
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double squaredNorm(float[] d, int o, float[] w, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      final float v0 = d[o + i], v1 = d[o + i + 1], v2 = d[o + i + 2], v3 = d[o + i + 3];
+      s0 += v0 * v0 * w[i];
+      s1 += v1 * v1 * w[i + 1];
+      s2 += v2 * v2 * w[i + 2];
+      s3 += v3 * v3 * w[i + 3];
+    }
+    for (; i < n; ++i) {
+      final float v = d[o + i];
+      s0 += v * v * w[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  static double chiSquared(float[] q, float[] d, int o, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += chiSquared(q[i], d[o + i]);
+      s1 += chiSquared(q[i + 1], d[o + i + 1]);
+      s2 += chiSquared(q[i + 2], d[o + i + 2]);
+      s3 += chiSquared(q[i + 3], d[o + i + 3]);
+    }
+    for (; i < n; ++i) {
+      s0 += chiSquared(q[i], d[o + i]);
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+
+  /* Components that are both (close to) zero do not contribute. */
+  private static float chiSquared(float t, float u) {
+    final float sum = t + u;
+    if (Math.abs(sum) < 1e-6) {
+      return 0f;
+    }
+    return ((t - u) * (t - u)) / sum;
+  }
+
+  static double chiSquared(float[] q, float[] d, int o, float[] w, int n) {
+    double s0 = 0d, s1 = 0d, s2 = 0d, s3 = 0d;
+    int i = 0;
+    for (; i <= n - 4; i += 4) {
+      s0 += (((q[i] - d[o + i]) * (q[i] - d[o + i])) / (q[i] + d[o + i])) * w[i];
+      s1 += (((q[i + 1] - d[o + i + 1]) * (q[i + 1] - d[o + i + 1])) / (q[i + 1] + d[o + i + 1])) * w[i + 1];
+      s2 += (((q[i + 2] - d[o + i + 2]) * (q[i + 2] - d[o + i + 2])) / (q[i + 2] + d[o + i + 2])) * w[i + 2];
+      s3 += (((q[i + 3] - d[o + i + 3]) * (q[i + 3] - d[o + i + 3])) / (q[i + 3] + d[o + i + 3])) * w[i + 3];
+    }
+    for (; i < n; ++i) {
+      s0 += (((q[i] - d[o + i]) * (q[i] - d[o + i])) / (q[i] + d[o + i])) * w[i];
+    }
+    return (s0 + s1) + (s2 + s3);
+  }
+}
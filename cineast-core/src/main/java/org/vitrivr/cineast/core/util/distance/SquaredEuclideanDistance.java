@@ -16,13 +16,16 @@ public double applyAsDouble(float[] t, float[] u) {
 
     int len = Math.min(t.length, u.length);
 
-    double dist = 0d;
+    return FloatArrayKernels.squaredEuclidean(t, u, 0, len);
+  }
 
-    for (int i = 0; i < len; ++i) {
-      dist += (t[i] - u[i]) * (t[i] - u[i]);
+  @Override
+  public double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    if (query == null) {
+      return Double.NaN;
     }
 
-    return dist;
+    return FloatArrayKernels.squaredEuclidean(query, data, offset, Math.min(query.length, dim));
   }
 
 }
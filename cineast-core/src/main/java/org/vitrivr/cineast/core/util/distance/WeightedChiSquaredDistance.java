@@ -27,13 +27,18 @@ public double applyAsDouble(float[] t, float[] u) {
 
     int len = Math.min(Math.min(t.length, u.length), this.weights.length);
 
-    double dist = 0d;
+    return FloatArrayKernels.chiSquared(t, u, 0, this.weights, len);
+  }
 
-    for (int i = 0; i < len; ++i) {
-      dist += (((t[i] - u[i]) * (t[i] - u[i])) / (t[i] + u[i])) * this.weights[i];
+  @Override
+  public double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    if (query == null) {
+      return Double.NaN;
     }
 
-    return dist;
+    int len = Math.min(Math.min(query.length, dim), this.weights.length);
+
+    return FloatArrayKernels.chiSquared(query, data, offset, this.weights, len);
   }
 
 }
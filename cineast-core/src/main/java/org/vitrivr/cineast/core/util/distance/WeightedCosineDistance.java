@@ -1,5 +1,7 @@
 package org.vitrivr.cineast.core.util.distance;
 
+import java.util.Arrays;
+
 public class WeightedCosineDistance extends CosineDistance {
 
   private static final long serialVersionUID = 1908564141547874227L;
@@ -27,14 +29,37 @@ public double applyAsDouble(float[] t, float[] u) {
 
     int len = Math.min(Math.min(t.length, u.length), this.weights.length);
 
-    double dot = 0d, a = 0d, b = 0d;
+    return distance(FloatArrayKernels.dot(t, u, 0, this.weights, len), FloatArrayKernels.squaredNorm(t, 0, this.weights, len), FloatArrayKernels.squaredNorm(u, 0, this.weights, len));
+  }
 
-    for (int i = 0; i < len; ++i) {
-      dot += t[i] * u[i] * this.weights[i];
-      a += t[i] * t[i] * this.weights[i];
-      b += u[i] * u[i] * this.weights[i];
+  @Override
+  public double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    if (query == null) {
+      return Double.NaN;
     }
 
+    int len = Math.min(Math.min(query.length, dim), this.weights.length);
+
+    return distance(FloatArrayKernels.dot(query, data, offset, this.weights, len), FloatArrayKernels.squaredNorm(query, 0, this.weights, len), FloatArrayKernels.squaredNorm(data, offset, this.weights, len));
+  }
+
+  @Override
+  public void applyAsDouble(float[] query, float[] data, int offset, int dim, int count, double[] result) {
+    if (query == null) {
+      Arrays.fill(result, 0, count, Double.NaN);
+      return;
+    }
+
+    int len = Math.min(Math.min(query.length, dim), this.weights.length);
+    double a = FloatArrayKernels.squaredNorm(query, 0, this.weights, len);
+
+    for (int i = 0, o = offset; i < count; ++i, o += dim) {
+      result[i] = distance(FloatArrayKernels.dot(query, data, o, this.weights, len), a, FloatArrayKernels.squaredNorm(data, o, this.weights, len));
+    }
+  }
+
+  private static double distance(double dot, double a, double b) {
     return 1d - (dot / (Math.sqrt(a) * Math.sqrt(b)));
   }
+
 }
@@ -17,23 +17,28 @@ public class WeightedSquaredEuclideanDistance extends SquaredEuclideanDistance {
   
   @Override
   public double applyAsDouble(float[] t, float[] u) {
-    if(t == null || u == null){
+    if (t == null || u == null) {
       return Double.NaN;
     }
-    
-    if(t == u){
+
+    if (t == u) {
       return 0d;
     }
-    
+
     int len = Math.min(Math.min(t.length, u.length), this.weights.length);
-    
-    double dist = 0d;
-    
-    for(int i = 0; i < len; ++i){
-      dist += (t[i] - u[i]) * (t[i] - u[i]) * this.weights[i];
+
+    return FloatArrayKernels.squaredEuclidean(t, u, 0, this.weights, len);
+  }
+
+  @Override
+  public double applyAsDouble(float[] query, float[] data, int offset, int dim) {
+    if (query == null) {
+      return Double.NaN;
     }
-    
-    return dist;
+
+    int len = Math.min(Math.min(query.length, dim), this.weights.length);
+
+    return FloatArrayKernels.squaredEuclidean(query, data, offset, this.weights, len);
   }
-  
+
 }
@@ -1,15 +1,13 @@
 package org.vitrivr.cineast.core.util.dsp.fft;
 
+import java.util.Arrays;
 import org.apache.commons.math3.complex.Complex;
-import org.apache.commons.math3.transform.DftNormalization;
-import org.apache.commons.math3.transform.FastFourierTransformer;
-import org.apache.commons.math3.transform.TransformType;
 import org.vitrivr.cineast.core.util.dsp.fft.windows.RectangularWindow;
 import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
 import org.vitrivr.cineast.core.util.dsp.filter.frequency.FrequencyDomainFilterInterface;
 
 /**
- * This class wraps the Apache Commons FastFourierTransformer and extends it with some additional functionality.
+ * This class performs forward FFTs of real valued data and extends them with some additional functionality.
  *
  * <ol>
  *     <li>It allows to apply WindowFunctions for forward-transformation. See WindowFunction interface!</li>
@@ -18,7 +16,8 @@
  * </ol>
  *
  * The same instance of the FFT class can be re-used to process multiple samples. Every call to forward() will replace
- * all the existing data in the instance.
+ * all the existing data in the instance. The coefficients are kept in primitive arrays that are re-used as long as the
+ * size of the data does not change; the transform itself is performed by a cached {@link RealFFT} plan.
  *
  * The inspiration for this class comes from the FFT class found in the jAudio framework (see
  * https://github.com/dmcennis/jaudioGIT)
@@ -27,8 +26,27 @@
  *
  */
 public class FFT {
-    /** Data obtained by forward FFT. */
-    private Complex[] data;
+    /**
+     * Real parts of the coefficients 0 to size/2 obtained by forward FFT. The remaining coefficients are their complex
+     * conjugates. Once a filter has been applied, all size coefficients are kept, since the filter need not preserve
+     * the symmetry.
+     */
+    private double[] real = new double[0];
+
+    /** Imaginary parts of the coefficients 0 to size/2 obtained by forward FFT (or of all coefficients, see real). */
+    private double[] imaginary = new double[0];
+
+    /** Size of the last transform. */
+    private int size;
+
+    /** Buffer holding the zero-padded input, if the length of the data is not a power of two. */
+    private double[] padded;
+
+    /** Values of the window function for the current size. */
+    private double[] window;
+
+    /** WindowFunction the values in window[] were computed with. */
+    private WindowFunction windowValuesFunction;
 
     /** Magnitude spectrum of the FFT data. May be null if it has not been obtained yet. */
     private Spectrum magnitudeSpectrum;
@@ -58,20 +76,35 @@ public void forward(double[] data, float samplingrate, WindowFunction window) {
         this.windowFunction = window;
         this.samplingrate = samplingrate;
 
-        int actual_length = data.length;
-        int valid_length = FFTUtil.nextPowerOf2(actual_length);
-        double[] reshaped = new double[valid_length];
-        for (int i = 0; i<reshaped.length; i++) {
-            if (i < actual_length) {
-                reshaped[i] = data[i] * this.windowFunction.value(i, valid_length);
-            } else {
-                reshaped[i] = 0;
+        final int actual_length = data.length;
+        final int valid_length = FFTUtil.nextPowerOf2(actual_length);
+        if (this.size != valid_length) {
+            this.size = valid_length;
+            this.padded = null;
+            this.window = null;
+        }
+        if (this.real.length != valid_length / 2 + 1) {
+            this.real = new double[valid_length / 2 + 1];
+            this.imaginary = new double[valid_length / 2 + 1];
+        }
+
+        /* Window values only depend on the function and the size and are therefore computed once. */
+        if (this.window == null || this.windowValuesFunction != window) {
+            this.window = window.values(valid_length);
+            this.windowValuesFunction = window;
+        }
+
+        double[] samples = data;
+        if (actual_length != valid_length) {
+            if (this.padded == null) {
+                this.padded = new double[valid_length];
             }
+            System.arraycopy(data, 0, this.padded, 0, actual_length);
+            Arrays.fill(this.padded, actual_length, valid_length, 0.0);
+            samples = this.padded;
         }
 
-        /* Perform FFT using FastFourierTransformer library. */
-        FastFourierTransformer transformer = new FastFourierTransformer(DftNormalization.STANDARD);
-        this.data = transformer.transform(reshaped, TransformType.FORWARD);
+        RealFFT.forSize(valid_length).forward(samples, this.window, this.real, this.imaginary);
 
         /* Reset the calculated properties. */
         this.powerSpectrum = null;
@@ -86,7 +119,7 @@ public void forward(double[] data, float samplingrate, WindowFunction window) {
      */
     public Spectrum getMagnitudeSpectrum() {
         if (this.magnitudeSpectrum == null) {
-            this.magnitudeSpectrum = Spectrum.createMagnitudeSpectrum(this.data, this.samplingrate, this.windowFunction);
+            this.magnitudeSpectrum = Spectrum.createMagnitudeSpectrum(this.real, this.imaginary, this.size, this.samplingrate, this.windowFunction);
         }
 
         return this.magnitudeSpectrum;
@@ -100,18 +133,23 @@ public Spectrum getMagnitudeSpectrum() {
      */
     public Spectrum getPowerSpectrum() {
         if (this.powerSpectrum == null) {
-            this.powerSpectrum = Spectrum.createPowerSpectrum(this.data, this.samplingrate, this.windowFunction);
+            this.powerSpectrum = Spectrum.createPowerSpectrum(this.real, this.imaginary, this.size, this.samplingrate, this.windowFunction);
         }
         return this.powerSpectrum;
     }
 
     /**
-     * Getter for the transformed data.
+     * Getter for the transformed data. The array is created upon invocation of the method; use
+     * {@link #get(int)} or {@link #magnitude(int)} to access individual coefficients.
      *
      * @return Array containing the raw FFT data.
      */
     public final Complex[] getValues() {
-        return this.data;
+        final Complex[] values = new Complex[this.size];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = this.get(i);
+        }
+        return values;
     }
 
     /**
@@ -122,7 +160,28 @@ public final Complex[] getValues() {
      * @return Fourier coefficient.
      */
     public final Complex get(int index) {
-        return this.data[index];
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        if (index < this.real.length) {
+            return new Complex(this.real[index], this.imaginary[index]);
+        } else {
+            return new Complex(this.real[this.size - index], -this.imaginary[this.size - index]);
+        }
+    }
+
+    /**
+     * Returns the absolute value of the FFT coefficient at the specified index without creating a {@link Complex}.
+     *
+     * @param index Index of the coefficient.
+     * @return Magnitude of the Fourier coefficient.
+     */
+    public final double magnitude(int index) {
+        if (index < 0 || index >= this.size) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+        final int i = index < this.real.length ? index : this.size - index;
+        return Math.hypot(this.real[i], this.imaginary[i]);
     }
 
     /**
@@ -140,7 +199,7 @@ public final float getSamplingrate() {
      * @return Rate at which the original signal has been sampled.
      */
     public final int getWindowsize() {
-        return this.data.length;
+        return this.size;
     }
 
     /**
@@ -148,8 +207,8 @@ public final int getWindowsize() {
      * otherwise
      */
     public final boolean isZero() {
-        for (Complex coefficient : this.data) {
-            if (coefficient.abs() > 0) {
+        for (int i = 0; i < this.real.length; i++) {
+            if (this.real[i] != 0.0 || this.imaginary[i] != 0.0) {
               return false;
             }
         }
@@ -157,11 +216,22 @@ public final boolean isZero() {
     }
 
     /**
-     * Applies the provided FrequencyDomainFilter to this FFT.
+     * Applies the provided FrequencyDomainFilter to this FFT. Since the filter need not preserve the conjugate symmetry
+     * of the coefficients, all size coefficients are kept afterwards.
      *
      * @param filter FrequencyDomainFilter that should be applied.
      */
     public final void applyFilter(FrequencyDomainFilterInterface filter) {
-        filter.filterInPlace(this.data);
+        final Complex[] values = filter.filterInPlace(this.getValues());
+        if (this.real.length != this.size) {
+            this.real = new double[this.size];
+            this.imaginary = new double[this.size];
+        }
+        for (int i = 0; i < this.size; i++) {
+            this.real[i] = values[i].getReal();
+            this.imaginary[i] = values[i].getImaginary();
+        }
+        this.powerSpectrum = null;
+        this.magnitudeSpectrum = null;
     }
 }
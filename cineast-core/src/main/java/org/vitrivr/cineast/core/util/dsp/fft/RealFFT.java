@@ -0,0 +1,155 @@
+package org.vitrivr.cineast.core.util.dsp.fft;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Forward FFT of real valued data that works on primitive arrays only. A transform of size N is computed as a complex FFT of size N/2 (even samples as real, odd samples as imaginary part), followed by a post-processing step that separates the two interleaved spectra.
+ *
+ * Instances are immutable plans that hold the twiddle factors and the bit-reversal permutation for one size. They are cached per size (see {@link #forSize(int)}) and can be shared between threads; all buffers are provided by the caller, so a transform does not allocate.
+ *
+ */
+final class RealFFT {
+    /** Cached plans, by transform size. */
+    private static final ConcurrentHashMap<Integer, RealFFT> PLANS = new ConcurrentHashMap<>();
+
+    /** Size of the transform (number of real samples). */
+    private final int size;
+
+    /** Size of the complex FFT, i.e. size/2. */
+    private final int half;
+
+    /** Twiddle factors of the complex FFT: cos(2πk/half) and sin(2πk/half) for k < half/2. */
+    private final double[] cos;
+    private final double[] sin;
+
+    /** Twiddle factors of the post-processing step: cos(2πk/size) and sin(2πk/size) for k <= half/2. */
+    private final double[] postCos;
+    private final double[] postSin;
+
+    /** Bit-reversal permutation of the indices of the complex FFT. */
+    private final int[] reversed;
+
+    /**
+     * Returns the (cached) plan for transforms of the given size.
+     *
+     * @param size Size of the transform. Must be a power of two.
+     * @return RealFFT for that size.
+     */
+    static RealFFT forSize(int size) {
+        if (!FFTUtil.isPowerOf2(size)) {
+            throw new IllegalArgumentException("The provided FFT size of " + size + " is not a power of two!");
+        }
+        return PLANS.computeIfAbsent(size, RealFFT::new);
+    }
+
+    private RealFFT(int size) {
+        this.size = size;
+        this.half = size / 2;
+
+        this.cos = new double[this.half / 2];
+        this.sin = new double[this.half / 2];
+        for (int k = 0; k < this.cos.length; k++) {
+            this.cos[k] = Math.cos((2 * Math.PI * k) / this.half);
+            this.sin[k] = Math.sin((2 * Math.PI * k) / this.half);
+        }
+
+        this.postCos = new double[this.half / 2 + 1];
+        this.postSin = new double[this.half / 2 + 1];
+        for (int k = 0; k < this.postCos.length; k++) {
+            this.postCos[k] = Math.cos((2 * Math.PI * k) / size);
+            this.postSin[k] = Math.sin((2 * Math.PI * k) / size);
+        }
+
+        this.reversed = new int[this.half];
+        final int bits = Integer.numberOfTrailingZeros(Math.max(this.half, 1));
+        for (int i = 0; i < this.half; i++) {
+            this.reversed[i] = bits == 0 ? 0 : Integer.reverse(i) >>> (32 - bits);
+        }
+    }
+
+    /**
+     * Getter for the size of the transform.
+     *
+     * @return Number of real samples the transform expects.
+     */
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * Performs a forward transformation of the provided samples. Since the input is real valued, the coefficients above size/2 are
+     * the complex conjugates of the ones below and are therefore not computed. Uses the same convention as the Apache Commons
+     * FastFourierTransformer with standard normalization, i.e. X[k] = Σ x[n]·exp(-2πi·nk/N).
+     *
+     * @param samples Samples to transform. Only the first size entries are read; the array is not modified.
+     * @param window Window to multiply the samples with (size entries) or null, if no window should be applied.
+     * @param re Array of at least size/2+1 entries that receives the real parts of the coefficients 0 to size/2.
+     * @param im Array of at least size/2+1 entries that receives the imaginary parts of the coefficients 0 to size/2.
+     */
+    void forward(double[] samples, double[] window, double[] re, double[] im) {
+        if (this.size == 1) {
+            re[0] = window == null ? samples[0] : samples[0] * window[0];
+            im[0] = 0.0;
+            return;
+        }
+
+        /* Packs the even samples into the real and the odd samples into the imaginary parts, in bit-reversed order. */
+        for (int i = 0; i < this.half; i++) {
+            final int r = this.reversed[i];
+            if (window == null) {
+                re[r] = samples[2 * i];
+                im[r] = samples[2 * i + 1];
+            } else {
+                re[r] = samples[2 * i] * window[2 * i];
+                im[r] = samples[2 * i + 1] * window[2 * i + 1];
+            }
+        }
+
+        /* Iterative radix-2 complex FFT of size half. */
+        for (int length = 2; length <= this.half; length <<= 1) {
+            final int step = this.half / length;
+            final int span = length >> 1;
+            for (int start = 0; start < this.half; start += length) {
+                for (int j = 0, k = 0; j < span; j++, k += step) {
+                    final int a = start + j;
+                    final int b = a + span;
+                    final double wr = this.cos[k];
+                    final double wi = -this.sin[k];
+                    final double tr = wr * re[b] - wi * im[b];
+                    final double ti = wr * im[b] + wi * re[b];
+                    re[b] = re[a] - tr;
+                    im[b] = im[a] - ti;
+                    re[a] += tr;
+                    im[a] += ti;
+                }
+            }
+        }
+
+        /* Separates the spectra of the even and odd samples; coefficients k and half-k are processed together. */
+        final double z0r = re[0];
+        final double z0i = im[0];
+        re[0] = z0r + z0i;
+        im[0] = 0.0;
+        re[this.half] = z0r - z0i;
+        im[this.half] = 0.0;
+        for (int k = 1; k <= this.half / 2; k++) {
+            final int m = this.half - k;
+            final double er = (re[k] + re[m]) / 2;
+            final double ei = (im[k] - im[m]) / 2;
+            final double or = (im[k] + im[m]) / 2;
+            final double oi = (re[m] - re[k]) / 2;
+
+            /* X[k] = E + exp(-2πi·k/N)·O */
+            final double c = this.postCos[k];
+            final double s = this.postSin[k];
+            re[k] = er + c * or + s * oi;
+            im[k] = ei + c * oi - s * or;
+
+            /* X[half-k] = conj(E) + exp(-2πi·(half-k)/N)·conj(O) = conj(E) - exp(2πi·k/N)·conj(O) */
+            if (m != k) {
+                re[m] = er - c * or - s * oi;
+                im[m] = -ei + c * oi - s * or;
+            }
+        }
+    }
+}
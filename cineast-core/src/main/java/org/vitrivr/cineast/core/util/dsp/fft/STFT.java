@@ -5,7 +5,6 @@
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
 import java.util.List;
 
 
@@ -33,16 +32,40 @@ public class STFT {
     /** Height of the STFT (i.e. the number of frequency bins per FFT). */
     private int height;
 
+    /** Number of magnitudes kept per timepoint, i.e. height plus the Nyquist bin, which filters take into account. */
+    private final int stride;
+
     /** Frequency labels in ascending order (for all FFTs). */
     private final float[] frequencies;
 
-    /** Time labels in ascending order (for each entry in the stft list). */
+    /** Time labels in ascending order (for each timepoint). */
     private float[] time;
 
-    /** List containing one FFT entry per timepoint. Same order as time[] */
-    private final List<FFT> stft;
+    /**
+     * Magnitudes of the FFT coefficients (without normalization) in a flat array, one column of stride entries per
+     * timepoint. Same order as time[]. Only the first width*stride entries are valid.
+     */
+    private float[] magnitudes = new float[0];
+
+    /** Number of timepoints in the STFT. */
+    private int width;
+
+    /** Values of the window function, computed once for the window size. */
+    private final double[] windowValues;
+
+    /** Normalization factor of the spectra, i.e. windowsize * normalization of the window function. */
+    private final double normalization;
+
+    /** Cached plan used for the individual FFTs. */
+    private final RealFFT fft;
+
+    /** Scratch buffers for the real and imaginary parts of the coefficients of a single FFT. */
+    private final double[] real;
+    private final double[] imaginary;
 
     /**
+     * The magnitudes of all windows are kept in a single, flat array and the individual FFTs share one set of buffers,
+     * i.e. calculating the STFT does not allocate per window.
      *
      * @param windowsize
      * @param overlap
@@ -65,13 +88,52 @@ public STFT(int windowsize, int overlap, int padding, WindowFunction function, f
         this.overlap = overlap;
         this.padding = padding;
         this.height = windowsize/2;
+        this.stride = windowsize/2 + 1;
 
-        /* Prepares empty array for STFT. */
-        this.stft = new ArrayList<>();
+        /* Prepares the FFT and the tables that are shared by all windows. */
+        this.fft = RealFFT.forSize(windowsize);
+        this.windowValues = function.values(windowsize);
+        this.normalization = windowsize * function.normalization(windowsize);
+        this.real = new double[windowsize/2 + 1];
+        this.imaginary = new double[windowsize/2 + 1];
 
         this.frequencies = FFTUtil.binCenterFrequencies(windowsize, samplingrate);
     }
 
+    /**
+     * Copy constructor. The copy shares the (read-only) tables with the original but has its own magnitudes and buffers.
+     *
+     * @param other STFT to copy.
+     */
+    private STFT(STFT other) {
+        this.samplingrate = other.samplingrate;
+        this.windowFunction = other.windowFunction;
+        this.windowsize = other.windowsize;
+        this.overlap = other.overlap;
+        this.padding = other.padding;
+        this.height = other.height;
+        this.stride = other.stride;
+        this.fft = other.fft;
+        this.windowValues = other.windowValues;
+        this.normalization = other.normalization;
+        this.real = new double[other.real.length];
+        this.imaginary = new double[other.imaginary.length];
+        this.frequencies = other.frequencies;
+        this.width = other.width;
+        this.magnitudes = Arrays.copyOf(other.magnitudes, other.width * other.stride);
+        this.time = other.time == null ? null : other.time.clone();
+    }
+
+    /**
+     * Creates a copy of this STFT that can be altered (e.g. by {@link #applyFilter(FrequencyDomainFilterInterface)} or
+     * {@link #forward(double[])}) without affecting this instance. Copying is much cheaper than re-calculating the STFT.
+     *
+     * @return Copy of this STFT.
+     */
+    public STFT copy() {
+        return new STFT(this);
+    }
+
     /**
      * Performs a forward fourier transformation on the provided, real valued data and appends it to the FFT. The caller
      * of this function must make sure, that the data conforms to the properties specified upon construction of this class.
@@ -92,9 +154,17 @@ public void forward(double[] samples) {
         /* Initialize buffer that holds samples for FFT. */
         final double window[] = new double[windowsize];
 
+        /* Makes sure that the flat array can hold all new timepoints. */
+        if (increment > 0) {
+            final int required = (this.width + (samples.length + increment - 1) / increment) * this.stride;
+            if (required > this.magnitudes.length) {
+                this.magnitudes = Arrays.copyOf(this.magnitudes, required);
+            }
+        }
+
         /*
          * Outer-loop: Create a sliding window and move it across the samples.
-         * For each iteration, forward the FFT for the samples in the Window and add it to the list.
+         * For each iteration, forward the FFT for the samples in the Window and append its magnitudes.
          */
 
         while (start < samples.length) {
@@ -106,10 +176,13 @@ public void forward(double[] samples) {
                 Arrays.fill(window, samples.length - start + 1, window.length - 1, 0.0);
             }
 
-            /* Create Forward FFT entries for each window. */
-            FFT fft = new FFT();
-            fft.forward(window, this.samplingrate, this.windowFunction);
-            this.stft.add(fft);
+            /* Calculate the FFT for the window and store the magnitudes of the first stride coefficients. */
+            this.fft.forward(window, this.windowValues, this.real, this.imaginary);
+            final int offset = this.width * this.stride;
+            for (int k = 0; k < this.stride; k++) {
+                this.magnitudes[offset + k] = (float) Math.hypot(this.real[k], this.imaginary[k]);
+            }
+            this.width += 1;
 
             /* Move the window. */
             start += increment;
@@ -117,7 +190,7 @@ public void forward(double[] samples) {
         }
 
         /* Updates the time-labels. */
-        this.time = FFTUtil.time(this.stft.size(), windowsize, overlap, padding, samplingrate);
+        this.time = FFTUtil.time(this.width, windowsize, overlap, padding, samplingrate);
     }
 
     /**
@@ -127,9 +200,9 @@ public void forward(double[] samples) {
      * @return List of power-spectra
      */
     public List<Spectrum> getPowerSpectrum() {
-        List<Spectrum> spectrum = new ArrayList<>(this.stft.size());
-        for (FFT fft : this.stft) {
-            spectrum.add(fft.getPowerSpectrum());
+        List<Spectrum> spectrum = new ArrayList<>(this.width);
+        for (int t = 0; t < this.width; t++) {
+            spectrum.add(this.getPowerSpectrum(t));
         }
         return spectrum;
     }
@@ -141,13 +214,73 @@ public List<Spectrum> getPowerSpectrum() {
      * @return List of magnitude-spectra
      */
     public List<Spectrum> getMagnitudeSpectrum() {
-        List<Spectrum> spectrum = new ArrayList<>(this.stft.size());
-        for (FFT fft : this.stft) {
-            spectrum.add(fft.getMagnitudeSpectrum());
+        List<Spectrum> spectrum = new ArrayList<>(this.width);
+        for (int t = 0; t < this.width; t++) {
+            spectrum.add(this.getMagnitudeSpectrum(t));
         }
         return spectrum;
     }
 
+    /**
+     * Returns the power-spectrum of the FFT at the specified timepoint. Every invocation creates a new Spectrum.
+     *
+     * @param t Index of the timepoint.
+     * @return Power-spectrum
+     */
+    public Spectrum getPowerSpectrum(int t) {
+        final int offset = this.checkedOffset(t);
+        final double[] power = new double[this.height];
+        for (int k = 0; k < this.height; k++) {
+            final double magnitude = this.magnitudes[offset + k];
+            power[k] = (k == 0 ? 1 : 2) * magnitude * magnitude / this.normalization;
+        }
+        return new Spectrum(Spectrum.Type.POWER, power, this.frequencies);
+    }
+
+    /**
+     * Returns the magnitude-spectrum of the FFT at the specified timepoint. Every invocation creates a new Spectrum.
+     *
+     * @param t Index of the timepoint.
+     * @return Magnitude-spectrum
+     */
+    public Spectrum getMagnitudeSpectrum(int t) {
+        final int offset = this.checkedOffset(t);
+        final double[] magnitude = new double[this.height];
+        for (int k = 0; k < this.height; k++) {
+            magnitude[k] = (k == 0 ? 1 : 2) * this.magnitudes[offset + k] / this.normalization;
+        }
+        return new Spectrum(Spectrum.Type.MAGNITUDE, magnitude, this.frequencies);
+    }
+
+    /**
+     * Returns the magnitude of the FFT coefficient k (without normalization) at the specified timepoint.
+     *
+     * @param t Index of the timepoint.
+     * @param k Index of the frequency bin.
+     * @return Magnitude of the coefficient.
+     */
+    public final float getMagnitude(int t, int k) {
+        if (k < 0 || k >= this.height) {
+            throw new IndexOutOfBoundsException("Bin " + k + " is out of bounds for height " + this.height + ".");
+        }
+        return this.magnitudes[this.checkedOffset(t) + k];
+    }
+
+    /**
+     * Returns true if the FFT at the specified timepoint only contains zeros and false otherwise.
+     *
+     * @param t Index of the timepoint.
+     */
+    public final boolean isZero(int t) {
+        final int offset = this.checkedOffset(t);
+        for (int k = 0; k < this.height; k++) {
+            if (this.magnitudes[offset + k] != 0.0f) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Getter for frequency bin labels.
      *
@@ -182,15 +315,6 @@ public final float[] getTime() {
         return time;
     }
 
-    /**
-     * Getter for STFT.
-     *
-     * @return
-     */
-    public final List<FFT> getStft() {
-        return Collections.unmodifiableList(this.stft);
-    }
-
     /**
      * Getter for window-size.
      *
@@ -233,7 +357,7 @@ public WindowFunction getWindowFunction() {
      * @return Width of the STFT.
      */
     public int getWidth() {
-        return this.stft.size();
+        return this.width;
     }
 
     /**
@@ -255,14 +379,24 @@ public float timeStepsize() {
     }
 
     /**
-     * Applies the provided FrequencyDomainFilter to this FFT.
+     * Applies the provided FrequencyDomainFilter to the FFTs in this STFT. Since only the magnitudes are kept, the
+     * filter is applied using {@link FrequencyDomainFilterInterface#filterMagnitudesInPlace(float[], int, int)}.
      *
      * @param filter FrequencyDomainFilter that should be applied.
      */
     public final void applyFilter(FrequencyDomainFilterInterface filter) {
-        for (FFT fft : this.getStft()) {
-            fft.applyFilter(filter);
+        for (int t = 0; t < this.width; t++) {
+            filter.filterMagnitudesInPlace(this.magnitudes, t * this.stride, this.windowsize);
         }
     }
 
+    /**
+     * Returns the offset of the specified timepoint in the flat array of magnitudes.
+     */
+    private int checkedOffset(int t) {
+        if (t < 0 || t >= this.width) {
+            throw new IndexOutOfBoundsException("Timepoint " + t + " is out of bounds for width " + this.width + ".");
+        }
+        return t * this.stride;
+    }
 }
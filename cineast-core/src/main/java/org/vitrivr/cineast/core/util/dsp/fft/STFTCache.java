@@ -0,0 +1,101 @@
+package org.vitrivr.cineast.core.util.dsp.fft;
+
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
+
+/**
+ * Memoizes the STFTs of a single segment, so that several extractors that request the same STFT (e.g. CENS12Shingle and
+ * CENS12BasslineShingle) share one computation, even if they run in parallel.
+ *
+ * STFTs are cached by window size, overlap, padding and type of {@link WindowFunction} (window functions are
+ * stateless). The cached STFT is calculated once by the first thread that requests it; other threads requesting the
+ * same parameters wait for that calculation. Every caller receives its own copy (see {@link STFT#copy()}), since
+ * STFTs can be altered in place, e.g. by filters.
+ *
+ */
+public final class STFTCache {
+
+    /** Cached STFTs by their parameters. */
+    private final ConcurrentHashMap<Key, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a copy of the STFT for the provided parameters. The STFT is calculated from the provided samples, if it
+     * has not been cached yet.
+     *
+     * @param windowsize Size of the window used during STFT. Must be a power of two.
+     * @param overlap Overlap in samples between two subsequent windows.
+     * @param padding Zero-padding before and after the actual sample data.
+     * @param function WindowFunction to apply before calculating the STFT.
+     * @param samplingrate Sampling rate of the samples.
+     * @param samples Supplier of the samples; only invoked if the STFT must be calculated.
+     * @return STFT for the provided parameters.
+     */
+    public STFT get(int windowsize, int overlap, int padding, WindowFunction function, float samplingrate, Supplier<double[]> samples) {
+        final Entry entry = this.entries.computeIfAbsent(new Key(windowsize, overlap, padding, function.getClass()), k -> new Entry());
+        return entry.get(windowsize, overlap, padding, function, samplingrate, samples).copy();
+    }
+
+    /**
+     * Releases all cached STFTs. Should be invoked once the segment has been processed.
+     */
+    public void clear() {
+        this.entries.clear();
+    }
+
+    /**
+     * Returns the number of cached STFTs.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Lazily calculated STFT. The calculation is performed outside of the map, so that requests for other parameters
+     * do not block.
+     */
+    private static final class Entry {
+        private STFT stft;
+
+        private synchronized STFT get(int windowsize, int overlap, int padding, WindowFunction function, float samplingrate, Supplier<double[]> samples) {
+            if (this.stft == null) {
+                final STFT stft = new STFT(windowsize, overlap, padding, function, samplingrate);
+                stft.forward(samples.get());
+                this.stft = stft;
+            }
+            return this.stft;
+        }
+    }
+
+    private static final class Key {
+        private final int windowsize;
+        private final int overlap;
+        private final int padding;
+        private final Class<? extends WindowFunction> function;
+
+        private Key(int windowsize, int overlap, int padding, Class<? extends WindowFunction> function) {
+            this.windowsize = windowsize;
+            this.overlap = overlap;
+            this.padding = padding;
+            this.function = function;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key key = (Key) o;
+            return windowsize == key.windowsize && overlap == key.overlap && padding == key.padding && function.equals(key.function);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(windowsize, overlap, padding, function);
+        }
+    }
+}
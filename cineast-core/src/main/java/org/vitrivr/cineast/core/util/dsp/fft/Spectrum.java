@@ -82,6 +82,52 @@ public static Spectrum createMagnitudeSpectrum(Complex[] data, float samplingrat
         return new Spectrum(Type.MAGNITUDE, magnitudeSpectrum, FFTUtil.binCenterFrequencies(data.length, samplingrate));
     }
 
+    /**
+     * Calculates and returns the power spectrum for the provided FFT coefficients of a real valued signal, given as
+     * separate arrays of real and imaginary parts (as produced by {@link FFT}).
+     *
+     * @param real Real parts of (at least) the first size/2 coefficients.
+     * @param imaginary Imaginary parts of (at least) the first size/2 coefficients.
+     * @param size Size of the FFT.
+     * @param samplingrate Sampling rate at which the original samples were obtained.
+     * @param windowFunction Window function that was used when calculating the FFT.
+     * @return A power spectrum.
+     */
+    public static Spectrum createPowerSpectrum(double[] real, double[] imaginary, int size, float samplingrate, WindowFunction windowFunction) {
+        int bins = size / 2;
+        double normalizationFactor = size * windowFunction.normalization(size);
+
+        double[] powerSpectrum = new double[bins];
+        for(int i = 0; i < bins; i++) {
+            powerSpectrum[i] = (i == 0 ? 1 : 2) * (real[i] * real[i] + imaginary[i] * imaginary[i]) / normalizationFactor;
+        }
+
+        return new Spectrum(Type.POWER, powerSpectrum, FFTUtil.binCenterFrequencies(size, samplingrate));
+    }
+
+    /**
+     * Calculates and returns the magnitude spectrum for the provided FFT coefficients of a real valued signal, given as
+     * separate arrays of real and imaginary parts (as produced by {@link FFT}).
+     *
+     * @param real Real parts of (at least) the first size/2 coefficients.
+     * @param imaginary Imaginary parts of (at least) the first size/2 coefficients.
+     * @param size Size of the FFT.
+     * @param samplingrate Sampling rate at which the original samples were obtained.
+     * @param windowFunction Window function that was used when calculating the FFT.
+     * @return A magnitude spectrum.
+     */
+    public static Spectrum createMagnitudeSpectrum(double[] real, double[] imaginary, int size, float samplingrate, WindowFunction windowFunction) {
+        int bins = size / 2;
+        double normalizationFactor = size * windowFunction.normalization(size);
+
+        double[] magnitudeSpectrum = new double[bins];
+        for(int i = 0; i < bins; i++) {
+            magnitudeSpectrum[i] = (i == 0 ? 1 : 2) * Math.hypot(real[i], imaginary[i]) / normalizationFactor;
+        }
+
+        return new Spectrum(Type.MAGNITUDE, magnitudeSpectrum, FFTUtil.binCenterFrequencies(size, samplingrate));
+    }
+
     /**
      *
      * @param type
@@ -6,6 +6,9 @@
  * Interface for filters that are intended for application on data returned by a FFT (i.e. frequency-domain
  * data). The interface works with complex representations of the Fourier coefficients.
  *
+ * Filters applied to the FFT of a real valued signal must preserve the conjugate symmetry of the coefficients (i.e.
+ * bin windowsize-k must remain the complex conjugate of bin k), because only the bins 0 to windowsize/2 are kept.
+ *
  */
 public interface FrequencyDomainFilterInterface {
 
@@ -28,4 +31,27 @@ public interface FrequencyDomainFilterInterface {
      */
     Complex[] filterInPlace(Complex[] fftbins);
 
+    /**
+     * Applies a frequency-domain filter in place onto the magnitudes of the FFT bins 0 to windowsize/2 (including the
+     * Nyquist bin) of a real valued signal (e.g. one column of a STFT). Since the phase is not known, the default
+     * implementation reconstructs all windowsize bins as real numbers (mirroring the magnitudes), applies
+     * {@link #filterInPlace(Complex[])} and stores the absolute values of the result. Filters that only scale the bins
+     * by real factors can override this method to work on the primitive values directly.
+     *
+     * @param magnitudes Array holding the magnitudes.
+     * @param offset Index of the magnitude of the first bin.
+     * @param windowsize Size of the FFT window; windowsize/2+1 magnitudes are read and replaced.
+     */
+    default void filterMagnitudesInPlace(float[] magnitudes, int offset, int windowsize) {
+        final int bins = windowsize / 2;
+        final Complex[] fftbins = new Complex[windowsize];
+        for (int i = 0; i < windowsize; i++) {
+            final int bin = i <= bins ? i : windowsize - i;
+            fftbins[i] = new Complex(magnitudes[offset + bin]);
+        }
+        final Complex[] filtered = this.filterInPlace(fftbins);
+        for (int i = 0; i <= bins; i++) {
+            magnitudes[offset + i] = (float) filtered[i].abs();
+        }
+    }
 }
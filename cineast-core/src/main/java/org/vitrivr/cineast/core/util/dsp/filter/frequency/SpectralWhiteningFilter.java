@@ -144,4 +144,44 @@ public Complex[] filterInPlace(Complex[] fftbins) {
         }
         return fftbins;
     }
+
+    /**
+     * Applies the SpectralWhiteningFilter in place onto the magnitudes of the FFT bins 0 to windowsize/2. Since the
+     * filter only scales the bins by real factors, this yields the same magnitudes as {@link #filterInPlace(Complex[])}
+     * but does not require the complex coefficients.
+     *
+     * @param magnitudes Array holding the magnitudes.
+     * @param offset Index of the magnitude of the first bin.
+     * @param windowsize Size of the FFT window.
+     */
+    @Override
+    public void filterMagnitudesInPlace(float[] magnitudes, int offset, int windowsize) {
+        final int bins = windowsize / 2;
+
+        /* Calculates the compression factor per band; bins above windowsize/2 mirror the ones below. */
+        double[] compression = new double[filterbands.length];
+        for (int i=0; i<filterbands.length; i++) {
+            FilterBand band = this.filterbands[i];
+            double sigma = 0.0;
+            for (int j=band.lowerBandIndex; j<=band.upperBandIndex; j++) {
+                final int bin = j <= bins ? j : windowsize - j;
+                sigma += band.weights[j-band.lowerBandIndex] * magnitudes[offset + bin] * magnitudes[offset + bin];
+            }
+            compression[i] = Math.pow(Math.sqrt(sigma / windowsize), this.amount-1);
+        }
+
+        /* Applies the linear interpolation of two compression factors between two center frequencies. */
+        for (int i=0; i<filterbands.length-1; i++) {
+            FilterBand band0 = this.filterbands[i];
+            FilterBand band1 = this.filterbands[i+1];
+
+            double c0 = compression[i];
+            double c1 = compression[i+1];
+            double scale = (c1-c0)/(band1.centerBandIndex - band0.centerBandIndex);
+
+            for (int k=band0.centerBandIndex; k<band1.centerBandIndex && k<=bins; k++) {
+                magnitudes[offset + k] *= c0 + (k-band0.centerBandIndex)*scale;
+            }
+        }
+    }
 }
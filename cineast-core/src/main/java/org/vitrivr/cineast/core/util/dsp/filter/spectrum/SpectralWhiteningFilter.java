@@ -50,7 +50,7 @@ public Spectrum filteredSpectrum(FFT fft) {
 
         /* Performs magnitude wrapping. */
         for (int n=0;n<size;n++) {
-            whitened[n] = Math.log1p((2*fft.get(n).abs())/g);
+            whitened[n] = Math.log1p((2*fft.magnitude(n))/g);
         }
 
         /* Subtracts the noise. */
@@ -89,7 +89,7 @@ public Spectrum filteredSpectrum(FFT fft) {
     private double scalingFactor(FFT fft, int min_index, int max_index) {
         double g = 0;
         for (int i=min_index; i<=max_index; i++) {
-            g += Math.pow(2*fft.get(i).abs(), 1.0/3.0);
+            g += Math.pow(2*fft.magnitude(i), 1.0/3.0);
         }
         return Math.pow(1.0/(max_index-min_index+1) * g, 3);
     }
@@ -0,0 +1,70 @@
+package org.vitrivr.cineast.core.data.raw.images;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.config.CacheConfig;
+import org.vitrivr.cineast.core.data.raw.CachedDataFactory;
+
+public class FrameBufferPoolTest {
+
+  @Test
+  @DisplayName("Buffers are re-used per resolution")
+  public void testReuse() {
+    final FrameBufferPool pool = new FrameBufferPool(1024);
+    final int[] array = pool.acquire(16);
+    pool.release(array);
+    assertEquals(64, pool.retainedArrayBytes());
+    assertNotSame(array, pool.acquire(8));
+    assertSame(array, pool.acquire(16));
+    assertEquals(0, pool.retainedArrayBytes());
+
+    final ByteBuffer buffer = pool.acquireDirect(16);
+    assertEquals(64, buffer.capacity());
+    pool.releaseDirect(buffer);
+    assertEquals(64, pool.retainedDirectBytes());
+    assertSame(buffer, pool.acquireDirect(16));
+    assertEquals(0, pool.retainedDirectBytes());
+  }
+
+  @Test
+  @DisplayName("Buffers beyond the limit are not retained")
+  public void testLimit() {
+    final FrameBufferPool pool = new FrameBufferPool(100);
+    pool.release(new int[16]);
+    pool.release(new int[16]);
+    assertEquals(64, pool.retainedArrayBytes());
+    pool.releaseDirect(ByteBuffer.allocateDirect(64));
+    pool.releaseDirect(ByteBuffer.allocateDirect(64));
+    assertEquals(64, pool.retainedDirectBytes());
+  }
+
+  @Test
+  @DisplayName("Released images return their buffers to the pool")
+  public void testRelease() {
+    final CachedDataFactory factory = new CachedDataFactory(new CacheConfig());
+    final int[] colors = new int[]{0xFF000000, 0xFFFF0000, 0xFF00FF00, 0xFF0000FF, 0xFFFFFFFF, 0xFF808080};
+
+    final MultiImage inMemory = factory.newInMemoryMultiImage(3, 2, colors);
+    assertArrayEquals(colors, inMemory.getColors());
+    assertEquals(0xFF00FF00, inMemory.getBufferedImage().getRGB(2, 0));
+    final int[] buffer = inMemory.getColors();
+    inMemory.release();
+    inMemory.release();
+    assertThrows(IllegalStateException.class, inMemory::getColors);
+    assertSame(buffer, factory.framePool().acquire(6));
+
+    final MultiImage direct = new DirectMultiImage(3, 2, colors, factory);
+    assertArrayEquals(colors, direct.getColors());
+    assertEquals(0xFF0000FF, direct.getBufferedImage().getRGB(0, 1));
+    direct.release();
+    assertThrows(IllegalStateException.class, direct::getColors);
+    assertEquals(24, factory.framePool().retainedDirectBytes());
+  }
+}
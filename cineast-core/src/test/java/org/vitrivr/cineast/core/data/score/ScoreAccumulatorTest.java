@@ -0,0 +1,52 @@
+package org.vitrivr.cineast.core.data.score;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+
+public class ScoreAccumulatorTest {
+
+  @Test
+  @DisplayName("Scores of the same id are accumulated")
+  void scoresAreAccumulated() {
+    final ScoreAccumulator accumulator = new ScoreAccumulator(2);
+    accumulator.add("a", 0.25);
+    accumulator.add("b", 0.5);
+    accumulator.add("a", 0.5);
+    assertEquals(2, accumulator.size());
+    assertEquals(0.75, accumulator.get("a"), 1e-9);
+    assertTrue(accumulator.adjust("b", 0.1));
+    assertFalse(accumulator.adjust("c", 0.1));
+    assertEquals(0.6, accumulator.get("b"), 1e-9);
+  }
+
+  @Test
+  @DisplayName("Top-k selection matches a full sort")
+  void topKMatchesSort() {
+    final Random random = new Random(42);
+    final ScoreAccumulator accumulator = new ScoreAccumulator();
+    for (int i = 0; i < 10_000; i++) {
+      accumulator.add("s" + random.nextInt(3_000), random.nextDouble() - 0.1);
+    }
+    final List<StringDoublePair> expected = new ArrayList<>();
+    for (String id : accumulator.ids()) {
+      if (accumulator.get(id) > 0) {
+        expected.add(new StringDoublePair(id, accumulator.get(id)));
+      }
+    }
+    expected.sort(StringDoublePair.COMPARATOR);
+
+    final List<StringDoublePair> actual = accumulator.topK(100, 0d, StringDoublePair::new);
+    assertEquals(100, actual.size());
+    for (int i = 0; i < actual.size(); i++) {
+      assertEquals(expected.get(i).value, actual.get(i).value, 1e-9);
+    }
+  }
+}
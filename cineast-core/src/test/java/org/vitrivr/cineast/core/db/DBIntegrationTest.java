@@ -18,7 +18,6 @@
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
-import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.TestInstance;
@@ -243,7 +242,6 @@ void knnSearch() {
   }
 
   @Test
-  @Disabled /* TODO: Currently not supported in Cottontail DB v0.12.0. Re-activate, once support is back. */
   @DisplayName("Batched KNN search")
   void batchedKnnSearch() {
       selector.open(testVectorTableName);
@@ -0,0 +1,82 @@
+package org.vitrivr.cineast.core.db.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.config.QueryConfig;
+import org.vitrivr.cineast.core.config.ReadableQueryConfig.Distance;
+import org.vitrivr.cineast.core.data.distance.SegmentDistanceElement;
+import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.memory.InMemoryEntityCreator;
+import org.vitrivr.cineast.core.db.memory.InMemorySelector;
+import org.vitrivr.cineast.core.db.memory.InMemoryWriter;
+
+public class QueryResultCacheTest {
+
+  private static final String ENTITY = "cache_test";
+
+  private static final String COLUMN = "feature";
+
+  private QueryResultCache cache;
+
+  private DBSelector selector;
+
+  private PersistencyWriter<PersistentTuple> writer;
+
+  @BeforeEach
+  void setUp() {
+    new InMemoryEntityCreator().createFeatureEntity(ENTITY, false, 2);
+    this.cache = new QueryResultCache(10);
+    this.selector = new CachingDBSelector(new InMemorySelector(), this.cache);
+    this.selector.open(ENTITY);
+    this.writer = new CacheInvalidatingWriter<>(new InMemoryWriter(), this.cache);
+    this.writer.open(ENTITY);
+    this.writer.persist(this.writer.generateTuple("a", new float[]{0f, 0f}));
+    this.writer.persist(this.writer.generateTuple("b", new float[]{1f, 1f}));
+  }
+
+  @AfterEach
+  void tearDown() {
+    new InMemoryEntityCreator().dropEntity(ENTITY);
+  }
+
+  @Test
+  @DisplayName("Repeated kNN lookup is served from cache")
+  void repeatedLookupHits() {
+    final QueryConfig config = new QueryConfig(null).setDistanceIfEmpty(Distance.euclidean);
+    final List<SegmentDistanceElement> first = this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config);
+    final List<SegmentDistanceElement> second = this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config);
+    assertEquals(first, second);
+    assertEquals("a", second.get(0).getSegmentId());
+    assertEquals(1, this.cache.stats().missCount());
+    assertEquals(1, this.cache.stats().hitCount());
+  }
+
+  @Test
+  @DisplayName("Different parameters are cached separately")
+  void differentParametersMiss() {
+    final QueryConfig config = new QueryConfig(null).setDistanceIfEmpty(Distance.euclidean);
+    this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config);
+    this.selector.getNearestNeighboursGeneric(2, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config);
+    this.selector.getNearestNeighboursGeneric(1, new float[]{0.9f, 0.9f}, COLUMN, SegmentDistanceElement.class, config);
+    this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, new QueryConfig(null).setDistanceIfEmpty(Distance.manhattan));
+    assertEquals(4, this.cache.stats().missCount());
+    assertEquals(0, this.cache.stats().hitCount());
+  }
+
+  @Test
+  @DisplayName("Writes invalidate cached results")
+  void writeInvalidates() {
+    final QueryConfig config = new QueryConfig(null).setDistanceIfEmpty(Distance.euclidean);
+    assertEquals("a", this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config).get(0).getSegmentId());
+    this.writer.persist(this.writer.generateTuple("c", new float[]{0.1f, 0.1f}));
+    assertEquals("c", this.selector.getNearestNeighboursGeneric(1, new float[]{0.1f, 0.1f}, COLUMN, SegmentDistanceElement.class, config).get(0).getSegmentId());
+    assertEquals(2, this.cache.stats().missCount());
+  }
+}
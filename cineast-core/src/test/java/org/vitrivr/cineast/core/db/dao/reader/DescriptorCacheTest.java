@@ -0,0 +1,148 @@
+package org.vitrivr.cineast.core.db.dao.reader;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.dao.writer.MediaSegmentWriter;
+import org.vitrivr.cineast.core.db.dao.writer.WriteBehindWriter;
+import org.vitrivr.cineast.core.db.memory.InMemoryEntityCreator;
+import org.vitrivr.cineast.core.db.memory.InMemorySelector;
+import org.vitrivr.cineast.core.db.memory.InMemoryWriter;
+
+public class DescriptorCacheTest {
+
+  private static final String OBJECT_ID = "v_cache";
+
+  private MediaSegmentReader reader;
+
+  private MediaSegmentWriter writer;
+
+  @BeforeEach
+  void setUp() {
+    new InMemoryEntityCreator().createSegmentEntity();
+    DescriptorCache.shared().invalidateAll();
+    this.reader = new MediaSegmentReader(new InMemorySelector());
+    this.writer = new MediaSegmentWriter(new InMemoryWriter());
+    this.writer.write(segment(1));
+    this.writer.write(segment(2));
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.writer.close();
+    this.reader.close();
+    new InMemoryEntityCreator().dropEntity(MediaSegmentDescriptor.ENTITY);
+    DescriptorCache.shared().invalidateAll();
+  }
+
+  @Test
+  @DisplayName("Looked up segments are cached")
+  void segmentsAreCached() {
+    final Map<String, MediaSegmentDescriptor> segments = this.reader.lookUpSegments(Arrays.asList(segmentId(1), segmentId(2), "missing"));
+    assertEquals(2, segments.size());
+    assertTrue(DescriptorCache.shared().getSegment(segmentId(1)).isPresent());
+    assertTrue(DescriptorCache.shared().getSegment(segmentId(2)).isPresent());
+    assertFalse(DescriptorCache.shared().getSegment("missing").isPresent());
+  }
+
+  @Test
+  @DisplayName("Segments of an object are cached and invalidated on write")
+  void segmentsOfObjectAreInvalidatedOnWrite() {
+    assertEquals(2, this.reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+    assertTrue(DescriptorCache.shared().getSegmentsOfObject(OBJECT_ID).isPresent());
+
+    this.writer.write(segment(3));
+    assertFalse(DescriptorCache.shared().getSegmentsOfObject(OBJECT_ID).isPresent());
+    final List<MediaSegmentDescriptor> segments = this.reader.lookUpSegmentsOfObject(OBJECT_ID);
+    assertEquals(3, segments.size());
+    assertEquals(3, this.reader.lookUpSegmentsOfObjects(Arrays.asList(OBJECT_ID, "missing")).get(OBJECT_ID).size());
+  }
+
+  @Test
+  @DisplayName("Batched writers invalidate segments of an object once they are flushed")
+  void segmentsOfObjectAreInvalidatedOnFlush() {
+    final DescriptorCache cache = new DescriptorCache(100, 10);
+    final MediaSegmentReader reader = new MediaSegmentReader(new InMemorySelector(), cache);
+    final MediaSegmentWriter writer = new MediaSegmentWriter(new InMemoryWriter(), 10, cache);
+    assertEquals(2, reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+
+    writer.write(segment(3));
+    assertTrue(cache.getSegmentsOfObject(OBJECT_ID).isPresent());
+
+    writer.flush();
+    assertFalse(cache.getSegmentsOfObject(OBJECT_ID).isPresent());
+    assertEquals(3, reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+    writer.close();
+    reader.close();
+  }
+
+  @Test
+  @DisplayName("Segments of an object are invalidated once write-behind has persisted them")
+  void segmentsOfObjectAreInvalidatedAfterWriteBehind() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    final CountDownLatch persisting = new CountDownLatch(1);
+    final InMemoryWriter blocked = new InMemoryWriter() {
+      @Override
+      public boolean persist(List<PersistentTuple> tuples) {
+        try {
+          persisting.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        return super.persist(tuples);
+      }
+    };
+    final DescriptorCache cache = new DescriptorCache(100, 10);
+    final MediaSegmentReader reader = new MediaSegmentReader(new InMemorySelector(), cache);
+    final WriteBehindWriter<PersistentTuple> writeBehind = new WriteBehindWriter<>(blocked, executor, 10);
+    final MediaSegmentWriter writer = new MediaSegmentWriter(writeBehind, 10, cache);
+    try {
+      assertEquals(2, reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+      writer.write(segment(3));
+      writer.flush();
+
+      /* The segment is only queued; a reader refilling the cache in the meantime must not keep the stale entry. */
+      assertEquals(2, reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+      assertTrue(cache.getSegmentsOfObject(OBJECT_ID).isPresent());
+
+      persisting.countDown();
+      writeBehind.awaitPending();
+      assertFalse(cache.getSegmentsOfObject(OBJECT_ID).isPresent());
+      assertEquals(3, reader.lookUpSegmentsOfObject(OBJECT_ID).size());
+    } finally {
+      persisting.countDown();
+      writer.close();
+      reader.close();
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Evicted segments invalidate the reverse index")
+  void evictedSegmentInvalidatesReverseIndex() {
+    final DescriptorCache cache = new DescriptorCache(1, 10);
+    cache.putSegmentsOfObject(OBJECT_ID, Arrays.asList(segment(1), segment(2)));
+    assertFalse(cache.getSegmentsOfObject(OBJECT_ID).isPresent());
+  }
+
+  private static String segmentId(int number) {
+    return OBJECT_ID + "_" + number;
+  }
+
+  private static MediaSegmentDescriptor segment(int number) {
+    return new MediaSegmentDescriptor(OBJECT_ID, segmentId(number), number, number * 10, number * 10 + 9, number, number + 0.9f, true);
+  }
+}
@@ -0,0 +1,145 @@
+package org.vitrivr.cineast.core.db.dao.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.data.providers.primitive.PrimitiveTypeProvider;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.memory.InMemoryEntityCreator;
+import org.vitrivr.cineast.core.db.memory.InMemorySelector;
+import org.vitrivr.cineast.core.db.memory.InMemoryWriter;
+
+public class BulkExistenceCheckingWriterTest {
+
+  private static final String ENTITY = "existence_test";
+
+  private final AtomicInteger delegatedChecks = new AtomicInteger();
+
+  @BeforeEach
+  void setUp() {
+    new InMemoryEntityCreator().createFeatureEntity(ENTITY, false, 2);
+    final InMemoryWriter writer = new InMemoryWriter();
+    writer.open(ENTITY);
+    writer.persist(writer.generateTuple("a", new float[]{0f, 0f}));
+    writer.persist(writer.generateTuple("b", new float[]{1f, 1f}));
+    this.delegatedChecks.set(0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    new InMemoryEntityCreator().dropEntity(ENTITY);
+  }
+
+  @Test
+  @DisplayName("Existence checks are answered locally")
+  void checksAreLocal() {
+    final PersistencyWriter<PersistentTuple> writer = new BulkExistenceCheckingWriter<>(this.countingWriter(), InMemorySelector::new);
+    writer.open(ENTITY);
+    assertTrue(writer.idExists("a"));
+    assertTrue(writer.idExists("b"));
+    assertFalse(writer.idExists("c"));
+    writer.persist(writer.generateTuple("c", new float[]{2f, 2f}));
+    assertTrue(writer.idExists("c"));
+    assertEquals(0, this.delegatedChecks.get());
+  }
+
+  @Test
+  @DisplayName("Large entities are confirmed by the database")
+  void bloomFilterConfirmsPositives() {
+    final PersistencyWriter<PersistentTuple> writer = new BulkExistenceCheckingWriter<>(this.countingWriter(), InMemorySelector::new, 1);
+    writer.open(ENTITY);
+    assertTrue(writer.idExists("a"));
+    assertEquals(1, this.delegatedChecks.get());
+    writer.persist(writer.generateTuple("c", new float[]{2f, 2f}));
+    assertTrue(writer.idExists("c"));
+  }
+
+  @Test
+  @DisplayName("Failed loads delegate all checks to the database")
+  void failedLoadDelegates() {
+    final PersistencyWriter<PersistentTuple> writer = new BulkExistenceCheckingWriter<>(this.countingWriter(), () -> new InMemorySelector() {
+      @Override
+      public void forEachValue(String column, Consumer<PrimitiveTypeProvider> consumer) {
+        throw new IllegalStateException("unavailable");
+      }
+    });
+    writer.open(ENTITY);
+    assertTrue(writer.idExists("a"));
+    assertFalse(writer.idExists("c"));
+    assertEquals(2, this.delegatedChecks.get());
+  }
+
+  @Test
+  @DisplayName("Tuples queued before the first check are found")
+  void queuedWritesAreFound() {
+    final ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final InMemoryWriter slow = new InMemoryWriter() {
+        @Override
+        public boolean persist(List<PersistentTuple> tuples) {
+          try {
+            Thread.sleep(200);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return super.persist(tuples);
+        }
+      };
+      final PersistencyWriter<PersistentTuple> writer = new BulkExistenceCheckingWriter<>(new WriteBehindWriter<>(slow, executor, 10), InMemorySelector::new);
+      writer.open(ENTITY);
+      writer.persist(writer.generateTuple("c", new float[]{2f, 2f}));
+      assertTrue(writer.idExists("c"));
+      assertTrue(writer.idExists("a"));
+      writer.close();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  @Test
+  @DisplayName("Tuples persisted while the ids are loaded are found")
+  void concurrentWritesAreFound() {
+    final AtomicReference<PersistencyWriter<PersistentTuple>> reference = new AtomicReference<>();
+    final PersistencyWriter<PersistentTuple> writer = new BulkExistenceCheckingWriter<>(this.countingWriter(), () -> new InMemorySelector() {
+      @Override
+      public void forEachValue(String column, Consumer<PrimitiveTypeProvider> consumer) {
+        super.forEachValue(column, consumer);
+        /* Persisted after the ids have been read, but before the index is published. */
+        final Thread thread = new Thread(() -> reference.get().persist(reference.get().generateTuple("d", new float[]{3f, 3f})));
+        thread.start();
+        try {
+          thread.join();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    reference.set(writer);
+    writer.open(ENTITY);
+    assertTrue(writer.idExists("a"));
+    assertTrue(writer.idExists("d"));
+    assertEquals(0, this.delegatedChecks.get());
+  }
+
+  private InMemoryWriter countingWriter() {
+    return new InMemoryWriter() {
+      @Override
+      public boolean exists(String key, String value) {
+        delegatedChecks.incrementAndGet();
+        return super.exists(key, value);
+      }
+    };
+  }
+}
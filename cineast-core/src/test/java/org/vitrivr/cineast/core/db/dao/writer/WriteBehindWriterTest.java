@@ -0,0 +1,66 @@
+package org.vitrivr.cineast.core.db.dao.writer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.memory.InMemoryEntityCreator;
+import org.vitrivr.cineast.core.db.memory.InMemoryWriter;
+
+public class WriteBehindWriterTest {
+
+  private static final String ENTITY = "writebehind_test";
+
+  private ExecutorService executor;
+
+  @BeforeEach
+  void setUp() {
+    new InMemoryEntityCreator().createFeatureEntity(ENTITY, false, 2);
+    this.executor = Executors.newFixedThreadPool(2);
+  }
+
+  @AfterEach
+  void tearDown() {
+    this.executor.shutdownNow();
+    new InMemoryEntityCreator().dropEntity(ENTITY);
+  }
+
+  @Test
+  @DisplayName("All queued tuples are persisted before an existence check")
+  void queuedTuplesArePersisted() {
+    final WriteBehindWriter<PersistentTuple> writer = new WriteBehindWriter<>(new InMemoryWriter(), this.executor, 4);
+    writer.open(ENTITY);
+    for (int i = 0; i < 100; i++) {
+      assertTrue(writer.persist(writer.generateTuple("id" + i, new float[]{i, i})));
+    }
+    assertTrue(writer.idExists("id0"));
+    assertTrue(writer.idExists("id99"));
+    assertEquals(0, writer.getFailedTuples());
+    writer.close();
+  }
+
+  @Test
+  @DisplayName("Failed batches are counted")
+  void failuresAreCounted() {
+    final InMemoryWriter failing = new InMemoryWriter() {
+      @Override
+      public boolean persist(List<PersistentTuple> tuples) {
+        return false;
+      }
+    };
+    final WriteBehindWriter<PersistentTuple> writer = new WriteBehindWriter<>(failing, this.executor, 10);
+    writer.open(ENTITY);
+    writer.persist(writer.generateTuple("a", new float[]{0f, 0f}));
+    writer.persist(writer.generateTuple("b", new float[]{1f, 1f}));
+    writer.awaitPending();
+    assertEquals(2, writer.getFailedTuples());
+    writer.close();
+  }
+}
@@ -0,0 +1,25 @@
+package org.vitrivr.cineast.core.db.memory;
+
+import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.IntegrationDBProvider;
+import org.vitrivr.cineast.core.db.PersistencyWriter;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+import org.vitrivr.cineast.core.db.setup.EntityCreator;
+
+public class InMemoryIntegrationDBProvider implements IntegrationDBProvider<PersistentTuple> {
+
+  @Override
+  public PersistencyWriter<PersistentTuple> getPersistencyWriter() {
+    return new InMemoryWriter();
+  }
+
+  @Override
+  public DBSelector getSelector() {
+    return new InMemorySelector();
+  }
+
+  @Override
+  public EntityCreator getEntityCreator() {
+    return new InMemoryEntityCreator();
+  }
+}
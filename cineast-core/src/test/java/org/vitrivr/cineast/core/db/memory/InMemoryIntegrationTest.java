@@ -0,0 +1,23 @@
+package org.vitrivr.cineast.core.db.memory;
+
+import org.vitrivr.cineast.core.db.DBIntegrationTest;
+import org.vitrivr.cineast.core.db.IntegrationDBProvider;
+import org.vitrivr.cineast.core.db.PersistentTuple;
+
+public class InMemoryIntegrationTest extends DBIntegrationTest<PersistentTuple> {
+
+  private final InMemoryIntegrationDBProvider _provider;
+
+  public InMemoryIntegrationTest() {
+    _provider = new InMemoryIntegrationDBProvider();
+  }
+
+  @Override
+  protected void finishSetup() {
+  }
+
+  @Override
+  protected IntegrationDBProvider<PersistentTuple> provider() {
+    return _provider;
+  }
+}
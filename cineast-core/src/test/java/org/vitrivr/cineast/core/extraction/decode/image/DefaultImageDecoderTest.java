@@ -0,0 +1,98 @@
+package org.vitrivr.cineast.core.extraction.decode.image;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashMap;
+import javax.imageio.ImageIO;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.vitrivr.cineast.core.config.DecoderConfig;
+
+public class DefaultImageDecoderTest {
+
+  @TempDir
+  Path folder;
+
+  @Test
+  @DisplayName("Subsampling keeps the decoded image above the target size")
+  public void testSubsampling() {
+    assertArrayEquals(new int[]{1024, 682}, DefaultImageDecoder.targetSize(6000, 4000, 1024));
+    assertArrayEquals(new int[]{800, 600}, DefaultImageDecoder.targetSize(800, 600, 1024));
+    assertEquals(2, DefaultImageDecoder.subsampling(6000, 4000, 1024, 682));
+    assertEquals(1, DefaultImageDecoder.subsampling(2000, 1500, 1024, 768));
+    assertEquals(1, DefaultImageDecoder.subsampling(800, 600, 800, 600));
+  }
+
+  @Test
+  @DisplayName("Images are decoded to the bounds")
+  public void testDecoding() throws IOException {
+    final HashMap<String, String> properties = new HashMap<>();
+    properties.put("bounds", "256");
+    final DecoderConfig config = new DecoderConfig();
+    config.setProperties(properties);
+
+    final DefaultImageDecoder decoder = new DefaultImageDecoder();
+    for (String format : new String[]{"png", "jpg"}) {
+      decoder.init(write(1200, 900, format), config, null);
+      final BufferedImage large = decoder.getNext();
+      assertNotNull(large);
+      assertEquals(256, large.getWidth());
+      assertEquals(192, large.getHeight());
+      assertTrue(new Color(large.getRGB(10, 10)).getRed() > 240);
+
+      decoder.init(write(200, 100, format), config, null);
+      final BufferedImage small = decoder.getNext();
+      assertNotNull(small);
+      assertEquals(200, small.getWidth());
+      assertEquals(100, small.getHeight());
+    }
+  }
+
+  @Test
+  @DisplayName("Palette images that are not resampled keep their colors")
+  public void testIndexedImage() throws IOException {
+    final HashMap<String, String> properties = new HashMap<>();
+    properties.put("bounds", "256");
+    final DecoderConfig config = new DecoderConfig();
+    config.setProperties(properties);
+
+    final Color color = new Color(37, 101, 173);
+    final byte[] palette = new byte[]{(byte) color.getRed(), (byte) color.getGreen(), (byte) color.getBlue()};
+    final BufferedImage image = new BufferedImage(64, 32, BufferedImage.TYPE_BYTE_INDEXED, new IndexColorModel(8, 1, new byte[]{palette[0]}, new byte[]{palette[1]}, new byte[]{palette[2]}));
+    final Path path = this.folder.resolve("indexed.png");
+    ImageIO.write(image, "png", path.toFile());
+
+    final DefaultImageDecoder decoder = new DefaultImageDecoder();
+    decoder.init(path, config, null);
+    final BufferedImage decoded = decoder.getNext();
+    assertNotNull(decoded);
+    assertEquals(BufferedImage.TYPE_INT_ARGB, decoded.getType());
+    assertEquals(64, decoded.getWidth());
+
+    /* Re-creating the image with its type, as MultiImage does, must not quantize the colors. */
+    final BufferedImage copy = new BufferedImage(decoded.getWidth(), decoded.getHeight(), decoded.getType());
+    copy.setRGB(0, 0, decoded.getWidth(), decoded.getHeight(), decoded.getRGB(0, 0, decoded.getWidth(), decoded.getHeight(), null, 0, decoded.getWidth()), 0, decoded.getWidth());
+    assertEquals(color.getRGB(), copy.getRGB(5, 5));
+  }
+
+  private Path write(int width, int height, String format) throws IOException {
+    final BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+    final Graphics2D graphics = image.createGraphics();
+    graphics.setColor(Color.RED);
+    graphics.fillRect(0, 0, width, height);
+    graphics.dispose();
+    final Path path = this.folder.resolve(width + "x" + height + "." + format);
+    ImageIO.write(image, format, path.toFile());
+    return path;
+  }
+}
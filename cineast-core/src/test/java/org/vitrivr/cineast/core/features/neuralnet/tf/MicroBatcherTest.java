@@ -0,0 +1,84 @@
+package org.vitrivr.cineast.core.features.neuralnet.tf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class MicroBatcherTest {
+
+  @Test
+  @DisplayName("Concurrent requests are coalesced")
+  public void testCoalescing() throws Exception {
+    final List<Integer> sizes = new ArrayList<>();
+    final int threads = 8;
+    final CountDownLatch start = new CountDownLatch(1);
+    final ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("test", 4, 200, inputs -> {
+      synchronized (sizes) {
+        sizes.add(inputs.size());
+      }
+      final List<Integer> outputs = new ArrayList<>(inputs.size());
+      for (Integer input : inputs) {
+        outputs.add(input * 2);
+      }
+      return outputs;
+    })) {
+      final List<Future<Integer>> futures = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        final int input = i;
+        futures.add(executor.submit(() -> {
+          start.await();
+          return batcher.process(input);
+        }));
+      }
+      start.countDown();
+      for (int i = 0; i < threads; i++) {
+        assertEquals(2 * i, (int) futures.get(i).get());
+      }
+      assertEquals(Arrays.asList(2, 4, 6), batcher.processAll(Arrays.asList(1, 2, 3)));
+    } finally {
+      executor.shutdownNow();
+    }
+
+    int total = 0;
+    for (int size : sizes) {
+      assertTrue(size <= 4);
+      total += size;
+    }
+    assertEquals(threads + 3, total);
+    assertTrue(sizes.size() < threads + 3, "Requests were not batched: " + sizes);
+  }
+
+  @Test
+  @DisplayName("Failures are reported to all requests of the batch")
+  public void testFailure() {
+    final AtomicInteger calls = new AtomicInteger();
+    try (MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("failing", 4, 0, inputs -> {
+      calls.incrementAndGet();
+      throw new IllegalArgumentException("failed");
+    })) {
+      assertThrows(IllegalArgumentException.class, () -> batcher.process(1));
+      assertEquals(1, calls.get());
+    }
+  }
+
+  @Test
+  @DisplayName("Closed batchers reject requests")
+  public void testClosed() {
+    final MicroBatcher<Integer, Integer> batcher = new MicroBatcher<>("closed", 4, 0, inputs -> inputs);
+    assertEquals(1, (int) batcher.process(1));
+    batcher.close();
+    assertThrows(IllegalStateException.class, () -> batcher.process(1));
+  }
+}
@@ -0,0 +1,70 @@
+package org.vitrivr.cineast.core.features.neuralnet.tf;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.features.neuralnet.tf.TensorFlowModelRegistry.Handle;
+
+public class TensorFlowModelRegistryTest {
+
+  private static class Model implements AutoCloseable {
+
+    private boolean closed;
+
+    @Override
+    public void close() {
+      this.closed = true;
+    }
+  }
+
+  @Test
+  @DisplayName("Models are loaded once and closed with the last handle")
+  public void testReferenceCounting() {
+    final AtomicInteger loads = new AtomicInteger();
+    final String key = "test-reference-counting";
+    final Handle<Model> first = TensorFlowModelRegistry.acquire(key, () -> {
+      loads.incrementAndGet();
+      return new Model();
+    });
+    final Handle<Model> second = TensorFlowModelRegistry.acquire(key, () -> {
+      loads.incrementAndGet();
+      return new Model();
+    });
+    assertEquals(1, loads.get());
+    assertSame(first.get(), second.get());
+    assertEquals(2, TensorFlowModelRegistry.references(key));
+
+    final Model model = first.get();
+    first.close();
+    first.close();
+    assertEquals(1, TensorFlowModelRegistry.references(key));
+    assertTrue(!model.closed);
+    assertThrows(IllegalStateException.class, first::get);
+
+    second.close();
+    assertEquals(0, TensorFlowModelRegistry.references(key));
+    assertTrue(model.closed);
+
+    try (Handle<Model> third = TensorFlowModelRegistry.acquire(key, Model::new)) {
+      assertTrue(third.get() != model);
+    }
+  }
+
+  @Test
+  @DisplayName("Failed loads are not registered")
+  public void testFailedLoad() {
+    final String key = "test-failed-load";
+    assertThrows(IllegalArgumentException.class, () -> TensorFlowModelRegistry.acquire(key, () -> {
+      throw new IllegalArgumentException();
+    }));
+    assertEquals(0, TensorFlowModelRegistry.references(key));
+    try (Handle<Model> handle = TensorFlowModelRegistry.acquire(key, Model::new)) {
+      assertTrue(handle.get() != null);
+    }
+  }
+}
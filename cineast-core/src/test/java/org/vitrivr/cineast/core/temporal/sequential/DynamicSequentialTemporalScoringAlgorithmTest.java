@@ -0,0 +1,113 @@
+package org.vitrivr.cineast.core.temporal.sequential;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.data.StringDoublePair;
+import org.vitrivr.cineast.core.data.TemporalObject;
+import org.vitrivr.cineast.core.data.entities.MediaSegmentDescriptor;
+import org.vitrivr.cineast.core.temporal.TemporalTestCases;
+
+public class DynamicSequentialTemporalScoringAlgorithmTest {
+
+  @Test
+  @DisplayName("Sanity temporal scoring")
+  public void testSanity() {
+    Map<String, MediaSegmentDescriptor> emptyMap = new HashMap<>();
+    List<List<StringDoublePair>> emptyList = new ArrayList<>();
+    DynamicSequentialTemporalScoringAlgorithm testAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(emptyMap, emptyList, -1f);
+    List<TemporalObject> result = testAlgorithm.score();
+    assert result.size() == 0;
+  }
+
+  @Test
+  @DisplayName("First temporal test case")
+  public void testTemporalTestCase1() {
+    TemporalTestCases temporalTestCases = new TemporalTestCases();
+    temporalTestCases.buildTestCase1();
+    DynamicSequentialTemporalScoringAlgorithm testAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(temporalTestCases.getSegmentMap(), temporalTestCases.getContainerResults(), temporalTestCases.getMaxLength());
+    List<TemporalObject> result = testAlgorithm.score();
+
+    assert temporalTestCases.assertListSame(temporalTestCases.getExpectedResults(), result);
+    assert result.size() == 2;
+  }
+
+  @Test
+  @DisplayName("Second temporal test case")
+  public void testTemporalTestCase2() {
+    TemporalTestCases temporalTestCases = new TemporalTestCases();
+    temporalTestCases.buildTestCase2();
+    DynamicSequentialTemporalScoringAlgorithm testAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(temporalTestCases.getSegmentMap(), temporalTestCases.getContainerResults(), temporalTestCases.getMaxLength());
+    List<TemporalObject> result = testAlgorithm.score();
+
+    assert temporalTestCases.assertListSame(temporalTestCases.getExpectedResults(), result);
+    assert result.size() == 1;
+  }
+
+  @Test
+  @DisplayName("Third temporal test case")
+  public void testTemporalTestCase3() {
+    TemporalTestCases temporalTestCases = new TemporalTestCases();
+    temporalTestCases.buildTestCase3();
+    DynamicSequentialTemporalScoringAlgorithm testAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(temporalTestCases.getSegmentMap(), temporalTestCases.getContainerResults(), temporalTestCases.getMaxLength());
+    List<TemporalObject> result = testAlgorithm.score();
+
+    assert temporalTestCases.assertListSame(temporalTestCases.getExpectedResults(), result);
+    assert result.size() == 1;
+  }
+
+  @Test
+  @DisplayName("Fourth temporal test case")
+  public void testTemporalTestCase4() {
+    TemporalTestCases temporalTestCases = new TemporalTestCases();
+    temporalTestCases.buildTestCase4();
+    DynamicSequentialTemporalScoringAlgorithm testAlgorithm = new DynamicSequentialTemporalScoringAlgorithm(temporalTestCases.getSegmentMap(), temporalTestCases.getContainerResults(), temporalTestCases.getMaxLength());
+    List<TemporalObject> result = testAlgorithm.score();
+
+    assert temporalTestCases.assertListSame(temporalTestCases.getExpectedResults(), result);
+    assert result.size() == 3;
+  }
+
+  @Test
+  @DisplayName("Same scores as sequential scoring")
+  public void testSameScoresAsSequential() {
+    Random random = new Random(42);
+    for (int run = 0; run < 50; run++) {
+      Map<String, MediaSegmentDescriptor> segmentMap = new HashMap<>();
+      List<List<StringDoublePair>> containerResults = new ArrayList<>();
+      int containers = 1 + random.nextInt(4);
+      for (int c = 0; c < containers; c++) {
+        containerResults.add(new ArrayList<>());
+      }
+      for (int o = 0; o < 5; o++) {
+        String objectId = "v_" + o;
+        for (int s = 1; s <= 20; s++) {
+          String segmentId = objectId + "_" + s;
+          segmentMap.put(segmentId, new MediaSegmentDescriptor(objectId, segmentId, s, (s - 1) * 10, s * 10, (s - 1) * 0.4f, s * 0.4f, true));
+          for (int c = 0; c < containers; c++) {
+            if (random.nextDouble() < 0.3) {
+              containerResults.get(c).add(new StringDoublePair(segmentId, random.nextDouble()));
+            }
+          }
+        }
+      }
+      float maxLength = random.nextBoolean() ? Float.MAX_VALUE : 0.4f * (1 + random.nextInt(10));
+
+      List<TemporalObject> expected = new SequentialTemporalScoringAlgorithm(segmentMap, containerResults, maxLength).score();
+      List<TemporalObject> result = new DynamicSequentialTemporalScoringAlgorithm(segmentMap, containerResults, maxLength).score();
+
+      assert expected.size() == result.size();
+      Map<String, Double> expectedScores = new HashMap<>();
+      expected.forEach(t -> expectedScores.put(t.getObjectId(), t.getScore()));
+      for (TemporalObject temporalObject : result) {
+        assert expectedScores.containsKey(temporalObject.getObjectId());
+        assert Math.abs(expectedScores.get(temporalObject.getObjectId()) - temporalObject.getScore()) < 1e-9;
+      }
+    }
+  }
+
+}
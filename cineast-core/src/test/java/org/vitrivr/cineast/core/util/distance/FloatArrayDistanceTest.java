@@ -0,0 +1,171 @@
+package org.vitrivr.cineast.core.util.distance;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class FloatArrayDistanceTest {
+
+  private static final int[] DIMENSIONS = {1, 3, 4, 7, 64, 131};
+
+  private static final int VECTORS = 10;
+
+  private final Random random = new Random(1);
+
+  @Test
+  @DisplayName("Unweighted kernels match pairwise reference")
+  public void testUnweightedKernels() {
+    check(new EuclideanDistance(), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += (t[i] - u[i]) * (t[i] - u[i]);
+      }
+      return Math.sqrt(dist);
+    });
+    check(new SquaredEuclideanDistance(), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += (t[i] - u[i]) * (t[i] - u[i]);
+      }
+      return dist;
+    });
+    check(new ManhattanDistance(), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += Math.abs(t[i] - u[i]);
+      }
+      return dist;
+    });
+    check(new CosineDistance(), (t, u) -> {
+      double dot = 0d, a = 0d, b = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dot += t[i] * u[i];
+        a += t[i] * t[i];
+        b += u[i] * u[i];
+      }
+      return 1d - (dot / (Math.sqrt(a) * Math.sqrt(b)));
+    });
+    check(new ChiSquaredDistance(), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        if (Math.abs(t[i] + u[i]) < 1e-6) {
+          continue;
+        }
+        dist += ((t[i] - u[i]) * (t[i] - u[i])) / (t[i] + u[i]);
+      }
+      return dist;
+    });
+  }
+
+  @Test
+  @DisplayName("Weighted kernels match pairwise reference")
+  public void testWeightedKernels() {
+    final float[] w = this.vector(DIMENSIONS[DIMENSIONS.length - 1]);
+    check(new WeightedEuclideanDistance(w), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += (t[i] - u[i]) * (t[i] - u[i]) * w[i];
+      }
+      return Math.sqrt(dist);
+    });
+    check(new WeightedSquaredEuclideanDistance(w), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += (t[i] - u[i]) * (t[i] - u[i]) * w[i];
+      }
+      return dist;
+    });
+    check(new WeightedManhattanDistance(w), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += Math.abs(t[i] - u[i]) * w[i];
+      }
+      return dist;
+    });
+    check(new WeightedCosineDistance(w), (t, u) -> {
+      double dot = 0d, a = 0d, b = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dot += t[i] * u[i] * w[i];
+        a += t[i] * t[i] * w[i];
+        b += u[i] * u[i] * w[i];
+      }
+      return 1d - (dot / (Math.sqrt(a) * Math.sqrt(b)));
+    });
+    check(new WeightedChiSquaredDistance(w), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist += (((t[i] - u[i]) * (t[i] - u[i])) / (t[i] + u[i])) * w[i];
+      }
+      return dist;
+    });
+  }
+
+  @Test
+  @DisplayName("Default batch implementation")
+  public void testDefaultBatch() {
+    check(new ChebyshevDistance(), (t, u) -> {
+      double dist = 0d;
+      for (int i = 0; i < t.length; ++i) {
+        dist = Math.max(dist, Math.abs(t[i] - u[i]));
+      }
+      return dist;
+    });
+  }
+
+  @Test
+  @DisplayName("Null query")
+  public void testNullQuery() {
+    final double[] result = new double[2];
+    new CosineDistance().applyAsDouble(null, new float[8], 0, 4, 2, result);
+    assertTrue(Double.isNaN(result[0]) && Double.isNaN(result[1]));
+    assertTrue(Double.isNaN(new EuclideanDistance().applyAsDouble(null, new float[4], 0, 4)));
+  }
+
+  /**
+   * Compares pairwise, row, one-to-many and many-to-many distances against the reference for all {@link #DIMENSIONS}.
+   */
+  private void check(FloatArrayDistance distance, ToDoubleBiFunction<float[], float[]> reference) {
+    for (int dim : DIMENSIONS) {
+      final float[] query = this.vector(dim);
+      final float[][] vectors = new float[VECTORS][];
+      /* The block starts at an offset to make sure that kernels respect it. */
+      final int offset = 5;
+      final float[] block = new float[offset + VECTORS * dim];
+      for (int i = 0; i < VECTORS; i++) {
+        vectors[i] = this.vector(dim);
+        System.arraycopy(vectors[i], 0, block, offset + i * dim, dim);
+      }
+
+      final double[] oneToMany = new double[VECTORS];
+      distance.applyAsDouble(query, block, offset, dim, VECTORS, oneToMany);
+      final double[] arrays = new double[VECTORS];
+      distance.applyAsDouble(query, vectors, arrays);
+      final double[][] manyToMany = new double[2][VECTORS];
+      distance.applyAsDouble(new float[][]{query, vectors[0]}, block, offset, dim, VECTORS, manyToMany);
+
+      for (int i = 0; i < VECTORS; i++) {
+        final double expected = reference.applyAsDouble(query, vectors[i]);
+        final double delta = 1e-9 * Math.max(1d, Math.abs(expected));
+        final String message = distance.getClass().getSimpleName() + ", dim " + dim + ", vector " + i;
+        assertEquals(expected, distance.applyAsDouble(query, vectors[i]), delta, message);
+        assertEquals(expected, distance.applyAsDouble(query, block, offset + i * dim, dim), delta, message);
+        assertEquals(expected, oneToMany[i], delta, message);
+        assertEquals(expected, arrays[i], delta, message);
+        assertEquals(expected, manyToMany[0][i], delta, message);
+        assertEquals(reference.applyAsDouble(vectors[0], vectors[i]), manyToMany[1][i], delta, message);
+      }
+    }
+  }
+
+  private float[] vector(int dim) {
+    final float[] vector = new float[dim];
+    for (int i = 0; i < dim; i++) {
+      vector[i] = this.random.nextFloat();
+    }
+    return vector;
+  }
+}
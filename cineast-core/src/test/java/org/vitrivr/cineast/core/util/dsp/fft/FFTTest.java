@@ -0,0 +1,215 @@
+package org.vitrivr.cineast.core.util.dsp.fft;
+
+import org.apache.commons.math3.complex.Complex;
+import org.apache.commons.math3.transform.DftNormalization;
+import org.apache.commons.math3.transform.FastFourierTransformer;
+import org.apache.commons.math3.transform.TransformType;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.HanningWindow;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.RectangularWindow;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.WindowFunction;
+import org.vitrivr.cineast.core.util.dsp.filter.frequency.FrequencyDomainFilterInterface;
+import org.vitrivr.cineast.core.util.dsp.filter.frequency.SpectralWhiteningFilter;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+
+public class FFTTest {
+
+    private static final float SAMPLINGRATE = 22050.0f;
+
+    private final Random random = new Random(1);
+
+    @Test
+    @DisplayName("FFT matches Apache Commons")
+    void testForward() {
+        final FFT fft = new FFT();
+        for (int size = 1; size <= 4096; size *= 2) {
+            /* Runs twice to make sure that re-used buffers do not leak data. */
+            for (int run = 0; run < 2; run++) {
+                final double[] samples = this.samples(size);
+                fft.forward(samples, SAMPLINGRATE, new RectangularWindow());
+                final Complex[] expected = reference(samples, new RectangularWindow());
+                final Complex[] actual = fft.getValues();
+                assertEquals(expected.length, actual.length);
+                assertEquals(size, fft.getWindowsize());
+                for (int i = 0; i < size; i++) {
+                    assertEquals(expected[i].getReal(), actual[i].getReal(), 1e-9, "size " + size + ", bin " + i);
+                    assertEquals(expected[i].getImaginary(), actual[i].getImaginary(), 1e-9, "size " + size + ", bin " + i);
+                    assertEquals(expected[i].abs(), fft.magnitude(i), 1e-9, "size " + size + ", bin " + i);
+                }
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("FFT pads and windows data")
+    void testPaddingAndWindow() {
+        final FFT fft = new FFT();
+        final HanningWindow window = new HanningWindow();
+        for (int length : new int[]{700, 600, 1024}) {
+            final double[] samples = this.samples(length);
+            fft.forward(samples, SAMPLINGRATE, window);
+            final Complex[] expected = reference(samples, window);
+            final Spectrum power = fft.getPowerSpectrum();
+            final Spectrum reference = Spectrum.createPowerSpectrum(expected, SAMPLINGRATE, window);
+            assertEquals(1024, fft.getWindowsize());
+            assertEquals(reference.size(), power.size());
+            for (int i = 0; i < power.size(); i++) {
+                assertEquals(reference.getValue(i), power.getValue(i), 1e-9 * Math.max(1.0, reference.getValue(i)), "length " + length + ", bin " + i);
+                assertEquals(reference.getFrequency(i), power.getFrequency(i));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("STFT matches FFTs of individual windows")
+    void testStft() {
+        final HanningWindow window = new HanningWindow();
+        final int windowsize = 512;
+        final int overlap = 256;
+        final int padding = 16;
+        final double[] samples = this.samples(5000);
+        final STFT stft = new STFT(windowsize, overlap, padding, window, SAMPLINGRATE);
+        stft.forward(samples);
+        stft.forward(Arrays.copyOf(samples, 1000));
+
+        /* Reproduces the sliding window of STFT#forward(double[]). */
+        final List<Spectrum> power = stft.getPowerSpectrum();
+        final List<Spectrum> magnitude = stft.getMagnitudeSpectrum();
+        final int increment = windowsize - overlap - 2 * padding;
+        final int length = windowsize - 2 * padding;
+        int t = 0;
+        for (double[] chunk : new double[][]{samples, Arrays.copyOf(samples, 1000)}) {
+            final double[] buffer = new double[windowsize];
+            for (int start = 0; start < chunk.length; start += increment, t++) {
+                if (start + length - 1 < chunk.length) {
+                    System.arraycopy(chunk, start, buffer, padding, length);
+                } else {
+                    System.arraycopy(chunk, start, buffer, padding, chunk.length - start);
+                    Arrays.fill(buffer, chunk.length - start + 1, buffer.length - 1, 0.0);
+                }
+                final Complex[] expected = reference(buffer, window);
+                final Spectrum expectedPower = Spectrum.createPowerSpectrum(expected, SAMPLINGRATE, window);
+                final Spectrum expectedMagnitude = Spectrum.createMagnitudeSpectrum(expected, SAMPLINGRATE, window);
+                for (int k = 0; k < stft.getHeight(); k++) {
+                    assertEquals(expectedPower.getValue(k), power.get(t).getValue(k), 1e-6 * expectedPower.getValue(k) + 1e-12, "t " + t + ", bin " + k);
+                    assertEquals(expectedMagnitude.getValue(k), magnitude.get(t).getValue(k), 1e-6 * expectedMagnitude.getValue(k) + 1e-12, "t " + t + ", bin " + k);
+                }
+            }
+        }
+        assertEquals(t, stft.getWidth());
+        assertEquals(t, stft.getTime().length);
+        assertFalse(stft.isZero(0));
+    }
+
+    @Test
+    @DisplayName("Spectral whitening on magnitudes matches complex bins")
+    void testWhiteningMagnitudes() {
+        this.assertWhiteningMagnitudes(new SpectralWhiteningFilter(2048, SAMPLINGRATE, 0.33f, 30), 2048);
+    }
+
+    @Test
+    @DisplayName("Spectral whitening on magnitudes includes the Nyquist bin")
+    void testWhiteningMagnitudesNyquist() {
+        /* Chooses the sampling rate such that the upper cut-off of the last filter band is the Nyquist frequency. */
+        final float cutoff = (float) (229.0 * (Math.pow(10, 32 / 21.4) - 1));
+        this.assertWhiteningMagnitudes(new SpectralWhiteningFilter(2048, 2 * cutoff, 0.33f, 30), 2048);
+    }
+
+    @Test
+    @DisplayName("Filtered FFT keeps all coefficients")
+    void testApplyAsymmetricFilter() {
+        final int windowsize = 1024;
+        final FFT fft = new FFT();
+        fft.forward(this.samples(windowsize), SAMPLINGRATE, new RectangularWindow());
+        final Complex[] expected = fft.getValues();
+        for (int i = windowsize / 2 + 1; i < windowsize; i++) {
+            expected[i] = expected[i].multiply(0.5);
+        }
+        fft.applyFilter(new FrequencyDomainFilterInterface() {
+            @Override
+            public Complex[] filter(Complex[] fftbins) {
+                return this.filterInPlace(Arrays.copyOf(fftbins, fftbins.length));
+            }
+
+            @Override
+            public Complex[] filterInPlace(Complex[] fftbins) {
+                for (int i = fftbins.length / 2 + 1; i < fftbins.length; i++) {
+                    fftbins[i] = fftbins[i].multiply(0.5);
+                }
+                return fftbins;
+            }
+        });
+        for (int i = 0; i < windowsize; i++) {
+            assertEquals(expected[i].getReal(), fft.get(i).getReal(), 1e-9, "bin " + i);
+            assertEquals(expected[i].getImaginary(), fft.get(i).getImaginary(), 1e-9, "bin " + i);
+            assertEquals(expected[i].abs(), fft.magnitude(i), 1e-9, "bin " + i);
+        }
+
+        /* A new transform restores the symmetric representation. */
+        fft.forward(this.samples(windowsize), SAMPLINGRATE, new RectangularWindow());
+        assertEquals(fft.get(1).getReal(), fft.get(windowsize - 1).getReal(), 1e-12);
+    }
+
+    private void assertWhiteningMagnitudes(SpectralWhiteningFilter filter, int windowsize) {
+        final Complex[] bins = reference(this.samples(windowsize), new HanningWindow());
+        final float[] magnitudes = new float[3 + windowsize / 2 + 1];
+        for (int k = 0; k <= windowsize / 2; k++) {
+            magnitudes[3 + k] = (float) bins[k].abs();
+        }
+        final float[] generic = Arrays.copyOf(magnitudes, magnitudes.length);
+
+        filter.filterInPlace(bins);
+        filter.filterMagnitudesInPlace(magnitudes, 3, windowsize);
+        new DelegatingFilter(filter).filterMagnitudesInPlace(generic, 3, windowsize);
+        for (int k = 0; k <= windowsize / 2; k++) {
+            assertEquals(bins[k].abs(), magnitudes[3 + k], 1e-5 * bins[k].abs(), "bin " + k);
+            assertEquals(bins[k].abs(), generic[3 + k], 1e-5 * bins[k].abs(), "bin " + k);
+        }
+    }
+
+    /**
+     * Delegates to a filter without overriding the magnitude variant, i.e. uses the default implementation.
+     */
+    private static class DelegatingFilter implements FrequencyDomainFilterInterface {
+        private final SpectralWhiteningFilter filter;
+
+        private DelegatingFilter(SpectralWhiteningFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public Complex[] filter(Complex[] fftbins) {
+            return this.filter.filter(fftbins);
+        }
+
+        @Override
+        public Complex[] filterInPlace(Complex[] fftbins) {
+            return this.filter.filterInPlace(fftbins);
+        }
+    }
+
+    private static Complex[] reference(double[] samples, WindowFunction window) {
+        final int size = FFTUtil.nextPowerOf2(samples.length);
+        final double[] windowed = new double[size];
+        for (int i = 0; i < samples.length; i++) {
+            windowed[i] = samples[i] * window.value(i, size);
+        }
+        return new FastFourierTransformer(DftNormalization.STANDARD).transform(windowed, TransformType.FORWARD);
+    }
+
+    private double[] samples(int length) {
+        final double[] samples = new double[length];
+        for (int i = 0; i < length; i++) {
+            samples[i] = Math.sin(2 * Math.PI * 440 * i / SAMPLINGRATE) + 0.5 * (this.random.nextDouble() - 0.5);
+        }
+        return samples;
+    }
+}
@@ -0,0 +1,90 @@
+package org.vitrivr.cineast.core.util.dsp.fft;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.BlackmanHarrisWindow;
+import org.vitrivr.cineast.core.util.dsp.fft.windows.HanningWindow;
+import org.vitrivr.cineast.core.util.dsp.filter.frequency.SpectralWhiteningFilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+
+public class STFTCacheTest {
+
+    private static final float SAMPLINGRATE = 22050.0f;
+
+    private final AtomicInteger calculations = new AtomicInteger();
+
+    private final Supplier<double[]> samples = () -> {
+        this.calculations.incrementAndGet();
+        final double[] samples = new double[8192];
+        for (int i = 0; i < samples.length; i++) {
+            samples[i] = Math.sin(2 * Math.PI * 440 * i / SAMPLINGRATE);
+        }
+        return samples;
+    };
+
+    @Test
+    @DisplayName("Same parameters share one calculation")
+    void testSharedCalculation() {
+        final STFTCache cache = new STFTCache();
+        final STFT first = cache.get(1024, 512, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        final STFT second = cache.get(1024, 512, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        assertEquals(1, this.calculations.get());
+        assertNotSame(first, second);
+        assertEquals(first.getWidth(), second.getWidth());
+
+        cache.get(1024, 256, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        cache.get(1024, 512, 0, new BlackmanHarrisWindow(), SAMPLINGRATE, this.samples);
+        assertEquals(3, this.calculations.get());
+        assertEquals(3, cache.size());
+
+        cache.clear();
+        assertEquals(0, cache.size());
+        cache.get(1024, 512, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        assertEquals(4, this.calculations.get());
+    }
+
+    @Test
+    @DisplayName("Copies are independent")
+    void testCopiesAreIndependent() {
+        final STFTCache cache = new STFTCache();
+        final STFT filtered = cache.get(2048, 1024, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        final float before = filtered.getMagnitude(1, 40);
+        filtered.applyFilter(new SpectralWhiteningFilter(2048, SAMPLINGRATE, 0.33f, 30));
+        assertNotEquals(before, filtered.getMagnitude(1, 40));
+
+        final STFT other = cache.get(2048, 1024, 0, new HanningWindow(), SAMPLINGRATE, this.samples);
+        assertEquals(before, other.getMagnitude(1, 40));
+        assertEquals(1, this.calculations.get());
+    }
+
+    @Test
+    @DisplayName("Concurrent requests share one calculation")
+    void testConcurrentRequests() throws Exception {
+        final STFTCache cache = new STFTCache();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final List<Future<STFT>> futures = new ArrayList<>();
+            for (int i = 0; i < 32; i++) {
+                futures.add(executor.submit(() -> cache.get(1024, 512, 0, new HanningWindow(), SAMPLINGRATE, this.samples)));
+            }
+            for (Future<STFT> future : futures) {
+                assertEquals(16, future.get().getWidth());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, this.calculations.get());
+    }
+}
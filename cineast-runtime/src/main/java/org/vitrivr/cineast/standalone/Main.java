@@ -35,5 +35,6 @@ public static void main(String[] args) {
       command.run();
     }
     PrometheusServer.stopServer();
+    Config.sharedConfig().getDatabase().closeCottontailChannelPool();
   }
 }
@@ -24,10 +24,10 @@ public static void optimizeAllCottontailEntities() {
     }
     try (final CottontailWrapper wrapper = new CottontailWrapper(Config.sharedConfig().getDatabase(), false)) {
       System.out.println("Optimizing all entities for schema '" + CottontailWrapper.CINEAST_SCHEMA + "' in Cottontail");
-      wrapper.client.list(new ListEntities(CottontailWrapper.CINEAST_SCHEMA), null).forEachRemaining(entity -> {
+      wrapper.client().list(new ListEntities(CottontailWrapper.CINEAST_SCHEMA), null).forEachRemaining(entity -> {
         System.out.println("Optimizing entity " + entity);
         final String name = entity.asString("dbo").replace("warren.", "");
-        wrapper.client.optimize(new OptimizeEntity(name), null);
+        wrapper.client().optimize(new OptimizeEntity(name), null);
       });
       System.out.println("Finished optimizing all entities");
     }
@@ -106,10 +106,10 @@ public void run() {
       return;
     }
     final CottontailWrapper cottontail = new CottontailWrapper(Config.sharedConfig().getDatabase(), false);
-    long txId = cottontail.client.begin();
-    long uTxId = cottontail.client.begin();
+    long txId = cottontail.client().begin();
+    long uTxId = cottontail.client().begin();
     final Query query = new Query(ENTITY_NAME).select("*");
-    final TupleIterator ti = cottontail.client.query(query, txId);
+    final TupleIterator ti = cottontail.client().query(query, txId);
     final List<UpdateElement> updateElements = new ArrayList<>();
     int counter = 0;
     int totalCounter = 0;
@@ -130,7 +130,7 @@ public void run() {
               new Pair<>(MediaSegmentDescriptor.SEGMENT_END_COL_NAME, (double) msAbsNext)
           )
           .where(new org.vitrivr.cottontail.client.language.extensions.Literal(CineastConstants.SEGMENT_ID_COLUMN_QUALIFIER, "=", segment.getSegmentId()));
-      cottontail.client.update(update, txId);
+      cottontail.client().update(update, txId);
       totalCounter++;
       if (counter++ > 99) {
         if (progress) {
@@ -139,7 +139,7 @@ public void run() {
         counter = 0;
       }
     }
-    cottontail.client.commit(txId);
+    cottontail.client().commit(txId);
     System.out.println("Done.");
   }
 }
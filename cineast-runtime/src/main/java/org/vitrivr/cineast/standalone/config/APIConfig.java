@@ -39,6 +39,11 @@ public final class APIConfig {
 
   private int threadPoolSize = 8;
 
+  private int websocketWorkerThreads = 8; /* Threads shared by all WebSocket sessions to load metadata and stream results. */
+  private int websocketTasksPerSession = 4; /* Maximum number of such tasks running concurrently for a single session. */
+  private int websocketPendingWritesPerSession = 32; /* Maximum number of messages a single session may have in flight before writers block. */
+  private int temporalQueryThreads = 16; /* Threads shared by all WebSocket sessions to evaluate the containers of temporal queries. */
+
   private boolean serveContent = false;
 
   /**
@@ -204,6 +209,42 @@ public void setThreadPoolSize(int threadPoolSize) {
     this.threadPoolSize = threadPoolSize;
   }
 
+  @JsonProperty
+  public int getWebsocketWorkerThreads() {
+    return websocketWorkerThreads;
+  }
+
+  public void setWebsocketWorkerThreads(int websocketWorkerThreads) {
+    this.websocketWorkerThreads = websocketWorkerThreads;
+  }
+
+  @JsonProperty
+  public int getWebsocketTasksPerSession() {
+    return websocketTasksPerSession;
+  }
+
+  public void setWebsocketTasksPerSession(int websocketTasksPerSession) {
+    this.websocketTasksPerSession = websocketTasksPerSession;
+  }
+
+  @JsonProperty
+  public int getWebsocketPendingWritesPerSession() {
+    return websocketPendingWritesPerSession;
+  }
+
+  public void setWebsocketPendingWritesPerSession(int websocketPendingWritesPerSession) {
+    this.websocketPendingWritesPerSession = websocketPendingWritesPerSession;
+  }
+
+  @JsonProperty
+  public int getTemporalQueryThreads() {
+    return temporalQueryThreads;
+  }
+
+  public void setTemporalQueryThreads(int temporalQueryThreads) {
+    this.temporalQueryThreads = temporalQueryThreads;
+  }
+
   @JsonProperty
   public String getThumbnailLocation() {
     return thumbnailLocation;
@@ -16,6 +16,15 @@ public final class ExtractionPipelineConfig {
 	/** Default value for size of segment-queue. */
 	public static final int DEFAULT_SEGMENTQUEUE_SIZE = 10;
 
+	/** Default value for the number of segments that are handed to an extractor at once. */
+	public static final int DEFAULT_EXTRACTION_BATCH_SIZE = 1;
+
+	/** Default value for the number of files that are decoded and segmented concurrently. */
+	public static final int DEFAULT_DECODER_THREADPOOL_SIZE = 1;
+
+	/** Default value for size of the queue holding files that are pending decoding. */
+	public static final int DEFAULT_DECODERQUEUE_SIZE = 10;
+
 	/** */
 	private Integer shotQueueSize = DEFAULT_SEGMENTQUEUE_SIZE;
 
@@ -25,6 +34,15 @@ public final class ExtractionPipelineConfig {
 	/** */
 	private Integer taskQueueSize = DEFAULT_TASKQUEUE_SIZE;
 
+	/** */
+	private Integer extractionBatchSize = DEFAULT_EXTRACTION_BATCH_SIZE;
+
+	/** */
+	private Integer decoderThreadPoolSize = DEFAULT_DECODER_THREADPOOL_SIZE;
+
+	/** */
+	private Integer decoderQueueSize = DEFAULT_DECODERQUEUE_SIZE;
+
 	private File outputLocation = new File(".");
 
 	@JsonCreator
@@ -55,6 +73,30 @@ public void setTaskQueueSize(int taskQueueSize) {
 		this.taskQueueSize = taskQueueSize;
 	}
 
+	@JsonProperty
+	public Integer getExtractionBatchSize() {
+		return this.extractionBatchSize;
+	}
+	public void setExtractionBatchSize(int extractionBatchSize) {
+		this.extractionBatchSize = extractionBatchSize;
+	}
+
+	@JsonProperty
+	public Integer getDecoderThreadPoolSize() {
+		return this.decoderThreadPoolSize;
+	}
+	public void setDecoderThreadPoolSize(int decoderThreadPoolSize) {
+		this.decoderThreadPoolSize = decoderThreadPoolSize;
+	}
+
+	@JsonProperty
+	public Integer getDecoderQueueSize() {
+		return this.decoderQueueSize;
+	}
+	public void setDecoderQueueSize(int decoderQueueSize) {
+		this.decoderQueueSize = decoderQueueSize;
+	}
+
 	@JsonProperty
 	public File getOutputLocation(){
 		return this.outputLocation;
@@ -130,6 +130,15 @@ public IngestConfig(@JsonProperty(value = "type") MediaType type,
         if (this.pipeline.getShotQueueSize() == ExtractionPipelineConfig.DEFAULT_SEGMENTQUEUE_SIZE) {
             this.pipeline.setShotQueueSize(globalExt.getShotQueueSize());
         }
+        if (this.pipeline.getExtractionBatchSize() == ExtractionPipelineConfig.DEFAULT_EXTRACTION_BATCH_SIZE) {
+            this.pipeline.setExtractionBatchSize(globalExt.getExtractionBatchSize());
+        }
+        if (this.pipeline.getDecoderThreadPoolSize() == ExtractionPipelineConfig.DEFAULT_DECODER_THREADPOOL_SIZE) {
+            this.pipeline.setDecoderThreadPoolSize(globalExt.getDecoderThreadPoolSize());
+        }
+        if (this.pipeline.getDecoderQueueSize() == ExtractionPipelineConfig.DEFAULT_DECODERQUEUE_SIZE) {
+            this.pipeline.setDecoderQueueSize(globalExt.getDecoderQueueSize());
+        }
 
         /* Set SegmenterConfig. */
         if (segmenter == null) segmenter = new SegmenterConfig(this.type);
@@ -355,6 +364,29 @@ public Integer segmentQueueSize() {
         return this.pipeline.getShotQueueSize();
     }
 
+    @Override
+    public int extractionBatchSize() {
+        return this.pipeline.getExtractionBatchSize();
+    }
+
+    /**
+     * Returns the number of files that are decoded and segmented concurrently.
+     *
+     * @return Number of decoder threads.
+     */
+    public int decoderThreadPoolSize() {
+        return this.pipeline.getDecoderThreadPoolSize();
+    }
+
+    /**
+     * Returns the size of the decoder queue. Limits how many files can be handed to the decoders before the reading of new files blocks.
+     *
+     * @return Size of decoder queue.
+     */
+    public int decoderQueueSize() {
+        return this.pipeline.getDecoderQueueSize();
+    }
+
     /**
      * Returns the instance of {@link CacheConfig}.
      *
@@ -6,7 +6,6 @@
 import org.vitrivr.cineast.core.features.*;
 import org.vitrivr.cineast.core.features.exporter.QueryImageExporter;
 import org.vitrivr.cineast.core.features.retriever.Retriever;
-import org.vitrivr.cineast.core.util.ReflectionHelper;
 
 import java.util.*;
 
@@ -17,6 +16,10 @@ public final class RetrievalRuntimeConfig {
 	private int taskQueueSize = 10;
 	private int maxResults = 100;
 	private int resultsPerModule = 50;
+	private long queryTimeout = 0;
+	private int maxTasksPerQuery = 0;
+	private int retrieverPoolSize = 4;
+	private boolean warmUpRetrievers = false;
 	private HashMap<String, List<RetrieverConfig>> retrieverCategories = DEFAULT_RETRIEVER_CATEGORIES;
 
 	static{
@@ -115,6 +118,50 @@ public void setResultsPerModule(int resultsPerModule) {
 		this.resultsPerModule = resultsPerModule;
 	}
 
+	/**
+	 * Time in milliseconds a query waits for its retrievers. Once it has passed, the results of the retrievers that completed are fused and returned. A value of 0 disables the timeout.
+	 */
+	@JsonProperty
+	public long getQueryTimeout() {
+		return this.queryTimeout;
+	}
+	public void setQueryTimeout(long queryTimeout) {
+		this.queryTimeout = queryTimeout;
+	}
+
+	/**
+	 * Maximum number of retrieval tasks a single query may run at the same time. A value of 0 only limits it by the size of the thread pool.
+	 */
+	@JsonProperty
+	public int getMaxTasksPerQuery() {
+		return this.maxTasksPerQuery;
+	}
+	public void setMaxTasksPerQuery(int maxTasksPerQuery) {
+		this.maxTasksPerQuery = maxTasksPerQuery;
+	}
+
+	/**
+	 * Maximum number of idle, initialized instances kept per configured retriever for reuse by later queries. A value of 0 disables pooling.
+	 */
+	@JsonProperty
+	public int getRetrieverPoolSize() {
+		return this.retrieverPoolSize;
+	}
+	public void setRetrieverPoolSize(int retrieverPoolSize) {
+		this.retrieverPoolSize = retrieverPoolSize;
+	}
+
+	/**
+	 * Whether one instance of every configured retriever is created and initialized when the API starts, rather than upon the first query.
+	 */
+	@JsonProperty
+	public boolean getWarmUpRetrievers() {
+		return this.warmUpRetrievers;
+	}
+	public void setWarmUpRetrievers(boolean warmUpRetrievers) {
+		this.warmUpRetrievers = warmUpRetrievers;
+	}
+
 	@JsonProperty("features")
 	public List<String> getRetrieverCategories(){
 		Set<String> keys = this.retrieverCategories.keySet();
@@ -125,21 +172,12 @@ public List<String> getRetrieverCategories(){
 
 
 	public TObjectDoubleHashMap<Retriever> getRetrieversByCategory(String category){
-		List<RetrieverConfig> list = this.retrieverCategories.get(category);
-		if(list == null){
-			return new TObjectDoubleHashMap<>(1);
-		}
+		List<RetrieverConfig> list = this.getRetrieverConfigsByCategory(category);
 
-		TObjectDoubleHashMap<Retriever> _return = new TObjectDoubleHashMap<>(list.size());
+		TObjectDoubleHashMap<Retriever> _return = new TObjectDoubleHashMap<>(Math.max(1, list.size()));
 		for(RetrieverConfig config : list){
 
-			Retriever rev;
-
-			if(config.getProperties() == null){
-			    rev = ReflectionHelper.instantiate(config.getRetrieverClass());
-            } else {
-                rev = ReflectionHelper.instantiate(config.getRetrieverClass(), config.getProperties());
-            }
+			Retriever rev = config.newInstance();
 
 			if(rev != null){
 				_return.put(rev, config.getWeight());
@@ -149,23 +187,36 @@ public TObjectDoubleHashMap<Retriever> getRetrieversByCategory(String category){
 		return _return;
 	}
 
+	/**
+	 * Returns the {@link RetrieverConfig}s of the given category.
+	 *
+	 * @return List of {@link RetrieverConfig}s; empty if the category is unknown.
+	 */
+	public List<RetrieverConfig> getRetrieverConfigsByCategory(String category) {
+		List<RetrieverConfig> list = this.retrieverCategories.get(category);
+		if (list == null) {
+			return Collections.emptyList();
+		}
+		return Collections.unmodifiableList(list);
+	}
+
   public Optional<Retriever> getRetrieverByName(String retrieverName) {
+    Optional<RetrieverConfig> config = this.getRetrieverConfigByName(retrieverName);
+    if (config.isPresent()) {
+      return Optional.ofNullable(config.get().newInstance());
+    }
+    return Optional.empty();
+  }
+
+  /**
+   * Returns the first {@link RetrieverConfig} whose retriever class has the given simple name.
+   */
+  public Optional<RetrieverConfig> getRetrieverConfigByName(String retrieverName) {
     for (List<RetrieverConfig> configs : this.retrieverCategories
         .values()) {
       for (RetrieverConfig config : configs) {
         if (config.getRetrieverClass().getSimpleName().equals(retrieverName)) {
-
-            Retriever retriever;
-
-            if(config.getProperties() == null){
-                retriever = ReflectionHelper.instantiate(config.getRetrieverClass());
-            } else {
-                retriever = ReflectionHelper.instantiate(config.getRetrieverClass(), config.getProperties());
-            }
-
-          if (retriever != null) {
-            return Optional.of(retriever);
-          }
+          return Optional.of(config);
         }
       }
     }
@@ -50,4 +50,17 @@ public Map<String, String> getProperties() {
         return this.properties;
     }
 
+    /**
+     * Creates a new, uninitialized instance of the configured {@link Retriever}.
+     *
+     * @return New {@link Retriever} or null, if it could not be instantiated.
+     */
+    public Retriever newInstance() {
+        if (this.properties == null) {
+            return ReflectionHelper.instantiate(this.retrieverClass);
+        } else {
+            return ReflectionHelper.instantiate(this.retrieverClass, this.properties);
+        }
+    }
+
 }
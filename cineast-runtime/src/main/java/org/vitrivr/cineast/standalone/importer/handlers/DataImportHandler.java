@@ -52,7 +52,7 @@ protected static void cleanOnDemand(String entityName, String taskName){
             DatabaseSetupCommand setupCmd = new DatabaseSetupCommand();
             setupCmd.doSetup();
         } else {
-            cottontail.client.create(createEntity, null);
+            cottontail.client().create(createEntity, null);
             LOGGER.info("Re-created entity: {}", createEntity.getBuilder().getDefinition().getEntity().getName());
         }
     }
@@ -1,9 +1,11 @@
 package org.vitrivr.cineast.standalone.monitoring;
 
+import io.prometheus.client.Gauge;
 import io.prometheus.client.Summary;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.db.DBSelector;
+import org.vitrivr.cineast.core.db.cottontaildb.CottontailChannelPool;
 import org.vitrivr.cineast.standalone.config.Config;
 
 
@@ -11,6 +13,7 @@ public class DatabaseHealthMonitor {
 
   private static boolean initalized = false;
   private static Summary executionTime;
+  private static Gauge healthyChannels;
   private static final Logger LOGGER = LogManager.getLogger();
   private static volatile boolean running = false;
   private static DBSelector selector;
@@ -29,14 +32,18 @@ public static void init() {
     LOGGER.info("Initalizing Prometheus Extraction Task Monitor");
     executionTime = Summary.build().name("cineast_dbping")
         .help("Time until a ping is returned").quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    healthyChannels = Gauge.build().name("cineast_db_channels_healthy")
+        .help("Number of pooled database channels that are neither failing nor shut down").register();
     running = true;
     selector = Config.sharedConfig().getDatabase().getSelectorSupplier().get();
     monitorThread = new Thread(() -> {
       while (running) {
         long start = System.currentTimeMillis();
         boolean ping = selector.ping();
+        Config.sharedConfig().getDatabase().getCottontailChannelPool().ifPresent(pool -> healthyChannels.set(pool.healthyChannels()));
         try {
           if (!ping) {
+            Config.sharedConfig().getDatabase().getCottontailChannelPool().ifPresent(CottontailChannelPool::recover);
             LOGGER.trace("Connection issue, waiting for 1 minute");
             Thread.sleep(60_000);
           } else {
@@ -0,0 +1,66 @@
+package org.vitrivr.cineast.standalone.monitoring;
+
+import io.prometheus.client.Counter;
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.standalone.config.Config;
+
+/**
+ * Reports the throughput of the individual stages of the ingest, i.e. decoding of files, segmenting and handing segments over to the extraction pipeline.
+ */
+public class ExtractionStageMonitor {
+
+  public static final String STAGE_DECODE = "decode";
+  public static final String STAGE_SEGMENT = "segment";
+  public static final String STAGE_EMIT = "emit";
+  public static final String STAGE_EXTRACT = "extract";
+
+  private static boolean initalized = false;
+  private static Counter stageItems;
+  private static Summary stageTime;
+  private static Gauge stageQueue;
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static void init() {
+    if (initalized) {
+      LOGGER.info("Already initalized, Returning");
+      return;
+    }
+    if (!Config.sharedConfig().getMonitoring().enablePrometheus) {
+      LOGGER.warn("Prometheus not enabled, returning");
+      return;
+    }
+    LOGGER.info("Initalizing Prometheus Extraction Stage Monitor");
+    stageItems = Counter.build().name("cineast_extractionstage_items")
+        .help("Number of items processed by an ingest stage")
+        .labelNames("Stage").register();
+    stageTime = Summary.build().name("cineast_extractionstage_time")
+        .help("Time spent by an ingest stage on one item")
+        .labelNames("Stage").quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    stageQueue = Gauge.build().name("cineast_extractionstage_queue")
+        .help("Number of items waiting in front of an ingest stage")
+        .labelNames("Stage").register();
+    initalized = true;
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportItem(String stage, long milliseconds) {
+    if (stageItems != null && stageTime != null) {
+      stageItems.labels(stage).inc();
+      stageTime.labels(stage).observe(milliseconds);
+    }
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportQueueSize(String stage, int size) {
+    if (stageQueue != null) {
+      stageQueue.labels(stage).set(size);
+    }
+  }
+}
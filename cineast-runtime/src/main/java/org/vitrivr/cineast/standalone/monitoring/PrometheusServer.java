@@ -49,6 +49,9 @@ public static synchronized void initialize() {
     ImportTaskMonitor.init();
     DatabaseHealthMonitor.init();
     RetrievalTaskMonitor.init();
+    QueryCacheMonitor.init();
+    ExtractionStageMonitor.init();
+    WebsocketTaskMonitor.init();
     try {
       server.get().start();
     } catch (Exception e) {
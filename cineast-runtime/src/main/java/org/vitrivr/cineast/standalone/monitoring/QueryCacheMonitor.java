@@ -0,0 +1,58 @@
+package org.vitrivr.cineast.standalone.monitoring;
+
+import com.google.common.cache.CacheStats;
+import io.prometheus.client.Collector;
+import io.prometheus.client.CounterMetricFamily;
+import io.prometheus.client.GaugeMetricFamily;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.db.cache.QueryResultCache;
+import org.vitrivr.cineast.standalone.config.Config;
+
+/**
+ * Exposes the hit, miss and eviction counts of the {@link QueryResultCache} to Prometheus.
+ */
+public class QueryCacheMonitor extends Collector {
+
+  private static boolean initalized = false;
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final QueryResultCache cache;
+
+  private QueryCacheMonitor(QueryResultCache cache) {
+    this.cache = cache;
+  }
+
+  public static void init() {
+    if (initalized) {
+      LOGGER.info("Already initalized, Returning");
+      return;
+    }
+    if (!Config.sharedConfig().getMonitoring().enablePrometheus) {
+      LOGGER.warn("Prometheus not enabled, returning");
+      return;
+    }
+    final Optional<QueryResultCache> cache = Config.sharedConfig().getDatabase().getQueryResultCache();
+    if (!cache.isPresent()) {
+      LOGGER.info("Query cache not enabled, returning");
+      return;
+    }
+    LOGGER.info("Initalizing Prometheus Query Cache Monitor");
+    new QueryCacheMonitor(cache.get()).register();
+    initalized = true;
+  }
+
+  @Override
+  public List<MetricFamilySamples> collect() {
+    final CacheStats stats = this.cache.stats();
+    final List<MetricFamilySamples> samples = new ArrayList<>(4);
+    samples.add(new CounterMetricFamily("cineast_querycache_hits", "Number of query results served from the cache", stats.hitCount()));
+    samples.add(new CounterMetricFamily("cineast_querycache_misses", "Number of query results not found in the cache", stats.missCount()));
+    samples.add(new CounterMetricFamily("cineast_querycache_evictions", "Number of query results evicted from the cache", stats.evictionCount()));
+    samples.add(new GaugeMetricFamily("cineast_querycache_size", "Number of query results held by the cache", this.cache.size()));
+    return samples;
+  }
+}
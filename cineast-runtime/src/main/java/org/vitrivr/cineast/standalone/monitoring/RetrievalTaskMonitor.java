@@ -1,5 +1,6 @@
 package org.vitrivr.cineast.standalone.monitoring;
 
+import io.prometheus.client.Gauge;
 import io.prometheus.client.Summary;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
@@ -10,6 +11,8 @@ public class RetrievalTaskMonitor {
 
   private static boolean initalized = false;
   private static Summary executionTime;
+  private static Summary waitTime;
+  private static Gauge queueDepth;
   private static final Logger LOGGER = LogManager.getLogger();
 
   public static void init() {
@@ -25,6 +28,12 @@ public static void init() {
     executionTime = Summary.build().name("cineast_retrievaltask")
         .help("Time for one query item")
         .labelNames("Retriever").quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    waitTime = Summary.build().name("cineast_retrievaltask_wait")
+        .help("Time a retrieval task waits in the queue before it is started")
+        .quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    queueDepth = Gauge.build().name("cineast_retrievaltask_queue")
+        .help("Number of queued retrieval tasks").register();
+    initalized = true;
   }
 
   /**
@@ -36,4 +45,22 @@ public static void reportExecutionTime(String name, long miliseconds) {
     }
   }
 
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportWaitTime(long miliseconds) {
+    if (waitTime != null) {
+      waitTime.observe(miliseconds);
+    }
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportQueueDepth(int depth) {
+    if (queueDepth != null) {
+      queueDepth.set(depth);
+    }
+  }
+
 }
@@ -0,0 +1,69 @@
+package org.vitrivr.cineast.standalone.monitoring;
+
+import io.prometheus.client.Gauge;
+import io.prometheus.client.Summary;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.standalone.config.Config;
+
+/**
+ * Reports the load of the executor that loads metadata and streams results to WebSocket sessions.
+ */
+public class WebsocketTaskMonitor {
+
+  private static boolean initalized = false;
+  private static Gauge runningTasks;
+  private static Gauge queuedTasks;
+  private static Summary taskTime;
+  private static Summary writeWait;
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  public static void init() {
+    if (initalized) {
+      LOGGER.info("Already initalized, Returning");
+      return;
+    }
+    if (!Config.sharedConfig().getMonitoring().enablePrometheus) {
+      LOGGER.warn("Prometheus not enabled, returning");
+      return;
+    }
+    LOGGER.info("Initalizing Prometheus WebSocket Task Monitor");
+    runningTasks = Gauge.build().name("cineast_websocket_tasks_running")
+        .help("Number of WebSocket tasks currently running").register();
+    queuedTasks = Gauge.build().name("cineast_websocket_tasks_queued")
+        .help("Number of WebSocket tasks waiting for a worker or for their session's turn").register();
+    taskTime = Summary.build().name("cineast_websocket_task_time")
+        .help("Time spent executing a WebSocket task").quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    writeWait = Summary.build().name("cineast_websocket_write_wait")
+        .help("Time a message waited until its session accepted further writes").quantile(0.5, 0.05).quantile(0.9, 0.01).register();
+    initalized = true;
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportTasks(int running, int queued) {
+    if (runningTasks != null && queuedTasks != null) {
+      runningTasks.set(running);
+      queuedTasks.set(queued);
+    }
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportTaskTime(long milliseconds) {
+    if (taskTime != null) {
+      taskTime.observe(milliseconds);
+    }
+  }
+
+  /**
+   * You can call this method without worrying if prometheus support is enabled
+   */
+  public static void reportWriteWait(long milliseconds) {
+    if (writeWait != null) {
+      writeWait.observe(milliseconds);
+    }
+  }
+}
@@ -8,9 +8,16 @@
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
@@ -20,6 +27,7 @@
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.config.IdConfig;
+import org.vitrivr.cineast.core.data.LimitedQueue;
 import org.vitrivr.cineast.core.data.MediaType;
 import org.vitrivr.cineast.core.data.entities.MediaObjectDescriptor;
 import org.vitrivr.cineast.core.data.entities.MediaObjectMetadataDescriptor;
@@ -54,7 +62,9 @@
 import org.vitrivr.cineast.core.util.MimeTypeHelper;
 import org.vitrivr.cineast.core.util.ReflectionHelper;
 import org.vitrivr.cineast.standalone.config.Config;
+import org.vitrivr.cineast.standalone.config.ExtractionPipelineConfig;
 import org.vitrivr.cineast.standalone.config.IngestConfig;
+import org.vitrivr.cineast.standalone.monitoring.ExtractionStageMonitor;
 import org.vitrivr.cineast.standalone.runtime.ExtractionPipeline;
 
 /**
@@ -77,7 +87,10 @@ public class GenericExtractionItemHandler implements Runnable, ExtractionItemPro
   private final ExtractionContainerProvider pathProvider;
   private final MediaType mediaType;
 
-  private final ExecutorService executorService = Executors.newFixedThreadPool(2, r -> {
+  /**
+   * Runs the {@link ExtractionPipeline} and one {@link Segmenter} per active decoder thread.
+   */
+  private final ExecutorService executorService = Executors.newCachedThreadPool(r -> {
     Thread thread = new Thread(r);
     if (r instanceof ExtractionPipeline) {
       thread.setName("extraction-pipeline-thread");
@@ -87,11 +100,31 @@ public class GenericExtractionItemHandler implements Runnable, ExtractionItemPro
     return thread;
   });
 
+  /**
+   * Decodes and segments several items concurrently. Its queue is bounded, so that handing new items to it blocks while all decoders are busy.
+   */
+  private final ThreadPoolExecutor decoderService;
+
+  /**
+   * Idle {@link Decoder}s that can be reused, by {@link MediaType}.
+   */
+  private final Map<MediaType, Queue<Decoder>> decoderPool = new ConcurrentHashMap<>();
+
+  /**
+   * Guards the readers, writers and metadata extractors, which are shared by all decoder threads.
+   */
+  private final Object persistenceLock = new Object();
+
+  /**
+   * The {@link ObjectIdGenerator} used for all items of this run. Only accessed while holding the {@link #persistenceLock}.
+   */
+  private ObjectIdGenerator generator;
+
   private final List<MetadataExtractor> metadataExtractors;
   private final List<ExtractionCompleteListener> completeListeners = new ArrayList<>();
 
   private final ExtractionPipeline pipeline;
-  private long count_processed = 0;
+  private final AtomicLong count_processed = new AtomicLong();
 
   private Map<MediaType, Pair<Supplier<Decoder>, Supplier<Segmenter>>> handlers = new HashMap<>();
 
@@ -120,6 +153,15 @@ public GenericExtractionItemHandler(ExtractionContainerProvider pathProvider, In
     this.pipeline = new ExtractionPipeline(context);
     this.metadataExtractors = context.metadataExtractors();
 
+    final int decoderThreads = context.decoderThreadPoolSize() > 0 ? context.decoderThreadPoolSize() : ExtractionPipelineConfig.DEFAULT_DECODER_THREADPOOL_SIZE;
+    final int decoderQueueSize = context.decoderQueueSize() > 0 ? context.decoderQueueSize() : ExtractionPipelineConfig.DEFAULT_DECODERQUEUE_SIZE;
+    final AtomicInteger decoderThreadCount = new AtomicInteger();
+    this.decoderService = new ThreadPoolExecutor(decoderThreads, decoderThreads, 60, TimeUnit.SECONDS, new LimitedQueue<>(decoderQueueSize), r -> {
+      Thread thread = new Thread(r);
+      thread.setName("extraction-decoder-thread-" + decoderThreadCount.getAndIncrement());
+      return thread;
+    });
+
     //Reasonable Defaults
     handlers.put(MediaType.IMAGE, new ImmutablePair<>(DefaultImageDecoder::new, () -> new ImageSegmenter(context)));
     handlers.put(MediaType.IMAGE_SEQUENCE, new ImmutablePair<>(ImageSequenceDecoder::new, () -> new ImageSequenceSegmenter(context)));
@@ -142,13 +184,12 @@ protected SegmentContainer getSegmentFromContent(Mesh content) {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
   public void run() {
     LOGGER.info("Starting extraction");
 
     this.executorService.execute(pipeline);
 
-    final ObjectIdGenerator generator = this.context.objectIdGenerator();
+    this.generator = this.context.objectIdGenerator();
     Pair<ExtractionItemContainer, MediaType> pair = null;
 
     /* Initalize all Metadata Extractors */
@@ -161,60 +202,66 @@ public void run() {
       }
     }
 
-    /* Process until there's nothing left*/
+    /* Hand items to the decoders until there's nothing left; blocks while the decoder queue is full. */
     while ((pair = this.nextItem()) != null) {
+      if (this.handlers.get(pair.getRight()) == null) {
+        LOGGER.error("Unknown mediatype {}, exiting extraction", pair.getRight());
+        break;
+      }
+      final Pair<ExtractionItemContainer, MediaType> item = pair;
       try {
-        LOGGER.debug("Processing path {} and mediatype {}", pair.getLeft(), pair.getRight());
-
-        if (handlerCache.get(pair.getRight()) == null) {
-          LOGGER.error("Unknown mediatype {}, exiting extraction", pair.getRight());
-          break;
-        }
-
-        /* Clear non-reusable segmenter */
-        handlerCache.compute(pair.getRight(), (mediaType, cache) -> {
-          Decoder decoder = null;
-          if (cache.getLeft() != null) {
-            if (cache.getLeft().canBeReused()) {
-              decoder = cache.getLeft();
-            }
-          }
-          return ImmutablePair.of(decoder, null);
-        });
+        this.decoderService.execute(() -> this.process(item));
+        ExtractionStageMonitor.reportQueueSize(ExtractionStageMonitor.STAGE_DECODE, this.decoderService.getQueue().size());
+      } catch (RejectedExecutionException e) {
+        LOGGER.error("Failed to hand path {} to the decoders. Aborting...", item.getLeft());
+        break;
+      }
+    }
+    shutdown();
+  }
 
-        /* Put a new decoder in the cache if there's not one already there */
-        if (handlerCache.get(pair.getRight()).getLeft() == null) {
-          Decoder decoder = handlers.get(pair.getRight()).getLeft().get();
-          handlerCache.compute(pair.getRight(), (mediaType, cache) -> new ImmutablePair<>(decoder, cache.getRight()));
-        }
-        /* Put a new segmenter in the cache if there's not one already there */
-        if (handlerCache.get(pair.getRight()).getRight() == null) {
-          Segmenter segmenter = handlers.get(pair.getRight()).getRight().get();
-          handlerCache.compute(pair.getRight(), (mediaType, cache) -> new ImmutablePair<>(cache.getLeft(), segmenter));
-        }
+  /**
+   * Decodes and segments a single item and emits its segments into the {@link ExtractionPipeline}. Invoked concurrently by the decoder threads; all access to the readers, writers and metadata extractors is serialized.
+   *
+   * @param pair The {@link ExtractionItemContainer} and its {@link MediaType}.
+   */
+  @SuppressWarnings("unchecked")
+  private void process(Pair<ExtractionItemContainer, MediaType> pair) {
+    final MediaType type = pair.getRight();
+    Decoder decoder = null;
+    try {
+      LOGGER.debug("Processing path {} and mediatype {}", pair.getLeft(), type);
 
-        Decoder decoder = handlerCache.get(pair.getRight()).getLeft();
-        Segmenter segmenter = handlers.get(pair.getRight()).getRight().get();
+      decoder = this.borrowDecoder(type);
+      final Segmenter segmenter = this.handlers.get(type).getRight().get();
 
-        if (decoder.init(pair.getLeft().getPathForExtraction(), Config.sharedConfig().getDecoders().get(pair.getRight()), Config.sharedConfig().getCache())) {
-          /* Create / lookup MediaObjectDescriptor for new file. */
-          final MediaObjectDescriptor descriptor = this
-              .fetchOrCreateMultimediaObjectDescriptor(generator, pair.getLeft(), pair.getRight());
+      final long decodeStart = System.currentTimeMillis();
+      if (decoder.init(pair.getLeft().getPathForExtraction(), Config.sharedConfig().getDecoders().get(type), Config.sharedConfig().getCache())) {
+        /* Create / lookup MediaObjectDescriptor for new file. */
+        final MediaObjectDescriptor descriptor;
+        synchronized (this.persistenceLock) {
+          descriptor = this.fetchOrCreateMultimediaObjectDescriptor(this.generator, pair.getLeft(), type);
           if (!this.checkAndPersistMultimediaObject(descriptor)) {
-            continue;
+            return;
           }
+        }
+        ExtractionStageMonitor.reportItem(ExtractionStageMonitor.STAGE_DECODE, System.currentTimeMillis() - decodeStart);
+
+        final String objectId = descriptor.getObjectId();
+        int segmentNumber = 1;
 
-          final String objectId = descriptor.getObjectId();
-          int segmentNumber = 1;
+        segmenter.init(decoder, descriptor);
+        this.executorService.execute(segmenter);
 
-          segmenter.init(decoder, descriptor);
-          this.executorService.execute(segmenter);
+        while (!segmenter.complete()) {
+          try {
+            final long segmentStart = System.currentTimeMillis();
+            final SegmentContainer container = segmenter.getNext();
+            if (container != null) {
+              ExtractionStageMonitor.reportItem(ExtractionStageMonitor.STAGE_SEGMENT, System.currentTimeMillis() - segmentStart);
 
-          while (!segmenter.complete()) {
-            try {
-              final SegmentContainer container = segmenter.getNext();
-              if (container != null) {
-                /* Create segment-descriptor and try to persist it. */
+              /* Create segment-descriptor and try to persist it. */
+              synchronized (this.persistenceLock) {
                 MediaSegmentDescriptor mediaSegmentDescriptor;
                 if (container.getId() != null) {
                   mediaSegmentDescriptor = this.fetchOrCreateSegmentDescriptor(objectId, container.getId(), segmentNumber, container.getStart(), container.getEnd(), container.getAbsoluteStart(), container.getAbsoluteEnd()); /* Special case; segment ID is determined by container (image sequences only) */
@@ -226,25 +273,29 @@ public void run() {
                 if (!this.checkAndPersistSegment(mediaSegmentDescriptor)) {
                   continue;
                 }
+              }
 
-                int emissionTimeout = 1000;
-
-                while (!this.pipeline.emit(container, emissionTimeout)) {
-                  LOGGER.debug(
-                      "ExtractionPipeline is full - deferring emission of segment. Consider increasing the thread-pool count for the extraction pipeline.");
-                  Thread.sleep(emissionTimeout);
-                  //emissionTimeout += 500;
-                }
+              int emissionTimeout = 1000;
 
-                segmentNumber += 1;
+              final long emitStart = System.currentTimeMillis();
+              while (!this.pipeline.emit(container, emissionTimeout)) {
+                LOGGER.debug(
+                    "ExtractionPipeline is full - deferring emission of segment. Consider increasing the thread-pool count for the extraction pipeline.");
+                Thread.sleep(emissionTimeout);
+                //emissionTimeout += 500;
               }
-            } catch (InterruptedException e) {
-              LOGGER.log(Level.ERROR,
-                  "Thread was interrupted while the extraction process was running. Aborting...");
-              break;
+              ExtractionStageMonitor.reportItem(ExtractionStageMonitor.STAGE_EMIT, System.currentTimeMillis() - emitStart);
+
+              segmentNumber += 1;
             }
+          } catch (InterruptedException e) {
+            LOGGER.log(Level.ERROR,
+                "Thread was interrupted while the extraction process was running. Aborting...");
+            break;
           }
+        }
 
+        synchronized (this.persistenceLock) {
           List<MediaObjectMetadataDescriptor> metadata = pair.getLeft().getMetadata().stream()
               .map(el -> MediaObjectMetadataDescriptor.fromExisting(el, objectId))
               .collect(Collectors.toList());
@@ -257,38 +308,53 @@ public void run() {
           this.mediaSegmentWriter.flush();
           this.objectWriter.flush();
           this.metadataWriter.flush();
-        } else {
-          LOGGER.error("Failed to initialize decoder. File is being skipped...");
         }
+      } else {
+        LOGGER.error("Failed to initialize decoder. File is being skipped...");
+      }
 
+      /* Increment the files counter. */
+      final long processed = this.count_processed.incrementAndGet();
 
-        /* Increment the files counter. */
-        this.count_processed += 1;
-
-        /*  Create new decoder pair for a new file if the decoder reports that it cannot be reused.*/
-        if (!decoder.canBeReused()) {
-          decoder.close();
-          final MediaType type = pair.getRight();
-          handlerCache.compute(type, (mediaType, cache) -> ImmutablePair.of(handlers.get(type).getLeft().get(), cache.getRight()));
-        }
-        //We assume segmenters are reusable
-
+      synchronized (this.completeListeners) {
         for (ExtractionCompleteListener completeListener : this.completeListeners) {
           completeListener.onCompleted(pair.getLeft());
         }
+      }
 
-        /*
-         * Trigger garbage collection once in a while. This is specially relevant when many small files are processed, since unused allocated memory could accumulate and trigger swapping.
-         */
-        if (this.count_processed % 50 == 0) {
-          System.gc();
-        }
-      } catch (Throwable t) {
-        LOGGER.error("Exception while processing path {}, {}", pair.getLeft(), t.getMessage());
-        t.printStackTrace();
+      /*
+       * Trigger garbage collection once in a while. This is specially relevant when many small files are processed, since unused allocated memory could accumulate and trigger swapping.
+       */
+      if (processed % 50 == 0) {
+        System.gc();
+      }
+    } catch (Throwable t) {
+      LOGGER.error("Exception while processing path {}, {}", pair.getLeft(), t.getMessage());
+      t.printStackTrace();
+    } finally {
+      if (decoder != null) {
+        this.releaseDecoder(type, decoder);
       }
     }
-    shutdown();
+  }
+
+  /**
+   * Takes an idle {@link Decoder} for the given {@link MediaType} from the pool or creates a new one if there is none.
+   */
+  private Decoder borrowDecoder(MediaType type) {
+    final Decoder decoder = this.decoderPool.computeIfAbsent(type, t -> new ConcurrentLinkedQueue<>()).poll();
+    return decoder != null ? decoder : this.handlers.get(type).getLeft().get();
+  }
+
+  /**
+   * Returns a {@link Decoder} to the pool, or closes it if the decoder reports that it cannot be reused.
+   */
+  private void releaseDecoder(MediaType type, Decoder decoder) {
+    if (decoder.canBeReused()) {
+      this.decoderPool.get(type).offer(decoder);
+    } else {
+      decoder.close();
+    }
   }
 
   /**
@@ -296,7 +362,11 @@ public void run() {
    */
   private void shutdown() {
     try {
-      Thread.sleep(5000);
+      LOGGER.info("All items handed to the decoders! Waiting for decoding and segmenting to complete...");
+      this.decoderService.shutdown();
+      while (!this.decoderService.awaitTermination(1, TimeUnit.MINUTES)) {
+        LOGGER.debug("Still decoding, {} items pending.", this.decoderService.getQueue().size());
+      }
 
       LOGGER.info("File decoding and segmenting complete! Shutting down...");
       this.executorService.shutdown();
@@ -320,6 +390,7 @@ private void shutdown() {
       this.metadataWriter.close();
       this.objectReader.close();
       this.segmentReader.close();
+      this.decoderPool.values().forEach(pool -> pool.forEach(Decoder::close));
       this.handlerCache.values().forEach(el -> {
         if (el.getLeft() != null) {
           el.getLeft().close();
@@ -6,11 +6,11 @@
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.config.ReadableQueryConfig;
-import org.vitrivr.cineast.core.data.LimitedQueue;
 import org.vitrivr.cineast.core.data.Pair;
 import org.vitrivr.cineast.core.data.query.containers.AbstractQueryTermContainer;
 import org.vitrivr.cineast.core.data.score.BooleanSegmentScoreElement;
 import org.vitrivr.cineast.core.data.score.ObjectScoreElement;
+import org.vitrivr.cineast.core.data.score.ScoreAccumulator;
 import org.vitrivr.cineast.core.data.score.ScoreElement;
 import org.vitrivr.cineast.core.data.score.SegmentScoreElement;
 import org.vitrivr.cineast.core.db.dao.reader.MediaSegmentReader;
@@ -24,6 +24,8 @@
 
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
 import java.util.function.Function;
 
 public class ContinuousQueryDispatcher {
@@ -34,27 +36,55 @@ public class ContinuousQueryDispatcher {
       .getTaskQueueSize();
   private static final int THREAD_COUNT = Config.sharedConfig().getRetriever().getThreadPoolSize();
   private static final int MAX_RESULTS = Config.sharedConfig().getRetriever().getMaxResults();
-  private static final int KEEP_ALIVE_TIME = 60;
+  private static final long QUERY_TIMEOUT = Config.sharedConfig().getRetriever().getQueryTimeout();
+  private static final int MAX_TASKS_PER_QUERY = Config.sharedConfig().getRetriever().getMaxTasksPerQuery();
 
   private static final List<RetrievalResultListener> resultListeners = new ArrayList<>();
 
-  private static final LimitedQueue<Runnable> taskQueue = new LimitedQueue<>(TASK_QUEUE_SIZE);
-  private static ExecutorService executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT,
-      KEEP_ALIVE_TIME, TimeUnit.SECONDS, taskQueue);
+  private static RetrievalScheduler scheduler = new RetrievalScheduler(THREAD_COUNT, MAX_TASKS_PER_QUERY, TASK_QUEUE_SIZE);
 
   private final Function<Retriever, RetrievalTask> taskFactory;
   private final RetrieverInitializer initializer;
+  private final Consumer<Retriever> release;
+  private final Consumer<List<SegmentScoreElement>> progress;
   private final TObjectDoubleMap<Retriever> retrieverWeights;
   private final MediaSegmentReader mediaSegmentReader;
   private final double retrieverWeightSum;
+  private final Map<CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>, AtomicBoolean> startedFlags = new HashMap<>();
 
   public static List<SegmentScoreElement> retrieve(AbstractQueryTermContainer query,
       TObjectDoubleHashMap<Retriever> retrievers,
       RetrieverInitializer initializer,
       ReadableQueryConfig config,
       MediaSegmentReader mediaSegmentReader) {
+    return retrieve(query, retrievers, initializer, Retriever::finish, config, mediaSegmentReader);
+  }
+
+  /**
+   * @param release Invoked for every retriever once it is no longer used by this query, e.g., to finish it or to hand it back to a {@link RetrieverPool}.
+   */
+  public static List<SegmentScoreElement> retrieve(AbstractQueryTermContainer query,
+      TObjectDoubleHashMap<Retriever> retrievers,
+      RetrieverInitializer initializer,
+      Consumer<Retriever> release,
+      ReadableQueryConfig config,
+      MediaSegmentReader mediaSegmentReader) {
+    return retrieve(query, retrievers, initializer, release, null, config, mediaSegmentReader);
+  }
+
+  /**
+   * @param release  Invoked for every retriever once it is no longer used by this query, e.g., to finish it or to hand it back to a {@link RetrieverPool}.
+   * @param progress If not null, invoked with a provisional top-k of the fused segment scores whenever a retriever completes while others are still running. Provisional results do not include object scores. May be null.
+   */
+  public static List<SegmentScoreElement> retrieve(AbstractQueryTermContainer query,
+      TObjectDoubleHashMap<Retriever> retrievers,
+      RetrieverInitializer initializer,
+      Consumer<Retriever> release,
+      Consumer<List<SegmentScoreElement>> progress,
+      ReadableQueryConfig config,
+      MediaSegmentReader mediaSegmentReader) {
     return new ContinuousQueryDispatcher(r -> new RetrievalTask(r, query, config), retrievers,
-        initializer, mediaSegmentReader).doRetrieve();
+        initializer, release, progress, mediaSegmentReader).doRetrieve();
   }
 
   public static List<SegmentScoreElement> retrieve(String segmentId,
@@ -62,8 +92,20 @@ public static List<SegmentScoreElement> retrieve(String segmentId,
       RetrieverInitializer initializer,
       ReadableQueryConfig config,
       MediaSegmentReader mediaSegmentReader) {
+    return retrieve(segmentId, retrievers, initializer, Retriever::finish, config, mediaSegmentReader);
+  }
+
+  /**
+   * @param release Invoked for every retriever once it is no longer used by this query, e.g., to finish it or to hand it back to a {@link RetrieverPool}.
+   */
+  public static List<SegmentScoreElement> retrieve(String segmentId,
+      TObjectDoubleHashMap<Retriever> retrievers,
+      RetrieverInitializer initializer,
+      Consumer<Retriever> release,
+      ReadableQueryConfig config,
+      MediaSegmentReader mediaSegmentReader) {
     return new ContinuousQueryDispatcher(r -> new RetrievalTask(r, segmentId, config), retrievers,
-        initializer, mediaSegmentReader).doRetrieve();
+        initializer, release, null, mediaSegmentReader).doRetrieve();
   }
 
   public static void shutdown() {
@@ -84,9 +126,11 @@ public static void removeRetrievalResultListener(RetrievalResultListener listene
 
   private ContinuousQueryDispatcher(Function<Retriever, RetrievalTask> taskFactory,
       TObjectDoubleMap<Retriever> retrieverWeights,
-      RetrieverInitializer initializer, MediaSegmentReader mediaSegmentReader) {
+      RetrieverInitializer initializer, Consumer<Retriever> release, Consumer<List<SegmentScoreElement>> progress, MediaSegmentReader mediaSegmentReader) {
     this.taskFactory = taskFactory;
     this.initializer = initializer;
+    this.release = release;
+    this.progress = progress;
     this.retrieverWeights = retrieverWeights;
     this.mediaSegmentReader = mediaSegmentReader;
 
@@ -102,88 +146,128 @@ private ContinuousQueryDispatcher(Function<Retriever, RetrievalTask> taskFactory
 
   private List<SegmentScoreElement> doRetrieve() {
     LOGGER.trace("Initializing executor with retrievers {}", retrieverWeights);
-    initExecutor();
+    RetrievalScheduler.Session session = initExecutor().newSession();
     LOGGER.trace("Starting tasks with retrievers {}", retrieverWeights);
-    List<Future<Pair<RetrievalTask, List<ScoreElement>>>> futures = this.startTasks();
+    BlockingQueue<CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> completed = new LinkedBlockingQueue<>();
+    Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> pending = this.startTasks(session, completed);
     LOGGER.trace("Extracting results with retrievers {}", retrieverWeights);
-    List<SegmentScoreElement> segmentScores = this.extractResults(futures, this.mediaSegmentReader);
+    List<SegmentScoreElement> segmentScores = this.extractResults(pending, completed, this.mediaSegmentReader);
     LOGGER.trace("Retrieved {} results, finishing", segmentScores.size());
-    this.finish();
+    this.finish(pending);
     return segmentScores;
   }
 
-  private static void initExecutor() { //FIXME this should be somewhere else
-    if (executor.isShutdown()) {
+  private static synchronized RetrievalScheduler initExecutor() { //FIXME this should be somewhere else
+    if (scheduler != null && scheduler.isShutdown()) {
       clearExecutor();
     }
-    if (executor == null) {
-      executor = new ThreadPoolExecutor(THREAD_COUNT, THREAD_COUNT, KEEP_ALIVE_TIME,
-          TimeUnit.SECONDS, taskQueue);
+    if (scheduler == null) {
+      scheduler = new RetrievalScheduler(THREAD_COUNT, MAX_TASKS_PER_QUERY, TASK_QUEUE_SIZE);
     }
+    return scheduler;
   }
 
-  private static void clearExecutor() {
-    taskQueue.clear();
-    if (executor != null) {
-      executor.shutdown();
-      try {
-        executor.awaitTermination(10, TimeUnit.SECONDS);
-      } catch (InterruptedException e) {
-        e.printStackTrace();
-      }
-      List<Runnable> runnables = executor.shutdownNow();
-      if(runnables.size()>0){
-        LOGGER.warn("{} threads terminated prematurely", runnables.size());
-      }
-      executor = null;
+  private static synchronized void clearExecutor() {
+    if (scheduler != null) {
+      scheduler.shutdown();
+      scheduler = null;
     }
   }
 
-  private List<Future<Pair<RetrievalTask, List<ScoreElement>>>> startTasks() {
-    List<Future<Pair<RetrievalTask, List<ScoreElement>>>> futures = new LinkedList<>();
+  /**
+   * Submits one {@link RetrievalTask} per retriever with a positive weight. Every task adds its future to the provided queue as soon as it completes.
+   *
+   * @param session   The {@link RetrievalScheduler.Session} of this query the tasks are submitted to.
+   * @param completed Queue that receives the futures of completed tasks.
+   * @return Map of all submitted futures by retriever.
+   */
+  private Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> startTasks(RetrievalScheduler.Session session, BlockingQueue<CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> completed) {
+    Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> futures = new HashMap<>();
     this.retrieverWeights.forEachEntry((r, weight) -> {
       if (weight > 0) {
         this.initializer.initialize(r);
         RetrievalTask task = taskFactory.apply(r);
-        futures.add(executor.submit(task));
+        AtomicBoolean started = new AtomicBoolean(false);
+        CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>> future = CompletableFuture.supplyAsync(() -> {
+          if (!started.compareAndSet(false, true)) {
+            throw new CancellationException();
+          }
+          try {
+            return task.call();
+          } catch (Exception e) {
+            throw new CompletionException(e);
+          }
+        }, session);
+        future.whenComplete((result, e) -> completed.add(future));
+        futures.put(r, future);
+        this.startedFlags.put(future, started);
       }
       return true;
     });
     return futures;
   }
 
-  private List<SegmentScoreElement> extractResults(List<Future<Pair<RetrievalTask, List<ScoreElement>>>> futures, MediaSegmentReader mediaSegmentReader) {
+  /**
+   * Fuses the results of the submitted tasks in the order they complete. If a query timeout is configured and not all tasks complete in time, the results fused so far are returned and the remaining tasks are left in the map of pending tasks.
+   *
+   * @param pending   Map of pending tasks by retriever; completed tasks are removed.
+   * @param completed Queue that receives the futures of completed tasks.
+   */
+  private List<SegmentScoreElement> extractResults(Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> pending, BlockingQueue<CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> completed, MediaSegmentReader mediaSegmentReader) {
     TObjectDoubleMap<String> scoreByObjectId = new TObjectDoubleHashMap<>();
-    TObjectDoubleMap<String> scoreBySegmentId = new TObjectDoubleHashMap<>();
-    while (!futures.isEmpty()) {
-      Iterator<Future<Pair<RetrievalTask, List<ScoreElement>>>> iterator = futures.iterator();
-      while (iterator.hasNext()) {
-        Future<Pair<RetrievalTask, List<ScoreElement>>> future = iterator.next();
-        if (!future.isDone()) {
-          continue;
-        }
-
-        try {
-          Pair<RetrievalTask, List<ScoreElement>> pair = future.get();
-          this.addRetrievalResult(scoreByObjectId, scoreBySegmentId, pair.first, pair.second);
-        } catch (InterruptedException | ExecutionException e) {
-          LOGGER.warn(LogHelper.getStackTrace(e));
+    ScoreAccumulator scoreBySegmentId = new ScoreAccumulator();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(QUERY_TIMEOUT);
+    while (!pending.isEmpty()) {
+      CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>> future;
+      try {
+        if (QUERY_TIMEOUT > 0) {
+          future = completed.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } else {
+          future = completed.take();
         }
-        iterator.remove();
+      } catch (InterruptedException e) {
+        LOGGER.warn("Interrupted while waiting for {} retrieval tasks; returning partial results.", pending.size());
+        Thread.currentThread().interrupt();
+        break;
+      }
+      if (future == null) {
+        LOGGER.warn("Retrievers {} did not complete within {} ms; returning partial results.", pending.keySet(), QUERY_TIMEOUT);
+        this.cancelQueued(pending);
+        break;
       }
+      pending.values().remove(future);
+
       try {
-        Thread.sleep(10);
-      } catch (InterruptedException e) {
-        // Ignore
+        Pair<RetrievalTask, List<ScoreElement>> pair = future.join();
+        this.addRetrievalResult(scoreByObjectId, scoreBySegmentId, pair.first, pair.second);
+      } catch (CompletionException | CancellationException e) {
+        LOGGER.warn(LogHelper.getStackTrace(e));
+      }
+      if (this.progress != null && !pending.isEmpty()) {
+        this.reportProgress(scoreBySegmentId);
       }
     }
 
     ScoreFusion.fuseObjectsIntoSegments(scoreBySegmentId, scoreByObjectId, mediaSegmentReader);
-    return this.normalizeSortTruncate(scoreBySegmentId);
+    return this.normalizeTopK(scoreBySegmentId);
+  }
+
+  /**
+   * Cancels the tasks among the pending ones that have not been started yet, so that they do not occupy a worker after their results are no longer needed.
+   */
+  private void cancelQueued(Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> pending) {
+    Iterator<CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> iterator = pending.values().iterator();
+    while (iterator.hasNext()) {
+      CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>> future = iterator.next();
+      if (this.startedFlags.get(future).compareAndSet(false, true)) {
+        future.cancel(false);
+        iterator.remove();
+      }
+    }
   }
 
   private void addRetrievalResult(TObjectDoubleMap<String> scoreByObjectId,
-      TObjectDoubleMap<String> scoreBySegmentId, RetrievalTask task,
+      ScoreAccumulator scoreBySegmentId, RetrievalTask task,
       List<ScoreElement> scoreElements) {
     if (scoreElements == null) {
       LOGGER.warn("Retrieval task {} returned 'null' results.", task);
@@ -196,56 +280,59 @@ private void addRetrievalResult(TObjectDoubleMap<String> scoreByObjectId,
 
     double retrieverWeight = this.retrieverWeights.get(task.getRetriever());
     for (ScoreElement element : scoreElements) {
-      TObjectDoubleMap<String> scoreById;
-      if (element instanceof ObjectScoreElement) {
-        scoreById = scoreByObjectId;
-      } else if (element instanceof SegmentScoreElement) {
-        scoreById = scoreBySegmentId;
-      } else if (element instanceof BooleanSegmentScoreElement) {
-        scoreById = scoreBySegmentId; //TODO: Cleanup?
-      } else {
+      if (!(element instanceof ObjectScoreElement || element instanceof SegmentScoreElement || element instanceof BooleanSegmentScoreElement)) {
         LOGGER.error(
             "Unknown subclass {} of ScoreElement in ContinuousQueryDispatcher.addRetrievalResult.",
             element.getClass().getSimpleName());
         continue;
       }
-      this.addScoreElement(scoreById, element, retrieverWeight);
+      double score = element.getScore();
+      if (score < 0 || score > 1) {
+        LOGGER.warn("Score of retrieval task should be between [0,1], but was: {}, ignoring {}...",
+            score, element);
+        continue;
+      }
+      double weightedScore = score * retrieverWeight;
+      if (element instanceof ObjectScoreElement) {
+        scoreByObjectId.adjustOrPutValue(element.getId(), weightedScore, weightedScore);
+      } else {
+        scoreBySegmentId.add(element.getId(), weightedScore);
+      }
     }
   }
 
-  private void addScoreElement(TObjectDoubleMap<String> scoreById, ScoreElement next,
-      double weight) {
-    String id = next.getId();
-    double score = next.getScore();
-    if (score < 0 || score > 1) {
-      LOGGER.warn("Score of retrieval task should be between [0,1], but was: {}, ignoring {}...",
-          score, next);
-      return;
-    }
-
-    double weightedScore = score * weight;
-    scoreById.adjustOrPutValue(id, weightedScore, weightedScore);
+  /**
+   * Selects the {@link #MAX_RESULTS} best segments and normalizes their scores by the sum of the retriever weights. Since normalization preserves the order, only the selected segments are materialized.
+   */
+  private List<SegmentScoreElement> normalizeTopK(ScoreAccumulator scoreBySegmentId) {
+    return scoreBySegmentId.topK(MAX_RESULTS, Double.NEGATIVE_INFINITY,
+        (segmentId, score) -> new SegmentScoreElement(segmentId, MathHelper.limit(score / this.retrieverWeightSum, 0d, 1d)));
   }
 
-  private List<SegmentScoreElement> normalizeSortTruncate(
-      TObjectDoubleMap<String> scoreBySegmentId) {
-    List<SegmentScoreElement> results = new ArrayList<>(scoreBySegmentId.size());
-    scoreBySegmentId.forEachEntry((segmentId, score) -> {
-      results.add(new SegmentScoreElement(segmentId, MathHelper.limit(score / this.retrieverWeightSum, 0d, 1d)));
-      return true;
-    });
-
-    results.sort(ScoreElement.SCORE_COMPARATOR.reversed());
-    if (results.size() > MAX_RESULTS) {
-      return results.subList(0, MAX_RESULTS);
-    } else {
-      return results;
+  /**
+   * Hands a provisional top-k of the segment scores accumulated so far to the progress listener.
+   */
+  private void reportProgress(ScoreAccumulator scoreBySegmentId) {
+    try {
+      this.progress.accept(this.normalizeTopK(scoreBySegmentId));
+    } catch (Exception e) {
+      LOGGER.warn("Failed to report provisional results: {}", LogHelper.getStackTrace(e));
     }
   }
 
-  private void finish() {
+  /**
+   * Releases all retrievers. Retrievers whose task is still running are released once that task completes.
+   *
+   * @param pending Map of tasks that did not complete in time by retriever.
+   */
+  private void finish(Map<Retriever, CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>>> pending) {
     for (Retriever r : this.retrieverWeights.keySet()) {
-      r.finish();
+      CompletableFuture<Pair<RetrievalTask, List<ScoreElement>>> future = pending.get(r);
+      if (future == null) {
+        this.release.accept(r);
+      } else {
+        future.whenComplete((result, e) -> this.release.accept(r));
+      }
     }
   }
 }
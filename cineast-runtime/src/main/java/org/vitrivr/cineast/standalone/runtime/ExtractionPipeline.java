@@ -9,11 +9,14 @@
 import org.vitrivr.cineast.core.features.extractor.Extractor;
 import org.vitrivr.cineast.core.util.LogHelper;
 import org.vitrivr.cineast.standalone.config.ExtractionPipelineConfig;
+import org.vitrivr.cineast.standalone.monitoring.ExtractionStageMonitor;
 import org.vitrivr.cineast.standalone.monitoring.PrometheusExtractionTaskMonitor;
 
+import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class ExtractionPipeline implements Runnable, ExecutionTimeCounter {
@@ -33,6 +36,9 @@ public class ExtractionPipeline implements Runnable, ExecutionTimeCounter {
     /** ExecutorService used do execute the ExtractionTasks. */
     private final ExecutorService executorService;
 
+    /** Maximum number of segments handed to an Extractor at once. */
+    private final int batchSize;
+
     /** ExtractionContextProvider used to setup the Pipeline. It contains information about the Extractors. */
     private final ExtractionContextProvider context;
     
@@ -55,6 +61,7 @@ public ExtractionPipeline(ExtractionContextProvider context) {
         int taskQueueSize =  context.taskQueueSize() > 0 ? context.taskQueueSize() : ExtractionPipelineConfig.DEFAULT_TASKQUEUE_SIZE;
         int threadCount = context.threadPoolSize() > 0 ? context.threadPoolSize() : ExtractionPipelineConfig.DEFAULT_THREADPOOL_SIZE;
         int segmentQueueSize = context.segmentQueueSize() > 0 ? context.segmentQueueSize() : ExtractionPipelineConfig.DEFAULT_SEGMENTQUEUE_SIZE;
+        this.batchSize = context.extractionBatchSize() > 0 ? context.extractionBatchSize() : ExtractionPipelineConfig.DEFAULT_EXTRACTION_BATCH_SIZE;
 
         /* Initialize the segment queue. */
         this.segmentQueue = new LinkedBlockingQueue<>(segmentQueueSize);
@@ -135,18 +142,42 @@ public void run() {
             }
             try {
                 SegmentContainer s = this.segmentQueue.poll(500, TimeUnit.MILLISECONDS);
+                ExtractionStageMonitor.reportQueueSize(ExtractionStageMonitor.STAGE_EXTRACT, this.segmentQueue.size());
                 if (s != null) {
-                    LOGGER.debug("Segment {} is being handed to the extraction pipeline.", s.getId());
+                    /* Take further segments that are already waiting along, if batching is enabled. */
+                    final List<SegmentContainer> batch = new ArrayList<>(this.batchSize);
+                    batch.add(s);
+                    if (this.batchSize > 1) {
+                        this.segmentQueue.drainTo(batch, this.batchSize - 1);
+                    }
+                    LOGGER.debug("{} segment(s) starting with segment {} are being handed to the extraction pipeline.", batch.size(), s.getId());
+
+                    /*
+                     * Derived data shared by the extractors (e.g. STFTs) and the frame buffers are released once the last of them has finished.
+                     * The dispatcher holds one additional share while submitting, so that the batch is also released if no task has been submitted.
+                     */
+                    final int count = this.extractors.size();
+                    final AtomicInteger pending = new AtomicInteger(count + 1);
+                    final Runnable release = () -> {
+                        if (pending.decrementAndGet() == 0) {
+                            release(batch);
+                        }
+                    };
+                    int submitted = 0;
                     for (Extractor f : extractors) {
                         try {
-                            this.executorService.execute(new ExtractionTask(f, s, this));
-                            LOGGER.debug("Submitted segment {} for feature {}", s.getId(), f.getClass().getSimpleName());
+                            this.executorService.execute(new ExtractionTask(f, batch, this, release));
+                            submitted += 1;
+                            LOGGER.debug("Submitted {} segment(s) starting with segment {} for feature {}", batch.size(), s.getId(), f.getClass().getSimpleName());
                         } catch (RejectedExecutionException e) {
                             this.segmentQueue.clear();
-                            LOGGER.fatal("Failed to submit segment {} for feature {}. Aborting...\n{}", s.getId(), f.getClass().getSimpleName(), LogHelper.getStackTrace(e));
+                            LOGGER.fatal("Failed to submit {} segment(s) starting with segment {} for feature {}. Aborting...\n{}", batch.size(), s.getId(), f.getClass().getSimpleName(), LogHelper.getStackTrace(e));
                             break;
                         }
                     }
+                    if (pending.addAndGet(-(count - submitted + 1)) == 0) {
+                        release(batch);
+                    }
 
                     /* Sort list of extractors by execution time. */
                     (this.extractors).sort((o1,o2) -> Long.compare(getAverageExecutionTime(o2.getClass().getSimpleName()), getAverageExecutionTime(o1.getClass().getSimpleName())));
@@ -161,6 +192,18 @@ public void run() {
         synchronized (this) { this.running = false; }
     }
 
+    /**
+     * Releases the derived data and the frame buffers of the provided segments.
+     *
+     * @param batch Segments whose extraction has finished or has been aborted.
+     */
+    private static void release(List<SegmentContainer> batch) {
+        for (SegmentContainer segment : batch) {
+            segment.releaseSTFT();
+            segment.releaseFrames();
+        }
+    }
+
     /**
      * Starts the ExtractionPipeline by initializing the Extractors.
      */
@@ -1,5 +1,6 @@
 package org.vitrivr.cineast.standalone.runtime;
 
+import java.util.List;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.vitrivr.cineast.core.data.segments.SegmentContainer;
@@ -9,31 +10,47 @@
 class ExtractionTask implements Runnable {
 
   private final Extractor feature;
-  private final SegmentContainer shot;
+  private final List<SegmentContainer> shots;
   private final ExecutionTimeCounter etc;
+  private final Runnable onFinish;
   private static final Logger LOGGER = LogManager.getLogger();
 
-  ExtractionTask(Extractor feature, SegmentContainer shot, ExecutionTimeCounter etc) {
+  /**
+   * @param feature  The {@link Extractor} to run.
+   * @param shots    The segments to process. If there is more than one, they are handed to the {@link Extractor} as a batch.
+   * @param etc      Receives the execution time per segment. Can be null.
+   * @param onFinish Invoked once the {@link Extractor} has finished, even if it failed. Can be null.
+   */
+  ExtractionTask(Extractor feature, List<SegmentContainer> shots, ExecutionTimeCounter etc, Runnable onFinish) {
     this.feature = feature;
-    this.shot = shot;
+    this.shots = shots;
     this.etc = etc;
+    this.onFinish = onFinish;
   }
 
   @Override
   public void run() {
     LOGGER.traceEntry();
-    LOGGER.debug("Starting {} on segmentId {}", feature.getClass().getSimpleName(), shot.getId());
+    LOGGER.debug("Starting {} on {} segment(s) starting with segmentId {}", feature.getClass().getSimpleName(), shots.size(), shots.get(0).getId());
     long start = System.currentTimeMillis();
     try {
-      feature.processSegment(shot);
+      if (shots.size() == 1) {
+        feature.processSegment(shots.get(0));
+      } else {
+        feature.processSegments(shots);
+      }
     } catch (Exception e) {
-      LOGGER.fatal("EXTRACTION ERROR in {}: for segmentID {} \n{}", feature.getClass().getSimpleName(), shot.getId(), LogHelper.getStackTrace(e));
+      LOGGER.fatal("EXTRACTION ERROR in {}: for {} segment(s) starting with segmentID {} \n{}", feature.getClass().getSimpleName(), shots.size(), shots.get(0).getId(), LogHelper.getStackTrace(e));
+    } finally {
+      if (this.onFinish != null) {
+        this.onFinish.run();
+      }
     }
     long stop = System.currentTimeMillis();
     if (this.etc != null) {
-      this.etc.reportExecutionTime(this.feature.getClass().getSimpleName(), (stop - start));
+      this.etc.reportExecutionTime(this.feature.getClass().getSimpleName(), (stop - start) / shots.size());
     }
-    LOGGER.debug("Finished {} on segmentID {} in {} ms", feature.getClass().getSimpleName(), shot.getId(), (stop - start));
+    LOGGER.debug("Finished {} on {} segment(s) starting with segmentID {} in {} ms", feature.getClass().getSimpleName(), shots.size(), shots.get(0).getId(), (stop - start));
     LOGGER.traceExit();
   }
 
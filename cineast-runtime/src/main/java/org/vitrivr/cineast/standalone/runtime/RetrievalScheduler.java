@@ -0,0 +1,239 @@
+package org.vitrivr.cineast.standalone.runtime;
+
+import java.util.ArrayDeque;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.standalone.monitoring.RetrievalTaskMonitor;
+
+/**
+ * Executes the {@link RetrievalTask}s of concurrent queries on a shared pool of worker threads.
+ * <p>
+ * Every query submits its tasks through its own {@link Session}. Whenever a worker becomes available, the next task is taken from the sessions with pending tasks in round-robin order, and a single session never runs more than a fixed number of tasks at the same time. Hence, a query with many retrievers cannot starve queries that arrive after it.
+ */
+public final class RetrievalScheduler {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private static final int KEEP_ALIVE_TIME = 60;
+
+  /**
+   * The pool of worker threads. Tasks are only handed to it when a worker is available, so its queue never grows beyond the number of threads.
+   */
+  private final ThreadPoolExecutor workers;
+
+  /**
+   * Number of worker threads.
+   */
+  private final int threadCount;
+
+  /**
+   * Maximum number of tasks a single {@link Session} may run at the same time.
+   */
+  private final int maxRunningPerSession;
+
+  /**
+   * Maximum number of tasks a single {@link Session} may have queued; further submissions block.
+   */
+  private final int maxQueuedPerSession;
+
+  /**
+   * {@link Session}s that have pending tasks and may run another one, in dispatch order.
+   */
+  private final ArrayDeque<Session> ready = new ArrayDeque<>();
+
+  /**
+   * Number of tasks that are currently running.
+   */
+  private int running = 0;
+
+  /**
+   * Number of tasks that are queued across all {@link Session}s.
+   */
+  private int queued = 0;
+
+  /**
+   * Flag indicating that this {@link RetrievalScheduler} has been shut down.
+   */
+  private boolean shutdown = false;
+
+  /**
+   * @param threadCount          Number of worker threads.
+   * @param maxRunningPerSession Maximum number of tasks a single query may run at the same time; values {@code <= 0} mean no limit besides the number of threads.
+   * @param maxQueuedPerSession  Maximum number of tasks a single query may have queued; values {@code <= 0} mean no limit.
+   */
+  public RetrievalScheduler(int threadCount, int maxRunningPerSession, int maxQueuedPerSession) {
+    this.threadCount = threadCount;
+    this.maxRunningPerSession = maxRunningPerSession > 0 ? Math.min(maxRunningPerSession, threadCount) : threadCount;
+    this.maxQueuedPerSession = maxQueuedPerSession > 0 ? maxQueuedPerSession : Integer.MAX_VALUE;
+    this.workers = new ThreadPoolExecutor(threadCount, threadCount, KEEP_ALIVE_TIME, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+  }
+
+  /**
+   * Opens a new {@link Session}, which should be used for the tasks of a single query.
+   *
+   * @return {@link Session}
+   */
+  public Session newSession() {
+    return new Session();
+  }
+
+  /**
+   * @return Number of tasks that are queued across all queries.
+   */
+  public synchronized int getQueueDepth() {
+    return this.queued;
+  }
+
+  /**
+   * @return Number of tasks that are currently running.
+   */
+  public synchronized int getRunning() {
+    return this.running;
+  }
+
+  public boolean isShutdown() {
+    return this.workers.isShutdown();
+  }
+
+  /**
+   * Shuts this {@link RetrievalScheduler} down. Queued tasks are discarded; running tasks are given ten seconds to complete.
+   */
+  public void shutdown() {
+    synchronized (this) {
+      this.shutdown = true;
+      if (this.queued > 0) {
+        LOGGER.warn("{} queued retrieval tasks discarded", this.queued);
+      }
+      this.ready.clear();
+      this.queued = 0;
+      this.notifyAll();
+    }
+    this.workers.shutdown();
+    try {
+      this.workers.awaitTermination(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    List<Runnable> runnables = this.workers.shutdownNow();
+    if (runnables.size() > 0) {
+      LOGGER.warn("{} threads terminated prematurely", runnables.size());
+    }
+  }
+
+  /**
+   * Adds a task to the queue of the given {@link Session}. Blocks while the queue of that {@link Session} is full.
+   */
+  private synchronized void enqueue(Session session, Runnable task) {
+    while (!this.shutdown && session.pending.size() >= this.maxQueuedPerSession) {
+      try {
+        this.wait();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new RejectedExecutionException("Interrupted while waiting to submit retrieval task.");
+      }
+    }
+    if (this.shutdown) {
+      throw new RejectedExecutionException("Retrieval scheduler has been shut down.");
+    }
+    session.pending.add(new QueuedTask(task));
+    this.queued++;
+    this.markReady(session);
+    this.dispatch();
+    RetrievalTaskMonitor.reportQueueDepth(this.queued);
+  }
+
+  /**
+   * Hands queued tasks to the workers for as long as there are idle workers and sessions that may run another task. Must be called while holding the lock.
+   */
+  private void dispatch() {
+    boolean dequeued = false;
+    while (!this.shutdown && this.running < this.threadCount && !this.ready.isEmpty()) {
+      final Session session = this.ready.poll();
+      session.ready = false;
+      final QueuedTask task = session.pending.poll();
+      session.running++;
+      this.running++;
+      this.queued--;
+      dequeued = true;
+      this.markReady(session);
+      this.workers.execute(() -> this.run(session, task));
+    }
+    if (dequeued) {
+      this.notifyAll();
+      RetrievalTaskMonitor.reportQueueDepth(this.queued);
+    }
+  }
+
+  /**
+   * Appends the given {@link Session} to the dispatch order if it has pending tasks and may run another one. Must be called while holding the lock.
+   */
+  private void markReady(Session session) {
+    if (!session.ready && !session.pending.isEmpty() && session.running < this.maxRunningPerSession) {
+      session.ready = true;
+      this.ready.add(session);
+    }
+  }
+
+  private void run(Session session, QueuedTask task) {
+    RetrievalTaskMonitor.reportWaitTime(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - task.enqueued));
+    try {
+      task.task.run();
+    } finally {
+      synchronized (this) {
+        session.running--;
+        this.running--;
+        this.markReady(session);
+        this.dispatch();
+      }
+    }
+  }
+
+  /**
+   * A task waiting in the queue of a {@link Session}.
+   */
+  private static final class QueuedTask {
+
+    private final Runnable task;
+
+    private final long enqueued = System.nanoTime();
+
+    private QueuedTask(Runnable task) {
+      this.task = task;
+    }
+  }
+
+  /**
+   * The queue of a single query. Tasks submitted through {@link #execute(Runnable)} are run on the workers of the enclosing {@link RetrievalScheduler}, interleaved with the tasks of all other sessions.
+   */
+  public final class Session implements Executor {
+
+    /**
+     * Tasks of this {@link Session} that have not been started yet.
+     */
+    private final ArrayDeque<QueuedTask> pending = new ArrayDeque<>();
+
+    /**
+     * Number of tasks of this {@link Session} that are currently running.
+     */
+    private int running = 0;
+
+    /**
+     * Flag indicating that this {@link Session} is part of the dispatch order.
+     */
+    private boolean ready = false;
+
+    private Session() {
+    }
+
+    @Override
+    public void execute(Runnable command) {
+      RetrievalScheduler.this.enqueue(this, command);
+    }
+  }
+}
@@ -0,0 +1,164 @@
+package org.vitrivr.cineast.standalone.runtime;
+
+import gnu.trove.map.hash.TObjectDoubleHashMap;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.vitrivr.cineast.core.features.retriever.Retriever;
+import org.vitrivr.cineast.core.features.retriever.RetrieverInitializer;
+import org.vitrivr.cineast.core.util.LogHelper;
+import org.vitrivr.cineast.standalone.config.RetrievalRuntimeConfig;
+import org.vitrivr.cineast.standalone.config.RetrieverConfig;
+
+/**
+ * Keeps initialized {@link Retriever} instances for reuse across queries. A borrowed {@link Retriever} is used by a single query at a time and must be handed back by means of {@link #release(Retriever)} once that query no longer uses it.
+ * <p>
+ * Up to a configurable number of idle instances is kept per {@link RetrieverConfig}; surplus instances are finished upon release.
+ */
+public final class RetrieverPool {
+
+  private static final Logger LOGGER = LogManager.getLogger();
+
+  private final RetrievalRuntimeConfig config;
+
+  private final RetrieverInitializer initializer;
+
+  /**
+   * Maximum number of idle instances per {@link RetrieverConfig}.
+   */
+  private final int maxIdle;
+
+  /**
+   * Idle, initialized instances by the {@link RetrieverConfig} they were created from.
+   */
+  private final Map<RetrieverConfig, ConcurrentLinkedDeque<Retriever>> idle = new ConcurrentHashMap<>();
+
+  /**
+   * The {@link RetrieverConfig} every borrowed instance was created from.
+   */
+  private final Map<Retriever, RetrieverConfig> borrowed = Collections.synchronizedMap(new IdentityHashMap<>());
+
+  private volatile boolean closed = false;
+
+  /**
+   * @param config      The {@link RetrievalRuntimeConfig} that lists the available retrievers.
+   * @param initializer Used to initialize newly created instances.
+   * @param maxIdle     Maximum number of idle instances kept per configured retriever.
+   */
+  public RetrieverPool(RetrievalRuntimeConfig config, RetrieverInitializer initializer, int maxIdle) {
+    this.config = config;
+    this.initializer = initializer;
+    this.maxIdle = maxIdle;
+  }
+
+  /**
+   * Borrows one initialized instance of every retriever of the given category.
+   *
+   * @return Map of the borrowed {@link Retriever}s to their weights; empty if the category is unknown.
+   */
+  public TObjectDoubleHashMap<Retriever> borrowCategory(String category) {
+    final List<RetrieverConfig> configs = this.config.getRetrieverConfigsByCategory(category);
+    final TObjectDoubleHashMap<Retriever> _return = new TObjectDoubleHashMap<>(Math.max(1, configs.size()));
+    for (RetrieverConfig retrieverConfig : configs) {
+      final Retriever retriever = this.borrow(retrieverConfig);
+      if (retriever != null) {
+        _return.put(retriever, retrieverConfig.getWeight());
+      }
+    }
+    return _return;
+  }
+
+  /**
+   * Borrows an initialized instance of the retriever with the given name.
+   */
+  public Optional<Retriever> borrowByName(String retrieverName) {
+    return this.config.getRetrieverConfigByName(retrieverName).map(this::borrow);
+  }
+
+  /**
+   * Hands a borrowed {@link Retriever} back to this pool. Instances that were not borrowed from this pool and instances that exceed the number of idle instances are finished instead.
+   */
+  public void release(Retriever retriever) {
+    final RetrieverConfig retrieverConfig = this.borrowed.remove(retriever);
+    if (retrieverConfig == null || this.closed) {
+      retriever.finish();
+      return;
+    }
+    final ConcurrentLinkedDeque<Retriever> instances = this.idle.computeIfAbsent(retrieverConfig, c -> new ConcurrentLinkedDeque<>());
+    if (instances.size() < this.maxIdle) {
+      instances.push(retriever);
+    } else {
+      retriever.finish();
+    }
+  }
+
+  /**
+   * Creates and initializes one instance of every configured retriever, so that the first queries do not have to.
+   */
+  public void warmUp() {
+    final long start = System.currentTimeMillis();
+    int count = 0;
+    for (String category : this.config.getRetrieverCategories()) {
+      for (RetrieverConfig retrieverConfig : this.config.getRetrieverConfigsByCategory(category)) {
+        final ConcurrentLinkedDeque<Retriever> instances = this.idle.computeIfAbsent(retrieverConfig, c -> new ConcurrentLinkedDeque<>());
+        if (!instances.isEmpty() || this.maxIdle < 1) {
+          continue;
+        }
+        final Retriever retriever = this.create(retrieverConfig);
+        if (retriever != null) {
+          instances.push(retriever);
+          count += 1;
+        }
+      }
+    }
+    LOGGER.info("Warmed up {} retrievers in {} ms.", count, System.currentTimeMillis() - start);
+  }
+
+  /**
+   * Finishes all idle instances. Instances that are still borrowed are finished upon release.
+   */
+  public void close() {
+    this.closed = true;
+    for (ConcurrentLinkedDeque<Retriever> instances : this.idle.values()) {
+      Retriever retriever;
+      while ((retriever = instances.poll()) != null) {
+        retriever.finish();
+      }
+    }
+  }
+
+  private Retriever borrow(RetrieverConfig retrieverConfig) {
+    Retriever retriever = null;
+    final ConcurrentLinkedDeque<Retriever> instances = this.idle.get(retrieverConfig);
+    if (instances != null) {
+      retriever = instances.poll();
+    }
+    if (retriever == null) {
+      retriever = this.create(retrieverConfig);
+    }
+    if (retriever != null) {
+      this.borrowed.put(retriever, retrieverConfig);
+    }
+    return retriever;
+  }
+
+  private Retriever create(RetrieverConfig retrieverConfig) {
+    final Retriever retriever = retrieverConfig.newInstance();
+    if (retriever == null) {
+      return null;
+    }
+    try {
+      this.initializer.initialize(retriever);
+      return retriever;
+    } catch (Exception e) {
+      LOGGER.error("Failed to initialize retriever {}: {}", retrieverConfig.getRetrieverClass().getSimpleName(), LogHelper.getStackTrace(e));
+      return null;
+    }
+  }
+}
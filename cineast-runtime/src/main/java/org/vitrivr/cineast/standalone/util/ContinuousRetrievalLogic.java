@@ -13,10 +13,12 @@
 import org.vitrivr.cineast.standalone.config.Config;
 import org.vitrivr.cineast.standalone.listener.RetrievalResultListener;
 import org.vitrivr.cineast.standalone.runtime.ContinuousQueryDispatcher;
+import org.vitrivr.cineast.standalone.runtime.RetrieverPool;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 public class ContinuousRetrievalLogic {
 
@@ -24,32 +26,53 @@ public class ContinuousRetrievalLogic {
   private final DatabaseConfig config;
   private final RetrieverInitializer initializer;
   private final MediaSegmentReader segmentReader;
+  private final RetrieverPool retrieverPool;
+
+  /** Initializer for retrievers borrowed from the {@link RetrieverPool}, which are initialized already. */
+  private static final RetrieverInitializer POOLED = r -> {
+  };
 
   public ContinuousRetrievalLogic(DatabaseConfig config){
     this.config = config;
     this.initializer = r -> r.init(this.config.getSelectorSupplier());
     this.segmentReader = new MediaSegmentReader(this.config.getSelectorSupplier().get());
+    this.retrieverPool = new RetrieverPool(Config.sharedConfig().getRetriever(), this.initializer, Config.sharedConfig().getRetriever().getRetrieverPoolSize());
+  }
+
+  /**
+   * Creates and initializes one instance of every configured retriever ahead of the first query.
+   */
+  public void warmUp() {
+    this.retrieverPool.warmUp();
   }
 
   public List<SegmentScoreElement> retrieve(AbstractQueryTermContainer qc, String category,
       ReadableQueryConfig config) {
-    TObjectDoubleHashMap<Retriever> retrievers = Config.sharedConfig().getRetriever()
-        .getRetrieversByCategory(category);
+    return this.retrieve(qc, category, config, null);
+  }
+
+  /**
+   * Performs retrieval analogous to {@link #retrieve(AbstractQueryTermContainer, String, ReadableQueryConfig)}, reporting provisional results while the retrievers of the category complete.
+   *
+   * @param progress Invoked with provisional results whenever a retriever completes while others are still running. May be null.
+   */
+  public List<SegmentScoreElement> retrieve(AbstractQueryTermContainer qc, String category,
+      ReadableQueryConfig config, Consumer<List<SegmentScoreElement>> progress) {
+    TObjectDoubleHashMap<Retriever> retrievers = this.retrieverPool.borrowCategory(category);
     if (retrievers.isEmpty()) {
       LOGGER.warn("Empty retriever list: \n query {} \n category {} \n config {}\n returning no results", qc, category, config);
       return new ArrayList<>(0);
     }
-    return ContinuousQueryDispatcher.retrieve(qc, retrievers, initializer, config, this.segmentReader);
+    return ContinuousQueryDispatcher.retrieve(qc, retrievers, POOLED, this.retrieverPool::release, progress, config, this.segmentReader);
   }
 
   public List<SegmentScoreElement> retrieve(String segmentId, String category, ReadableQueryConfig config) {
-    TObjectDoubleHashMap<Retriever> retrievers = Config.sharedConfig().getRetriever()
-        .getRetrieversByCategory(category);
+    TObjectDoubleHashMap<Retriever> retrievers = this.retrieverPool.borrowCategory(category);
     if (retrievers.isEmpty()) {
       LOGGER.warn("Empty retriever list for segmentID {}, category {} and config {}, returning no results", segmentId, category, config);
       return new ArrayList<>(0);
     }
-    return ContinuousQueryDispatcher.retrieve(segmentId, retrievers, initializer, config, this.segmentReader);
+    return ContinuousQueryDispatcher.retrieve(segmentId, retrievers, POOLED, this.retrieverPool::release, config, this.segmentReader);
   }
 
   /**
@@ -59,12 +82,13 @@ public List<SegmentScoreElement> retrieve(String segmentId, String category, Rea
    */
   public List<SegmentScoreElement> retrieveByRetrieverName(String segmentId, String retrieverName,
       ReadableQueryConfig config) {
-    Optional<Retriever> retriever = Config.sharedConfig().getRetriever()
-        .getRetrieverByName(retrieverName);
+    Optional<Retriever> retriever = this.retrieverPool.borrowByName(retrieverName);
     if (!retriever.isPresent()) {
       return new ArrayList<>(0);
     }
-    return retrieveByRetriever(segmentId, retriever.get(), config);
+    TObjectDoubleHashMap<Retriever> map = new TObjectDoubleHashMap<>();
+    map.put(retriever.get(), 1d);
+    return ContinuousQueryDispatcher.retrieve(segmentId, map, POOLED, this.retrieverPool::release, config, this.segmentReader);
   }
 
   public List<SegmentScoreElement> retrieveByRetriever(String segmentId, Retriever retriever,
@@ -85,12 +109,13 @@ public List<SegmentScoreElement> retrieveByRetriever(AbstractQueryTermContainer
   public List<SegmentScoreElement> retrieveByRetrieverName(AbstractQueryTermContainer qc,
       String retrieverName,
       ReadableQueryConfig config) {
-    Optional<Retriever> retriever = Config.sharedConfig().getRetriever()
-        .getRetrieverByName(retrieverName);
+    Optional<Retriever> retriever = this.retrieverPool.borrowByName(retrieverName);
     if (!retriever.isPresent()) {
       return new ArrayList<>(0);
     }
-    return retrieveByRetriever(qc, retriever.get(), config);
+    TObjectDoubleHashMap<Retriever> map = new TObjectDoubleHashMap<>();
+    map.put(retriever.get(), 1d);
+    return ContinuousQueryDispatcher.retrieve(qc, map, POOLED, this.retrieverPool::release, config, this.segmentReader);
   }
 
   public void addRetrievalResultListener(RetrievalResultListener listener) {
@@ -103,6 +128,7 @@ public void removeRetrievalResultListener(RetrievalResultListener listener) {
 
   public void shutdown() {
     ContinuousQueryDispatcher.shutdown();
+    this.retrieverPool.close();
     segmentReader.close();
   }
 }